@@ -39,6 +39,18 @@ android {
     kotlinOptions {
         jvmTarget = "17"
     }
+
+    // ✅ JMH benchmarks (*Benchmark) live in src/benchmark and reuse the unit tests' sample data
+    sourceSets {
+        getByName("test").java.srcDir("src/benchmark/java")
+    }
+}
+
+// Benchmarks only run on request: ./gradlew testDebugUnitTest -Pbenchmarks --tests '*BenchmarkRunner'
+// (-Pjmh.include=SnapshotMappers runs a subset); results land in app/build/reports/jmh/results.json
+tasks.withType<Test>().configureEach {
+    if (!project.hasProperty("benchmarks")) exclude("**/*Benchmark*")
+    project.findProperty("jmh.include")?.let { systemProperty("jmh.include", it) }
 }
 
 dependencies {
@@ -50,6 +62,8 @@ dependencies {
     implementation(libs.play.services.location)
     implementation(libs.play.services.maps)
     testImplementation(libs.junit)
+    testImplementation(libs.jmh.core)
+    kaptTest(libs.jmh.generator.annprocess) // kapt runs the module's Java annotation processors too
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 
@@ -0,0 +1,174 @@
+package com.example.pizzamaniaapp;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the hand-written mappers against DataSnapshot.getValue(Class) field by field, on real
+ * snapshots. The database is taken offline, so each record is only a local write that raises its
+ * own event; the writes are purged afterwards and never reach the server.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SnapshotMappersInstrumentedTest {
+
+    private FirebaseDatabase database;
+    private DatabaseReference scratch;
+
+    @Before
+    public void offline() {
+        database = FirebaseDatabase.getInstance();
+        database.goOffline();
+        scratch = database.getReference("instrumentedTests").push();
+    }
+
+    @After
+    public void discardWrites() {
+        database.purgeOutstandingWrites();
+    }
+
+    @Test
+    public void menuItem_matchesGetValue() throws Exception {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("menuID", "m007");
+        raw.put("name", "Pizza 7");
+        raw.put("category", "Pizza");
+        raw.put("description", "Hand-tossed crust with mozzarella");
+        raw.put("imageURL", "https://img/m7.jpg");
+        raw.put("price", 1457.5);
+        raw.put("branches", new ArrayList<>(Arrays.asList("b001", "b003")));
+        DataSnapshot snapshot = snapshotOf(raw);
+
+        assertSameFields(snapshot.getValue(CustomerHomeActivity.MenuItem.class), SnapshotMappers.menuItem(snapshot.getValue()));
+        assertSameFields(snapshot.getValue(AdminHomeActivity.MenuItem.class), SnapshotMappers.adminMenuItem(snapshot.getValue()));
+    }
+
+    @Test
+    public void branch_matchesGetValue() throws Exception {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("branchID", "b002");
+        raw.put("name", "Colombo");
+        raw.put("latitude", 6.9271);
+        raw.put("longitude", 79.8612);
+        raw.put("contact", 112345678L);
+        DataSnapshot snapshot = snapshotOf(raw);
+
+        assertSameFields(snapshot.getValue(CustomerHomeActivity.Branch.class), SnapshotMappers.branch(snapshot.getValue()));
+        assertSameFields(snapshot.getValue(AdminBranchEmployeeManagementActivity.Branch.class),
+                SnapshotMappers.staffBranch(snapshot.getValue()));
+    }
+
+    @Test
+    public void staff_matchesGetValue() throws Exception {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("employeeID", "e004");
+        raw.put("branchID", "b001");
+        raw.put("name", "Nimal Perera");
+        raw.put("email", "nimal@pizzamania.lk");
+        raw.put("address", "12 Main Street, Galle");
+        raw.put("userID", "u021");
+        raw.put("password", "secret");
+        raw.put("contact", 771234567L);
+        DataSnapshot snapshot = snapshotOf(raw);
+        assertSameFields(snapshot.getValue(AdminBranchEmployeeManagementActivity.Employee.class),
+                SnapshotMappers.employee(snapshot.getValue()));
+
+        raw.remove("employeeID");
+        raw.put("delID", "d002");
+        raw.put("status", "Available");
+        snapshot = snapshotOf(raw);
+        assertSameFields(snapshot.getValue(AdminDeliverymanManagement.Deliveryman.class),
+                SnapshotMappers.deliveryman(snapshot.getValue()));
+    }
+
+    @Test
+    public void orderSummary_matchesGetValue() throws Exception {
+        Map<String, Object> raw = new HashMap<>(); // verbose layout, the only one getValue(Class) understands
+        raw.put("branchID", "b001");
+        raw.put("customerID", "u3");
+        raw.put("customerName", "Customer 3");
+        raw.put("customerLat", 6.9003);
+        raw.put("customerLng", 79.8003);
+        raw.put("status", "Preparing");
+        raw.put("paymentStatus", "Pending");
+        raw.put("totalPrice", 2903.0);
+        raw.put("timestamp", 1760000000003L);
+        raw.put("itemCount", 4L);
+        DataSnapshot snapshot = snapshotOf(raw);
+
+        OrderSummary reflective = snapshot.getValue(OrderSummary.class);
+        OrderSummary mapped = WireFormat.summaryFromWire(snapshot.getKey(), WireFormat.asMap(snapshot.getValue()));
+        assertEquals(reflective.getBranchID(), mapped.getBranchID());
+        assertEquals(reflective.getCustomerID(), mapped.getCustomerID());
+        assertEquals(reflective.getCustomerName(), mapped.getCustomerName());
+        assertEquals(reflective.getCustomerLat(), mapped.getCustomerLat(), 0);
+        assertEquals(reflective.getStatus(), mapped.getStatus());
+        assertEquals(reflective.getPaymentStatus(), mapped.getPaymentStatus());
+        assertEquals(reflective.getTotalPrice(), mapped.getTotalPrice(), 0);
+        assertEquals(reflective.getTimestamp(), mapped.getTimestamp());
+        assertEquals(reflective.getItemCount(), mapped.getItemCount());
+    }
+
+    // ---------------------------------------------------------------------
+
+    // Writes the record locally and returns the snapshot its listener receives
+    private DataSnapshot snapshotOf(Map<String, Object> raw) throws InterruptedException {
+        DatabaseReference ref = scratch.push();
+        ref.setValue(raw);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<DataSnapshot> result = new AtomicReference<>();
+        ref.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                result.set(snapshot);
+                done.countDown();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                done.countDown();
+            }
+        });
+        assertTrue("no snapshot for the local write", done.await(10, TimeUnit.SECONDS));
+        assertNotNull(result.get());
+        return result.get();
+    }
+
+    // Compares every public instance field of two model objects
+    // (the BranchSet fields only exist in the hand-written path, see SnapshotMappersTest)
+    private static void assertSameFields(Object expected, Object actual) {
+        assertNotNull(expected);
+        assertNotNull(actual);
+        assertEquals(expected.getClass(), actual.getClass());
+        for (Field field : expected.getClass().getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.getType() == BranchSet.class) continue;
+            try {
+                assertEquals(field.getName(), field.get(expected), field.get(actual));
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
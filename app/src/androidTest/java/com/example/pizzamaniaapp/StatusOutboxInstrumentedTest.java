@@ -0,0 +1,138 @@
+package com.example.pizzamaniaapp;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the outbox's SQLite table on a real database: a queued transition comes back from a
+ * "restart" (a fresh Store on the same file) able to write exactly what it would have, dead
+ * letters stay out of the replay, and rows an earlier version left half sent are replayed with
+ * what they still owe. Uses its own database file, deleted before and after.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StatusOutboxInstrumentedTest {
+
+    private static final String DB_NAME = "statusOutboxTest.db";
+
+    private Context context;
+    private StatusOutbox.Store store;
+
+    @Before
+    public void emptyStore() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        store = new StatusOutbox.Store(context, DB_NAME);
+    }
+
+    @After
+    public void deleteStore() {
+        store.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void queuedTransition_survivesARestart() {
+        StatusTransitions.Transition transition = StatusTransitions.completeDelivery(order(), 1700000000000L, "trace-text");
+        store.put(entry(transition, 100L, StatusOutbox.Entry.QUEUED));
+
+        List<StatusOutbox.Entry> live = restart().live();
+        assertEquals(1, live.size());
+        StatusOutbox.Entry replayed = live.get(0);
+        assertEquals(StatusTransitions.KIND_COMPLETE_DELIVERY, replayed.kind);
+        assertEquals("Completed", replayed.label);
+        assertEquals(StatusOutbox.Entry.QUEUED, replayed.stage);
+
+        // The same update as before the restart, payment, path and estimate removal included
+        Map<String, Object> row = row("Delivering", "Pending");
+        assertEquals(transition.update(row), replayed.transition.update(row));
+        assertTrue(replayed.transition.update(row).containsKey("payments/o001/amount"));
+        assertEquals("trace-text", replayed.transition.update(row).get(TraceCodec.ORDER_TRACES + "/o001"));
+
+        // Replayed after its update landed: the row already shows it, so nothing is sent again
+        Map<String, Object> landed = row("Completed", "Paid");
+        landed.put(WireFormat.DELIVERED_TIMESTAMP, 1700000000000L);
+        assertTrue(replayed.transition.applied(landed));
+    }
+
+    @Test
+    public void deadLetters_stayOut_andHalfSentRowsComeBack() {
+        StatusOutbox.Entry dead = entry(StatusTransitions.completeDelivery(order(), 1L), 100L, StatusOutbox.Entry.QUEUED);
+        dead.deadReason = "the order is Cancelled now";
+        store.put(dead);
+
+        Map<String, Object> owed = new HashMap<>();
+        owed.put("payments/o002/amount", 2450.0);
+        store.put(new StatusOutbox.Entry(StatusTransitions.KIND_COMPLETE_DELIVERY, "o002", "Completed", null,
+                owed, 200L, 200L, 3, StatusOutbox.Entry.COMMITTED));
+
+        List<StatusOutbox.Entry> live = restart().live();
+        assertEquals(1, live.size());
+        assertEquals("o002", live.get(0).orderID);
+        assertEquals(StatusOutbox.Entry.COMMITTED, live.get(0).stage);
+        assertEquals(2450.0, live.get(0).updates.get("payments/o002/amount"));
+        assertEquals(3, live.get(0).attempts);
+    }
+
+    @Test
+    public void replacedEntry_isNotDeletedByTheOneItReplaced() {
+        StatusOutbox.Entry first = entry(StatusTransitions.completeDelivery(order(), 1L), 100L, StatusOutbox.Entry.QUEUED);
+        StatusOutbox.Entry second = entry(StatusTransitions.completeDelivery(order(), 2L), 200L, StatusOutbox.Entry.QUEUED);
+        store.put(first);
+        store.put(second); // same kind and order: replaces the row
+
+        store.delete(first); // the first one's send finishing late
+        List<StatusOutbox.Entry> live = store.live();
+        assertEquals(1, live.size());
+        assertEquals(200L, live.get(0).createdAt);
+
+        store.delete(second);
+        assertTrue(store.live().isEmpty());
+    }
+
+    // ---------------------------------------------------------------------
+
+    private StatusOutbox.Store restart() {
+        store.close();
+        store = new StatusOutbox.Store(context, DB_NAME);
+        return store;
+    }
+
+    private static StatusOutbox.Entry entry(StatusTransitions.Transition transition, long createdAt, int stage) {
+        return new StatusOutbox.Entry(StatusTransitions.KIND_COMPLETE_DELIVERY, transition.orderID, transition.label,
+                transition, new HashMap<>(), createdAt, createdAt + StatusTransitions.UNDO_WINDOW_MS, 0, stage);
+    }
+
+    private static DeliverymanHomeActivity.DeliveryItem order() {
+        DeliverymanHomeActivity.DeliveryItem order = new DeliverymanHomeActivity.DeliveryItem();
+        order.orderID = "o001";
+        order.branchID = "b001";
+        order.assignedDeliverymanID = "d004";
+        order.customerID = "u001";
+        order.customerName = "Nimal";
+        order.totalPrice = 2450.0;
+        order.paymentStatus = "Pending";
+        return order;
+    }
+
+    private static Map<String, Object> row(String status, String paymentStatus) {
+        Map<String, Object> row = new HashMap<>();
+        row.put(WireFormat.BRANCH_ID, "b001");
+        row.put(WireFormat.STATUS, status);
+        row.put(WireFormat.PAYMENT_STATUS, paymentStatus);
+        row.put(WireFormat.DELIVERYMAN_ID, "d004");
+        return row;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.pizzamaniaapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-queries a 20-branch, 5,000-menu admin catalog (not a frame-time measurement, that needs a
+ * device). Each operation is one parsed and answered query, to compare against the ~1 ms budget.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AdminCatalogBenchmark {
+
+    private AdminCatalog catalog;
+
+    @Setup
+    public void catalog() {
+        catalog = AdminCatalogTest.largeCatalog();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8) // AdminCatalogTest.LARGE_QUERIES
+    public void twentyBranchesFiveThousandMenus_query(Blackhole sink) {
+        for (String q : AdminCatalogTest.LARGE_QUERIES) sink.consume(catalog.query(AdminCatalogQuery.parse(q, AdminCatalogTest.BRANCHES)));
+    }
+}
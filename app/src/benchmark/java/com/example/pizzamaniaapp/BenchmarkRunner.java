@@ -0,0 +1,35 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the JMH benchmarks of this source set from the unit-test task (only with -Pbenchmarks).
+ * Every benchmark reports throughput plus the GC profiler's gc.alloc.rate.norm, the bytes it
+ * allocates per operation; the numbers go to app/build/reports/jmh/results.json and never fail
+ * the build.
+ */
+public class BenchmarkRunner {
+
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        File results = new File("build/reports/jmh/results.json");
+        results.getParentFile().mkdirs();
+
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", ".*Benchmark.*"))
+                .addProfiler(GCProfiler.class)
+                .forks(1) // the forked JVM gets the test task's class path
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.getPath())
+                .build();
+        new Runner(options).run();
+    }
+}
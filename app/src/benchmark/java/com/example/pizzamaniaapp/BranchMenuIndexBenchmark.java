@@ -0,0 +1,38 @@
+package com.example.pizzamaniaapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups a 50-branch x 300-menu catalog for BranchAdapter (not a frame-time measurement, that
+ * needs a device; it keeps the grouping pass and what it allocates in check).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BranchMenuIndexBenchmark {
+
+    private List<AdminHomeActivity.MenuItem> items;
+
+    @Setup
+    public void catalog() {
+        items = BranchMenuIndexTest.everyMenuEverywhere(50, 300);
+    }
+
+    @Benchmark
+    public BranchMenuIndex build_fiftyBranchesByThreeHundredMenus() {
+        return BranchMenuIndex.build(items);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.pizzamaniaapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One dispatch round's solve for 200 waiting orders x 50 free riders: assign() (oldest orders,
+ * rider -> branch -> customer costs), and the Hungarian solve on the full 200 x 50 matrix. Not a
+ * device measurement; it keeps the solver's growth in check as branches get busier.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DispatchSolverBenchmark {
+
+    private List<DispatchSolver.Job> jobs;
+    private List<DispatchSolver.Rider> riders;
+    private double[][] cost;
+
+    @Setup
+    public void round() {
+        Random random = new Random(7);
+        jobs = DispatchSolverTest.randomJobs(random, 200);
+        riders = DispatchSolverTest.randomRiders(random, 50);
+        cost = DispatchSolverTest.costMatrix(jobs, riders);
+    }
+
+    @Benchmark
+    public List<DispatchSolver.Assignment> assign_200orders_50riders() {
+        return DispatchSolver.assign(jobs, riders);
+    }
+
+    @Benchmark
+    public int[] solve_fullMatrix_200x50() {
+        return DispatchSolver.solve(cost);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.pizzamaniaapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One employee-screen snapshot of a busy branch (2000 finished orders, 60 in the kitchen) in
+ * which a single order changed status: the incremental sync plus re-estimating what it affected.
+ * Not a device measurement; it keeps the per-snapshot cost flat as the branch's history grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EtaEstimatorBenchmark {
+
+    private EtaEstimator eta;
+    private List<OrderSummary> branch;
+    private int round;
+
+    @Setup
+    public void busyBranch() {
+        eta = new EtaEstimator();
+        branch = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            OrderSummary done = EtaEstimatorTest.order("h" + i, "Completed", EtaEstimatorTest.T0 - 86_400_000L + i * 1000L, 1500);
+            done.setReadyTimestamp(done.getTimestamp() + (10 + i % 7) * EtaEstimatorTest.MIN);
+            branch.add(done);
+        }
+        for (int i = 0; i < 60; i++) {
+            branch.add(EtaEstimatorTest.order("o" + i, i % 2 == 0 ? "Preparing" : "confirm order", EtaEstimatorTest.T0 + i * 1000L, 1500));
+        }
+        eta.sync("b1", branch);
+        eta.branchLocated("b1", EtaEstimatorTest.BRANCH_LAT, EtaEstimatorTest.BRANCH_LNG);
+    }
+
+    @Benchmark
+    public void sync_oneStatusChange(Blackhole sink) {
+        int slot = round % 60;
+        String status = (round / 60 + slot) % 2 == 0 ? "confirm order" : "Preparing"; // flips each time the slot comes round
+        branch.set(2000 + slot, EtaEstimatorTest.order("o" + slot, status, EtaEstimatorTest.T0 + slot * 1000L, 1500));
+        long now = EtaEstimatorTest.T0 + round++;
+        for (String id : eta.sync("b1", branch)) sink.consume(eta.estimate(id, now));
+    }
+}
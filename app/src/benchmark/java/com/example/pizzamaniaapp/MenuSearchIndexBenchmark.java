@@ -0,0 +1,48 @@
+package com.example.pizzamaniaapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * As-you-type and misspelled queries over large menu indexes. Each operation is one query
+ * (the batches are divided by their length), to compare against the ~1 ms a keystroke may cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MenuSearchIndexBenchmark {
+
+    private MenuSearchIndex fiveThousandItems;
+    private MenuSearchIndex multiBranch;
+
+    @Setup
+    public void indexes() {
+        fiveThousandItems = MenuSearchIndex.build(MenuSearchIndexTest.largeMenu());
+        multiBranch = MenuSearchIndex.build(MenuSearchIndexTest.multiBranchMenu());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(12) // MenuSearchIndexTest.AS_YOU_TYPE
+    public void fiveThousandItems_asYouType(Blackhole sink) {
+        for (String q : MenuSearchIndexTest.AS_YOU_TYPE) sink.consume(fiveThousandItems.search(q));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(14) // MenuSearchIndexTest.MISSPELLED
+    public void multiBranchCatalog_misspelled(Blackhole sink) {
+        for (String q : MenuSearchIndexTest.MISSPELLED) sink.consume(multiBranch.search(q));
+    }
+}
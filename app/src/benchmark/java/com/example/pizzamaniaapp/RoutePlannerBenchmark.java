@@ -0,0 +1,44 @@
+package com.example.pizzamaniaapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plans one rider's route through a batch of drops a few km apart: the MAX_BATCH riders carry
+ * today and larger batches in case the limit is raised. Not a device measurement; it keeps the
+ * heuristic's growth with batch size in check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RoutePlannerBenchmark {
+
+    @Param({"4", "8", "12", "25"})
+    public int stops;
+
+    private List<RoutePlanner.Stop> batch;
+
+    @Setup
+    public void batch() {
+        batch = RoutePlannerTest.randomStops(new Random(11), stops);
+    }
+
+    @Benchmark
+    public List<RoutePlanner.Stop> plan() {
+        return RoutePlanner.plan(RoutePlannerTest.START_LAT, RoutePlannerTest.START_LNG, batch);
+    }
+}
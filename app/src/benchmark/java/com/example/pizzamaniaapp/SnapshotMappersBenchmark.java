@@ -0,0 +1,69 @@
+package com.example.pizzamaniaapp;
+
+import com.google.firebase.database.core.utilities.encoding.CustomClassMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps a 10k-record payload with the hand-written mappers and with Firebase's reflective
+ * mapper. One operation is the whole payload, so gc.alloc.rate.norm is the bytes allocated per
+ * 10k records. The reflective side calls CustomClassMapper directly: it is what
+ * DataSnapshot.getValue(Class) delegates to, and a DataSnapshot can't be built off-device
+ * (SnapshotMappersInstrumentedTest checks the two agree through the public API).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SnapshotMappersBenchmark {
+
+    private static final int RECORDS = 10_000;
+
+    private List<Map<String, Object>> orders;
+    private List<Map<String, Object>> menus;
+
+    @Setup
+    public void payload() {
+        orders = new ArrayList<>(RECORDS);
+        menus = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            orders.add(SnapshotMappersTest.summaryMap(i));
+            menus.add(SnapshotMappersTest.menuMap(i));
+        }
+    }
+
+    @Benchmark
+    public void orderSummary_reflective(Blackhole sink) {
+        for (Map<String, Object> raw : orders) sink.consume(CustomClassMapper.convertToCustomClass(raw, OrderSummary.class));
+    }
+
+    @Benchmark
+    public void orderSummary_handWritten(Blackhole sink) {
+        for (Map<String, Object> raw : orders) sink.consume(WireFormat.summaryFromWire("o", raw));
+    }
+
+    @Benchmark
+    public void menuItem_reflective(Blackhole sink) {
+        for (Map<String, Object> raw : menus) sink.consume(CustomClassMapper.convertToCustomClass(raw, CustomerHomeActivity.MenuItem.class));
+    }
+
+    @Benchmark
+    public void menuItem_handWritten(Blackhole sink) {
+        for (Map<String, Object> raw : menus) sink.consume(SnapshotMappers.menuItem(raw));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.pizzamaniaapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses and validates a generated 50,000-row staff file, the first pass of an import. The file
+ * is produced while it is read, so gc.alloc.rate.norm is what the reader itself allocates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StaffCsvBenchmark {
+
+    private static final int ROWS = 50_000;
+
+    @Benchmark
+    public int validate_fiftyThousandRows() throws IOException {
+        try (StaffCsv.Reader reader = new StaffCsv.Reader(StaffCsvTest.generatedFile(ROWS), 'e', StaffCsvTest.BRANCHES)) {
+            int valid = 0;
+            while (reader.next() != null) valid++;
+            return valid;
+        }
+    }
+}
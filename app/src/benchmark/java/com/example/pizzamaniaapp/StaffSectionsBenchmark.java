@@ -0,0 +1,40 @@
+package com.example.pizzamaniaapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups 100 branches x 20 staff for the admin staff screens (what used to be 101 reads; not a
+ * device measurement, it keeps the grouping pass and what it allocates in check).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StaffSectionsBenchmark {
+
+    private List<AdminBranchEmployeeManagementActivity.Branch> branches;
+    private List<AdminBranchEmployeeManagementActivity.Employee> staff;
+
+    @Setup
+    public void staff() {
+        branches = StaffSectionsTest.branches(100);
+        staff = StaffSectionsTest.staff(2_000, 100);
+    }
+
+    @Benchmark
+    public StaffSections<AdminBranchEmployeeManagementActivity.Branch, AdminBranchEmployeeManagementActivity.Employee> group_hundredBranchesByTwentyStaff() {
+        return StaffSections.group(branches, b -> b.branchID, staff, e -> e.branchID);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.pizzamaniaapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresses a delivery's breadcrumbs the way completing it does (a 30-minute ride, and a whole
+ * 8-hour shift at 1 Hz as the worst case), and decodes the shift again for the history map.
+ * Not a device measurement; it keeps simplify + encode in check on the longest input it can get.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TraceCodecBenchmark {
+
+    private List<TraceCodec.Point> delivery;
+    private List<TraceCodec.Point> shift;
+    private String encodedShift;
+
+    @Setup
+    public void traces() {
+        delivery = TraceCodecTest.winding(new Random(1), 30 * 60);
+        shift = TraceCodecTest.winding(new Random(1), 8 * 3600);
+        encodedShift = TraceCodec.compress(shift);
+    }
+
+    @Benchmark
+    public String compress_thirtyMinuteDelivery() {
+        return TraceCodec.compress(delivery);
+    }
+
+    @Benchmark
+    public String compress_eightHourShift() {
+        return TraceCodec.compress(shift);
+    }
+
+    @Benchmark
+    public List<TraceCodec.Point> decode_eightHourShift() {
+        return TraceCodec.decode(encodedShift);
+    }
+}
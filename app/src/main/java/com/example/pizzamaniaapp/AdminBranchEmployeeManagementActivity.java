@@ -5,7 +5,8 @@
 //     * Load and display all branches
 //     * Add/Edit/Delete branches
 //     * Add/Edit/Delete employees per branch
-//     * Auto-generate IDs for branches (b001...), employees (e001...), and users (u001...)
+//     * Auto-generate IDs for branches (b001...); employee (e001...) and user (u001...) IDs come from IdCounters
+//     * Bulk import/export of employees as CSV (StaffImport)
 //     * Popups/dialogs for forms and confirmation
 //     * Custom top toast for messages
 // ======================================
@@ -29,36 +30,40 @@
 // - Refreshes branch list
 
 // loadBranches()
-// - Fetches all branches from Firebase
-// - Sorts by branch ID number
-// - Creates branch row with:
+// - Reads "branches" and "employees" once each, in parallel (two reads however many branches)
+// - Sorts branches by ID number and groups employees under them in one pass (StaffSections), off the UI thread
+// - Shows them in a sectioned RecyclerView (StaffSectionAdapter); each branch header has:
 //     * Edit branch button
 //     * Delete branch button
 //     * Add employee button
-// - Loads employees for each branch
 
 // showAddEmployeePopup(branchId)
 // - Popup to add new employee
-// - Auto-generate Employee ID and User ID
+// - Reserves the next Employee ID and User ID in one transaction (IdCounters)
 // - Validate inputs: name, email, contact, address
-// - Create Employee and User objects in Firebase
+// - Create Employee and User objects in Firebase with one atomic multi-path write (WriteBatch)
 // - Refresh branch list on save
 
-// loadEmployees(branchId, container)
-// - Loads employees linked to branch
-// - Creates employee rows dynamically
-// - Each row has Edit + Delete buttons
+// groupStaff(branchesSnap, employeesSnap)
+// - Parses both snapshots and groups employees by branch (runs on the snapshot pipeline)
+// - Each employee row has Edit + Delete buttons
+
+// startCsvImport() / startCsvExport()
+// - Import: resume an unfinished import or pick a CSV file; StaffImport validates every row,
+//   reserves an ID block and writes in chunks with progress in the loading dialog
+// - Export: pick a save location; StaffImport streams all employees into it page by page
 
 // showEditEmployeePopup(employee)
 // - Popup to edit existing employee
 // - Pre-fills current details
-// - Updates both Employee + linked User in Firebase
+// - Updates both Employee + linked User in Firebase in one atomic write (was 6 separate writes)
 // - Reloads branch list on update
 
 // showDeleteConfirmation(type, key)
 // - Confirm delete popup
-// - If branch: delete branch
-// - If employee: delete employee + linked user
+// - If branch: cascade in one write (AdminWrites.deleteBranch) - the branch, its employees and
+//   deliverymen with their users, and the branch's entries in every menu item (3 reads + 1 write)
+// - If employee: delete employee + linked user in one write
 // - Refreshes branch list
 
 // Branch class
@@ -88,6 +93,7 @@
 package com.example.pizzamaniaapp; // package: identifies app/project
 
 import android.content.Intent;
+import android.net.Uri; // Uri: CSV file picked for import/export
 import android.os.Bundle; // Bundle: used to pass data between activities
 import android.os.CountDownTimer;
 import android.view.View; // View: base class for all UI elements
@@ -98,7 +104,6 @@ import android.graphics.drawable.ColorDrawable; // ColorDrawable: colored backgr
 import android.widget.Button; // Button: clickable UI button
 import android.widget.ImageButton; // ImageButton: button with an image
 import android.widget.ImageView;
-import android.widget.LinearLayout; // LinearLayout: layout arranging children vertically/horizontally
 import android.widget.ProgressBar;
 import android.widget.TextView; // TextView: displays text
 import android.widget.EditText; // EditText: text input field
@@ -107,6 +112,8 @@ import android.view.LayoutInflater; // LayoutInflater: to inflate XML layouts in
 
 import androidx.appcompat.app.AlertDialog; // AlertDialog: popup dialog for messages/confirmation
 import androidx.appcompat.app.AppCompatActivity; // AppCompatActivity: base class for activities with modern features
+import androidx.recyclerview.widget.LinearLayoutManager; // LinearLayoutManager: vertical list layout for RecyclerView
+import androidx.recyclerview.widget.RecyclerView; // RecyclerView: recycling list for branches & employees
 
 import com.google.firebase.database.DataSnapshot; // DataSnapshot: snapshot of data from Firebase
 import com.google.firebase.database.DatabaseError; // DatabaseError: handles Firebase DB errors
@@ -116,17 +123,25 @@ import com.google.firebase.database.ValueEventListener; // ValueEventListener: l
 
 import java.util.ArrayList; // ArrayList: dynamic array to store objects
 import java.util.Collections; // Collections: utility for sorting, reversing, etc.
-import java.util.Comparator; // Comparator: defines rules to compare objects for sorting
+import java.util.HashMap; // HashMap: field map for the linked user update
 import java.util.List; // List: ordered collection of objects
+import java.util.Map; // Map: path -> value updates
 
 
 public class AdminBranchEmployeeManagementActivity extends AppCompatActivity { // main activity class for managing branches & employees
 
-    LinearLayout branchList; // layout to hold branch items dynamically
+    RecyclerView branchList; // list of branch headers with their employees
+    StaffSectionAdapter<Branch, Employee> staffAdapter; // binds branches & employees to branchList
+    private final SnapshotPipeline<StaffSections<Branch, Employee>> staffPipeline = new SnapshotPipeline<>(error -> { // groups staff off the UI thread
+        hideLoadingDialog(); // don't leave the spinner up if grouping failed
+        showCustomToast("Failed to load staff");
+    });
     DatabaseReference db; // reference to Firebase database
     ImageButton addBranchBtn; // button to add new branch
     AlertDialog loadingDialog; //button for loading dialog
     ImageButton reloadBtn;    // button to reload branches
+    private static final int REQUEST_IMPORT_CSV = 41; // file picker for bulk import
+    private static final int REQUEST_EXPORT_CSV = 42; // save location for export
 
 
 
@@ -135,7 +150,21 @@ public class AdminBranchEmployeeManagementActivity extends AppCompatActivity { /
         super.onCreate(savedInstanceState); // call parent constructor
         setContentView(R.layout.activity_admin_branch_employee_management); // set layout for this activity
 
-        branchList = findViewById(R.id.branchList); // connect branchList layout from XML
+        branchList = findViewById(R.id.branchList); // connect branchList RecyclerView from XML
+        branchList.setLayoutManager(new LinearLayoutManager(this)); // vertical list
+        staffAdapter = new StaffSectionAdapter<>(R.layout.branch_row, R.id.addEmployeeBtn,
+                new StaffSectionAdapter.Callbacks<Branch, Employee>() {
+                    @Override public String branchID(Branch branch) { return branch.branchID; } // matches header rows between reloads
+                    @Override public String staffID(Employee employee) { return employee.employeeID; } // matches employee rows between reloads
+                    @Override public String branchName(Branch branch) { return branch.name; } // branch header text
+                    @Override public String staffName(Employee employee) { return employee.name; } // employee row text
+                    @Override public void onAddStaff(Branch branch) { showAddEmployeePopup(branch.branchID); } // open add employee popup
+                    @Override public void onEditStaff(Employee employee) { showEditEmployeePopup(employee); } // edit employee on click
+                    @Override public void onDeleteStaff(Employee employee) { showDeleteConfirmation("employee", employee.employeeID); } // delete employee on click
+                    @Override public void onEditBranch(Branch branch) { showBranchPopup(branch, null); } // open edit popup
+                    @Override public void onDeleteBranch(Branch branch) { showDeleteConfirmation("branch", branch.branchID); } // open delete confirmation
+                });
+        branchList.setAdapter(staffAdapter); // attach adapter
         addBranchBtn = findViewById(R.id.addBranchBtn); // connect addBranchBtn from XML
         db = FirebaseDatabase.getInstance().getReference(); // get Firebase database reference
 
@@ -162,6 +191,111 @@ public class AdminBranchEmployeeManagementActivity extends AppCompatActivity { /
 
         reloadBtn = findViewById(R.id.reloadBranchBtn); // connect reloadBtn from XML
         reloadBtn.setOnClickListener(v -> loadBranches()); // reload branches when clicked
+        findViewById(R.id.importCsvBtn).setOnClickListener(v -> startCsvImport()); // bulk import employees
+        findViewById(R.id.exportCsvBtn).setOnClickListener(v -> startCsvExport()); // export employees
+    }
+
+    @Override
+    protected void onDestroy() { // called when activity is closed
+        super.onDestroy();
+        staffPipeline.cancel(); // drop any grouping still in flight
+    }
+
+    // 🔹 Bulk CSV import: offer to resume an unfinished import, otherwise pick a file
+    private void startCsvImport() {
+        StaffImport.Pending pending = StaffImport.pending(this, StaffImport.Kind.EMPLOYEES);
+        if (pending == null) {
+            pickCsvFile();
+            return;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Unfinished import")
+                .setMessage("An earlier employee import stopped part way. Resume it?")
+                .setPositiveButton("Resume", (d, which) -> {
+                    showCsvProgress("Importing employees...");
+                    StaffImport.resume(this, db, StaffImport.Kind.EMPLOYEES, pending, csvListener("Imported"));
+                })
+                .setNegativeButton("New file", (d, which) -> {
+                    StaffImport.discard(this, db, StaffImport.Kind.EMPLOYEES); // drop the old checkpoint
+                    pickCsvFile();
+                })
+                .show();
+    }
+
+    private void pickCsvFile() {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT); // Storage Access Framework picker
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("*/*");
+        intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{"text/csv", "text/comma-separated-values", "text/plain"});
+        startActivityForResult(intent, REQUEST_IMPORT_CSV);
+    }
+
+    // 🔹 Bulk CSV export: let the admin choose where to save, then stream every employee into it
+    private void startCsvExport() {
+        Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("text/csv");
+        intent.putExtra(Intent.EXTRA_TITLE, "employees.csv");
+        startActivityForResult(intent, REQUEST_EXPORT_CSV);
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (resultCode != RESULT_OK || data == null || data.getData() == null) return; // cancelled
+        Uri uri = data.getData();
+        if (requestCode == REQUEST_IMPORT_CSV) {
+            try {
+                // Keep read access across restarts so an interrupted import can resume
+                getContentResolver().takePersistableUriPermission(uri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            } catch (SecurityException ignored) {}
+            showCsvProgress("Checking file...");
+            StaffImport.start(this, db, StaffImport.Kind.EMPLOYEES, uri, csvListener("Imported"));
+        } else if (requestCode == REQUEST_EXPORT_CSV) {
+            showCsvProgress("Exporting employees...");
+            StaffImport.export(this, db, StaffImport.Kind.EMPLOYEES, uri, csvListener("Exported"));
+        }
+    }
+
+    // Progress goes into the loading dialog; results as a toast (or a dialog listing bad rows)
+    private StaffImport.Listener csvListener(String verb) {
+        return new StaffImport.Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+                if (isDestroyed()) return;
+                showCsvProgress(total >= 0 ? verb + " " + done + " of " + total + " employees..."
+                        : verb + " " + done + " employees...");
+            }
+
+            @Override
+            public void onFinished(int rows) {
+                if (isDestroyed()) return;
+                hideLoadingDialog();
+                showCustomToast(verb + " " + rows + " employees");
+                loadBranches(); // show the new staff
+            }
+
+            @Override
+            public void onFailed(String message) {
+                if (isDestroyed()) return;
+                hideLoadingDialog();
+                if (message.contains("\n")) { // row errors: too long for a toast
+                    new AlertDialog.Builder(AdminBranchEmployeeManagementActivity.this)
+                            .setTitle("Import failed")
+                            .setMessage(message)
+                            .setPositiveButton("OK", null)
+                            .show();
+                } else {
+                    showCustomToast(message);
+                }
+            }
+        };
+    }
+
+    private void showCsvProgress(String text) {
+        if (loadingDialog == null || !loadingDialog.isShowing()) showLoadingDialog(text);
+        TextView label = loadingDialog.findViewById(R.id.loadingText);
+        if (label != null) label.setText(text);
     }
 
     private void prepareNewBranchPopup() { // method to prepare and open the branch popup
@@ -310,254 +444,152 @@ public class AdminBranchEmployeeManagementActivity extends AppCompatActivity { /
         });
     }
 
-    private void loadBranches() { // load all branches from Firebase and display
-        branchList.removeAllViews(); // clear existing branch views
+    private void loadBranches() { // load all branches and employees from Firebase and display
         showLoadingDialog("Loading branches & employees..."); // show loading dialog
 
-        db.child("branches").addListenerForSingleValueEvent(new ValueEventListener() { // read branches once
+        // read both nodes at once: two round trips in total instead of one per branch
+        ParallelReads.read(new ParallelReads.Callback() {
             @Override
-            public void onDataChange(DataSnapshot snapshot) { // called when data is fetched
-                List<Branch> branchListTemp = new ArrayList<>(); // temporary list to store branches
-                for (DataSnapshot branchSnap : snapshot.getChildren()) { // loop through each branch
-                    Branch branch = branchSnap.getValue(Branch.class); // convert snapshot to Branch object
-                    if (branch != null) branchListTemp.add(branch); // add to temp list if not null
-                }
-
-                Collections.sort(branchListTemp, Comparator.comparingInt(a -> Integer.parseInt(a.branchID.substring(1)))); // sort branches by ID number
-
-                if (branchListTemp.isEmpty()) { hideLoadingDialog(); return; } // hide loading if no branches
-
-                final int[] branchesLoaded = {0}; // counter to track loaded branches
-
-                for (Branch branch : branchListTemp) { // loop sorted branches
-                    View branchView = getLayoutInflater().inflate(R.layout.branch_row, null); // inflate branch row layout
-                    TextView branchName = branchView.findViewById(R.id.branchName); // get branch name TextView
-                    branchName.setText(branch.name); // set branch name
-
-                    ImageButton editBranch = branchView.findViewById(R.id.editBranchBtn); // edit button
-                    ImageButton deleteBranch = branchView.findViewById(R.id.deleteBranchBtn); // delete button
-                    Button addEmployeeBtn = branchView.findViewById(R.id.addEmployeeBtn); // add employee button
-                    LinearLayout employeeContainer = branchView.findViewById(R.id.employeeContainer); // container for employees
-
-                    editBranch.setOnClickListener(v -> showBranchPopup(branch, null)); // open edit popup
-                    deleteBranch.setOnClickListener(v -> showDeleteConfirmation("branch", branch.branchID)); // open delete confirmation
-                    addEmployeeBtn.setOnClickListener(v -> showAddEmployeePopup(branch.branchID)); // open add employee popup
-
-                    // load employees for this branch, hide loading only after all are loaded
-                    loadEmployees(branch.branchID, employeeContainer, () -> {
-                        branchesLoaded[0]++;
-                        if (branchesLoaded[0] == branchListTemp.size()) hideLoadingDialog(); // hide loading when all branches processed
-                    });
-
-                    branchList.addView(branchView); // add branch row to main layout
-                }
+            public void onLoaded(DataSnapshot[] snapshots) { // both reads finished
+                // parse, sort and group on the pipeline thread, then show on the UI thread
+                staffPipeline.submit(() -> groupStaff(snapshots[0], snapshots[1]), sections -> {
+                    staffAdapter.setSections(sections); // show branches with their employees
+                    hideLoadingDialog(); // hide loading once everything is shown
+                });
             }
 
             @Override
-            public void onCancelled(DatabaseError error) {
+            public void onFailed(DatabaseError error) {
                 hideLoadingDialog(); // hide loading on error
+                showCustomToast("Failed to load branches: " + error.getMessage()); // tell the admin why the list is empty
             }
-        });
+        }, db.child("branches"), db.child("employees"));
+    }
+
+    // runs on the snapshot pipeline thread: branches sorted by ID number, employees grouped under them
+    private static StaffSections<Branch, Employee> groupStaff(DataSnapshot branchesSnap, DataSnapshot employeesSnap) {
+        List<Branch> branches = new ArrayList<>(); // branches from Firebase
+        for (DataSnapshot branchSnap : branchesSnap.getChildren()) { // loop through each branch
+            Branch branch = SnapshotMappers.staffBranch(branchSnap.getValue()); // convert snapshot to Branch object
+            if (branch != null) branches.add(branch); // add if not null
+        }
+        Collections.sort(branches, StaffSections.byBranchNumber(b -> b.branchID)); // sort branches by ID number, malformed IDs last
+
+        List<Employee> employees = new ArrayList<>(); // every employee, all branches
+        for (DataSnapshot empSnap : employeesSnap.getChildren()) { // loop through each employee
+            Employee employee = SnapshotMappers.employee(empSnap.getValue()); // convert snapshot to Employee object
+            if (employee != null) employees.add(employee); // skip null entries
+        }
+        return StaffSections.group(branches, b -> b.branchID, employees, e -> e.branchID); // one pass over employees
     }
 
     private void showAddEmployeePopup(String branchId) {
         showLoadingDialog("Preparing new employee..."); // Show loading while fetching IDs
 
-        // Step 1: Fetch all employees from Firebase
-        db.child("employees").addListenerForSingleValueEvent(new ValueEventListener() {
+        // Reserve the next employee ID + user ID in one transaction (no download of both nodes)
+        IdCounters.reserve(db, "employees", 'e', 1, new IdCounters.Callback() {
             @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                // 🔎 Collect existing employee numbers to find smallest available
-                List<Integer> empNums = new ArrayList<>();
-                for (DataSnapshot s : snapshot.getChildren()) {
-                    String id = s.getKey(); // Get employee ID key
-                    if (id != null && id.startsWith("e")) {
-                        try {
-                            empNums.add(Integer.parseInt(id.substring(1))); // Extract numeric part
-                        } catch (NumberFormatException ignored) {}
-                    }
-                }
-                Collections.sort(empNums); // Sort ascending
-                int nextEmp = 1;
-                for (int num : empNums) { // Find first missing number
-                    if (num == nextEmp) nextEmp++;
-                    else if (num > nextEmp) break;
+            public void onReserved(IdBlock staff, IdBlock users) {
+                String empID = staff.id(0); // e.g. "e042"
+                String userID = users.id(0); // e.g. "u317"
+
+                hideLoadingDialog(); // Hide loading dialog before showing popup
+
+                // Inflate employee popup layout
+                View popupView = getLayoutInflater().inflate(R.layout.add_employee_popup, null);
+                AlertDialog dialog = new AlertDialog.Builder(AdminBranchEmployeeManagementActivity.this)
+                        .setView(popupView)
+                        .create();
+                dialog.show();
+
+                // Configure popup window size and background
+                Window window = dialog.getWindow();
+                if (window != null) {
+                    int width = (int)(getResources().getDisplayMetrics().widthPixels * 0.8);
+                    window.setLayout(width, WindowManager.LayoutParams.WRAP_CONTENT);
+                    window.setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT));
+                    window.setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE);
                 }
-                String empID = "e" + String.format("%03d", nextEmp); // Format ID with leading zeros
 
-                // Step 2: Fetch all users to assign new user ID
-                db.child("users").addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot snapshot) {
-                        // 🔎 Collect existing user numbers to find smallest available
-                        List<Integer> userNums = new ArrayList<>();
-                        for (DataSnapshot s : snapshot.getChildren()) {
-                            String id = s.getKey(); // Get user ID key
-                            if (id != null && id.startsWith("u")) {
-                                try {
-                                    userNums.add(Integer.parseInt(id.substring(1))); // Extract numeric part
-                                } catch (NumberFormatException ignored) {}
-                            }
-                        }
-                        Collections.sort(userNums); // Sort ascending
-                        int nextUser = 1;
-                        for (int num : userNums) { // Find first missing number
-                            if (num == nextUser) nextUser++;
-                            else if (num > nextUser) break;
-                        }
-                        String userID = "u" + String.format("%03d", nextUser); // Format ID with leading zeros
-
-                        hideLoadingDialog(); // Hide loading dialog before showing popup
-
-                        // Inflate employee popup layout
-                        View popupView = getLayoutInflater().inflate(R.layout.add_employee_popup, null);
-                        AlertDialog dialog = new AlertDialog.Builder(AdminBranchEmployeeManagementActivity.this)
-                                .setView(popupView)
-                                .create();
-                        dialog.show();
-
-                        // Configure popup window size and background
-                        Window window = dialog.getWindow();
-                        if (window != null) {
-                            int width = (int)(getResources().getDisplayMetrics().widthPixels * 0.8);
-                            window.setLayout(width, WindowManager.LayoutParams.WRAP_CONTENT);
-                            window.setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT));
-                            window.setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE);
-                        }
-
-                        // Bind input fields
-                        EditText empIdInput = popupView.findViewById(R.id.employeeIDInput);
-                        EditText userIdInput = popupView.findViewById(R.id.userIDInput);
-                        EditText nameInput = popupView.findViewById(R.id.employeeNameInput);
-                        EditText emailInput = popupView.findViewById(R.id.employeeEmailInput);
-                        EditText passwordInput = popupView.findViewById(R.id.employeePasswordInput);
-                        EditText contactInput = popupView.findViewById(R.id.employeeContactInput);
-                        EditText addressInput = popupView.findViewById(R.id.employeeAddressInput);
-
-                        // Pre-fill IDs and disable editing
-                        empIdInput.setText(empID);
-                        empIdInput.setEnabled(false);
-                        userIdInput.setText(userID);
-                        userIdInput.setEnabled(false);
-
-                        // Bind buttons
-                        Button cancelBtn = popupView.findViewById(R.id.cancelEmployeeBtn);
-                        Button addBtn = popupView.findViewById(R.id.addEmployeeBtn);
-                        cancelBtn.setOnClickListener(v -> dialog.dismiss()); // Close popup
-
-                        // --- Handle add employee button ---
-                        addBtn.setOnClickListener(v -> {
-                            // Read input values
-                            String name = nameInput.getText().toString().trim();
-                            String email = emailInput.getText().toString().trim();
-                            String password = passwordInput.getText().toString().trim();
-                            String contactStr = contactInput.getText().toString().trim();
-                            String address = addressInput.getText().toString().trim();
-
-                            // Validate inputs
-                            if (name.isEmpty() || email.isEmpty() || password.isEmpty()
-                                    || contactStr.isEmpty() || address.isEmpty()) {
-                                showCustomToast("Please fill all fields");
-                                return;
-                            }
-
-                            // Parse contact number
-                            long contact;
-                            try {
-                                contact = Long.parseLong(contactStr);
-                            } catch (NumberFormatException e) {
-                                showCustomToast("Invalid contact number");
-                                return;
-                            }
-
-                            // Create employee and user objects
-                            Employee employee = new Employee(empID, branchId, name, email, contact, address, userID, password);
-                            User user = new User(userID, name, email, address, contact, "Employee");
-
-                            // Save employee to Firebase
-                            db.child("employees").child(empID).setValue(employee)
-                                    .addOnSuccessListener(aVoid ->
-                                            // Save linked user to Firebase
-                                            db.child("users").child(userID).setValue(user)
-                                                    .addOnSuccessListener(aVoid2 -> {
-                                                        showCustomToast("Employee added successfully!");
-                                                        loadBranches(); // Refresh branch/employee list
-                                                        dialog.dismiss(); // Close popup
-                                                    })
-                                                    .addOnFailureListener(e -> { // Handle user save error
-                                                        if (e.getMessage() != null && e.getMessage().contains("Permission denied")) {
-                                                            showCustomToast("Permission denied while saving user!");
-                                                        } else {
-                                                            showCustomToast("Failed to add user: " + e.getMessage());
-                                                        }
-                                                    }))
-                                    .addOnFailureListener(e -> { // Handle employee save error
-                                        if (e.getMessage() != null && e.getMessage().contains("Permission denied")) {
-                                            showCustomToast("Permission denied while saving employee!");
-                                        } else {
-                                            showCustomToast("Failed to add employee: " + e.getMessage());
-                                        }
-                                    });
-                        });
+                // Bind input fields
+                EditText empIdInput = popupView.findViewById(R.id.employeeIDInput);
+                EditText userIdInput = popupView.findViewById(R.id.userIDInput);
+                EditText nameInput = popupView.findViewById(R.id.employeeNameInput);
+                EditText emailInput = popupView.findViewById(R.id.employeeEmailInput);
+                EditText passwordInput = popupView.findViewById(R.id.employeePasswordInput);
+                EditText contactInput = popupView.findViewById(R.id.employeeContactInput);
+                EditText addressInput = popupView.findViewById(R.id.employeeAddressInput);
+
+                // Pre-fill IDs and disable editing
+                empIdInput.setText(empID);
+                empIdInput.setEnabled(false);
+                userIdInput.setText(userID);
+                userIdInput.setEnabled(false);
+
+                // Bind buttons
+                Button cancelBtn = popupView.findViewById(R.id.cancelEmployeeBtn);
+                Button addBtn = popupView.findViewById(R.id.addEmployeeBtn);
+                cancelBtn.setOnClickListener(v -> dialog.dismiss()); // Close popup
+
+                // --- Handle add employee button ---
+                addBtn.setOnClickListener(v -> {
+                    // Read input values
+                    String name = nameInput.getText().toString().trim();
+                    String email = emailInput.getText().toString().trim();
+                    String password = passwordInput.getText().toString().trim();
+                    String contactStr = contactInput.getText().toString().trim();
+                    String address = addressInput.getText().toString().trim();
+
+                    // Validate inputs
+                    if (name.isEmpty() || email.isEmpty() || password.isEmpty()
+                            || contactStr.isEmpty() || address.isEmpty()) {
+                        showCustomToast("Please fill all fields");
+                        return;
                     }
 
-                    @Override
-                    public void onCancelled(DatabaseError error) {
-                        hideLoadingDialog(); // Hide loading if cancelled
-                        if (error.getMessage().contains("Permission denied")) {
-                            showCustomToast("Permission denied while reading users!");
-                        } else {
-                            showCustomToast("Failed to load users: " + error.getMessage());
-                        }
+                    // Parse contact number
+                    long contact;
+                    try {
+                        contact = Long.parseLong(contactStr);
+                    } catch (NumberFormatException e) {
+                        showCustomToast("Invalid contact number");
+                        return;
                     }
+
+                    // Create employee and user objects
+                    Employee employee = new Employee(empID, branchId, name, email, contact, address, userID, password);
+                    User user = new User(userID, name, email, address, contact, "Employee");
+
+                    // Save employee + linked user in one atomic write
+                    AdminWrites.saveStaff("add employee " + empID, "employees", empID, employee, userID, user)
+                            .commit(db)
+                            .addOnSuccessListener(aVoid -> {
+                                showCustomToast("Employee added successfully!");
+                                loadBranches(); // Refresh branch/employee list
+                                dialog.dismiss(); // Close popup
+                            })
+                            .addOnFailureListener(e -> { // Nothing was written if this fails
+                                if (e.getMessage() != null && e.getMessage().contains("Permission denied")) {
+                                    showCustomToast("Permission denied while saving employee!");
+                                } else {
+                                    showCustomToast("Failed to add employee: " + e.getMessage());
+                                }
+                            });
                 });
             }
 
             @Override
-            public void onCancelled(DatabaseError error) {
-                hideLoadingDialog(); // Hide loading if cancelled
-                if (error.getMessage().contains("Permission denied")) {
-                    showCustomToast("Permission denied while reading employees!");
+            public void onFailed(String message) {
+                hideLoadingDialog(); // Hide loading on failure
+                if (message != null && message.contains("Permission denied")) {
+                    showCustomToast("Permission denied while reserving IDs!");
                 } else {
-                    showCustomToast("Failed to load employees: " + error.getMessage());
+                    showCustomToast("Failed to reserve IDs: " + message);
                 }
             }
         });
     }
 
-    private void loadEmployees(String branchId, LinearLayout container, Runnable onLoaded) { // load employees with callback
-        db.child("employees").orderByChild("branchID").equalTo(branchId) // query employees with this branch ID
-                .addListenerForSingleValueEvent(new ValueEventListener() { // fetch data once
-                    @Override
-                    public void onDataChange(DataSnapshot snapshot) { // on successful fetch
-                        container.removeAllViews(); // clear existing employee views
-                        for (DataSnapshot empSnap : snapshot.getChildren()) { // loop through each employee
-                            Employee employee = empSnap.getValue(Employee.class); // convert snapshot to Employee object
-                            if(employee==null) continue; // skip null entries
-
-                            View empView = getLayoutInflater().inflate(R.layout.employee_row, null); // inflate employee row layout
-                            TextView empName = empView.findViewById(R.id.employeeName); // get employee name TextView
-                            empName.setText(employee.name); // set employee name
-
-                            ImageButton editEmp = empView.findViewById(R.id.editEmployeeBtn); // edit button
-                            ImageButton deleteEmp = empView.findViewById(R.id.deleteEmployeeBtn); // delete button
-
-                            editEmp.setOnClickListener(v -> showEditEmployeePopup(employee)); // edit employee on click
-                            deleteEmp.setOnClickListener(v -> showDeleteConfirmation("employee", employee.employeeID)); // delete employee on click
-
-                            container.addView(empView); // add employee row to container
-                        }
-
-                        if(onLoaded != null) onLoaded.run(); // notify branch that employees are loaded
-                    }
-
-                    @Override
-                    public void onCancelled(DatabaseError error) {
-                        if(onLoaded != null) onLoaded.run(); // notify on error
-                    }
-                });
-    }
-
     private void showEditEmployeePopup(Employee employee) { // open popup to edit an existing employee
         View popupView = getLayoutInflater().inflate(R.layout.add_employee_popup, null); // reuse same popup layout
         AlertDialog dialog = new AlertDialog.Builder(this).setView(popupView).create(); // create dialog
@@ -637,16 +669,18 @@ public class AdminBranchEmployeeManagementActivity extends AppCompatActivity { /
                 employee.password = newPassword; // update password only if provided
             }
 
-            // --- Save updates in Firebase ---
-            db.child("employees").child(employee.employeeID).setValue(employee) // update employees table
+            // --- Save updates in Firebase: employee + linked user fields (except password) in one write ---
+            Map<String, Object> userFields = new HashMap<>();
+            userFields.put("name", name);
+            userFields.put("email", email);
+            userFields.put("address", address);
+            userFields.put("phone", contact);
+            userFields.put("role", "Employee");
+            new WriteBatch("edit employee " + employee.employeeID)
+                    .set("employees/" + employee.employeeID, employee) // update employees table
+                    .setFields("users/" + employee.userID, userFields) // update linked user record
+                    .commit(db)
                     .addOnSuccessListener(aVoid -> {
-                        // Update linked user record except password
-                        db.child("users").child(employee.userID).child("name").setValue(name);
-                        db.child("users").child(employee.userID).child("email").setValue(email);
-                        db.child("users").child(employee.userID).child("address").setValue(address);
-                        db.child("users").child(employee.userID).child("phone").setValue(contact);
-                        db.child("users").child(employee.userID).child("role").setValue("Employee");
-
                         showCustomToast("Employee updated!"); // success message
                         loadBranches(); // refresh UI
                         dialog.dismiss(); // close popup
@@ -670,36 +704,44 @@ public class AdminBranchEmployeeManagementActivity extends AppCompatActivity { /
         Button cancelBtn = popupView.findViewById(R.id.cancelDeleteBtn); // Get cancel button from popup
         Button confirmBtn = popupView.findViewById(R.id.confirmDeleteBtn); // Get confirm button from popup
         cancelBtn.setOnClickListener(v -> dialog.dismiss()); // Close dialog if cancel clicked
+        if(type.equals("branch")) { // Deleting a branch takes its staff with it
+            TextView message = popupView.findViewById(R.id.deleteMessage);
+            message.setText("Delete this branch? Its employees and deliverymen will be removed and it will be taken off every menu item.");
+        }
 
         confirmBtn.setOnClickListener(v -> { // Handle confirm button click
             if(type.equals("branch")) { // If deleting a branch
-                db.child("employees").orderByChild("branchID").equalTo(key) // Query employees under this branch
-                        .addListenerForSingleValueEvent(new ValueEventListener() {
-                            @Override
-                            public void onDataChange(DataSnapshot snapshot) {
-                                if(snapshot.exists()) { // If any employee exists
-                                    showCustomToast("Cannot delete: employees exist in this branch!"); // Show warning
-                                } else { // No employees exist
-                                    db.child("branches").child(key).removeValue() // Delete branch
-                                            .addOnSuccessListener(aVoid -> {
-                                                showCustomToast("Branch deleted!"); // Show success message
-                                                loadBranches(); // Reload branches
-                                            })
-                                            .addOnFailureListener(e ->
-                                                    showCustomToast("Failed to delete branch: " + e.getMessage())); // Show failure message
-                                }
-                            }
-                            @Override public void onCancelled(DatabaseError error) {} // Ignore cancel/error
-                        });
+                // Read its employees, deliverymen and the menu together, then remove everything in one write
+                ParallelReads.read(new ParallelReads.Callback() {
+                    @Override
+                    public void onLoaded(DataSnapshot[] snaps) {
+                        AdminWrites.deleteBranch(key, snaps[0].getValue(), snaps[1].getValue(), snaps[2].getValue())
+                                .commit(db)
+                                .addOnSuccessListener(aVoid -> {
+                                    showCustomToast("Branch deleted!"); // Show success message
+                                    loadBranches(); // Reload branches
+                                })
+                                .addOnFailureListener(e ->
+                                        showCustomToast("Failed to delete branch: " + e.getMessage())); // Show failure message
+                    }
+
+                    @Override
+                    public void onFailed(DatabaseError error) {
+                        showCustomToast("Failed to delete branch: " + error.getMessage()); // Nothing deleted
+                    }
+                }, db.child("employees").orderByChild("branchID").equalTo(key),
+                   db.child("deliverymen").orderByChild("branchID").equalTo(key),
+                   db.child("menu"));
             }
             else if(type.equals("employee")) { // If deleting an employee
                 db.child("employees").child(key).addListenerForSingleValueEvent(new ValueEventListener() {
                     @Override
                     public void onDataChange(DataSnapshot snapshot) {
                         String userID = snapshot.child("userID").getValue(String.class); // Get linked user ID
-                        db.child("employees").child(key).removeValue() // Delete employee
+                        AdminWrites.deleteStaff("delete employee " + key, "employees", key, userID) // Employee + linked user together
+                                .countReads(1)
+                                .commit(db)
                                 .addOnSuccessListener(aVoid -> {
-                                    if(userID != null) db.child("users").child(userID).removeValue(); // Delete linked user if exists
                                     showCustomToast("Employee deleted!"); // Show success message
                                     loadBranches(); // Reload branches
                                 })
@@ -0,0 +1,254 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Query layer over the admin menu catalog, built once per menu load on a background thread.
+//
+// Next to the branch grouping (BranchMenuIndex) it precomputes an id posting list per branch and per
+// category, the ids sorted by price, and a TextIndex over name/category/description. A query
+// (AdminCatalogQuery) is then answered from those arrays alone: each active filter marks its ids, and
+// only ids marked by every filter are kept. Changing a filter never touches the raw snapshot again.
+//
+// Results keep only ids per branch; BranchAdapter pulls menu items a page at a time via Result.page().
+// Immutable once built; query() can run on any thread.
+public final class AdminCatalog {
+
+    public static final AdminCatalog EMPTY = build(BranchMenuIndex.empty());
+
+    private final List<AdminHomeActivity.MenuItem> items;
+    private final List<String> branchIDs;
+    private final Map<String, int[]> idsByBranch;     // catalog order
+    private final String[] categories;                // normalized category names
+    private final int[][] idsByCategory;              // parallel to categories
+    private final int[] idsByPrice;                   // ids sorted by price
+    private final double[] sortedPrices;              // parallel to idsByPrice
+    private final TextIndex text;
+    private final Result all;
+
+    private AdminCatalog(List<AdminHomeActivity.MenuItem> items, List<String> branchIDs, Map<String, int[]> idsByBranch,
+                         String[] categories, int[][] idsByCategory, int[] idsByPrice, double[] sortedPrices,
+                         TextIndex text) {
+        this.items = items;
+        this.branchIDs = branchIDs;
+        this.idsByBranch = idsByBranch;
+        this.categories = categories;
+        this.idsByCategory = idsByCategory;
+        this.idsByPrice = idsByPrice;
+        this.sortedPrices = sortedPrices;
+        this.text = text;
+        this.all = new Result(items, branchIDs, idsByBranch, items.size());
+    }
+
+    public static AdminCatalog build(BranchMenuIndex groups) {
+        List<AdminHomeActivity.MenuItem> items = groups.allItems();
+        int n = items.size();
+
+        // ids are positions in the catalog; the grouping shares the same item objects
+        Map<AdminHomeActivity.MenuItem, Integer> idOf = new IdentityHashMap<>(n);
+        TextIndex.Builder textBuilder = new TextIndex.Builder();
+        Map<String, List<Integer>> byCategory = new LinkedHashMap<>();
+        for (int id = 0; id < n; id++) {
+            AdminHomeActivity.MenuItem item = items.get(id);
+            idOf.put(item, id);
+            textBuilder.add(item.name, item.category, item.description);
+
+            String category = TextIndex.normalize(item.category);
+            List<Integer> ids = byCategory.get(category);
+            if (ids == null) byCategory.put(category, ids = new ArrayList<>());
+            ids.add(id);
+        }
+
+        Map<String, int[]> idsByBranch = new LinkedHashMap<>();
+        for (String branchID : groups.branchIDs()) {
+            List<AdminHomeActivity.MenuItem> menus = groups.menusFor(branchID);
+            int[] ids = new int[menus.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = idOf.get(menus.get(i));
+            idsByBranch.put(branchID, ids);
+        }
+
+        String[] categories = byCategory.keySet().toArray(new String[0]);
+        int[][] idsByCategory = new int[categories.length][];
+        for (int c = 0; c < categories.length; c++) idsByCategory[c] = toArray(byCategory.get(categories[c]));
+
+        // Sort ids by price; ties keep catalog order
+        Integer[] order = new Integer[n];
+        for (int id = 0; id < n; id++) order[id] = id;
+        Arrays.sort(order, (a, b) -> {
+            int byPrice = Double.compare(items.get(a).price, items.get(b).price);
+            return byPrice != 0 ? byPrice : Integer.compare(a, b);
+        });
+        int[] idsByPrice = new int[n];
+        double[] sortedPrices = new double[n];
+        for (int i = 0; i < n; i++) {
+            idsByPrice[i] = order[i];
+            sortedPrices[i] = items.get(order[i]).price;
+        }
+
+        return new AdminCatalog(items, groups.branchIDs(), idsByBranch, categories, idsByCategory,
+                idsByPrice, sortedPrices, textBuilder.build());
+    }
+
+    // Every menu item, in catalog order
+    public List<AdminHomeActivity.MenuItem> allItems() {
+        return items;
+    }
+
+    // The unfiltered catalog (precomputed, so clearing a search costs nothing)
+    public Result all() {
+        return all;
+    }
+
+    public Result query(AdminCatalogQuery query) {
+        if (query.isEmpty()) return all;
+        int n = items.size();
+
+        // Each active filter adds one to the ids it accepts; an id passes when it has every vote
+        byte[] votes = new byte[n];
+        int required = 0;
+
+        if (query.category != null) {
+            required++;
+            for (int c = 0; c < categories.length; c++) {
+                if (!categories[c].startsWith(query.category)) continue;
+                for (int id : idsByCategory[c]) votes[id]++; // an item has one category, so no double votes
+            }
+        }
+
+        if (query.hasPriceRange()) {
+            required++;
+            int from = lowerBound(sortedPrices, query.minPrice);
+            for (int i = from; i < n && sortedPrices[i] <= query.maxPrice; i++) votes[idsByPrice[i]]++;
+        }
+
+        int[] rankOf = null; // position in the text ranking, so matches can be shown best first
+        if (!TextIndex.normalize(query.text).isEmpty()) {
+            required++;
+            int[] ranked = text.search(query.text);
+            rankOf = new int[n];
+            for (int r = 0; r < ranked.length; r++) {
+                votes[ranked[r]]++;
+                rankOf[ranked[r]] = r;
+            }
+        }
+
+        List<String> branches = query.branchID != null
+                ? Collections.singletonList(query.branchID)
+                : branchIDs;
+        Map<String, int[]> matched = new LinkedHashMap<>();
+        boolean[] counted = new boolean[n];
+        int total = 0;
+        for (String branchID : branches) {
+            int[] ids = idsByBranch.get(branchID);
+            if (ids == null) continue;
+            int[] kept = filter(ids, votes, required, rankOf);
+            if (kept.length == 0) continue; // branches without matches are hidden, as before
+            matched.put(branchID, kept);
+            for (int id : kept) {
+                if (!counted[id]) {
+                    counted[id] = true;
+                    total++;
+                }
+            }
+        }
+        return new Result(items, Collections.unmodifiableList(new ArrayList<>(matched.keySet())), matched, total);
+    }
+
+    // A query's matches grouped by branch, as ids; menu items are materialized a page at a time
+    public static final class Result {
+        private final List<AdminHomeActivity.MenuItem> items;
+        private final List<String> branchIDs;
+        private final Map<String, int[]> idsByBranch;
+        private final int total;
+
+        private Result(List<AdminHomeActivity.MenuItem> items, List<String> branchIDs,
+                       Map<String, int[]> idsByBranch, int total) {
+            this.items = items;
+            this.branchIDs = branchIDs;
+            this.idsByBranch = idsByBranch;
+            this.total = total;
+        }
+
+        public List<String> branchIDs() {
+            return branchIDs;
+        }
+
+        public int branchCount() {
+            return branchIDs.size();
+        }
+
+        // Distinct menu items across all branches
+        public int total() {
+            return total;
+        }
+
+        public boolean isEmpty() {
+            return total == 0;
+        }
+
+        public int countFor(String branchID) {
+            int[] ids = idsByBranch.get(branchID);
+            return ids != null ? ids.length : 0;
+        }
+
+        // Every matched menu once, in catalog order (the selection for bulk edits)
+        public List<AdminHomeActivity.MenuItem> items() {
+            if (total == items.size()) return Collections.unmodifiableList(items); // all() also covers menus with no branch
+            boolean[] matched = new boolean[items.size()];
+            for (int[] ids : idsByBranch.values()) for (int id : ids) matched[id] = true;
+            List<AdminHomeActivity.MenuItem> selected = new ArrayList<>(total);
+            for (int id = 0; id < matched.length; id++) if (matched[id]) selected.add(items.get(id));
+            return Collections.unmodifiableList(selected);
+        }
+
+        // Menus [offset, offset + limit) of one branch's matches
+        public List<AdminHomeActivity.MenuItem> page(String branchID, int offset, int limit) {
+            int[] ids = idsByBranch.get(branchID);
+            if (ids == null || offset >= ids.length) return Collections.emptyList();
+            int end = (int) Math.min((long) offset + limit, ids.length);
+            List<AdminHomeActivity.MenuItem> page = new ArrayList<>(end - offset);
+            for (int i = offset; i < end; i++) page.add(items.get(ids[i]));
+            return Collections.unmodifiableList(page);
+        }
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static int[] filter(int[] ids, byte[] votes, int required, int[] rankOf) {
+        int[] kept = new int[ids.length];
+        int count = 0;
+        for (int id : ids) {
+            if (votes[id] == required) kept[count++] = id;
+        }
+        kept = Arrays.copyOf(kept, count);
+        if (rankOf != null) {
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) keys[i] = ((long) rankOf[kept[i]] << 32) | kept[i];
+            Arrays.sort(keys);
+            for (int i = 0; i < count; i++) kept[i] = (int) keys[i];
+        }
+        return kept;
+    }
+
+    // First index whose price is >= min
+    private static int lowerBound(double[] sorted, double min) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < min) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) array[i] = list.get(i);
+        return array;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.pizzamaniaapp;
+
+import java.util.Locale;
+import java.util.Map;
+
+// Combined filter for the admin catalog: branch, category, price range and free text.
+// Typed into the admin search box as plain words plus optional "key:value" filters, e.g.
+//
+//     cheese cat:pizza price:1000-2500 branch:colombo
+//     price:<1500    price:>3000    branch:b002
+//
+// Anything that isn't a recognised filter is searched as text. Immutable.
+public final class AdminCatalogQuery {
+
+    public static final AdminCatalogQuery ALL = new AdminCatalogQuery(null, null, 0, Double.MAX_VALUE, "");
+
+    public final String branchID;   // null = every branch
+    public final String category;   // normalized category prefix, null = any
+    public final double minPrice;   // inclusive
+    public final double maxPrice;   // inclusive
+    public final String text;       // free text for TextIndex, "" = none
+
+    public AdminCatalogQuery(String branchID, String category, double minPrice, double maxPrice, String text) {
+        this.branchID = branchID;
+        this.category = category;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.text = text != null ? text : "";
+    }
+
+    // Parses search box input. branch: takes a branch ID or (case-insensitive) branch name; an unknown
+    // branch is kept as is so it matches nothing instead of silently showing every branch.
+    public static AdminCatalogQuery parse(String input, Map<String, String> branchNameToId) {
+        String branchID = null, category = null;
+        double minPrice = 0, maxPrice = Double.MAX_VALUE;
+        StringBuilder text = new StringBuilder();
+
+        for (String word : input.trim().split("\\s+")) {
+            int colon = word.indexOf(':');
+            String key = colon > 0 ? word.substring(0, colon).toLowerCase(Locale.ROOT) : "";
+            String value = colon > 0 ? word.substring(colon + 1) : word;
+
+            if (!value.isEmpty() && key.equals("branch")) {
+                branchID = resolveBranch(value, branchNameToId);
+            } else if (!value.isEmpty() && (key.equals("cat") || key.equals("category"))) {
+                category = TextIndex.normalize(value);
+            } else if (!value.isEmpty() && key.equals("price") && parsePrice(value) != null) {
+                double[] range = parsePrice(value);
+                minPrice = range[0];
+                maxPrice = range[1];
+            } else if (!word.isEmpty()) {
+                if (text.length() > 0) text.append(' ');
+                text.append(word);
+            }
+        }
+        return new AdminCatalogQuery(branchID, category, minPrice, maxPrice, text.toString());
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice > 0 || maxPrice < Double.MAX_VALUE;
+    }
+
+    public boolean isEmpty() {
+        return branchID == null && category == null && !hasPriceRange() && TextIndex.normalize(text).isEmpty();
+    }
+
+    // "1000-2500", "<1500", ">3000" or an exact "1450"; null when it isn't a price
+    private static double[] parsePrice(String value) {
+        try {
+            if (value.startsWith("<")) return new double[]{0, Double.parseDouble(value.substring(1))};
+            if (value.startsWith(">")) return new double[]{Double.parseDouble(value.substring(1)), Double.MAX_VALUE};
+            int dash = value.indexOf('-', 1);
+            if (dash > 0) {
+                double low = Double.parseDouble(value.substring(0, dash));
+                double high = Double.parseDouble(value.substring(dash + 1));
+                return new double[]{Math.min(low, high), Math.max(low, high)};
+            }
+            double exact = Double.parseDouble(value);
+            return new double[]{exact, exact};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String resolveBranch(String value, Map<String, String> branchNameToId) {
+        if (branchNameToId == null) return value;
+        if (branchNameToId.containsValue(value)) return value; // already an ID
+        for (Map.Entry<String, String> entry : branchNameToId.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(value)) return entry.getValue();
+        }
+        return value;
+    }
+}
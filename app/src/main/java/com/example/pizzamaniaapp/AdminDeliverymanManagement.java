@@ -3,7 +3,8 @@
 // - Admin screen for managing Deliverymen per Branch
 // - Features:
 //     * Load and display all Branches and their Deliverymen
-//     * Add new Deliverymen with auto-generated IDs (deliverymanID, userID)
+//     * Add new Deliverymen with reserved IDs (deliverymanID, userID from IdCounters)
+//     * Bulk import/export of Deliverymen as CSV (StaffImport)
 //     * Edit existing Deliverymen (update name, email, password, contact, address)
 //     * Delete Deliverymen (and linked User account) with confirmation
 //     * Always ensures Deliveryman has a "status" column (default = "Available")
@@ -15,7 +16,7 @@
 //
 // - Main Components:
 //     * Firebase Realtime Database Reference (db)
-//     * LinearLayout branchList → dynamically loads branches and deliverymen
+//     * RecyclerView branchList → branch headers with their deliverymen (StaffSectionAdapter)
 //     * Custom popup dialogs (Add/Edit/Delete Deliverymen)
 //     * Custom Loading Dialog + Toast
 //
@@ -29,23 +30,26 @@
 //         - Initializes UI and navigation buttons
 //         - Loads branches and their deliverymen
 //     * loadBranches()
-//         - Loads all branches from Firebase
-//         - Inflates rows with deliverymen list per branch
-//         - Calls loadDeliverymen() for each branch
+//         - Reads "branches" and "deliverymen" once each, in parallel (two reads however many branches)
+//         - Groups deliverymen under their branch in one pass off the UI thread (groupStaff)
+//         - Shows the sections in the RecyclerView
 //     * showAddDeliverymanPopup(branchId)
-//         - Generates new deliverymanID and userID
+//         - Reserves a new deliverymanID and userID in one transaction (IdCounters)
 //         - Shows popup form to enter details
 //         - Validates input, creates Deliveryman + User objects
-//         - Saves to Firebase
-//     * loadDeliverymen(branchId, container, onLoaded)
-//         - Loads deliverymen of a branch
-//         - Populates list with edit/delete buttons
+//         - Saves both in one atomic multi-path write (AdminWrites.saveStaff)
+//     * groupStaff(branchesSnap, deliverymenSnap)
+//         - Parses both snapshots, sorts branches by ID and groups deliverymen (StaffSections)
+//         - Each deliveryman row has edit/delete buttons
+//     * startCsvImport() / startCsvExport()
+//         - Import: resume or pick a CSV file; validated, IDs reserved as one block, written in chunks
+//         - Export: streams every deliveryman into the chosen file page by page
 //     * showEditDeliverymanPopup(deliveryman)
 //         - Opens popup pre-filled with existing values
-//         - Updates Firebase if changes detected
+//         - Updates deliveryman + user in one write if changes detected
 //     * showDeleteConfirmation(type, key)
 //         - Shows confirmation dialog
-//         - Deletes deliveryman and linked user from Firebase
+//         - Deletes deliveryman and linked user from Firebase in one write
 //     * showLoadingDialog(message) / hideLoadingDialog()
 //         - Shows/Hides custom loading popup
 //     * showCustomToast(message)
@@ -63,6 +67,7 @@ package com.example.pizzamaniaapp; // Package name of the app
 import android.content.Intent; // For navigating between activities
 import android.graphics.Color; // For setting colors programmatically
 import android.graphics.drawable.ColorDrawable; // For transparent/colored backgrounds
+import android.net.Uri; // CSV file picked for import/export
 import android.os.Bundle; // For passing data between activities and saving instance state
 import android.os.CountDownTimer; // For countdown timers (used in custom toast)
 import android.view.LayoutInflater; // For inflating custom layouts
@@ -72,7 +77,6 @@ import android.view.WindowManager; // For setting window attributes (size, gravi
 import android.widget.Button; // Standard button UI element
 import android.widget.EditText; // Text input field
 import android.widget.ImageButton; // Button with an image (used for navigation/edit/delete)
-import android.widget.LinearLayout; // Layout that arranges children in a single column/row
 import android.widget.ProgressBar; // Progress indicator (used in custom toast countdown)
 import android.widget.TextView; // Text display element
 import android.widget.ImageView; // Image display element
@@ -84,6 +88,8 @@ import androidx.activity.EdgeToEdge; // For edge-to-edge screen display
 import androidx.core.graphics.Insets; // For handling system bar insets
 import androidx.core.view.ViewCompat; // For applying insets to views
 import androidx.core.view.WindowInsetsCompat; // For managing window insets (status/navigation bar)
+import androidx.recyclerview.widget.LinearLayoutManager; // Vertical layout for the RecyclerView
+import androidx.recyclerview.widget.RecyclerView; // Recycling list for branches and deliverymen
 
 import com.google.firebase.database.DataSnapshot; // Snapshot of data at a database location
 import com.google.firebase.database.DatabaseError; // Error callback for Firebase database operations
@@ -93,16 +99,22 @@ import com.google.firebase.database.ValueEventListener; // Listener for data cha
 
 import java.util.ArrayList; // Resizable array implementation
 import java.util.Collections; // Utility class for collection operations (sorting, etc.)
-import java.util.Comparator; // For comparing objects when sorting
 import java.util.List; // List interface for ordered collections
 
 
 public class AdminDeliverymanManagement extends AppCompatActivity { // Activity class for managing deliverymen
 
-    LinearLayout branchList; // Container to dynamically hold branch rows
+    RecyclerView branchList; // List of branch headers with their deliverymen
+    StaffSectionAdapter<Branch, Deliveryman> staffAdapter; // Binds branches & deliverymen to branchList
+    private final SnapshotPipeline<StaffSections<Branch, Deliveryman>> staffPipeline = new SnapshotPipeline<>(error -> { // Groups staff off the UI thread
+        hideLoadingDialog(); // Don't leave the spinner up if grouping failed
+        showCustomToast("Failed to load deliverymen");
+    });
     DatabaseReference db; // Firebase database reference
     AlertDialog loadingDialog; // Custom loading dialog
     ImageButton reloadBtn; // Reload button to refresh branches
+    private static final int REQUEST_IMPORT_CSV = 41; // File picker for bulk import
+    private static final int REQUEST_EXPORT_CSV = 42; // Save location for export
 
     @Override
     protected void onCreate(Bundle savedInstanceState) { // Lifecycle method called when activity is created
@@ -115,13 +127,27 @@ public class AdminDeliverymanManagement extends AppCompatActivity { // Activity
             return insets; // Return modified insets
         });
 
-        branchList = findViewById(R.id.branchList); // Find branch list container by ID
+        branchList = findViewById(R.id.branchList); // Find branch list RecyclerView by ID
+        branchList.setLayoutManager(new LinearLayoutManager(this)); // Vertical list
+        staffAdapter = new StaffSectionAdapter<>(R.layout.deliveryman_branch_row, R.id.addDeliverymanBtn,
+                new StaffSectionAdapter.Callbacks<Branch, Deliveryman>() {
+                    @Override public String branchID(Branch branch) { return branch.branchID; } // Matches header rows between reloads
+                    @Override public String staffID(Deliveryman del) { return del.delID; } // Matches deliveryman rows between reloads
+                    @Override public String branchName(Branch branch) { return branch.name; } // Branch header text
+                    @Override public String staffName(Deliveryman del) { return del.name; } // Deliveryman row text
+                    @Override public void onAddStaff(Branch branch) { showAddDeliverymanPopup(branch.branchID); } // Open popup to add deliveryman
+                    @Override public void onEditStaff(Deliveryman del) { showEditDeliverymanPopup(del); } // Open edit popup on click
+                    @Override public void onDeleteStaff(Deliveryman del) { showDeleteConfirmation("deliveryman", del.delID); } // Show delete confirmation
+                });
+        branchList.setAdapter(staffAdapter); // Attach adapter
         db = FirebaseDatabase.getInstance().getReference(); // Get Firebase DB reference
 
         loadBranches(); // Load branches and deliverymen on startup
 
         reloadBtn = findViewById(R.id.reloadBranchBtn); // Find reload button by ID
         reloadBtn.setOnClickListener(v -> loadBranches()); // Reload branches when button clicked
+        findViewById(R.id.importCsvBtn).setOnClickListener(v -> startCsvImport()); // Bulk import deliverymen
+        findViewById(R.id.exportCsvBtn).setOnClickListener(v -> startCsvExport()); // Export deliverymen
 
         ImageButton btnBranch = findViewById(R.id.branchPageButton); // Find branch page button by ID
 
@@ -141,137 +167,159 @@ public class AdminDeliverymanManagement extends AppCompatActivity { // Activity
         });
     }
 
-    private void loadBranches() { // Method to load all branches from Firebase
-        branchList.removeAllViews(); // Clear the branch list UI before reloading
-        showLoadingDialog("Loading branches & deliverymen..."); // Show loading dialog while fetching data
-
-        db.child("branches").addListenerForSingleValueEvent(new ValueEventListener() { // Read branches from Firebase once
-            @Override
-            public void onDataChange(DataSnapshot snapshot) { // Called when data is received
-                List<Branch> branchListTemp = new ArrayList<>(); // Temporary list to hold branches
-                for (DataSnapshot branchSnap : snapshot.getChildren()) { // Loop through each branch snapshot
-                    Branch branch = branchSnap.getValue(Branch.class); // Convert snapshot to Branch object
-                    if (branch != null) branchListTemp.add(branch); // Add branch if not null
-                }
+    @Override
+    protected void onDestroy() { // Lifecycle method called when activity is closed
+        super.onDestroy();
+        staffPipeline.cancel(); // Drop any grouping still in flight
+    }
 
-                // Sort branches by numeric part of branchID (b001, b002, ...)
-                Collections.sort(branchListTemp, Comparator.comparingInt(a -> Integer.parseInt(a.branchID.substring(1))));
+    // 🔹 Bulk CSV import: offer to resume an unfinished import, otherwise pick a file
+    private void startCsvImport() {
+        StaffImport.Pending pending = StaffImport.pending(this, StaffImport.Kind.DELIVERYMEN);
+        if (pending == null) {
+            pickCsvFile();
+            return;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Unfinished import")
+                .setMessage("An earlier deliveryman import stopped part way. Resume it?")
+                .setPositiveButton("Resume", (d, which) -> {
+                    showCsvProgress("Importing deliverymen...");
+                    StaffImport.resume(this, db, StaffImport.Kind.DELIVERYMEN, pending, csvListener("Imported"));
+                })
+                .setNegativeButton("New file", (d, which) -> {
+                    StaffImport.discard(this, db, StaffImport.Kind.DELIVERYMEN); // drop the old checkpoint
+                    pickCsvFile();
+                })
+                .show();
+    }
 
-                if (branchListTemp.isEmpty()) { // If no branches found
-                    hideLoadingDialog(); // Hide loading dialog
-                    return; // Exit method
-                }
+    private void pickCsvFile() {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT); // Storage Access Framework picker
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("*/*");
+        intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{"text/csv", "text/comma-separated-values", "text/plain"});
+        startActivityForResult(intent, REQUEST_IMPORT_CSV);
+    }
 
-                final int[] branchesLoaded = {0}; // Counter to track loaded branches
+    // 🔹 Bulk CSV export: let the admin choose where to save, then stream every deliveryman into it
+    private void startCsvExport() {
+        Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("text/csv");
+        intent.putExtra(Intent.EXTRA_TITLE, "deliverymen.csv");
+        startActivityForResult(intent, REQUEST_EXPORT_CSV);
+    }
 
-                for (Branch branch : branchListTemp) { // Loop through each branch
-                    // ✅ Inflate the branch row layout for deliverymen
-                    View branchView = getLayoutInflater().inflate(R.layout.deliveryman_branch_row, null);
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (resultCode != RESULT_OK || data == null || data.getData() == null) return; // cancelled
+        Uri uri = data.getData();
+        if (requestCode == REQUEST_IMPORT_CSV) {
+            try {
+                // Keep read access across restarts so an interrupted import can resume
+                getContentResolver().takePersistableUriPermission(uri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            } catch (SecurityException ignored) {}
+            showCsvProgress("Checking file...");
+            StaffImport.start(this, db, StaffImport.Kind.DELIVERYMEN, uri, csvListener("Imported"));
+        } else if (requestCode == REQUEST_EXPORT_CSV) {
+            showCsvProgress("Exporting deliverymen...");
+            StaffImport.export(this, db, StaffImport.Kind.DELIVERYMEN, uri, csvListener("Exported"));
+        }
+    }
 
-                    TextView branchName = branchView.findViewById(R.id.branchName); // Branch name text
-                    branchName.setText(branch.name); // Set branch name
+    // Progress goes into the loading dialog; results as a toast (or a dialog listing bad rows)
+    private StaffImport.Listener csvListener(String verb) {
+        return new StaffImport.Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+                if (isDestroyed()) return;
+                showCsvProgress(total >= 0 ? verb + " " + done + " of " + total + " deliverymen..."
+                        : verb + " " + done + " deliverymen...");
+            }
 
-                    // ✅ Add deliveryman button (Button type in XML)
-                    Button addDeliveryBtn = branchView.findViewById(R.id.addDeliverymanBtn);
+            @Override
+            public void onFinished(int rows) {
+                if (isDestroyed()) return;
+                hideLoadingDialog();
+                showCustomToast(verb + " " + rows + " deliverymen");
+                loadBranches(); // show the new staff
+            }
 
-                    // ✅ Container for deliverymen under this branch
-                    LinearLayout deliveryContainer = branchView.findViewById(R.id.deliverymanContainer);
+            @Override
+            public void onFailed(String message) {
+                if (isDestroyed()) return;
+                hideLoadingDialog();
+                if (message.contains("\n")) { // row errors: too long for a toast
+                    new AlertDialog.Builder(AdminDeliverymanManagement.this)
+                            .setTitle("Import failed")
+                            .setMessage(message)
+                            .setPositiveButton("OK", null)
+                            .show();
+                } else {
+                    showCustomToast(message);
+                }
+            }
+        };
+    }
 
-                    addDeliveryBtn.setOnClickListener(v -> showAddDeliverymanPopup(branch.branchID)); // Open popup to add deliveryman
+    private void showCsvProgress(String text) {
+        if (loadingDialog == null || !loadingDialog.isShowing()) showLoadingDialog(text);
+        TextView label = loadingDialog.findViewById(R.id.loadingText);
+        if (label != null) label.setText(text);
+    }
 
-                    loadDeliverymen(branch.branchID, deliveryContainer, () -> { // Load deliverymen for this branch
-                        branchesLoaded[0]++; // Increment loaded branch count
-                        if (branchesLoaded[0] == branchListTemp.size()) hideLoadingDialog(); // Hide dialog after last branch is done
-                    });
+    private void loadBranches() { // Method to load all branches and deliverymen from Firebase
+        showLoadingDialog("Loading branches & deliverymen..."); // Show loading dialog while fetching data
 
-                    branchList.addView(branchView); // Add branch view to branch list
-                }
+        // Read both nodes at once: two round trips in total instead of one per branch
+        ParallelReads.read(new ParallelReads.Callback() {
+            @Override
+            public void onLoaded(DataSnapshot[] snapshots) { // Both reads finished
+                // Parse, sort and group on the pipeline thread, then show on the UI thread
+                staffPipeline.submit(() -> groupStaff(snapshots[0], snapshots[1]), sections -> {
+                    staffAdapter.setSections(sections); // Show branches with their deliverymen
+                    hideLoadingDialog(); // Hide dialog once everything is shown
+                });
             }
 
             @Override
-            public void onCancelled(DatabaseError error) { // Called if Firebase query fails
+            public void onFailed(DatabaseError error) { // Called if a Firebase read fails
                 hideLoadingDialog(); // Hide loading dialog
+                showCustomToast("Failed to load branches: " + error.getMessage()); // Tell the admin why the list is empty
             }
-        });
+        }, db.child("branches"), db.child("deliverymen"));
+    }
+
+    // Runs on the snapshot pipeline thread: branches sorted by ID number, deliverymen grouped under them
+    private static StaffSections<Branch, Deliveryman> groupStaff(DataSnapshot branchesSnap, DataSnapshot deliverymenSnap) {
+        List<Branch> branches = new ArrayList<>(); // Branches from Firebase
+        for (DataSnapshot branchSnap : branchesSnap.getChildren()) { // Loop through each branch snapshot
+            Branch branch = SnapshotMappers.deliveryBranch(branchSnap.getValue()); // Convert snapshot to Branch object
+            if (branch != null) branches.add(branch); // Add branch if not null
+        }
+        // Sort branches by numeric part of branchID (b001, b002, ...), malformed IDs last
+        Collections.sort(branches, StaffSections.byBranchNumber(b -> b.branchID));
+
+        List<Deliveryman> deliverymen = new ArrayList<>(); // Every deliveryman, all branches
+        for (DataSnapshot delSnap : deliverymenSnap.getChildren()) { // Loop through deliverymen
+            Deliveryman del = SnapshotMappers.deliveryman(delSnap.getValue()); // Convert snapshot to Deliveryman object
+            if (del != null) deliverymen.add(del); // Skip if null
+        }
+        return StaffSections.group(branches, b -> b.branchID, deliverymen, d -> d.branchID); // One pass over deliverymen
     }
 
     private void showAddDeliverymanPopup(String branchId) {
         // Show a loading dialog while preparing the popup
         showLoadingDialog("Preparing new deliveryman...");
 
-        // Step 1: Load all existing deliverymen IDs from Firebase
-        db.child("deliverymen").get().addOnCompleteListener(delTask -> {
-            int nextDel = 1; // Default next available deliveryman number
-
-            if (delTask.isSuccessful() && delTask.getResult() != null) {
-                DataSnapshot delSnapshot = delTask.getResult();
-                List<Integer> delNums = new ArrayList<>();
-
-                // Loop through all deliverymen and extract numeric part of IDs
-                for (DataSnapshot s : delSnapshot.getChildren()) {
-                    String id = s.getKey(); // e.g., "d001"
-                    if (id != null && id.startsWith("d")) {
-                        try {
-                            delNums.add(Integer.parseInt(id.substring(1))); // Convert "001" -> 1
-                        } catch (NumberFormatException ignored) {}
-                    }
-                }
-
-                // Sort the list to find gaps in IDs
-                Collections.sort(delNums);
-
-                // Find the smallest available deliveryman ID
-                for (int num : delNums) {
-                    if (num == nextDel) nextDel++; // ID already used, move to next
-                    else if (num > nextDel) break; // Found a gap
-                }
-            } else {
-                // Failed to read deliverymen IDs
-                hideLoadingDialog();
-                showCustomToast("Failed to load deliveryman IDs: " +
-                        (delTask.getException() != null ? delTask.getException().getMessage() : "Unknown error"));
-                return;
-            }
-
-            // Format deliveryman ID as "dXXX"
-            String deliverymanID = "d" + String.format("%03d", nextDel);
-
-            // Step 2: Load all existing user IDs from Firebase
-            db.child("users").get().addOnCompleteListener(userTask -> {
-                int nextUser = 1; // Default next available user number
-
-                if (userTask.isSuccessful() && userTask.getResult() != null) {
-                    DataSnapshot userSnapshot = userTask.getResult();
-                    List<Integer> userNums = new ArrayList<>();
-
-                    // Loop through all users and extract numeric part of IDs
-                    for (DataSnapshot s : userSnapshot.getChildren()) {
-                        String id = s.getKey(); // e.g., "u001"
-                        if (id != null && id.startsWith("u")) {
-                            try {
-                                userNums.add(Integer.parseInt(id.substring(1))); // Convert "001" -> 1
-                            } catch (NumberFormatException ignored) {}
-                        }
-                    }
-
-                    // Sort the list to find gaps in user IDs
-                    Collections.sort(userNums);
-
-                    // Find the smallest available user ID
-                    for (int num : userNums) {
-                        if (num == nextUser) nextUser++; // ID already used
-                        else if (num > nextUser) break; // Found a gap
-                    }
-                } else {
-                    // Failed to read user IDs
-                    hideLoadingDialog();
-                    showCustomToast("Failed to load user IDs: " +
-                            (userTask.getException() != null ? userTask.getException().getMessage() : "Unknown error"));
-                    return;
-                }
-
-                // Format user ID as "uXXX"
-                String userID = "u" + String.format("%03d", nextUser);
+        // Reserve the next deliveryman ID + user ID in one transaction (no download of both nodes)
+        IdCounters.reserve(db, "deliverymen", 'd', 1, new IdCounters.Callback() {
+            @Override
+            public void onReserved(IdBlock staff, IdBlock users) {
+                String deliverymanID = staff.id(0); // e.g. "d042"
+                String userID = users.id(0);        // e.g. "u317"
 
                 // Hide loading dialog before showing popup
                 hideLoadingDialog();
@@ -341,27 +389,17 @@ public class AdminDeliverymanManagement extends AppCompatActivity { // Activity
 
                         User user = new User(userID, name, email, address, contact, "Deliveryman");
 
-                        // Save deliveryman to Firebase
-                        db.child("deliverymen").child(deliverymanID).setValue(deliveryman)
-                                .addOnSuccessListener(aVoid ->
-                                        // Save user to Firebase
-                                        db.child("users").child(userID).setValue(user)
-                                                .addOnSuccessListener(aVoid2 -> {
-                                                    showCustomToast("Deliveryman added!");
-                                                    loadBranches(); // Reload branches data
-                                                    dialog.dismiss(); // Close popup
-                                                })
-                                                .addOnFailureListener(e -> {
-                                                    // Handle user save errors
-                                                    if (e.getMessage() != null &&
-                                                            e.getMessage().contains("Permission denied")) {
-                                                        showCustomToast("Permission denied while saving user!");
-                                                    } else {
-                                                        showCustomToast("Failed to add user: " + e.getMessage());
-                                                    }
-                                                }))
+                        // Save deliveryman + user in one atomic write
+                        AdminWrites.saveStaff("add deliveryman " + deliverymanID, "deliverymen", deliverymanID,
+                                        deliveryman, userID, user)
+                                .commit(db)
+                                .addOnSuccessListener(aVoid -> {
+                                    showCustomToast("Deliveryman added!");
+                                    loadBranches(); // Reload branches data
+                                    dialog.dismiss(); // Close popup
+                                })
                                 .addOnFailureListener(e -> {
-                                    // Handle deliveryman save errors
+                                    // Handle save errors (nothing was written)
                                     if (e.getMessage() != null &&
                                             e.getMessage().contains("Permission denied")) {
                                         showCustomToast("Permission denied while saving deliveryman!");
@@ -375,40 +413,14 @@ public class AdminDeliverymanManagement extends AppCompatActivity { // Activity
                     e.printStackTrace();
                     showCustomToast("Failed to open add deliveryman popup");
                 }
-            });
-        });
-    }
-
-    private void loadDeliverymen(String branchId, LinearLayout container, Runnable onLoaded) { // Load deliverymen for a specific branch
-        db.child("deliverymen").orderByChild("branchID").equalTo(branchId) // Query deliverymen where branchID matches
-                .addListenerForSingleValueEvent(new ValueEventListener() { // Listen for data once
-                    @Override
-                    public void onDataChange(DataSnapshot snapshot) { // Called when data is fetched
-                        container.removeAllViews(); // Clear old views before reloading
-                        for (DataSnapshot delSnap : snapshot.getChildren()) { // Loop through deliverymen in this branch
-                            Deliveryman del = delSnap.getValue(Deliveryman.class); // Convert snapshot to Deliveryman object
-                            if (del == null) continue; // Skip if null
-
-                            View delView = getLayoutInflater().inflate(R.layout.employee_row, null); // Inflate row layout
-                            TextView delName = delView.findViewById(R.id.employeeName); // Find name field
-                            delName.setText(del.name); // Set deliveryman name
-
-                            ImageButton editBtn = delView.findViewById(R.id.editEmployeeBtn); // Edit button
-                            ImageButton deleteBtn = delView.findViewById(R.id.deleteEmployeeBtn); // Delete button
-
-                            editBtn.setOnClickListener(v -> showEditDeliverymanPopup(del)); // Open edit popup on click
-                            deleteBtn.setOnClickListener(v -> showDeleteConfirmation("deliveryman", del.delID)); // Show delete confirmation
-
-                            container.addView(delView); // Add deliveryman row to container
-                        }
-                        if (onLoaded != null) onLoaded.run(); // Run callback when done loading
-                    }
+            }
 
-                    @Override
-                    public void onCancelled(DatabaseError error) { // Called if Firebase query fails
-                        if (onLoaded != null) onLoaded.run(); // Still run callback to avoid hanging
-                    }
-                });
+            @Override
+            public void onFailed(String message) {
+                hideLoadingDialog();
+                showCustomToast("Failed to reserve IDs: " + message);
+            }
+        });
     }
 
     private void showEditDeliverymanPopup(Deliveryman del) {
@@ -501,20 +513,16 @@ public class AdminDeliverymanManagement extends AppCompatActivity { // Activity
                 del.status = "Available"; // Ensure status is set
             }
 
-            // --- Update deliveryman in Firebase ---
-            db.child("deliverymen").child(del.delID).setValue(del)
+            // --- Update deliveryman + linked user in Firebase (one atomic write) ---
+            User updatedUser = new User(del.userID, name, email, address, contact, "Deliveryman");
+            AdminWrites.saveStaff("edit deliveryman " + del.delID, "deliverymen", del.delID, del, del.userID, updatedUser)
+                    .commit(db)
                     .addOnSuccessListener(aVoid -> {
-                        // --- Update linked user in Firebase ---
-                        User updatedUser = new User(del.userID, name, email, address, contact, "Deliveryman");
-                        db.child("users").child(del.userID).setValue(updatedUser)
-                                .addOnSuccessListener(aVoid2 -> {
-                                    showCustomToast("Deliveryman updated!"); // Notify success
-                                    loadBranches(); // Refresh branch/employee list
-                                    dialog.dismiss(); // Close popup
-                                })
-                                .addOnFailureListener(e -> showCustomToast("User update failed: " + e.getMessage())); // Handle user update error
+                        showCustomToast("Deliveryman updated!"); // Notify success
+                        loadBranches(); // Refresh branch/employee list
+                        dialog.dismiss(); // Close popup
                     })
-                    .addOnFailureListener(e -> showCustomToast("Update failed: " + e.getMessage())); // Handle deliveryman update error
+                    .addOnFailureListener(e -> showCustomToast("Update failed: " + e.getMessage())); // Handle update error
         });
     }
 
@@ -541,7 +549,7 @@ public class AdminDeliverymanManagement extends AppCompatActivity { // Activity
             db.child("deliverymen").child(key).addListenerForSingleValueEvent(new ValueEventListener() {
                 @Override
                 public void onDataChange(DataSnapshot snapshot) {
-                    Deliveryman del = snapshot.getValue(Deliveryman.class); // Get deliveryman object
+                    Deliveryman del = SnapshotMappers.deliveryman(snapshot.getValue()); // Get deliveryman object
                     if (del == null) { // If not found
                         showCustomToast("Deliveryman not found!"); // Show error toast
                         return; // Stop further execution
@@ -549,20 +557,16 @@ public class AdminDeliverymanManagement extends AppCompatActivity { // Activity
 
                     String userId = del.userID; // Get linked userID
 
-                    // --- Remove deliveryman from database ---
-                    db.child("deliverymen").child(key).removeValue()
+                    // --- Remove deliveryman + linked user together ---
+                    AdminWrites.deleteStaff("delete deliveryman " + key, "deliverymen", key, userId)
+                            .countReads(1) // the existence check above
+                            .commit(db)
                             .addOnSuccessListener(aVoid -> {
-                                // --- Remove linked user from "users" node ---
-                                db.child("users").child(userId).removeValue()
-                                        .addOnSuccessListener(aVoid2 -> {
-                                            showCustomToast("Deliveryman deleted!"); // Success toast
-                                            loadBranches(); // Refresh branch & deliveryman list
-                                        })
-                                        .addOnFailureListener(e ->
-                                                showCustomToast("User delete failed: " + e.getMessage())); // User removal failed
+                                showCustomToast("Deliveryman deleted!"); // Success toast
+                                loadBranches(); // Refresh branch & deliveryman list
                             })
                             .addOnFailureListener(e ->
-                                    showCustomToast("Delete failed: " + e.getMessage())); // Deliveryman removal failed
+                                    showCustomToast("Delete failed: " + e.getMessage())); // Nothing removed
                 }
 
                 @Override
@@ -6,7 +6,9 @@
 //     * Add/Edit/Delete menu items
 //     * Assign menu items to branches
 //     * Load list of branches for menu assignment
-//     * Search menu items by name
+//     * Search menu items by text, category, price range and branch
+//     * Bulk price / availability edits over the searched menus, with a preview
+//     * Import / export the whole catalog as CSV
 //     * Navigate to Branch/Employee Management screen
 //     * Custom top toast for messages
 //     * Custom loading dialog for Firebase operations
@@ -18,14 +20,16 @@
 // - Initializes Firebase DB reference
 // - Loads menu items and branch list
 // - Handles "Add Menu" button click
-// - Configures search box and button (filter menu items by name)
+// - Configures search box and button (query the catalog)
+// - Handles "Bulk" button click (bulk edit popup)
 // - Adds button to navigate to AdminBranchEmployeeManagementActivity
 
 
 // loadMenuItems()
 // - Shows loading dialog
 // - Fetches all menu items from Firebase
-// - Parses into MenuItem objects and sorts by menuID
+// - Parses into MenuItem objects, sorts by menuID, groups them by branch (BranchMenuIndex) and
+//   builds the query indexes (AdminCatalog) off the UI thread
 // - Initializes or updates RecyclerView adapter
 // - Handles Firebase errors with custom toast
 
@@ -37,11 +41,32 @@
 
 
 // filterMenu(query)
-// - Filters allMenuItems by name containing query (case-insensitive)
-// - Updates adapter with results
+// - Parses the search box into an AdminCatalogQuery (text plus optional cat:, price:, branch: filters)
+// - Runs it against the prebuilt AdminCatalog on the search pipeline (no snapshot is rescanned)
+// - Updates adapter with results; branch rows page their menus in as they scroll
 // - If no matches, shows toast and resets to full menu list
 
 
+// showBulkPopup()
+// - Selection = every menu the list currently shows (so search filters select: cat:, branch:, price:)
+// - Choose one operation: price rule (+10%, -50, =1500), add to / remove from a branch,
+//   sold out / back in stock at a branch
+// - Builds a MenuBulkEdit plan (only the menus that really change) and previews it
+
+
+// previewBulkEdit(plan, popup) / applyBulkEdit(plan)
+// - Shows the before → after lines (first 50) and what was skipped
+// - On confirm: MenuImport.apply() writes only the changed fields (price, branches + ab, so word),
+//   re-reading each chunk and re-applying the edit to the current records in one atomic update,
+//   with progress in the loading dialog
+// - Reloads the menu list when done
+
+
+// startMenuCsvImport() / startMenuCsvExport()
+// - Import: pick a MenuCsv file, validate every row first, then write it in chunks (MenuImport)
+// - Export: pick where to save, then stream the menu node into it page by page
+
+
 // prepareNewMenuPopup()
 // - Loads branch list first
 // - Then fetches total menu items to generate next menuID (m001, m002…)
@@ -61,7 +86,7 @@
 // saveMenuItem(existingItem, ...)
 // - Validates required fields (id, name, category, price)
 // - Parses price input safely
-// - Creates/updates MenuItem object
+// - Creates/updates MenuItem object (branch list + availability bitset, keeps sold-out bits)
 // - Saves item to Firebase
 // - On success: toast + reload menu list
 // - On failure: toast error
@@ -74,6 +99,12 @@
 // - On failure: shows error toast
 
 
+// toggleSoldOut(item, branchID)
+// - Long-press on a menu card in a branch row
+// - Flips that branch's sold-out bit with a transaction on one bitset word (menu/{id}/so/{word})
+// - On success: toast + reload menu list
+
+
 // showCustomToast(message)
 // - Shows custom top toast with message
 // - Includes close button + progress bar
@@ -92,7 +123,7 @@
 
 // MenuItem class
 // - Data model for menu items
-// - Fields: menuID, name, category, description, price, imageURL, branches
+// - Fields: menuID, name, category, description, price, imageURL, branches, availableAt, soldOutAt
 
 
 package com.example.pizzamaniaapp; // Package name of the app
@@ -100,6 +131,7 @@ package com.example.pizzamaniaapp; // Package name of the app
 // -------- Android Core Imports --------
 import android.content.Intent; // Used to switch between activities
 import android.content.SharedPreferences;
+import android.net.Uri; // Picked CSV file
 import android.os.Bundle; // Holds saved instance state for activities
 import android.os.CountDownTimer; // Provides countdown functionality (used for toast auto-dismiss)
 import android.util.Log; // Logging for debugging
@@ -116,10 +148,12 @@ import android.widget.ImageButton; // Button with image icon
 import android.widget.TextView; // Display text
 import android.widget.ImageView; // Display image
 import android.widget.ProgressBar; // Progress indicator
+import android.widget.RadioGroup; // Bulk operation choice
 import android.graphics.drawable.ColorDrawable; // Drawable for solid colors (used for dialog background)
 import android.graphics.Color; // Color constants/utilities
 
 // -------- AndroidX (Support Libraries) --------
+import androidx.annotation.NonNull; // Marks parameters/returns as non-null
 import androidx.appcompat.app.AlertDialog; // Custom dialogs
 import androidx.appcompat.app.AppCompatActivity; // Base class for activities using AppCompat features
 import androidx.core.graphics.Insets; // Insets for system bars (status bar, nav bar)
@@ -138,20 +172,33 @@ import com.google.firebase.database.DataSnapshot; // Snapshot of Firebase data
 import com.google.firebase.database.DatabaseError; // Error handling for Firebase DB
 import com.google.firebase.database.DatabaseReference; // Reference to a location in Firebase DB
 import com.google.firebase.database.FirebaseDatabase; // Firebase database instance
+import com.google.firebase.database.MutableData; // Current value inside a transaction
+import com.google.firebase.database.Transaction; // Atomic read-modify-write on a node
 import com.google.firebase.database.ValueEventListener; // Listener for data changes in Firebase
 
 // -------- Java Utilities --------
 import java.util.ArrayList; // Resizable array implementation
 import java.util.Collections; // Utility class for sorting/collection operations
+import java.util.HashMap; // Hash table based Map implementation
 import java.util.List; // Interface for ordered collections
+import java.util.Map; // Key-value lookups (branch ID ↔ name)
 
 
 public class AdminHomeActivity extends AppCompatActivity { // Main admin home activity, extends AppCompat for modern features
 
     private static final String TAG = "AdminHomeActivity"; // Tag for logging/debugging
+    private static final int REQUEST_IMPORT_CSV = 41; // File picker for the catalog CSV import
+    private static final int REQUEST_EXPORT_CSV = 42; // Save location for the catalog CSV export
+    private static final int PREVIEW_LINES = 50; // Changes listed in the bulk preview
     private DatabaseReference db; // Firebase Realtime Database reference
-    private final List<MenuItem> allMenuItems = new ArrayList<>(); // Stores all menu items loaded from Firebase
     private BranchAdapter branchAdapter; // RecyclerView adapter to display menu items
+    private AdminCatalog catalog = AdminCatalog.EMPTY; // All menus grouped by branch plus query indexes, rebuilt once per load
+    private final SnapshotPipeline<AdminCatalog> menuPipeline = new SnapshotPipeline<>(error -> { // Parses, groups and indexes menu snapshots off the UI thread
+        hideLoadingDialog(); // 🔹 Don't leave the loading popup up if parsing failed
+        showCustomToast("Failed to load menu items");
+    });
+    private final SnapshotPipeline<AdminCatalog.Result> searchPipeline = new SnapshotPipeline<>(); // Runs catalog queries off the UI thread
+    private AdminCatalog.Result shownResult = AdminCatalog.EMPTY.all(); // What the list shows = the bulk edit selection
 
     private RecyclerView branchRecyclerView; // RecyclerView to list menu items
     private ImageButton addButton; // Button to open popup for adding new menu item
@@ -174,6 +221,7 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
         });
 
         db = FirebaseDatabase.getInstance().getReference(); // Initialize Firebase DB reference
+        SummaryBackfill.run(db); // Give orders from before "orderSummaries" their list rows (no-op once done)
         branchRecyclerView = findViewById(R.id.branchRecyclerView); // RecyclerView for menu list
         addButton = findViewById(R.id.addButton); // "Add menu item" button
 
@@ -182,6 +230,7 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
         loadBranches(); // Load all menu items from Firebase
 
         addButton.setOnClickListener(v -> prepareNewMenuPopup()); // When add button is clicked, open popup for new menu
+        findViewById(R.id.bulkButton).setOnClickListener(v -> showBulkPopup()); // Bulk edit the menus the list shows
 
         // search views
         searchBox = findViewById(R.id.searchBox); // Input for search text
@@ -190,7 +239,8 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
         searchButton.setOnClickListener(v -> { // Handle search button click
             String query = searchBox.getText().toString().trim(); // Get search text
             if (query.isEmpty()) {
-                branchAdapter.updateList(new ArrayList<>(allMenuItems)); // reset to all menus if empty
+                searchPipeline.cancel(); // drop a search still in flight
+                showCatalog(catalog.all()); // reset to all menus if empty
             } else {
                 filterMenu(query); // filter menu list by query
             }
@@ -199,7 +249,8 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
         searchBox.setOnEditorActionListener((v, actionId, event) -> { // Handle Enter key press in search box
             String query = searchBox.getText().toString().trim(); // Get search text
             if (query.isEmpty()) {
-                branchAdapter.updateList(new ArrayList<>(allMenuItems)); // reset all menus if empty
+                searchPipeline.cancel(); // drop a search still in flight
+                showCatalog(catalog.all()); // reset all menus if empty
             } else {
                 filterMenu(query); // filter menu list by query
             }
@@ -245,41 +296,48 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
 
     }
 
+    @Override
+    protected void onDestroy() { // Called when activity is destroyed
+        super.onDestroy();
+        menuPipeline.cancel(); // 🔹 Drop any menu parsing still in flight
+        searchPipeline.cancel(); // 🔹 ...and any search still being filtered
+    }
+
+    // Runs on the snapshot pipeline thread: parse every menu item and sort by menuID
+    private static List<MenuItem> parseMenuItems(DataSnapshot snapshot) {
+        List<MenuItem> items = new ArrayList<>();
+        for (DataSnapshot itemSnap : snapshot.getChildren()) { // Loop through all menu items in Firebase
+            try {
+                MenuItem item = SnapshotMappers.adminMenuItem(itemSnap.getValue()); // Convert snapshot to MenuItem object
+                if (item != null) items.add(item); // Add valid menu items to list
+            } catch (Exception e) { // Catch parsing errors
+                Log.e(TAG, "Menu item parse error for key " + itemSnap.getKey(), e); // Log error for debugging
+            }
+        }
+
+        // 🔹 Sort menu items by menuID (alphabetically, e.g., m001, m002...)
+        Collections.sort(items, (a, b) -> {
+            String idA = (a == null || a.menuID == null) ? "" : a.menuID; // Handle null safety
+            String idB = (b == null || b.menuID == null) ? "" : b.menuID; // Handle null safety
+            return idA.compareTo(idB); // Compare menu IDs
+        });
+        return items;
+    }
+
     private void loadMenuItems() { // Method to load all menu items from Firebase
         showLoadingDialog("Loading menus..."); // 🔹 Show custom loading popup while fetching data
 
         db.child("menu").addListenerForSingleValueEvent(new ValueEventListener() { // Attach one-time listener to "menu" node in Firebase
             @Override
             public void onDataChange(DataSnapshot snapshot) { // Called when data is successfully fetched
-                hideLoadingDialog(); // 🔹 Hide loading popup after data is loaded
-                allMenuItems.clear(); // Clear current menu list before reloading
-                for (DataSnapshot itemSnap : snapshot.getChildren()) { // Loop through all menu items in Firebase
-                    try {
-                        MenuItem item = itemSnap.getValue(MenuItem.class); // Convert snapshot to MenuItem object
-                        if (item != null) allMenuItems.add(item); // Add valid menu items to list
-                    } catch (Exception e) { // Catch parsing errors
-                        Log.e(TAG, "Menu item parse error for key " + itemSnap.getKey(), e); // Log error for debugging
-                    }
-                }
-
-                // 🔹 Sort menu items by menuID (alphabetically, e.g., m001, m002...)
-                Collections.sort(allMenuItems, (a, b) -> {
-                    String idA = (a == null || a.menuID == null) ? "" : a.menuID; // Handle null safety
-                    String idB = (b == null || b.menuID == null) ? "" : b.menuID; // Handle null safety
-                    return idA.compareTo(idB); // Compare menu IDs
+                // 🔹 Parse and sort on the background pipeline, then update the list on the UI thread
+                menuPipeline.submit(snapshot,
+                        snap -> AdminCatalog.build(BranchMenuIndex.build(parseMenuItems(snap))), // group and index on the same background pass
+                        loaded -> {
+                    hideLoadingDialog(); // 🔹 Hide loading popup after data is loaded
+                    catalog = loaded; // Keep the indexes so every later search is answered without a rebuild
+                    showCatalog(loaded.all());
                 });
-
-                if (branchAdapter == null) { // If adapter not initialized yet
-                    branchAdapter = new BranchAdapter(
-                            AdminHomeActivity.this,
-                            new ArrayList<>(allMenuItems),
-                            item -> showMenuPopup(item, null),
-                            branchIdToName   // ✅ pass ID→Name map here
-                    );
-                    branchRecyclerView.setAdapter(branchAdapter); // Attach adapter to RecyclerView
-                } else {
-                    branchAdapter.updateList(new ArrayList<>(allMenuItems)); // If adapter exists, update its list
-                }
             }
 
             @Override
@@ -293,8 +351,8 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
 
     private final List<String> allBranchNames = new ArrayList<>(); // Stores branch names for UI
     private final List<String> allBranchIDs = new ArrayList<>();   // Stores branch IDs for saving
-    private final java.util.Map<String, String> branchIdToName = new java.util.HashMap<>(); // Map branchID → branchName
-    private final java.util.Map<String, String> branchNameToId = new java.util.HashMap<>(); // Map branchName → branchID
+    private final Map<String, String> branchIdToName = new HashMap<>(); // Map branchID → branchName
+    private final Map<String, String> branchNameToId = new HashMap<>(); // Map branchName → branchID
 
     private void loadBranches() {
         // 🔹 Query the "branches" node once from Firebase Realtime Database
@@ -342,24 +400,237 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
         });
     }
 
-    private void filterMenu(String query) { // Method to filter menu items by name
-        List<MenuItem> filtered = new ArrayList<>(); // Temporary list to store filtered items
-        for (MenuItem item : allMenuItems) { // Loop through all menu items
-            if (item.name != null && item.name.toLowerCase().contains(query.toLowerCase())) {
-                // ✅ If item name exists and contains the search query (case-insensitive)
-                filtered.add(item); // Add to filtered list
+    private void showCatalog(AdminCatalog.Result result) { // Create the branch adapter on first load, then just swap results
+        shownResult = result; // Bulk edits apply to exactly what is on screen
+        if (branchAdapter == null) { // If adapter not initialized yet
+            branchAdapter = new BranchAdapter(
+                    AdminHomeActivity.this,
+                    result,
+                    item -> showMenuPopup(item, null),
+                    branchIdToName   // ✅ pass ID→Name map here
+            );
+            branchRecyclerView.setAdapter(branchAdapter); // Attach adapter to RecyclerView
+        } else {
+            branchAdapter.setResult(result); // If adapter exists, show the new result
+        }
+    }
+
+    private void filterMenu(String query) { // Method to query the catalog (text, cat:, price:, branch:)
+        final AdminCatalog source = catalog; // Indexes built at load time; nothing is rescanned here
+        final Map<String, String> branches = new HashMap<>(branchNameToId); // For branch:<name>
+
+        // 🔹 Query on the pipeline thread (a newer search or reload supersedes this one)
+        searchPipeline.submit(() -> source.query(AdminCatalogQuery.parse(query, branches)), result -> {
+            if (result.isEmpty()) { // If no matching items found
+                showCustomToast("No menus match that search"); // Show message to user
+                // 👇 keep showing all menus instead of empty
+                showCatalog(catalog.all()); // Reset list to all items
+            } else {
+                showCatalog(result); // Update adapter with filtered results
             }
+        });
+    }
+
+    private void showBulkPopup() { // Bulk price / availability edit for every menu the list shows
+        final List<MenuItem> selection = shownResult.items(); // Snapshot of the selection when the popup opens
+
+        View popupView = LayoutInflater.from(this).inflate(R.layout.bulk_menu_popup, null);
+        AlertDialog dialog = new AlertDialog.Builder(this).setView(popupView).create();
+        dialog.show();
+
+        Window window = dialog.getWindow();
+        if (window != null) {
+            window.setLayout((int)(getResources().getDisplayMetrics().widthPixels * 0.9), // 90% of screen width
+                    WindowManager.LayoutParams.WRAP_CONTENT); // Height wraps content
+            window.setBackgroundDrawableResource(android.R.color.transparent); // Transparent corners
+            window.setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE); // Resize when keyboard appears
         }
 
-        if (filtered.isEmpty()) { // If no matching items found
-            showCustomToast("No menus found with that name"); // Show message to user
-            // 👇 keep showing all menus instead of empty
-            branchAdapter.updateList(new ArrayList<>(allMenuItems)); // Reset list to all items
-        } else {
-            branchAdapter.updateList(filtered); // Update adapter with filtered results
+        // 🔹 UI elements inside popup
+        TextView selectionText = popupView.findViewById(R.id.bulkSelectionText); // How many menus are selected
+        RadioGroup actionGroup = popupView.findViewById(R.id.bulkActionGroup);   // Which operation
+        EditText ruleInput = popupView.findViewById(R.id.bulkPriceRuleInput);    // Price rule
+        AutoCompleteTextView branchDropdown = popupView.findViewById(R.id.bulkBranchDropdown); // Branch for availability ops
+
+        boolean searching = searchBox.getText().toString().trim().length() > 0;
+        selectionText.setText(selection.size() + (selection.size() == 1 ? " menu" : " menus")
+                + (searching ? " selected by the current search" : " selected (search to narrow, e.g. cat:pizza)"));
+
+        // 🔹 Branch dropdown shows NAMES, the plan uses IDs
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this, android.R.layout.simple_dropdown_item_1line, allBranchNames);
+        branchDropdown.setAdapter(adapter);
+        branchDropdown.setThreshold(1);
+
+        // Price rule for price changes, branch for everything else
+        actionGroup.setOnCheckedChangeListener((group, checkedId) -> {
+            boolean price = checkedId == R.id.bulkPriceRadio;
+            ruleInput.setVisibility(price ? View.VISIBLE : View.GONE);
+            branchDropdown.setVisibility(price ? View.GONE : View.VISIBLE);
+        });
+
+        popupView.findViewById(R.id.bulkCancelBtn).setOnClickListener(v -> dialog.dismiss());
+
+        popupView.findViewById(R.id.bulkPreviewBtn).setOnClickListener(v -> {
+            if (selection.isEmpty()) {
+                showCustomToast("No menus selected");
+                return;
+            }
+            int action = actionGroup.getCheckedRadioButtonId();
+            MenuBulkEdit.Plan plan;
+            try {
+                if (action == R.id.bulkPriceRadio) {
+                    plan = MenuBulkEdit.price(selection, MenuBulkEdit.PriceRule.parse(ruleInput.getText().toString()));
+                } else {
+                    String branchName = branchDropdown.getText().toString().trim();
+                    String branchID = branchNameToId.get(branchName); // Convert name → ID
+                    if (branchID == null) {
+                        showCustomToast("Please select a branch");
+                        return;
+                    }
+                    if (action == R.id.bulkAddBranchRadio) {
+                        plan = MenuBulkEdit.addToBranch(selection, branchID, branchName);
+                    } else if (action == R.id.bulkRemoveBranchRadio) {
+                        plan = MenuBulkEdit.removeFromBranch(selection, branchID, branchName);
+                    } else {
+                        plan = MenuBulkEdit.soldOut(selection, branchID, branchName, action == R.id.bulkSoldOutRadio);
+                    }
+                }
+            } catch (IllegalArgumentException e) { // Unreadable price rule or a branch without a bit
+                showCustomToast(e.getMessage());
+                return;
+            }
+            previewBulkEdit(plan, dialog);
+        });
+
+        // 🔹 Catalog CSV (whole menu, not just the selection)
+        popupView.findViewById(R.id.importMenuCsvBtn).setOnClickListener(v -> {
+            dialog.dismiss();
+            startMenuCsvImport();
+        });
+        popupView.findViewById(R.id.exportMenuCsvBtn).setOnClickListener(v -> {
+            dialog.dismiss();
+            startMenuCsvExport();
+        });
+    }
+
+    private void previewBulkEdit(MenuBulkEdit.Plan plan, AlertDialog popup) { // Show the diff before anything is written
+        if (plan.isEmpty()) {
+            showCustomToast(plan.skipped().isEmpty() ? "Nothing to change" : plan.skipped().size() + " menus can't be changed");
+            return;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Bulk " + plan.title)
+                .setMessage(plan.preview(PREVIEW_LINES))
+                .setPositiveButton("Apply", (d, which) -> {
+                    popup.dismiss();
+                    applyBulkEdit(plan);
+                })
+                .setNegativeButton("Back", null)
+                .show();
+    }
+
+    private void applyBulkEdit(MenuBulkEdit.Plan plan) { // One atomic update per chunk of menus, then reload
+        showCsvProgress("Saving " + plan.size() + " menus...");
+        MenuImport.apply(db, plan, new MenuImport.Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+                if (isDestroyed()) return;
+                showCsvProgress("Saved " + done + " of " + total + " menus...");
+            }
+
+            @Override
+            public void onFinished(int rows) {
+                if (isDestroyed()) return;
+                hideLoadingDialog();
+                showCustomToast("Updated " + rows + " menus");
+                loadMenuItems(); // Refresh menu list
+            }
+
+            @Override
+            public void onFailed(String message) {
+                if (isDestroyed()) return;
+                hideLoadingDialog();
+                Log.e(TAG, "Bulk edit failed: " + message);
+                showCustomToast(message);
+                loadMenuItems(); // Show the chunks that did commit
+            }
+        });
+    }
+
+    // 🔹 Catalog CSV import: pick a file, MenuImport validates all of it before writing
+    private void startMenuCsvImport() {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT); // Storage Access Framework picker
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("*/*");
+        intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{"text/csv", "text/comma-separated-values", "text/plain"});
+        startActivityForResult(intent, REQUEST_IMPORT_CSV);
+    }
+
+    // 🔹 Catalog CSV export: let the admin choose where to save, then stream every menu into it
+    private void startMenuCsvExport() {
+        Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("text/csv");
+        intent.putExtra(Intent.EXTRA_TITLE, "menu.csv");
+        startActivityForResult(intent, REQUEST_EXPORT_CSV);
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (resultCode != RESULT_OK || data == null || data.getData() == null) return; // cancelled
+        Uri uri = data.getData();
+        if (requestCode == REQUEST_IMPORT_CSV) {
+            showCsvProgress("Checking file...");
+            MenuImport.start(this, db, uri, menuCsvListener("Imported"));
+        } else if (requestCode == REQUEST_EXPORT_CSV) {
+            showCsvProgress("Exporting menus...");
+            MenuImport.export(this, db, uri, menuCsvListener("Exported"));
         }
     }
 
+    // Progress goes into the loading dialog; results as a toast (or a dialog listing bad rows)
+    private MenuImport.Listener menuCsvListener(String verb) {
+        return new MenuImport.Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+                if (isDestroyed()) return;
+                showCsvProgress(total >= 0 ? verb + " " + done + " of " + total + " menus..."
+                        : verb + " " + done + " menus...");
+            }
+
+            @Override
+            public void onFinished(int rows) {
+                if (isDestroyed()) return;
+                hideLoadingDialog();
+                showCustomToast(verb + " " + rows + " menus");
+                if (verb.equals("Imported")) loadMenuItems(); // show the imported menus
+            }
+
+            @Override
+            public void onFailed(String message) {
+                if (isDestroyed()) return;
+                hideLoadingDialog();
+                if (message.contains("\n")) { // row errors: too long for a toast
+                    new AlertDialog.Builder(AdminHomeActivity.this)
+                            .setTitle("Import failed")
+                            .setMessage(message)
+                            .setPositiveButton("OK", null)
+                            .show();
+                } else {
+                    showCustomToast(message);
+                }
+            }
+        };
+    }
+
+    private void showCsvProgress(String text) {
+        if (loadingDialog == null || !loadingDialog.isShowing()) showLoadingDialog(text);
+        TextView label = loadingDialog.findViewById(R.id.loadingText);
+        if (label != null) label.setText(text);
+    }
+
     private void prepareNewMenuPopup() { // Method to prepare popup for adding a new menu item
         showLoadingDialog("Loading..."); // 🔹 Show loading popup while fetching data
 
@@ -470,10 +741,10 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
             priceInput.setText(String.valueOf(existingItem.price)); // Fill price
             imageInput.setText(existingItem.imageURL);   // Fill image URL
 
-            // 🔹 Restore branches
-            if (existingItem.branches != null) {
-                for (String branchID : existingItem.branches) {
-                    if (branchID == null) continue; // Skip nulls
+            // 🔹 Restore branches (from the availability bits customers are offered by)
+            List<String> offeredAt = existingItem.availableAt.readableList(existingItem.branches);
+            if (!offeredAt.isEmpty()) {
+                for (String branchID : offeredAt) {
                     String branchName = branchIdToName.get(branchID); // Convert ID → name
                     if (branchName == null) branchName = branchID; // Fallback if not found
 
@@ -557,9 +828,8 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
                             existingItem.price == price &&          // Check if price unchanged
                             ((existingItem.imageURL == null && imageUrl.isEmpty()) || // Handle null imageURL
                                     (existingItem.imageURL != null && existingItem.imageURL.equals(imageUrl))) &&
-                            existingItem.branches != null &&        // Check branch list
-                            existingItem.branches.size() == normalizedBranchIDs.size() && // Same size
-                            existingItem.branches.containsAll(normalizedBranchIDs); // Same items
+                            existingItem.availableAt.readableList(existingItem.branches) // Same branches as the bits
+                                    .equals(BranchSet.of(normalizedBranchIDs).readableList(normalizedBranchIDs));
 
             if (noChanges) {                                        // If nothing changed
                 showCustomToast("No changes detected");             // Show toast
@@ -575,9 +845,13 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
         menuItem.description = desc;                                // Set description
         menuItem.price = price;                                     // Set price
         menuItem.imageURL = imageUrl;                               // Set image URL
-        menuItem.branches = normalizedBranchIDs;                    // Save branch IDs only
+        menuItem.availableAt = BranchSet.of(normalizedBranchIDs);   // Branches as a bitset
+        menuItem.branches = menuItem.availableAt.readableList(normalizedBranchIDs); // Same branches, readable
+        if (existingItem != null) {                                 // Keep sold-out flags for branches still assigned
+            menuItem.soldOutAt = existingItem.soldOutAt.intersect(menuItem.availableAt);
+        }
 
-        db.child("menu").child(id).setValue(menuItem)               // Save to Firebase under "menu/{id}"
+        db.child("menu").child(id).setValue(SnapshotMappers.menuToWire(menuItem)) // Save to Firebase under "menu/{id}"
                 .addOnSuccessListener(aVoid -> {                    // On success
                     String msg = (existingItem != null) ? "Menu item updated" : "Menu item saved"; // Message based on add/edit
                     showCustomToast(msg);                           // Show success toast
@@ -630,6 +904,45 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
         });
     }
 
+    public void toggleSoldOut(MenuItem item, String branchID) { // Mark a menu sold out (or back in stock) at one branch
+        if (item == null) return; // ✅ Safety check
+
+        int ordinal = BranchSet.ordinal(branchID); // Bit index for this branch
+        if (ordinal < 0) {
+            showCustomToast("This branch can't be marked sold out");
+            return;
+        }
+        final boolean markSoldOut = !item.soldOutAt.contains(ordinal); // Flip current state
+        final long mask = BranchSet.wordMask(ordinal);
+        String branchName = branchIdToName.getOrDefault(branchID, branchID);
+
+        // 🔹 Only the one word holding this branch's bit is read and written
+        db.child("menu").child(item.menuID)
+                .child(SnapshotMappers.MENU_SOLD_OUT_BITS)
+                .child(String.valueOf(BranchSet.wordIndex(ordinal)))
+                .runTransaction(new Transaction.Handler() {
+                    @NonNull
+                    @Override
+                    public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                        Long word = currentData.getValue(Long.class);
+                        long bits = word != null ? word : 0L;
+                        currentData.setValue(markSoldOut ? (bits | mask) : (bits & ~mask)); // Set or clear the bit
+                        return Transaction.success(currentData);
+                    }
+
+                    @Override
+                    public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                        if (error != null || !committed) {
+                            Log.e(TAG, "Sold-out toggle failed for " + item.menuID, error != null ? error.toException() : null);
+                            showCustomToast("Failed to update " + item.name);
+                            return;
+                        }
+                        showCustomToast(item.name + (markSoldOut ? " marked sold out at " : " back in stock at ") + branchName);
+                        loadMenuItems(); // Refresh menu list
+                    }
+                });
+    }
+
     private void showCustomToast(String message) { // Method to show a custom toast-like message popup
         LayoutInflater inflater = getLayoutInflater(); // Get layout inflater for inflating XML
         View layout = inflater.inflate(R.layout.custom_message, null); // Inflate custom toast layout
@@ -710,6 +1023,8 @@ public class AdminHomeActivity extends AppCompatActivity { // Main admin home ac
         public String menuID, name, category, description, imageURL; // Menu details
         public double price; // Price of menu item
         public List<String> branches; // Branches where this item is available
+        public BranchSet availableAt = BranchSet.EMPTY; // Same branches as a bitset
+        public BranchSet soldOutAt = BranchSet.EMPTY; // Branches where the item is sold out for now
 
         public MenuItem() { } // Empty constructor (required for Firebase)
     }
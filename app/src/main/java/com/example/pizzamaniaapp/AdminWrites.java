@@ -0,0 +1,66 @@
+package com.example.pizzamaniaapp;
+
+import java.util.Map;
+
+// WriteBatch builders for admin operations that fan out over several nodes.
+// Inputs are the raw values of already-read snapshots (DataSnapshot.getValue()), so the
+// cascades can be built and checked without a database.
+public final class AdminWrites {
+
+    private AdminWrites() {}
+
+    // A staff record plus its login in users/, written together
+    public static WriteBatch saveStaff(String operation, String node, String staffID, Object staff,
+                                       String userID, Object user) {
+        return new WriteBatch(operation)
+                .set(node + "/" + staffID, staff)
+                .set("users/" + userID, user);
+    }
+
+    // A staff record plus its login in users/, removed together
+    public static WriteBatch deleteStaff(String operation, String node, String staffID, String userID) {
+        WriteBatch batch = new WriteBatch(operation).delete(node + "/" + staffID);
+        if (userID != null && !userID.isEmpty()) batch.delete("users/" + userID);
+        return batch;
+    }
+
+    // Deleting a branch removes its employees and deliverymen (with their users) and takes the
+    // branch out of every menu item's branch list and availability / sold-out bitsets.
+    // employees and deliverymen are the results of orderByChild("branchID") queries, menu is the
+    // whole menu node: three reads, then everything goes out in one write.
+    public static WriteBatch deleteBranch(String branchID, Object employees, Object deliverymen, Object menu) {
+        WriteBatch batch = new WriteBatch("delete branch " + branchID).countReads(3);
+        batch.delete("branches/" + branchID);
+        deleteBranchStaff(batch, "employees", branchID, employees);
+        deleteBranchStaff(batch, "deliverymen", branchID, deliverymen);
+
+        if (menu instanceof Map) {
+            int ordinal = BranchSet.ordinal(branchID);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) menu).entrySet()) {
+                AdminHomeActivity.MenuItem item = SnapshotMappers.adminMenuItem(entry.getValue());
+                if (item == null || (!item.availableAt.contains(ordinal) && !item.soldOutAt.contains(ordinal))) continue;
+
+                String path = "menu/" + entry.getKey() + "/";
+                BranchSet available = item.availableAt.without(ordinal);
+                BranchSet soldOut = item.soldOutAt.without(ordinal);
+                batch.set(path + "branches", available.readableList(item.branches));
+                batch.set(path + SnapshotMappers.MENU_BRANCH_BITS, available.toWire());
+                batch.set(path + SnapshotMappers.MENU_SOLD_OUT_BITS, soldOut.isEmpty() ? null : soldOut.toWire());
+            }
+        }
+        return batch;
+    }
+
+    // Query results come back as {staffID: record}; each record's userID names its login
+    private static void deleteBranchStaff(WriteBatch batch, String node, String branchID, Object records) {
+        if (!(records instanceof Map)) return;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) records).entrySet()) {
+            if (!(entry.getValue() instanceof Map)) continue;
+            Map<?, ?> record = (Map<?, ?>) entry.getValue();
+            if (!branchID.equals(String.valueOf(record.get("branchID")))) continue; // only this branch's staff
+            batch.delete(node + "/" + entry.getKey());
+            Object userID = record.get("userID");
+            if (userID != null && !userID.toString().isEmpty()) batch.delete("users/" + userID);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.pizzamaniaapp;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Burkhard-Keller tree over a fixed word list, for "did you mean" lookups by edit distance.
+//
+// Every child hangs off its parent under its Levenshtein distance to the parent's word. Because the
+// distance is a metric, a query within k of the target only needs to visit children whose edge is in
+// [d - k, d + k], where d is the query's distance to the current node. With k = 1 or 2 that skips most
+// of the vocabulary. Words are referred to by their position in the list passed to build().
+//
+// Immutable once built; within() can run on any thread.
+public final class BkTree {
+
+    // Longer queries aren't looked up; the DP rows would dominate the latency budget for no real gain
+    public static final int MAX_QUERY_LENGTH = 32;
+
+    private final String[] words;
+    private final Node root;
+
+    private BkTree(String[] words, Node root) {
+        this.words = words;
+        this.root = root;
+    }
+
+    // Duplicate words are kept once (the first position wins)
+    public static BkTree build(List<String> words) {
+        String[] array = words.toArray(new String[0]);
+        Node root = null;
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == null || array[i].isEmpty()) continue;
+            if (root == null) root = new Node(i);
+            else root.insert(array, i);
+        }
+        return new BkTree(array, root);
+    }
+
+    public String word(int index) {
+        return words[index];
+    }
+
+    // Words within maxDistance of query, closest first (then by position), at most limit of them.
+    // Each result is packed as (distance << 32) | wordIndex.
+    public long[] within(String query, int maxDistance, int limit) {
+        if (root == null || query.isEmpty() || query.length() > MAX_QUERY_LENGTH || limit <= 0) return new long[0];
+
+        long[] found = new long[8];
+        int count = 0;
+        int[] prev = new int[MAX_QUERY_LENGTH + 1];
+        int[] curr = new int[MAX_QUERY_LENGTH + 1];
+
+        Node[] stack = new Node[16];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            int d = distance(query, words[node.word], prev, curr);
+            if (d <= maxDistance) {
+                if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                found[count++] = ((long) d << 32) | node.word;
+            }
+            for (int k = 0; k < node.size; k++) {
+                int edge = node.edges[k];
+                if (edge < d - maxDistance || edge > d + maxDistance) continue;
+                if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                stack[top++] = node.children[k];
+            }
+        }
+
+        Arrays.sort(found, 0, count);
+        return Arrays.copyOf(found, Math.min(count, limit));
+    }
+
+    // Plain Levenshtein distance (insert, delete, substitute)
+    public static int distance(String a, String b) {
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        return levenshtein(a, b, prev, curr);
+    }
+
+    // Two-row DP with the rows borrowed from the caller. The shorter string goes along the rows so a
+    // long vocabulary word never outgrows them.
+    private static int distance(String query, String word, int[] prev, int[] curr) {
+        return word.length() <= query.length()
+                ? levenshtein(query, word, prev, curr)
+                : levenshtein(word, query, prev, curr);
+    }
+
+    private static int levenshtein(String a, String b, int[] prev, int[] curr) {
+        int m = b.length();
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return prev[m];
+    }
+
+    // One word plus its children keyed by edit distance (small parallel arrays, no boxing)
+    private static final class Node {
+        final int word;
+        int[] edges = new int[0];
+        Node[] children = new Node[0];
+        int size;
+
+        Node(int word) {
+            this.word = word;
+        }
+
+        void insert(String[] words, int index) {
+            Node node = this;
+            while (true) {
+                int d = distance(words[index], words[node.word]);
+                if (d == 0) return; // duplicate
+                Node next = null;
+                for (int k = 0; k < node.size; k++) {
+                    if (node.edges[k] == d) {
+                        next = node.children[k];
+                        break;
+                    }
+                }
+                if (next == null) {
+                    if (node.size == node.edges.length) {
+                        node.edges = Arrays.copyOf(node.edges, Math.max(2, node.size * 2));
+                        node.children = Arrays.copyOf(node.children, node.edges.length);
+                    }
+                    node.edges[node.size] = d;
+                    node.children[node.size] = new Node(index);
+                    node.size++;
+                    return;
+                }
+                node = next;
+            }
+        }
+    }
+}
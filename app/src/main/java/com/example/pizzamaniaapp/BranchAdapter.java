@@ -11,19 +11,19 @@ import androidx.recyclerview.widget.LinearLayoutManager; // LayoutManager for Re
 import androidx.recyclerview.widget.RecyclerView; // Scrollable list view
 
 import java.util.ArrayList; // Dynamic list implementation
-import java.util.LinkedHashSet; // Set that preserves insertion order
-import java.util.List; // Generic list interface
 import java.util.Map; // Key-Value mapping
-import java.util.Set; // Collection of unique elements
 
 // 🔹 Adapter to display branches and their menu items
 public class BranchAdapter extends RecyclerView.Adapter<BranchAdapter.BranchViewHolder> {
 
     private final Context context; // Reference to Activity/Fragment context
-    private final List<AdminHomeActivity.MenuItem> menuList; // All menu items
+    private AdminCatalog.Result result; // Matching menu ids grouped by branch (queried off the UI thread)
     private final OnEditClickListener editListener; // Callback for edit button clicks
-    private final List<String> uniqueBranchIDs; // Stores distinct branch IDs
     private final Map<String, String> branchIdToName; // Maps ID → Name for branches
+    private final RecyclerView.RecycledViewPool menuPool = new RecyclerView.RecycledViewPool(); // Menu cards shared by every branch row
+
+    static final int PAGE_SIZE = 20; // Menu cards materialized per branch row at a time
+    private static final int PREFETCH_DISTANCE = 5; // Load the next page this many cards before the row's end
 
     // 🔹 Listener interface for handling edit button clicks
     public interface OnEditClickListener {
@@ -32,22 +32,13 @@ public class BranchAdapter extends RecyclerView.Adapter<BranchAdapter.BranchView
 
     // 🔹 Constructor
     public BranchAdapter(Context context,
-                         List<AdminHomeActivity.MenuItem> menuList,
+                         AdminCatalog.Result result,
                          OnEditClickListener editListener,
                          Map<String, String> branchIdToName) {
         this.context = context; // Save context
-        this.menuList = menuList; // Save menu list
+        this.result = result; // Save grouped matches
         this.editListener = editListener; // Save listener
         this.branchIdToName = branchIdToName; // Save mapping
-
-        // Extract unique branch IDs from all menu items
-        Set<String> branchSet = new LinkedHashSet<>(); // Maintains order + uniqueness
-        for (AdminHomeActivity.MenuItem item : menuList) { // Loop through menu items
-            if (item.branches != null) { // If menu has assigned branches
-                branchSet.addAll(item.branches); // Add branch IDs to the set
-            }
-        }
-        this.uniqueBranchIDs = new ArrayList<>(branchSet); // Convert to list
     }
 
     @NonNull
@@ -55,51 +46,83 @@ public class BranchAdapter extends RecyclerView.Adapter<BranchAdapter.BranchView
     public BranchViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         // Inflate branch row layout from XML
         View view = LayoutInflater.from(context).inflate(R.layout.branch_item_layout, parent, false);
-        return new BranchViewHolder(view); // Wrap inside ViewHolder
+        BranchViewHolder holder = new BranchViewHolder(view); // Wrap inside ViewHolder
+
+        // Horizontal layout, card pool and MenuAdapter are created once per row and reused on every bind
+        LinearLayoutManager layoutManager = new LinearLayoutManager(context, LinearLayoutManager.HORIZONTAL, false);
+        layoutManager.setRecycleChildrenOnDetach(true); // Hand cards back to the shared pool when the row scrolls away
+        layoutManager.setInitialPrefetchItemCount(4); // Prefetch the first visible cards of a row before it scrolls in
+        holder.menuRecyclerView.setLayoutManager(layoutManager);
+        holder.menuRecyclerView.setRecycledViewPool(menuPool);
+
+        holder.menuAdapter = new MenuAdapter(new ArrayList<>(), item -> {
+            if (editListener != null) editListener.onEditClick(item); // Handle edit
+        }, item -> {
+            // Handle delete → call AdminHomeActivity’s method
+            if (context instanceof AdminHomeActivity) {
+                ((AdminHomeActivity) context).showDeletePopup(item, null);
+            }
+        }, item -> {
+            // Handle long-press → toggle sold out at the branch this row currently shows
+            if (context instanceof AdminHomeActivity && holder.boundBranchID != null) {
+                ((AdminHomeActivity) context).toggleSoldOut(item, holder.boundBranchID);
+            }
+        });
+        holder.menuRecyclerView.setAdapter(holder.menuAdapter); // Attach adapter
+
+        // Page in more menus as the row scrolls towards the last loaded card
+        holder.menuRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dx <= 0 || holder.boundBranchID == null) return; // only when scrolling forward
+                if (holder.loadedCount >= result.countFor(holder.boundBranchID)) return; // everything is loaded
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= holder.loadedCount - PREFETCH_DISTANCE) showPage(holder, holder.loadedCount + PAGE_SIZE);
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull BranchViewHolder holder, int position) {
         // Get branch ID for current position
-        String branchID = uniqueBranchIDs.get(position);
+        String branchID = result.branchIDs().get(position);
 
         // Convert ID → Name if available, else fallback to raw ID
         String branchName = branchIdToName.getOrDefault(branchID, branchID);
         holder.branchName.setText(branchName); // Show branch name on UI
 
-        // Filter menu items that belong to this branch
-        List<AdminHomeActivity.MenuItem> filteredMenus = new ArrayList<>();
-        for (AdminHomeActivity.MenuItem item : menuList) {
-            if (item.branches != null && item.branches.contains(branchID)) {
-                filteredMenus.add(item); // Add menu to this branch’s list
-            }
+        // Menus for this branch come straight from the query result, one page at a time
+        if (!branchID.equals(holder.boundBranchID)) {
+            holder.boundBranchID = branchID;
+            holder.loadedCount = 0;
+            showPage(holder, PAGE_SIZE);
+            holder.menuRecyclerView.scrollToPosition(0); // Row now shows another branch, start from its first menu
+        } else {
+            showPage(holder, Math.max(PAGE_SIZE, holder.loadedCount)); // Same branch reloaded: keep what was paged in
         }
+    }
 
-        // Create MenuAdapter for horizontal scrolling list of menus
-        MenuAdapter menuAdapter = new MenuAdapter(filteredMenus, item -> {
-            if (editListener != null) editListener.onEditClick(item); // Handle edit
-        }, item -> {
-            // Handle delete → call AdminHomeActivity’s method
-            if (context instanceof AdminHomeActivity) {
-                ((AdminHomeActivity) context).showDeletePopup(item, null);
-            }
-        });
-
-        // Set horizontal layout for menu list
-        holder.menuRecyclerView.setLayoutManager(
-                new LinearLayoutManager(context, LinearLayoutManager.HORIZONTAL, false));
-        holder.menuRecyclerView.setAdapter(menuAdapter); // Attach adapter
+    // Shows the first `count` matches of the holder's branch (capped at what the branch has)
+    private void showPage(BranchViewHolder holder, int count) {
+        int available = result.countFor(holder.boundBranchID);
+        int target = Math.min(count, available);
+        holder.loadedCount = target;
+        holder.menuAdapter.setItems(result.page(holder.boundBranchID, 0, target), BranchSet.ordinal(holder.boundBranchID));
     }
 
     @Override
     public int getItemCount() {
-        return uniqueBranchIDs.size(); // Number of unique branches
+        return result.branchCount(); // Number of branches with matches
     }
 
     // 🔹 ViewHolder = wrapper around row views for branch
     static class BranchViewHolder extends RecyclerView.ViewHolder {
         TextView branchName; // Displays branch name
         RecyclerView menuRecyclerView; // Holds horizontal list of menus
+        MenuAdapter menuAdapter; // Reused for whichever branch this row shows
+        String boundBranchID; // Branch currently bound to this row
+        int loadedCount; // Menus of that branch paged in so far
 
         public BranchViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -108,21 +131,9 @@ public class BranchAdapter extends RecyclerView.Adapter<BranchAdapter.BranchView
         }
     }
 
-    // 🔹 Refresh adapter with new menu list
-    public void updateList(List<AdminHomeActivity.MenuItem> newList) {
-        this.menuList.clear(); // Remove old menus
-        this.menuList.addAll(newList); // Add updated list
-
-        // Recalculate unique branch IDs from updated menu list
-        uniqueBranchIDs.clear();
-        Set<String> branchSet = new LinkedHashSet<>();
-        for (AdminHomeActivity.MenuItem item : menuList) {
-            if (item.branches != null) {
-                branchSet.addAll(item.branches); // Add branch IDs
-            }
-        }
-        uniqueBranchIDs.addAll(branchSet);
-
+    // 🔹 Show another query result (full catalog or search results)
+    public void setResult(AdminCatalog.Result newResult) {
+        this.result = newResult;
         notifyDataSetChanged(); // Refresh RecyclerView
     }
 }
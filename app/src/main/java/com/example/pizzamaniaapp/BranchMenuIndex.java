@@ -0,0 +1,71 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Admin catalog grouped by branch: branchID -> the menu items offered there.
+// Built once per data change (off the main thread) in a single pass over the menu list,
+// so BranchAdapter never has to rescan every menu item while binding a branch row.
+// Items are grouped by their availability bits (in branch order), plus any legacy list entry
+// that has no bit, so the groups match what customers are offered. Immutable once built.
+public final class BranchMenuIndex {
+
+    private final List<AdminHomeActivity.MenuItem> allItems;
+    private final List<String> branchIDs;                                   // branches in first-seen order
+    private final Map<String, List<AdminHomeActivity.MenuItem>> menusByBranch;
+
+    private BranchMenuIndex(List<AdminHomeActivity.MenuItem> allItems, List<String> branchIDs,
+                            Map<String, List<AdminHomeActivity.MenuItem>> menusByBranch) {
+        this.allItems = allItems;
+        this.branchIDs = branchIDs;
+        this.menusByBranch = menusByBranch;
+    }
+
+    public static BranchMenuIndex build(List<AdminHomeActivity.MenuItem> items) {
+        Map<String, List<AdminHomeActivity.MenuItem>> grouped = new LinkedHashMap<>();
+        for (AdminHomeActivity.MenuItem item : items) {
+            if (item == null) continue;
+            for (String branchID : item.availableAt.readableList(item.branches)) {
+                List<AdminHomeActivity.MenuItem> menus = grouped.get(branchID);
+                if (menus == null) {
+                    menus = new ArrayList<>();
+                    grouped.put(branchID, menus);
+                }
+                menus.add(item);
+            }
+        }
+
+        for (Map.Entry<String, List<AdminHomeActivity.MenuItem>> entry : grouped.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return new BranchMenuIndex(
+                Collections.unmodifiableList(new ArrayList<>(items)),
+                Collections.unmodifiableList(new ArrayList<>(grouped.keySet())),
+                Collections.unmodifiableMap(grouped));
+    }
+
+    public static BranchMenuIndex empty() {
+        return build(new ArrayList<>());
+    }
+
+    // Every menu item the index was built from, in the original order
+    public List<AdminHomeActivity.MenuItem> allItems() {
+        return allItems;
+    }
+
+    public List<String> branchIDs() {
+        return branchIDs;
+    }
+
+    public int branchCount() {
+        return branchIDs.size();
+    }
+
+    public List<AdminHomeActivity.MenuItem> menusFor(String branchID) {
+        List<AdminHomeActivity.MenuItem> menus = menusByBranch.get(branchID);
+        return menus != null ? menus : Collections.<AdminHomeActivity.MenuItem>emptyList();
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Set of branches stored as a bitset, one bit per branch ordinal.
+//
+// Branch IDs are generated as b001, b002, ... so a branch's ordinal is just its number minus one
+// (b001 -> 0). That keeps ordinals dense and identical on every device without a shared lookup
+// table, and makes "is this menu available at branch X" a single bit test instead of string
+// comparisons over every entry of a List<String>.
+//
+// Wire format: a Firebase list of 32-bit words as non-negative numbers, bit (ordinal % 32) of
+// word (ordinal / 32). Words stay well inside the 2^53 range Firebase numbers keep exactly, and
+// one branch's bit can be flipped by a transaction on a single word node.
+//
+// Immutable; with()/without() return a new set.
+public final class BranchSet {
+
+    public static final BranchSet EMPTY = new BranchSet(new int[0]);
+
+    static final int WORD_BITS = 32;
+
+    private final int[] words; // trailing zero words are always trimmed
+
+    private BranchSet(int[] words) {
+        this.words = words;
+    }
+
+    // ================================ ORDINALS ================================
+
+    // Dense ordinal for a branch ID ("b001", " B001 " -> 0), or -1 if it isn't a bNNN ID.
+    // Parsed in place each time (a handful of chars, no trim() copy), so nothing is cached.
+    public static int ordinal(String branchID) {
+        if (branchID == null) return -1;
+        int start = 0, end = branchID.length();
+        while (start < end && branchID.charAt(start) <= ' ') start++;
+        while (end > start && branchID.charAt(end - 1) <= ' ') end--;
+        return parseOrdinal(branchID, start, end);
+    }
+
+    public static String branchID(int ordinal) {
+        return String.format("b%03d", ordinal + 1);
+    }
+
+    private static int parseOrdinal(String id, int start, int end) {
+        if (end - start < 2 || (id.charAt(start) != 'b' && id.charAt(start) != 'B')) return -1;
+        int number = 0;
+        for (int i = start + 1; i < end; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9' || number > 100_000) return -1;
+            number = number * 10 + (c - '0');
+        }
+        return number >= 1 ? number - 1 : -1;
+    }
+
+    // Word index and mask for one ordinal (used for single-word transactions)
+    public static int wordIndex(int ordinal) {
+        return ordinal / WORD_BITS;
+    }
+
+    public static long wordMask(int ordinal) {
+        return 1L << (ordinal % WORD_BITS);
+    }
+
+    // ================================ BUILDING ================================
+
+    // IDs that aren't bNNN (e.g. branch names left in very old menus) have no bit and are skipped
+    public static BranchSet of(Collection<String> branchIDs) {
+        if (branchIDs == null || branchIDs.isEmpty()) return EMPTY;
+        BranchSet set = EMPTY;
+        for (String id : branchIDs) {
+            int ordinal = ordinal(id);
+            if (ordinal >= 0) set = set.with(ordinal);
+        }
+        return set;
+    }
+
+    // Firebase returns the word list as a List (or a Map when sparse); anything else is empty
+    public static BranchSet fromWire(Object raw) {
+        int[] words;
+        if (raw instanceof List) {
+            List<?> list = (List<?>) raw;
+            words = new int[list.size()];
+            for (int i = 0; i < words.length; i++) words[i] = word(list.get(i));
+        } else if (raw instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) raw;
+            int size = 0;
+            for (Object key : map.keySet()) size = Math.max(size, index(key) + 1);
+            words = new int[size];
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                int i = index(e.getKey());
+                if (i >= 0) words[i] = word(e.getValue());
+            }
+        } else {
+            return EMPTY;
+        }
+        return ofWords(words);
+    }
+
+    static BranchSet ofWords(int[] words) {
+        if (words == null) return EMPTY;
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) length--;
+        return length == 0 ? EMPTY : new BranchSet(Arrays.copyOf(words, length));
+    }
+
+    private static int word(Object value) {
+        return value instanceof Number ? (int) ((Number) value).longValue() : 0;
+    }
+
+    private static int index(Object key) {
+        try {
+            return Integer.parseInt(key.toString());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // ================================ QUERIES ================================
+
+    public boolean contains(int ordinal) {
+        if (ordinal < 0) return false;
+        int w = ordinal / WORD_BITS;
+        return w < words.length && (words[w] & (1 << (ordinal % WORD_BITS))) != 0;
+    }
+
+    public boolean contains(String branchID) {
+        return contains(ordinal(branchID));
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    public int size() {
+        int count = 0;
+        for (int word : words) count += Integer.bitCount(word);
+        return count;
+    }
+
+    public BranchSet with(int ordinal) {
+        if (ordinal < 0 || contains(ordinal)) return this;
+        int w = ordinal / WORD_BITS;
+        int[] copy = Arrays.copyOf(words, Math.max(words.length, w + 1));
+        copy[w] |= 1 << (ordinal % WORD_BITS);
+        return new BranchSet(copy);
+    }
+
+    public BranchSet without(int ordinal) {
+        if (!contains(ordinal)) return this;
+        int[] copy = words.clone();
+        copy[ordinal / WORD_BITS] &= ~(1 << (ordinal % WORD_BITS));
+        return ofWords(copy);
+    }
+
+    // Branches in both sets
+    public BranchSet intersect(BranchSet other) {
+        int[] result = new int[Math.min(words.length, other.words.length)];
+        for (int i = 0; i < result.length; i++) result[i] = words[i] & other.words[i];
+        return ofWords(result);
+    }
+
+    // Branches in this set but not in the other
+    public BranchSet minus(BranchSet other) {
+        int[] result = words.clone();
+        for (int i = 0; i < Math.min(result.length, other.words.length); i++) result[i] &= ~other.words[i];
+        return ofWords(result);
+    }
+
+    // Branch IDs in ordinal order
+    public List<String> branchIDs() {
+        if (isEmpty()) return Collections.emptyList();
+        List<String> ids = new ArrayList<>();
+        for (int w = 0; w < words.length; w++) {
+            int word = words[w];
+            while (word != 0) {
+                int bit = Integer.numberOfTrailingZeros(word);
+                ids.add(branchID(w * WORD_BITS + bit));
+                word &= word - 1;
+            }
+        }
+        return ids;
+    }
+
+    // The readable "branches" list stored next to the bits: branch IDs in ordinal order, then any
+    // entries of the previous list that have no bit (names left in very old menus), so those survive
+    public List<String> readableList(List<String> previous) {
+        List<String> ids = new ArrayList<>(branchIDs());
+        if (previous != null) {
+            for (String id : previous) {
+                if (id != null && ordinal(id) < 0 && !ids.contains(id)) ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    // ================================ WIRE ================================
+
+    public List<Long> toWire() {
+        List<Long> wire = new ArrayList<>(words.length);
+        for (int word : words) wire.add(word & 0xFFFFFFFFL); // unsigned, so bit 31 doesn't come back negative
+        return wire;
+    }
+
+    int[] words() {
+        return words.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BranchSet && Arrays.equals(words, ((BranchSet) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return branchIDs().toString();
+    }
+}
@@ -8,20 +8,24 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder> {
 
-    private final List<CustomerHomeActivity.CartItem> cartItems;
+    private final List<CustomerHomeActivity.CartItem> cartItems; // the cart's own list (edited on remove)
     private final CustomerHomeActivity activity;
+    private final AsyncListDiffer<CustomerHomeActivity.CartItem> differ = new AsyncListDiffer<>(this, DiffCallbacks.CART_ITEM); // what's on screen
 
     public CartAdapter(List<CustomerHomeActivity.CartItem> cartItems, CustomerHomeActivity activity) {
         this.cartItems = cartItems;
         this.activity = activity;
+        differ.submitList(new ArrayList<>(cartItems));
     }
 
     @NonNull
@@ -34,7 +38,7 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull CartViewHolder holder, int position) {
-        CustomerHomeActivity.CartItem cartItem = cartItems.get(position); // renamed variable
+        CustomerHomeActivity.CartItem cartItem = differ.getCurrentList().get(position); // renamed variable
 
         holder.name.setText(cartItem.name);
         holder.price.setText("Rs. " + cartItem.price + " x" + cartItem.quantity);
@@ -46,10 +50,10 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
 
         holder.removeBtn.setOnClickListener(v -> {
             int pos = holder.getAdapterPosition();
-            if (pos == RecyclerView.NO_POSITION || pos >= cartItems.size()) return;
+            if (pos == RecyclerView.NO_POSITION || pos >= differ.getCurrentList().size()) return;
 
-            CustomerHomeActivity.CartItem removedItem = cartItems.get(pos); // renamed variable
-            cartItems.remove(pos);
+            CustomerHomeActivity.CartItem removedItem = differ.getCurrentList().get(pos); // renamed variable
+            if (!cartItems.remove(removedItem)) return; // already removed (double tap before the diff landed)
 
             // Update totals in activity
             activity.updateCartAfterRemoval(removedItem);
@@ -73,13 +77,13 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
                 }
             }
 
-            notifyItemRemoved(pos);
+            differ.submitList(new ArrayList<>(cartItems)); // diff dispatches the removal
         });
     }
 
     @Override
     public int getItemCount() {
-        return cartItems.size();
+        return differ.getCurrentList().size();
     }
 
     // ----------------- VIEW HOLDER -----------------
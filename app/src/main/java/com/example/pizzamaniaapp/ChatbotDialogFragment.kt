@@ -23,7 +23,6 @@ import com.google.android.gms.location.LocationServices
 import com.google.android.gms.location.Priority
 import com.google.firebase.auth.FirebaseAuth
 import com.google.firebase.database.FirebaseDatabase
-import com.google.firebase.database.GenericTypeIndicator
 import android.util.Log
 import com.google.firebase.database.DataSnapshot
 
@@ -163,11 +162,12 @@ class ChatbotDialogFragment : DialogFragment() {
                 database.child("menu").get().addOnSuccessListener { snapshot ->
                     if (!isAdded) return@addOnSuccessListener
                     Log.d("Chatbot", "Menu selection - Snapshot exists: ${snapshot.exists()} | Count: ${snapshot.childrenCount}")
+                    val branchOrdinal = BranchSet.ordinal(selectedBranch)
                     for (item in snapshot.children) {
-                        val branches = item.child("branches").getValue(object : GenericTypeIndicator<List<String>>() {}) ?: emptyList()
+                        val available = SnapshotMappers.menuItem(item.value)?.isAvailableAt(branchOrdinal) == true
                         val itemName = item.child("name").getValue(String::class.java)?.lowercase() ?: ""
-                        Log.d("Chatbot", "Checking item: $itemName | Branches: $branches | User input: $lowerMessage")
-                        if (branches.contains(selectedBranch) && itemName.contains(lowerMessage)) {
+                        Log.d("Chatbot", "Checking item: $itemName | Available: $available | User input: $lowerMessage")
+                        if (available && itemName.contains(lowerMessage)) {
                             currentPizza = item.child("name").getValue(String::class.java)
                             messages.add(ChatMessage("Selected $currentPizza. Add toppings (e.g., 'add extra cheese') or say 'add to cart'.", false))
                             chatAdapter.notifyItemInserted(messages.size - 1)
@@ -225,7 +225,7 @@ class ChatbotDialogFragment : DialogFragment() {
                     val branchMap = mapOf("b001" to "Galle", "b002" to "Colombo", "b003" to "Gampaha", "b004" to "Kurunegala", "b005" to "Kalutara")
 
                     for (branchSnap in snapshot.children) {
-                        val branch = branchSnap.getValue(CustomerHomeActivity.Branch::class.java)
+                        val branch = SnapshotMappers.branch(branchSnap.value)
                         if (branch != null) {
                             val branchLocation = Location("")
                             branchLocation.latitude = branch.latitude
@@ -321,11 +321,12 @@ class ChatbotDialogFragment : DialogFragment() {
         }
 
         var hasItems = false
+        val branchOrdinal = BranchSet.ordinal(selectedBranch)
         for (item in snapshot.children) {
             Log.d("Chatbot", "Item key: ${item.key} | Value: ${item.value}")
-            val branches = item.child("branches").getValue(object : GenericTypeIndicator<List<String>>() {}) ?: emptyList()
-            Log.d("Chatbot", "Branches for ${item.key}: $branches | Selected branch: $selectedBranch")
-            if (branches.contains(selectedBranch)) {
+            val available = SnapshotMappers.menuItem(item.value)?.isAvailableAt(branchOrdinal) == true
+            Log.d("Chatbot", "Available for ${item.key}: $available | Selected branch: $selectedBranch")
+            if (available) {
                 hasItems = true
                 val name = item.child("name").getValue(String::class.java) ?: "Unknown Item"
                 val priceValue = item.child("price").value
@@ -374,9 +375,9 @@ class ChatbotDialogFragment : DialogFragment() {
                 recyclerView.scrollToPosition(messages.size - 1)
                 return@addOnSuccessListener
             }
+            val branchOrdinal = BranchSet.ordinal(selectedBranch)
             for (item in snapshot.children) {
-                val branches = item.child("branches").getValue(object : GenericTypeIndicator<List<String>>() {}) ?: emptyList()
-                if (branches.contains(selectedBranch)) {
+                if (SnapshotMappers.menuItem(item.value)?.isAvailableAt(branchOrdinal) == true) {
                     val name = item.child("name").getValue(String::class.java) ?: ""
                     val priceValue = item.child("price").value
                     val price = when (priceValue) {
@@ -445,7 +446,8 @@ class ChatbotDialogFragment : DialogFragment() {
             val cartID = "c_$currentUserID"
             database.child("carts").child(cartID).get().addOnSuccessListener { cartSnapshot ->
                 if (!isAdded) return@addOnSuccessListener
-                var cart = cartSnapshot.getValue(CustomerHomeActivity.Cart::class.java)
+                var cart: CustomerHomeActivity.Cart? = if (cartSnapshot.exists())
+                    WireFormat.cartFromWire(cartID, WireFormat.asMap(cartSnapshot.value)) else null
                 if (cart == null) {
                     cart = CustomerHomeActivity.Cart(cartID, selectedBranch!!, currentUserID!!)
                 }
@@ -477,7 +479,7 @@ class ChatbotDialogFragment : DialogFragment() {
                 cart.totalPrice = totalPrice
 
                 // Save to Firebase
-                database.child("carts").child(cartID).setValue(cart).addOnSuccessListener {
+                database.child("carts").child(cartID).setValue(WireFormat.cartToWire(cart)).addOnSuccessListener {
                     if (!isAdded) return@addOnSuccessListener
                     messages.add(ChatMessage("$name added to cart! Say 'show cart' or 'pay'.", false))
                     chatAdapter.notifyItemInserted(messages.size - 1)
@@ -520,7 +522,8 @@ class ChatbotDialogFragment : DialogFragment() {
         database.child("carts").child(cartID).get().addOnSuccessListener { snapshot ->
             if (!isAdded) return@addOnSuccessListener
             Log.d("Chatbot", "View cart - Snapshot exists: ${snapshot.exists()} | Count: ${snapshot.childrenCount}")
-            val cart = snapshot.getValue(CustomerHomeActivity.Cart::class.java)
+            val cart = if (snapshot.exists())
+                WireFormat.cartFromWire(cartID, WireFormat.asMap(snapshot.value)) else null
             if (cart == null || cart.items.isNullOrEmpty()) {
                 response = "Your cart is empty."
             } else {
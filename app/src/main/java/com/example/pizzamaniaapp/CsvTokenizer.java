@@ -0,0 +1,136 @@
+package com.example.pizzamaniaapp;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// RFC 4180 rows for the bulk CSV formats (StaffCsv, MenuCsv): quoted fields may hold commas,
+// doubled quotes and line breaks. Reads character by character from a BufferedReader, so only
+// the current row is held. The static helpers cover the header and the writing side.
+final class CsvTokenizer implements Closeable {
+
+    private final BufferedReader in;
+    private final StringBuilder field = new StringBuilder();
+    private int line = 1, rowLine = 1;
+    private boolean first = true;
+
+    CsvTokenizer(java.io.Reader in) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+    }
+
+    // 1-based line the last row started on
+    int rowLine() {
+        return rowLine;
+    }
+
+    // Next row's cells, or null at the end of the input
+    List<String> row() throws IOException {
+        int c = in.read();
+        if (first) {
+            first = false;
+            if (c == '\uFEFF') c = in.read(); // byte order mark from spreadsheet exports
+        }
+        if (c == -1) return null;
+
+        rowLine = line;
+        List<String> cells = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IOException("Line " + rowLine + ": unclosed quote");
+                if (c == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) in.reset();
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') in.reset();
+                }
+                if (c != -1) line++;
+                cells.add(field.toString());
+                return cells;
+            } else {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ================================ HELPERS ================================
+
+    // For each expected name, its column in the file's header (case-insensitive), -1 if absent
+    static int[] columns(List<String> header, String[] names) {
+        int[] columns = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            String wanted = names[i].toLowerCase(Locale.ROOT);
+            columns[i] = -1;
+            for (int c = 0; c < header.size(); c++) {
+                if (header.get(c).trim().toLowerCase(Locale.ROOT).equals(wanted)) {
+                    columns[i] = c;
+                    break;
+                }
+            }
+        }
+        return columns;
+    }
+
+    static int index(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) if (names[i].equals(name)) return i;
+        throw new IllegalArgumentException(name);
+    }
+
+    static boolean isBlank(List<String> cells) {
+        for (String cell : cells) if (!cell.trim().isEmpty()) return false;
+        return true;
+    }
+
+    static void writeHeader(java.io.Writer out, String[] names) throws IOException {
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) out.write(',');
+            out.write(names[i]);
+        }
+        out.write("\r\n");
+    }
+
+    // Quotes a field only when it has to (comma, quote or line break inside)
+    static StringBuilder append(StringBuilder line, String value) {
+        if (value == null) return line;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) return line.append(value);
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        return line.append('"');
+    }
+}
@@ -25,6 +25,14 @@ public class CustomerCategoryAdapter extends RecyclerView.Adapter<CustomerCatego
     private List<String> categoryList; // List of category names
     private Map<String, List<CustomerHomeActivity.MenuItem>> menusByCategory; // Map category -> menus
 
+    // Menu cards are the same layout in every category row, so all rows draw from one pool
+    private final RecyclerView.RecycledViewPool menuPool = new RecyclerView.RecycledViewPool();
+    private final Map<String, Long> categoryIds = new HashMap<>(); // Category name -> stable row ID
+
+    // Cards are 150dp wide, so a phone shows about three per row before scrolling
+    private static final int MENU_PREFETCH_COUNT = 3;
+    private static final int MENU_POOL_SIZE = 12;
+
     // Interface to handle menu item clicks
     public interface OnViewClickListener {
         void onViewClick(CustomerHomeActivity.MenuItem item);
@@ -42,6 +50,10 @@ public class CustomerCategoryAdapter extends RecyclerView.Adapter<CustomerCatego
         this.viewListener = viewListener;
         this.currentBranchID = branchID;
 
+        // Category names are unique, so rows keep their IDs across updates and RecyclerView can reuse them
+        setHasStableIds(true);
+        menuPool.setMaxRecycledViews(0, MENU_POOL_SIZE);
+
         // Build categories and menus map
         buildCategoryMap();
     }
@@ -64,20 +76,11 @@ public class CustomerCategoryAdapter extends RecyclerView.Adapter<CustomerCatego
     private void buildCategoryMap() {
         categoryList = new ArrayList<>();
         menusByCategory = new HashMap<>();
+        int branchOrdinal = BranchSet.ordinal(currentBranchID); // Trimmed, case-insensitive bNNN -> bit index
 
         for (CustomerHomeActivity.MenuItem item : allMenus) {
-            boolean branchMatch = false;
-
-            // Check if the menu item belongs to the current branch
-            if (item.branches != null) {
-                for (String branch : item.branches) {
-                    if (branch.trim().equalsIgnoreCase(currentBranchID.trim())) {
-                        branchMatch = true;
-                        break;
-                    }
-                }
-            }
-            if (!branchMatch) continue; // Skip menus not in this branch
+            // Skip menus not offered (or sold out) at this branch: one bit test per item
+            if (!item.isAvailableAt(branchOrdinal)) continue;
 
             // Use "Other" if category is null
             String category = item.category != null ? item.category : "Other";
@@ -100,34 +103,29 @@ public class CustomerCategoryAdapter extends RecyclerView.Adapter<CustomerCatego
     @Override
     public CategoryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.category_item_layout, parent, false);
-        return new CategoryViewHolder(view);
-    }
+        CategoryViewHolder holder = new CategoryViewHolder(view);
 
-    // Bind category data and nested horizontal RecyclerView for menus
-    @Override
-    public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-        String category = categoryList.get(position);        // Current category
-        holder.categoryName.setText(category);               // Set category name
-
-        // Get menus for this category
-        List<CustomerHomeActivity.MenuItem> menuList = menusByCategory.get(category);
+        // Horizontal layout manager, shared card pool and menu adapter are set up once per row;
+        // binding only swaps the menu list, so no cards are re-inflated while scrolling vertically
+        LinearLayoutManager layoutManager = new LinearLayoutManager(context, LinearLayoutManager.HORIZONTAL, false);
+        layoutManager.setInitialPrefetchItemCount(MENU_PREFETCH_COUNT); // Prefetch visible cards before the row scrolls in
+        layoutManager.setRecycleChildrenOnDetach(true); // Return cards to the shared pool when the row is recycled
+        holder.menuRecyclerView.setLayoutManager(layoutManager);
+        holder.menuRecyclerView.setRecycledViewPool(menuPool);
 
-        // Adapter for horizontal menu RecyclerView
-        CustomerMenuAdapter menuAdapter = new CustomerMenuAdapter(menuList, item -> {
+        holder.menuAdapter = new CustomerMenuAdapter(new ArrayList<>(), item -> {
             if (viewListener != null) viewListener.onViewClick(item); // Trigger click listener
             Log.d("CustomerCategoryAdapter", "Menu item clicked: " + item.name);
         });
-
-        // Set horizontal layout manager
-        holder.menuRecyclerView.setLayoutManager(
-                new LinearLayoutManager(context, LinearLayoutManager.HORIZONTAL, false)
-        );
-
-        // Attach menu adapter
-        holder.menuRecyclerView.setAdapter(menuAdapter);
+        holder.menuRecyclerView.setAdapter(holder.menuAdapter);
 
         // ---- "View All" button ----
-        holder.itemView.findViewById(R.id.viewAllButton).setOnClickListener(v -> {
+        holder.viewAllButton.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) return;
+
+            String category = categoryList.get(position);
+            List<CustomerHomeActivity.MenuItem> menuList = menusByCategory.get(category);
             if (menuList != null && !menuList.isEmpty()) {
                 // Start MenuUnderCategoryActivity with category menus
                 Intent intent = new Intent(context, MenuUnderCategoryActivity.class);
@@ -142,6 +140,27 @@ public class CustomerCategoryAdapter extends RecyclerView.Adapter<CustomerCatego
                 Log.d("CustomerCategoryAdapter", "View All clicked but menuList is empty for category: " + category);
             }
         });
+        return holder;
+    }
+
+    // Bind category data and swap the row's menus into its existing horizontal adapter
+    @Override
+    public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
+        String category = categoryList.get(position);        // Current category
+        holder.categoryName.setText(category);               // Set category name
+
+        // Get menus for this category
+        holder.menuAdapter.setItems(menusByCategory.get(category));
+        if (!category.equals(holder.boundCategory)) {
+            holder.menuRecyclerView.scrollToPosition(0); // Row now shows another category, start from its first card
+            holder.boundCategory = category;
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        // Same category keeps the same ID for the lifetime of the adapter
+        return categoryIds.computeIfAbsent(categoryList.get(position), key -> (long) categoryIds.size());
     }
 
     @Override
@@ -154,11 +173,15 @@ public class CustomerCategoryAdapter extends RecyclerView.Adapter<CustomerCatego
     static class CategoryViewHolder extends RecyclerView.ViewHolder {
         TextView categoryName;         // Category title
         RecyclerView menuRecyclerView; // Horizontal RecyclerView of menus
+        View viewAllButton;            // Opens the full category list
+        CustomerMenuAdapter menuAdapter; // Reused for whichever category this row shows
+        String boundCategory;          // Category currently bound to this row
 
         public CategoryViewHolder(@NonNull View itemView) {
             super(itemView);
             categoryName = itemView.findViewById(R.id.categoryName);
             menuRecyclerView = itemView.findViewById(R.id.menuRecyclerView);
+            viewAllButton = itemView.findViewById(R.id.viewAllButton);
         }
     }
 }
\ No newline at end of file
@@ -97,16 +97,16 @@
  * - Attaches a click listener to the search button and a listener for the "Enter" key on the keyboard to trigger a search.
  *
  *
- * // performSearch(query)
- * - Filters the `menuList` to find items where the name or category matches the search `query`.
- * - Updates the `RecyclerView` adapter to display only the filtered search results.
+ * // performSearch(query, explicit)
+ * - Looks the query up in the `MenuSearchIndex` (prefix trie over name, category and description) on a background thread.
+ * - Updates the `RecyclerView` adapter to display the ranked search results.
  * - If the query is empty, it resets the view to show all menu items.
+ * - Also runs as the user types (debounced), without the "No menus found" toast.
  *
  *
  * // updateSearchSuggestions()
- * - Clears and rebuilds the list of search suggestions.
- * - Populates the suggestion list with the names and categories of all menus available at the current branch.
- * - Binds the updated suggestions to the `AutoCompleteTextView` for real-time auto-completion.
+ * - Takes the distinct menu names and categories collected while building the search index.
+ * - Creates the suggestions `ArrayAdapter` once and swaps its contents on later loads.
  *
  *
  * // showLoadingDialog(message)
@@ -137,10 +137,14 @@ import android.graphics.drawable.ColorDrawable; // To set transparent/custom bac
 import android.location.Location; // Represents a geographic location (lat, lng, accuracy, etc.)
 import android.location.LocationManager; // For checking if GPS is enabled
 import android.os.Bundle; // Holds saved state data when activity is created/recreated
+import android.os.Handler; // Posts delayed work (search debounce)
+import android.os.Looper; // Main thread looper for the debounce handler
 import android.os.CountDownTimer; // For countdown functionality (e.g., dismiss toast after X seconds)
 import android.os.Parcel; // Used for writing data to a parcel (serialization)
 import android.os.Parcelable; // Interface for passing objects between activities
 import android.provider.Settings; // For opening device settings (e.g., GPS settings)
+import android.text.Editable; // Text contents passed to TextWatcher callbacks
+import android.text.TextWatcher; // Listens for typing in the search box
 import android.util.Log; // For logging debug/info messages
 import android.view.Gravity; // For positioning dialogs/toasts (e.g., top, bottom, center)
 import android.view.LayoutInflater; // To inflate XML layouts into Java objects (Views)
@@ -218,6 +222,12 @@ public class CustomerHomeActivity extends AppCompatActivity {
     // List to store all menus fetched from Firebase for the current branch
     private List<MenuItem> menuList = new ArrayList<>();
 
+    // Parses and filters menu snapshots off the UI thread, and builds the search index there too
+    private final SnapshotPipeline<MenuSearchIndex> menuPipeline = new SnapshotPipeline<>(error -> {
+        hideLoadingDialog(); // don't leave the spinner up if the menu couldn't be parsed
+        showCustomToast("Failed to load menu");
+    });
+
     // Adapter for binding menuList data to RecyclerView
     private CustomerCategoryAdapter categoryAdapter;
 
@@ -253,6 +263,17 @@ public class CustomerHomeActivity extends AppCompatActivity {
     // Adapter to bind suggestions list to the AutoCompleteTextView (search box)
     private ArrayAdapter<String> suggestionsAdapter;
 
+    // Prefix/word index over the loaded menus (rebuilt once per menu load)
+    private MenuSearchIndex searchIndex = MenuSearchIndex.EMPTY;
+
+    // Runs searches off the UI thread; a newer query supersedes an older one
+    private final SnapshotPipeline<List<MenuItem>> searchPipeline = new SnapshotPipeline<>();
+
+    // Waits for a short pause in typing before searching
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch;
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -504,7 +525,7 @@ public class CustomerHomeActivity extends AppCompatActivity {
 
                 // Loop through all branches in Firebase
                 for (DataSnapshot branchSnap : snapshot.getChildren()) {
-                    Branch branch = branchSnap.getValue(Branch.class);
+                    Branch branch = SnapshotMappers.branch(branchSnap.getValue());
                     if (branch != null) {
                         // Store branch in map for later use
                         branchMap.put(branch.branchID, branch);
@@ -595,6 +616,16 @@ public class CustomerHomeActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Drop any menu parsing still in flight so it never lands on a dead activity
+        menuPipeline.cancel();
+        // Same for searches, including one still waiting for the user to stop typing
+        searchHandler.removeCallbacksAndMessages(null);
+        searchPipeline.cancel();
+    }
+
     @Override
     public void onRequestPermissionsResult(int requestCode,
                                            @NonNull String[] permissions,
@@ -633,32 +664,23 @@ public class CustomerHomeActivity extends AppCompatActivity {
         dbRef.child("menu").addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
-                // Clear the old list before adding fresh data
-                menuList.clear();
-
-                // Loop through all menu items in Firebase
-                for (DataSnapshot menuSnap : snapshot.getChildren()) {
-                    // Convert snapshot into MenuItem object
-                    MenuItem menuItem = menuSnap.getValue(MenuItem.class);
-
-                    // Only add menu items that:
-                    // 1. Are not null
-                    // 2. Have a "branches" list
-                    // 3. Include this branchID (means this menu item is available at the current branch)
-                    if (menuItem != null && menuItem.branches != null && menuItem.branches.contains(branchID)) {
-                        menuList.add(menuItem);
-                    }
-                }
+                // Parse and filter in the background, then swap the list in on the UI thread
+                menuPipeline.submit(snapshot, snap -> MenuSearchIndex.build(menusForBranch(snap, branchID)), index -> {
+                    // Replace the old list with the fresh filtered data
+                    menuList.clear();
+                    menuList.addAll(index.items());
+                    searchIndex = index; // Searches now run against the new menus
 
-                // Update the adapter with the new filtered menu list
-                // Also pass branchID (so menu popups know which branch we’re working with)
-                categoryAdapter.updateList(menuList, branchID);
+                    // Update the adapter with the new filtered menu list
+                    // Also pass branchID (so menu popups know which branch we’re working with)
+                    categoryAdapter.updateList(menuList, branchID);
 
-                // Refresh search suggestions (so autocomplete includes the new menu names)
-                updateSearchSuggestions();
+                    // Refresh search suggestions (so autocomplete includes the new menu names)
+                    updateSearchSuggestions();
 
-                // Done -> hide the loading dialog
-                hideLoadingDialog();
+                    // Done -> hide the loading dialog
+                    hideLoadingDialog();
+                });
             }
 
             @Override
@@ -669,6 +691,20 @@ public class CustomerHomeActivity extends AppCompatActivity {
         });
     }
 
+    // Runs on the snapshot pipeline thread.
+    // Only keeps menu items whose availability bit for this branch is set and that aren't sold out there
+    private static List<MenuItem> menusForBranch(DataSnapshot snapshot, String branchID) {
+        int branchOrdinal = BranchSet.ordinal(branchID);
+        List<MenuItem> menus = new ArrayList<>();
+        for (DataSnapshot menuSnap : snapshot.getChildren()) {
+            MenuItem menuItem = SnapshotMappers.menuItem(menuSnap.getValue());
+            if (menuItem != null && menuItem.isAvailableAt(branchOrdinal)) {
+                menus.add(menuItem);
+            }
+        }
+        return menus;
+    }
+
     // ---------------- CART METHODS ----------------
 
     // Load the cart for a specific branch and customer
@@ -685,7 +721,7 @@ public class CustomerHomeActivity extends AppCompatActivity {
             public void onDataChange(@NonNull DataSnapshot snapshot) {
                 if (snapshot.exists()) {
                     // Cart exists in Firebase. Get the cart object.
-                    Cart loadedCart = snapshot.getValue(Cart.class);
+                    Cart loadedCart = WireFormat.cartFromWire(cartID, WireFormat.asMap(snapshot.getValue()));
 
                     // IMPORTANT: Check if the loaded cart's branch ID matches the current nearest branch.
                     if (loadedCart != null && loadedCart.getBranchID() != null && loadedCart.getBranchID().equals(branchID)) {
@@ -695,7 +731,7 @@ public class CustomerHomeActivity extends AppCompatActivity {
                         // The cart is from a different branch or is invalid.
                         // Reset it by creating a new empty cart for the correct branch.
                         currentCart = new Cart(cartID, branchID, customerID);
-                        cartRef.setValue(currentCart); // Overwrite the old cart in Firebase.
+                        cartRef.setValue(WireFormat.cartToWire(currentCart)); // Overwrite the old cart in Firebase.
                         showCustomToast("Your cart has been reset for the nearest branch.");
                     }
                 } else {
@@ -729,7 +765,7 @@ public class CustomerHomeActivity extends AppCompatActivity {
             public void onDataChange(@NonNull DataSnapshot snapshot) {
                 if (snapshot.exists()) {
                     // Cart exists -> update currentCart
-                    currentCart = snapshot.getValue(Cart.class);
+                    currentCart = WireFormat.cartFromWire(cartID, WireFormat.asMap(snapshot.getValue()));
                 } else {
                     // Cart doesn't exist -> initialize a new empty cart
                     currentCart = new Cart(cartID, "initialBranch", customerID);
@@ -848,7 +884,7 @@ public class CustomerHomeActivity extends AppCompatActivity {
             currentCart.totalPrice = totalPrice;
 
             // Save updated cart to Firebase
-            dbRef.child("carts").child(currentCart.cartID).setValue(currentCart)
+            dbRef.child("carts").child(currentCart.cartID).setValue(WireFormat.cartToWire(currentCart))
                     .addOnSuccessListener(aVoid -> {
                         showCustomToast("Cart updated"); // Feedback to user
                         updateCartBadge(); // Update UI badge
@@ -1041,7 +1077,7 @@ public class CustomerHomeActivity extends AppCompatActivity {
         updateCartBadge();
 
         // Save the updated cart back to Firebase under its cartID
-        dbRef.child("carts").child(currentCart.cartID).setValue(currentCart);
+        dbRef.child("carts").child(currentCart.cartID).setValue(WireFormat.cartToWire(currentCart));
     }
 
     // --- UPDATED METHOD: `placeOrder` now accepts a payment status and dialogs to dismiss ---
@@ -1095,14 +1131,19 @@ public class CustomerHomeActivity extends AppCompatActivity {
                                 new ArrayList<>(currentCart.items)
                         );
 
-                        dbRef.child("orders").child(newOrderID).setValue(order)
+                        // Write the full order and its list-row summary in one atomic update
+                        Map<String, Object> orderWrite = new HashMap<>();
+                        orderWrite.put("orders/" + newOrderID, WireFormat.orderToWire(order));
+                        orderWrite.put(OrderSummary.NODE + "/" + newOrderID, WireFormat.summaryToWire(OrderSummary.from(order)));
+
+                        dbRef.updateChildren(orderWrite)
                                 .addOnSuccessListener(aVoid -> {
                                     showCustomToast("Order placed successfully!");
 
                                     currentCart.items.clear();
                                     currentCart.totalItems = 0;
                                     currentCart.totalPrice = 0;
-                                    dbRef.child("carts").child(currentCart.cartID).setValue(currentCart);
+                                    dbRef.child("carts").child(currentCart.cartID).setValue(WireFormat.cartToWire(currentCart));
 
                                     updateCartBadge();
                                     hideLoadingDialog();
@@ -1126,37 +1167,32 @@ public class CustomerHomeActivity extends AppCompatActivity {
 
     // -------------------- UPDATE SEARCH SUGGESTIONS --------------------
     private void updateSearchSuggestions() {
-        // Clear the old suggestions so we start fresh
+        // Names and categories were already deduplicated when the search index was built
         searchSuggestions.clear();
+        searchSuggestions.addAll(searchIndex.suggestions());
 
-        // Loop through all menus currently loaded for this branch
-        for (MenuItem menu : menuList) {
-            // Add the menu name as a suggestion
-            searchSuggestions.add(menu.name);
+        if (suggestionsAdapter == null) {
+            // Create the ArrayAdapter once and bind it to the search box
+            // android.R.layout.simple_dropdown_item_1line: default Android dropdown layout
+            suggestionsAdapter = new ArrayAdapter<>(
+                    this,
+                    android.R.layout.simple_dropdown_item_1line,
+                    new ArrayList<>(searchSuggestions)
+            );
 
-            // Also add the category name if it exists and isn't already in suggestions
-            // Prevents duplicate entries
-            if (menu.category != null && !searchSuggestions.contains(menu.category)) {
-                searchSuggestions.add(menu.category);
-            }
-        }
+            // Find the AutoCompleteTextView in the layout
+            AutoCompleteTextView searchBox = findViewById(R.id.searchBox);
 
-        // Create a new ArrayAdapter to bind the suggestions list to the search box
-        // android.R.layout.simple_dropdown_item_1line: default Android dropdown layout
-        suggestionsAdapter = new ArrayAdapter<>(
-                this,
-                android.R.layout.simple_dropdown_item_1line,
-                searchSuggestions
-        );
-
-        // Find the AutoCompleteTextView in the layout
-        AutoCompleteTextView searchBox = findViewById(R.id.searchBox);
+            // Attach the adapter to the search box
+            searchBox.setAdapter(suggestionsAdapter);
 
-        // Attach the adapter to the search box
-        searchBox.setAdapter(suggestionsAdapter);
-
-        // Set minimum number of characters to trigger suggestions
-        searchBox.setThreshold(1); // Start showing suggestions after 1 character
+            // Set minimum number of characters to trigger suggestions
+            searchBox.setThreshold(1); // Start showing suggestions after 1 character
+        } else {
+            // Later loads just swap the contents (clear/addAll also resets the adapter's filter copy)
+            suggestionsAdapter.clear();
+            suggestionsAdapter.addAll(searchSuggestions);
+        }
     }
 
     // -------------------- SETUP SEARCH FUNCTIONALITY --------------------
@@ -1167,44 +1203,57 @@ public class CustomerHomeActivity extends AppCompatActivity {
 
         // When search button is clicked, perform search using the text in the search box
         searchButton.setOnClickListener(v ->
-                performSearch(searchBox.getText().toString().trim()) // Remove extra spaces
+                performSearch(searchBox.getText().toString().trim(), true) // Remove extra spaces
         );
 
         // Also trigger search when user presses "Enter" / "Done" on keyboard
         searchBox.setOnEditorActionListener((v, actionId, event) -> {
-            performSearch(searchBox.getText().toString().trim());
+            performSearch(searchBox.getText().toString().trim(), true);
             return true; // Consume the event so keyboard doesn't perform default action
         });
+
+        // Search as the user types, once they pause for SEARCH_DEBOUNCE_MS
+        searchBox.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                String query = s.toString().trim();
+                if (pendingSearch != null) searchHandler.removeCallbacks(pendingSearch);
+                pendingSearch = () -> performSearch(query, false);
+                searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
+            }
+        });
     }
 
     // -------------------- PERFORM SEARCH --------------------
-    private void performSearch(String query) {
+    // explicit = search button / Enter; only then is "No menus found" shown (not on every keystroke)
+    private void performSearch(String query, boolean explicit) {
+        if (pendingSearch != null) searchHandler.removeCallbacks(pendingSearch); // Run now, not again later
+
         // If search query is empty, reset to show all menus
         if (query.isEmpty()) {
+            searchPipeline.cancel(); // Drop a search still running for older text
             categoryAdapter.updateList(menuList, currentBranchID); // Show full list
             return;
         }
 
-        // List to hold menus matching the search query
-        List<MenuItem> filtered = new ArrayList<>();
-
-        // Loop through all menus
-        for (MenuItem menu : menuList) {
-            // Check if the menu name or category contains the search query (case-insensitive)
-            if (menu.name.toLowerCase().contains(query.toLowerCase()) ||
-                    (menu.category != null && menu.category.toLowerCase().contains(query.toLowerCase()))) {
-                filtered.add(menu); // Add matching menu to filtered list
+        // Look the query up in the index on a background thread (name and category matches rank first)
+        MenuSearchIndex index = searchIndex;
+        searchPipeline.submit(() -> index.search(query), filtered -> {
+            // If no menus matched the query
+            if (filtered.isEmpty()) {
+                if (explicit) showCustomToast("No menus found"); // Inform the user
+                categoryAdapter.updateList(menuList, currentBranchID); // Reset to show all menus
+            } else {
+                // Otherwise, update the adapter with only the filtered menus (best matches first)
+                categoryAdapter.updateList(filtered, currentBranchID);
             }
-        }
-
-        // If no menus matched the query
-        if (filtered.isEmpty()) {
-            showCustomToast("No menus found"); // Inform the user
-            categoryAdapter.updateList(menuList, currentBranchID); // Reset to show all menus
-        } else {
-            // Otherwise, update the adapter with only the filtered menus
-            categoryAdapter.updateList(filtered, currentBranchID);
-        }
+        });
     }
 
     // -------------------- MODELS --------------------
@@ -1224,9 +1273,16 @@ public class CustomerHomeActivity extends AppCompatActivity {
         public String menuID, name, category, description, imageURL; // Basic info
         public double price;                                          // Menu price
         public List<String> branches;                                 // Branches where this item is available
+        public BranchSet availableAt = BranchSet.EMPTY;               // Same branches as a bitset (filtering is a bit test)
+        public BranchSet soldOutAt = BranchSet.EMPTY;                 // Branches where the item is sold out for now
 
         public MenuItem() {}  // Default constructor required for Firebase
 
+        // Offered at this branch and not sold out there
+        public boolean isAvailableAt(int branchOrdinal) {
+            return availableAt.contains(branchOrdinal) && !soldOutAt.contains(branchOrdinal);
+        }
+
         // Constructor for recreating from a Parcel (used for passing between activities)
         protected MenuItem(Parcel in) {
             menuID = in.readString();
@@ -1236,6 +1292,8 @@ public class CustomerHomeActivity extends AppCompatActivity {
             imageURL = in.readString();
             price = in.readDouble();
             branches = in.createStringArrayList();
+            availableAt = BranchSet.ofWords(in.createIntArray());
+            soldOutAt = BranchSet.ofWords(in.createIntArray());
         }
 
         // Parcelable implementation to allow sending MenuItem objects via Intent
@@ -1265,6 +1323,8 @@ public class CustomerHomeActivity extends AppCompatActivity {
             parcel.writeString(imageURL);
             parcel.writeDouble(price);
             parcel.writeStringList(branches); // Store the list of branch IDs
+            parcel.writeIntArray(availableAt.words()); // Availability bits
+            parcel.writeIntArray(soldOutAt.words());   // Sold-out bits
         }
     }
 
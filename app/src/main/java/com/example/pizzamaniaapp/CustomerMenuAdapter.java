@@ -18,14 +18,17 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.google.android.material.button.MaterialButton;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 // Adapter for displaying menu items in a horizontal RecyclerView
 public class CustomerMenuAdapter extends RecyclerView.Adapter<CustomerMenuAdapter.CustomerMenuViewHolder> {
 
     private static final String TAG = "CustomerMenuAdapter";
 
-    private final List<CustomerHomeActivity.MenuItem> menuList; // List of menus to display
+    private List<CustomerHomeActivity.MenuItem> menuList; // List of menus to display (swapped by setItems)
+    private final Map<String, Long> menuIds = new HashMap<>(); // menuID -> stable item ID
     private final OnViewClickListener viewListener; // Callback for menu item click events
 
     // Interface to handle menu item click
@@ -38,6 +41,7 @@ public class CustomerMenuAdapter extends RecyclerView.Adapter<CustomerMenuAdapte
                                OnViewClickListener viewListener) {
         this.menuList = menuList;
         this.viewListener = viewListener;
+        setHasStableIds(true); // menuIDs are unique, lets RecyclerView keep cards bound to the same menu
         Log.d(TAG, "Adapter initialized with menu list size: " + (menuList != null ? menuList.size() : "0"));
     }
 
@@ -50,7 +54,14 @@ public class CustomerMenuAdapter extends RecyclerView.Adapter<CustomerMenuAdapte
         // Inflate the XML layout for a single menu item
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.customer_menu_item_layout, parent, false);
-        return new CustomerMenuViewHolder(view);
+        CustomerMenuViewHolder holder = new CustomerMenuViewHolder(view);
+
+        // Set click listener for the "View" button once; it resolves the menu at click time
+        holder.viewButton.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) viewListener.onViewClick(menuList.get(position));
+        });
+        return holder;
     }
 
     // Bind menu item data to the ViewHolder
@@ -70,9 +81,20 @@ public class CustomerMenuAdapter extends RecyclerView.Adapter<CustomerMenuAdapte
                 .load(item.imageURL)
                 .placeholder(R.drawable.sample_pizza) // default image while loading
                 .into(holder.image);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        CustomerHomeActivity.MenuItem item = menuList.get(position);
+        String key = item.menuID != null ? item.menuID : "#" + position; // IDs only need to be unique within the list
+        return menuIds.computeIfAbsent(key, k -> (long) menuIds.size());
+    }
 
-        // Set click listener for the "View" button to trigger activity callback
-        holder.viewButton.setOnClickListener(v -> viewListener.onViewClick(item));
+    // Swap in another category's menus (the adapter is reused when its category row is recycled)
+    public void setItems(List<CustomerHomeActivity.MenuItem> items) {
+        if (items == menuList) return; // Same list instance, nothing changed
+        this.menuList = items;
+        notifyDataSetChanged();
     }
 
     // Return number of menu items
@@ -7,6 +7,7 @@ import android.widget.CheckBox;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
@@ -16,13 +17,13 @@ import java.util.List;
 
 public class DeliveryAdapter extends RecyclerView.Adapter<DeliveryAdapter.ViewHolder> {
 
-    private List<DeliverymanHomeActivity.DeliveryItem> deliveryList;
+    private final AsyncListDiffer<DeliveryRow> differ = new AsyncListDiffer<>(this, DiffCallbacks.DELIVERY_ROW);
     private OnAcceptClickListener acceptListener;
     private OnCompleteClickListener completeListener;
     private OnViewMapClickListener viewMapListener;
 
-    public DeliveryAdapter(List<DeliverymanHomeActivity.DeliveryItem> deliveryList) {
-        this.deliveryList = deliveryList != null ? deliveryList : new ArrayList<>();
+    public DeliveryAdapter(List<DeliveryRow> deliveryList) {
+        differ.submitList(deliveryList != null ? new ArrayList<>(deliveryList) : new ArrayList<>());
     }
 
     // --- Click listener interfaces ---
@@ -45,39 +46,34 @@ public class DeliveryAdapter extends RecyclerView.Adapter<DeliveryAdapter.ViewHo
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        DeliverymanHomeActivity.DeliveryItem item = deliveryList.get(position);
+        DeliveryRow row = differ.getCurrentList().get(position);
 
-        // Set texts
-        holder.customerName.setText("Customer: " + item.customerName);
-        holder.customerLocation.setText("Latitude: " + item.customerLat + ", Longitude: " + item.customerLng);
-
-        boolean isAcceptedByCurrent = item.assignedDeliverymanID != null && !item.assignedDeliverymanID.isEmpty()
-                && "Delivering".equalsIgnoreCase(item.status);
+        // Set precomputed texts
+        holder.customerName.setText(row.customerText);
+        holder.customerLocation.setText(row.locationText);
 
         // Show Accept button only if order is not accepted
-        holder.acceptButton.setVisibility(isAcceptedByCurrent ? View.GONE : View.VISIBLE);
+        holder.acceptButton.setVisibility(row.acceptedByCurrent ? View.GONE : View.VISIBLE);
 
         // Show Completed checkbox only if accepted by current deliveryman
-        holder.completedCheckbox.setVisibility(isAcceptedByCurrent ? View.VISIBLE : View.GONE);
+        holder.completedCheckbox.setVisibility(row.acceptedByCurrent ? View.VISIBLE : View.GONE);
 
         // Checkbox reflects status
-        holder.completedCheckbox.setChecked("Completed".equalsIgnoreCase(item.status));
+        holder.completedCheckbox.setChecked(row.completed);
     }
 
     @Override
-    public int getItemCount() { return deliveryList.size(); }
+    public int getItemCount() { return differ.getCurrentList().size(); }
 
     // --- Helper to get item at position ---
     public DeliverymanHomeActivity.DeliveryItem getItem(int position) {
-        return deliveryList.get(position);
+        return differ.getCurrentList().get(position).item;
     }
 
 
-    // --- Update list dynamically ---
-    public void updateList(List<DeliverymanHomeActivity.DeliveryItem> newList) {
-        deliveryList.clear();
-        if (newList != null) deliveryList.addAll(newList);
-        notifyDataSetChanged();
+    // --- Update list dynamically (diffed by orderID, only changed rows rebind) ---
+    public void updateList(List<DeliveryRow> newList) {
+        differ.submitList(newList != null ? new ArrayList<>(newList) : new ArrayList<>());
     }
 
     // --- ViewHolder class ---
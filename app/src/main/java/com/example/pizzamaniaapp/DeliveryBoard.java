@@ -0,0 +1,113 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// The two lists on a rider's home screen, kept up to date one child event at a time:
+//   PENDING  - "Delivery Pending" orders of the rider's branch that nobody has taken yet
+//   ACCEPTED - "Delivering" orders assigned to this rider
+// Each lane is fed by its own query (DeliveryFeed), so an order moving from one status to the
+// other leaves one lane and enters the other through separate events; a lane only ever drops
+// what its own query removed or stopped matching. Rows are kept in order-ID order, the order the
+// old one-shot read listed them in.
+//
+// setCompleting() marks accepted orders the rider has ticked "Completed" while that write still
+// waits out its undo window in StatusOutbox: the order is still "Delivering" in the database, so it
+// stays in its lane, but its row shows as completed. Main thread only.
+public final class DeliveryBoard {
+
+    public static final String PENDING_STATUS = "Delivery Pending";
+    public static final String ACCEPTED_STATUS = "Delivering";
+
+    public enum Lane { PENDING, ACCEPTED }
+
+    public enum Change { NONE, ADDED, UPDATED, REMOVED }
+
+    private final String branchID, riderID;
+    private final TreeMap<String, DeliveryRow> pending = new TreeMap<>();
+    private final TreeMap<String, DeliveryRow> accepted = new TreeMap<>();
+    private final Map<String, DeliverymanHomeActivity.DeliveryItem> acceptedOrders = new HashMap<>(); // to rebuild rows
+    private final Set<String> completing = new HashSet<>(); // ticked, write not sent yet
+
+    public DeliveryBoard(String branchID, String riderID) {
+        this.branchID = branchID;
+        this.riderID = riderID;
+    }
+
+    // An order summary was added to or changed in the lane's query
+    public Change put(Lane lane, String orderID, Map<String, Object> wire) {
+        DeliverymanHomeActivity.DeliveryItem order = WireFormat.deliveryItemFromWire(orderID, wire);
+        TreeMap<String, DeliveryRow> rows = rows(lane);
+        if (!belongs(lane, order)) return remove(lane, orderID);
+        if (lane == Lane.ACCEPTED) acceptedOrders.put(orderID, order);
+        return rows.put(orderID, row(lane, order)) == null ? Change.ADDED : Change.UPDATED;
+    }
+
+    // The order left the lane's query
+    public Change remove(Lane lane, String orderID) {
+        if (lane == Lane.ACCEPTED) acceptedOrders.remove(orderID);
+        return rows(lane).remove(orderID) != null ? Change.REMOVED : Change.NONE;
+    }
+
+    // The accepted orders whose completion is queued; UPDATED when any row's checkbox changes
+    public Change setCompleting(Set<String> orderIDs) {
+        if (completing.equals(orderIDs)) return Change.NONE;
+        Set<String> flipped = new HashSet<>(completing);
+        flipped.addAll(orderIDs);
+        Set<String> both = new HashSet<>(completing);
+        both.retainAll(orderIDs);
+        flipped.removeAll(both);
+
+        completing.clear();
+        completing.addAll(orderIDs);
+        Change change = Change.NONE;
+        for (String orderID : flipped) {
+            DeliverymanHomeActivity.DeliveryItem order = acceptedOrders.get(orderID);
+            if (order == null) continue;
+            accepted.put(orderID, row(Lane.ACCEPTED, order));
+            change = Change.UPDATED;
+        }
+        return change;
+    }
+
+    public void clear() {
+        pending.clear();
+        accepted.clear();
+        acceptedOrders.clear();
+    }
+
+    public List<DeliveryRow> pending() {
+        return new ArrayList<>(pending.values());
+    }
+
+    public List<DeliveryRow> accepted() {
+        return new ArrayList<>(accepted.values());
+    }
+
+    public DeliveryRow row(Lane lane, String orderID) {
+        return rows(lane).get(orderID);
+    }
+
+    // Same rules as the old splitDeliveries()
+    private boolean belongs(Lane lane, DeliverymanHomeActivity.DeliveryItem order) {
+        if (!branchID.equals(order.branchID)) return false;
+        if (lane == Lane.ACCEPTED) {
+            return ACCEPTED_STATUS.equalsIgnoreCase(order.status) && riderID.equals(order.assignedDeliverymanID);
+        }
+        return PENDING_STATUS.equalsIgnoreCase(order.status)
+                && (order.assignedDeliverymanID == null || order.assignedDeliverymanID.isEmpty());
+    }
+
+    private DeliveryRow row(Lane lane, DeliverymanHomeActivity.DeliveryItem order) {
+        return new DeliveryRow(order, lane == Lane.ACCEPTED && completing.contains(order.orderID));
+    }
+
+    private TreeMap<String, DeliveryRow> rows(Lane lane) {
+        return lane == Lane.PENDING ? pending : accepted;
+    }
+}
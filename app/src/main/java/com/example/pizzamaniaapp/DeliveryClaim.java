@@ -0,0 +1,105 @@
+package com.example.pizzamaniaapp;
+
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Accepting a delivery as a compare-and-set on "orderSummaries/{orderID}".
+//
+// The old accept handler wrote assignedDeliverymanID + status with updateChildren(), so two riders
+// tapping the same order both got it (last write won). Here the rider is only set if the summary
+// still says "Delivery Pending" with nobody assigned:
+//   1. read the summary row and decide() on it
+//   2. write the claim as one multi-path update: rider and status on both the summary and the full
+//      order, the summary's lane keys, and the row's next revision (WireFormat.revisionUpdate)
+// The rules only take that revision while the row is still the one read, so when another rider
+// got there first the whole update is refused, nothing of it lands, and the claim starts again
+// from step 1, where decide() now says TAKEN. Exactly one rider wins, and the summary and the
+// order can never end up disagreeing about who has it.
+//
+// The update is applied locally first, so DeliveryFeed moves the row to "accepted" at once and
+// moves it back if the claim is refused.
+public final class DeliveryClaim {
+
+    static final int MAX_ROUNDS = 5; // reads + guarded writes before giving up on a row that keeps changing
+
+    public enum Outcome {
+        CLAIMED,      // this rider now has the order
+        TAKEN,        // another rider got there first
+        NOT_PENDING,  // cancelled / still being prepared / already delivered
+        MISSING       // the order no longer exists
+    }
+
+    public interface Callback {
+        void onResult(Outcome outcome); // main thread
+        void onFailed(String message);
+    }
+
+    private DeliveryClaim() {}
+
+    // What a claim by riderID does to the summary as it stands (null = no such order).
+    // A rider who already holds the order gets CLAIMED again, so a retried tap is harmless.
+    public static Outcome decide(Map<String, Object> summary, String riderID) {
+        if (summary == null || summary.isEmpty()) return Outcome.MISSING;
+        DeliverymanHomeActivity.DeliveryItem order = WireFormat.deliveryItemFromWire(null, summary);
+        boolean assigned = order.assignedDeliverymanID != null && !order.assignedDeliverymanID.isEmpty();
+
+        if (assigned && riderID.equals(order.assignedDeliverymanID)
+                && DeliveryBoard.ACCEPTED_STATUS.equalsIgnoreCase(order.status)) {
+            return Outcome.CLAIMED;
+        }
+        if (assigned) return Outcome.TAKEN;
+        if (!DeliveryBoard.PENDING_STATUS.equalsIgnoreCase(order.status)) return Outcome.NOT_PENDING;
+        return Outcome.CLAIMED;
+    }
+
+    // The fields a successful claim changes, by their Java names (see OrderSummary.mirroredUpdate)
+    public static Map<String, Object> claimedFields(String riderID) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("assignedDeliverymanID", riderID);
+        fields.put("status", DeliveryBoard.ACCEPTED_STATUS);
+        return fields;
+    }
+
+    // Root paths of riderID's claim on the summary as read, or null when there is nothing to write
+    // (decide() refuses it, or this rider already holds the order)
+    public static Map<String, Object> claimUpdate(String orderID, Map<String, Object> summary, String riderID) {
+        if (decide(summary, riderID) != Outcome.CLAIMED) return null;
+        DeliverymanHomeActivity.DeliveryItem order = WireFormat.deliveryItemFromWire(orderID, summary);
+        if (riderID.equals(order.assignedDeliverymanID)) return null; // a retried tap
+        Map<String, Object> update = OrderSummary.mirroredUpdate(orderID, claimedFields(riderID));
+        for (Map.Entry<String, Object> key : WireFormat.laneKeys(order.branchID, riderID, DeliveryBoard.ACCEPTED_STATUS).entrySet()) {
+            update.put(OrderSummary.NODE + "/" + orderID + "/" + key.getKey(), key.getValue());
+        }
+        update.putAll(WireFormat.revisionUpdate(orderID, summary));
+        return update;
+    }
+
+    public static void claim(DatabaseReference root, String orderID, String riderID, Callback callback) {
+        claim(root, orderID, riderID, callback, 1);
+    }
+
+    private static void claim(DatabaseReference root, String orderID, String riderID, Callback callback, int round) {
+        root.child(OrderSummary.NODE).child(orderID).get()
+                .addOnSuccessListener(snapshot -> {
+                    Map<String, Object> summary = snapshot.exists() ? WireFormat.asMap(snapshot.getValue()) : null;
+                    Map<String, Object> update = claimUpdate(orderID, summary, riderID);
+                    if (update == null) {
+                        callback.onResult(decide(summary, riderID));
+                        return;
+                    }
+                    root.updateChildren(update, (error, ref) -> {
+                        if (error == null) {
+                            callback.onResult(Outcome.CLAIMED);
+                        } else if (error.getCode() == DatabaseError.PERMISSION_DENIED && round < MAX_ROUNDS) {
+                            claim(root, orderID, riderID, callback, round + 1); // the row changed since it was read
+                        } else {
+                            callback.onFailed(error.getMessage());
+                        }
+                    });
+                })
+                .addOnFailureListener(e -> callback.onFailed(e.getMessage()));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.pizzamaniaapp;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Live subscription behind DeliverymanHomeActivity, replacing the one-shot read of the whole
+// branch that ran on launch, on the home button and after every accept / complete.
+//
+// Two child listeners on orderSummaries, one per DeliveryBoard lane, each on a composite key
+// (WireFormat.laneKey) so the server does all the filtering:
+//   bs == "{branchID}|Delivery Pending"  (the rider's branch; unassigned checked on the client)
+//   ds == "{riderID}|Delivering"         (this rider's own deliveries)
+// Neither query ever holds another branch's or another rider's orders, nor any history. This
+// needs ".indexOn": ["bs", "ds"] on orderSummaries. After the first load only changed orders are sent.
+//
+// Rows written before those keys existed only get them from SummaryBackfill, so the queries wait
+// for its marker (SummaryBackfill.whenMigrated) the way the staff lists do; until then both lanes
+// listen to the whole node and DeliveryBoard keeps only their own rows (it checks branch, rider
+// and status on every row either way).
+//
+// A single-value read of each query arrives after that query's initial child events, which marks
+// the initial load: the first onChanged() comes once both lanes are loaded, and only orders that
+// turn up after that are reported as new work. The home screen's feed follows the activity
+// (start() in onStart, stop() in onStop); RiderShiftService runs its own for notifications.
+public final class DeliveryFeed {
+
+    public interface Listener {
+        void onChanged(List<DeliveryRow> pending, List<DeliveryRow> accepted);
+        void onNewWork(DeliveryRow row); // a pending order that appeared after the initial load
+        void onAssigned(DeliveryRow row); // an order given to this rider after the initial load (own claim or dispatch)
+        void onFailed(String message);
+    }
+
+    private final DeliveryBoard board;
+    private final Listener listener;
+    private final DatabaseReference root, summaries;
+    private final String branchID, riderID;
+    private final Set<String> announced = new HashSet<>(); // new work / assignments reported once per order
+    private Query pendingQuery, acceptedQuery;
+    private LaneListener pendingLane, acceptedLane;
+    private boolean running; // between start() and stop(), including while the marker is read
+
+    public DeliveryFeed(DatabaseReference root, String branchID, String riderID, Listener listener) {
+        this.board = new DeliveryBoard(branchID, riderID);
+        this.listener = listener;
+        this.root = root;
+        this.summaries = root.child(OrderSummary.NODE);
+        this.branchID = branchID;
+        this.riderID = riderID;
+    }
+
+    public void start() {
+        if (running) return; // already listening, or about to
+        running = true;
+        SummaryBackfill.whenMigrated(root, migrated -> {
+            if (!running || pendingLane != null) return; // stopped meanwhile, or a restart got there first
+            board.clear();
+            pendingQuery = SummaryBackfill.summaries(summaries, migrated, WireFormat.BRANCH_STATUS,
+                    WireFormat.laneKey(branchID, DeliveryBoard.PENDING_STATUS));
+            acceptedQuery = SummaryBackfill.summaries(summaries, migrated, WireFormat.RIDER_STATUS,
+                    WireFormat.laneKey(riderID, DeliveryBoard.ACCEPTED_STATUS));
+            pendingLane = new LaneListener(DeliveryBoard.Lane.PENDING);
+            acceptedLane = new LaneListener(DeliveryBoard.Lane.ACCEPTED);
+            pendingLane.attach(pendingQuery);
+            acceptedLane.attach(acceptedQuery);
+        });
+    }
+
+    public void stop() {
+        running = false;
+        if (pendingLane == null) return;
+        pendingLane.detach(pendingQuery);
+        acceptedLane.detach(acceptedQuery);
+        pendingLane = acceptedLane = null;
+    }
+
+    // Accepted orders whose "Completed" is still queued in StatusOutbox (see DeliveryBoard)
+    public void setCompleting(Set<String> orderIDs) {
+        changed(DeliveryBoard.Lane.ACCEPTED, null, board.setCompleting(orderIDs));
+    }
+
+    private boolean loaded() {
+        return pendingLane != null && pendingLane.loaded && acceptedLane.loaded;
+    }
+
+    // Before both lanes are loaded the board just fills up; the first onChanged() shows it all
+    private void changed(DeliveryBoard.Lane lane, String orderID, DeliveryBoard.Change change) {
+        if (change == DeliveryBoard.Change.NONE || !loaded()) return;
+        listener.onChanged(board.pending(), board.accepted());
+        if (change != DeliveryBoard.Change.ADDED || !announced.add(lane + "/" + orderID)) return;
+        if (lane == DeliveryBoard.Lane.PENDING) {
+            listener.onNewWork(board.row(lane, orderID));
+        } else {
+            listener.onAssigned(board.row(lane, orderID));
+        }
+    }
+
+    // Child events of one lane's query, plus the read that marks its initial load
+    private final class LaneListener implements ChildEventListener, ValueEventListener {
+        private final DeliveryBoard.Lane lane;
+        boolean loaded;
+
+        LaneListener(DeliveryBoard.Lane lane) {
+            this.lane = lane;
+        }
+
+        void attach(Query query) {
+            query.addChildEventListener(this);
+            query.addListenerForSingleValueEvent(this);
+        }
+
+        void detach(Query query) {
+            query.removeEventListener((ChildEventListener) this);
+            query.removeEventListener((ValueEventListener) this);
+        }
+
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+            put(snapshot);
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+            put(snapshot);
+        }
+
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+            if (this != lane()) return;
+            changed(lane, snapshot.getKey(), board.remove(lane, snapshot.getKey()));
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {
+            // Rows are kept in order-ID order; the query's order doesn't matter
+        }
+
+        // Initial child events have all been delivered
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            if (this != lane() || loaded) return;
+            loaded = true;
+            if (loaded()) listener.onChanged(board.pending(), board.accepted());
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            if (this != lane()) return;
+            listener.onFailed(error.getMessage());
+        }
+
+        private void put(DataSnapshot snapshot) {
+            if (this != lane() || !snapshot.hasChildren()) return;
+            changed(lane, snapshot.getKey(), board.put(lane, snapshot.getKey(), WireFormat.asMap(snapshot.getValue())));
+        }
+
+        // Events still queued for a listener that stop() replaced are ignored
+        private LaneListener lane() {
+            return lane == DeliveryBoard.Lane.PENDING ? pendingLane : acceptedLane;
+        }
+    }
+}
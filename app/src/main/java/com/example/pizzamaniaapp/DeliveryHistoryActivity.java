@@ -1,10 +1,12 @@
 package com.example.pizzamaniaapp;
 
+import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.util.Log;
 import android.widget.ImageButton;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
@@ -25,7 +27,8 @@ public class DeliveryHistoryActivity extends AppCompatActivity {
     private static final String TAG = "DeliveryHistory";
     private RecyclerView recyclerView;
     private DeliveryHistoryAdapter adapter;
-    private List<Order> deliveredOrders = new ArrayList<>();
+    private List<OrderSummary> deliveredOrders = new ArrayList<>();
+    private final SnapshotPipeline<List<OrderSummary>> ordersPipeline = new SnapshotPipeline<>();
     private DatabaseReference dbRef;
     private String currentDeliverymanID;
     private TextView emptyText;
@@ -44,6 +47,7 @@ public class DeliveryHistoryActivity extends AppCompatActivity {
 
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         adapter = new DeliveryHistoryAdapter(this, deliveredOrders);
+        adapter.setOnOrderClickListener(this::openTrace);
         recyclerView.setAdapter(adapter);
 
         // Load current deliveryman ID from SharedPreferences
@@ -57,36 +61,21 @@ public class DeliveryHistoryActivity extends AppCompatActivity {
 
 
         // Firebase reference
-        dbRef = FirebaseDatabase.getInstance().getReference("orders");
+        dbRef = FirebaseDatabase.getInstance().getReference(OrderSummary.NODE);
         loadDeliveredOrders();
     }
 
     private void loadDeliveredOrders() {
-        dbRef.addListenerForSingleValueEvent(new ValueEventListener() {
+        // Only this deliveryman's summaries are downloaded (once the summaries are migrated)
+        SummaryBackfill.whenMigrated(dbRef.getRoot(), migrated -> loadDeliveredOrders(migrated));
+    }
+
+    private void loadDeliveredOrders(boolean migrated) {
+        SummaryBackfill.summaries(dbRef, migrated, WireFormat.DELIVERYMAN_ID, currentDeliverymanID).addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
-                deliveredOrders.clear();
-
-                for (DataSnapshot orderSnap : snapshot.getChildren()) {
-                    Order order = orderSnap.getValue(Order.class);
-                    if (order == null) continue;
-
-                    // Only Completed orders assigned to this deliveryman
-                    if ("Completed".equalsIgnoreCase(order.getStatus())
-                            && currentDeliverymanID.equals(order.getAssignedDeliverymanID())) {
-                        deliveredOrders.add(order);
-                    }
-                }
-
-                if (deliveredOrders.isEmpty()) {
-                    emptyText.setText("No delivered orders yet");
-                    emptyText.setVisibility(TextView.VISIBLE);
-                    recyclerView.setVisibility(RecyclerView.GONE);
-                } else {
-                    emptyText.setVisibility(TextView.GONE);
-                    recyclerView.setVisibility(RecyclerView.VISIBLE);
-                    adapter.notifyDataSetChanged();
-                }
+                String deliverymanID = currentDeliverymanID;
+                ordersPipeline.submit(snapshot, snap -> deliveredBy(snap, deliverymanID), orders -> showOrders(orders));
             }
 
             @Override
@@ -98,4 +87,66 @@ public class DeliveryHistoryActivity extends AppCompatActivity {
             }
         });
     }
+
+    // Runs on the snapshot pipeline thread
+    private static List<OrderSummary> deliveredBy(DataSnapshot snapshot, String deliverymanID) {
+        List<OrderSummary> orders = new ArrayList<>();
+        for (DataSnapshot orderSnap : snapshot.getChildren()) {
+            OrderSummary order = WireFormat.summaryFromWire(orderSnap.getKey(), WireFormat.asMap(orderSnap.getValue()));
+
+            // Only Completed orders assigned to this deliveryman
+            if ("Completed".equalsIgnoreCase(order.getStatus())
+                    && deliverymanID.equals(order.getAssignedDeliverymanID())) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    private void showOrders(List<OrderSummary> orders) {
+        deliveredOrders.clear();
+        deliveredOrders.addAll(orders);
+        adapter.submitList(orders); // diffed in the background, only changed rows rebind
+
+        if (deliveredOrders.isEmpty()) {
+            emptyText.setText("No delivered orders yet");
+            emptyText.setVisibility(TextView.VISIBLE);
+            recyclerView.setVisibility(RecyclerView.GONE);
+        } else {
+            emptyText.setVisibility(TextView.GONE);
+            recyclerView.setVisibility(RecyclerView.VISIBLE);
+        }
+    }
+
+    // Loads the route recorded when the delivery was completed and shows it on the map
+    private void openTrace(OrderSummary order) {
+        FirebaseDatabase.getInstance().getReference(TraceCodec.ORDER_TRACES).child(order.getOrderID())
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        Object trace = snapshot.getValue();
+                        if (!(trace instanceof String)) {
+                            Toast.makeText(DeliveryHistoryActivity.this, "No route recorded for this delivery", Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                        Intent intent = new Intent(DeliveryHistoryActivity.this, MapActivity.class);
+                        intent.putExtra(MapActivity.EXTRA_TRACE, (String) trace);
+                        intent.putExtra("lat", order.getCustomerLat());
+                        intent.putExtra("lng", order.getCustomerLng());
+                        startActivity(intent);
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Toast.makeText(DeliveryHistoryActivity.this, "Failed to load the route", Toast.LENGTH_SHORT).show();
+                        Log.e(TAG, "Trace load error for " + order.getOrderID() + ": " + error.getMessage());
+                    }
+                });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        ordersPipeline.cancel();
+    }
 }
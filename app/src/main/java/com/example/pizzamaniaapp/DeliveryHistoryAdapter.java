@@ -7,9 +7,11 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -17,13 +19,18 @@ import java.util.Locale;
 public class DeliveryHistoryAdapter extends RecyclerView.Adapter<DeliveryHistoryAdapter.DeliveryViewHolder> {
 
     private final Context context;
-    private final List<Order> orderList;
+    private final AsyncListDiffer<OrderSummary> differ = new AsyncListDiffer<>(this, DiffCallbacks.ORDER_SUMMARY);
+    private OnOrderClickListener orderClickListener;
 
-    public DeliveryHistoryAdapter(Context context, List<Order> orderList) {
+    public interface OnOrderClickListener { void onOrderClick(OrderSummary order); }
+
+    public DeliveryHistoryAdapter(Context context, List<OrderSummary> orderList) {
         this.context = context;
-        this.orderList = orderList;
+        differ.submitList(new ArrayList<>(orderList));
     }
 
+    public void setOnOrderClickListener(OnOrderClickListener listener) { this.orderClickListener = listener; }
+
     @NonNull
     @Override
     public DeliveryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -33,9 +40,9 @@ public class DeliveryHistoryAdapter extends RecyclerView.Adapter<DeliveryHistory
 
     @Override
     public void onBindViewHolder(@NonNull DeliveryViewHolder holder, int position) {
-        Order order = orderList.get(position);
+        OrderSummary order = differ.getCurrentList().get(position);
 
-        holder.tvOrderId.setText("Order ID: " + order.getOrderId());
+        holder.tvOrderId.setText("Order ID: " + order.getOrderID());
         holder.tvCustomerName.setText("Customer: " + order.getCustomerName());
         holder.tvTotalPrice.setText("Total: Rs. " + order.getTotalPrice());
 
@@ -46,11 +53,21 @@ public class DeliveryHistoryAdapter extends RecyclerView.Adapter<DeliveryHistory
         } else {
             holder.tvDeliveredTime.setText("Delivered: N/A");
         }
+
+        // Tap a delivery to see the route that was ridden
+        holder.itemView.setOnClickListener(v -> {
+            if (orderClickListener != null) orderClickListener.onOrderClick(order);
+        });
+    }
+
+    // Show a new set of orders; only rows that were added, removed or changed are rebound
+    public void submitList(List<OrderSummary> orders) {
+        differ.submitList(new ArrayList<>(orders));
     }
 
     @Override
     public int getItemCount() {
-        return orderList.size();
+        return differ.getCurrentList().size();
     }
 
     static class DeliveryViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,25 @@
+package com.example.pizzamaniaapp;
+
+// Bind-ready row for DeliveryAdapter, built on the snapshot pipeline thread
+public final class DeliveryRow {
+
+    public final DeliverymanHomeActivity.DeliveryItem item;
+    public final String customerText;
+    public final String locationText;
+    public final boolean acceptedByCurrent; // shows the Completed checkbox instead of Accept
+    public final boolean completed;
+
+    public DeliveryRow(DeliverymanHomeActivity.DeliveryItem item) {
+        this(item, false);
+    }
+
+    // completing: the rider ticked "Completed" and the write is still waiting in StatusOutbox
+    public DeliveryRow(DeliverymanHomeActivity.DeliveryItem item, boolean completing) {
+        this.item = item;
+        this.customerText = "Customer: " + item.customerName;
+        this.locationText = "Latitude: " + item.customerLat + ", Longitude: " + item.customerLng;
+        this.acceptedByCurrent = item.assignedDeliverymanID != null && !item.assignedDeliverymanID.isEmpty()
+                && "Delivering".equalsIgnoreCase(item.status);
+        this.completed = completing || "Completed".equalsIgnoreCase(item.status);
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.pizzamaniaapp;
 
+import android.Manifest;
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.CountDownTimer;
 import android.util.Log;
@@ -18,6 +21,8 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
@@ -25,24 +30,37 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class DeliverymanHomeActivity extends AppCompatActivity {
 
     private static final String TAG = "DeliverymanHome";
+    private static final int REQUEST_PERMISSIONS = 51; // Notifications + location
     private DatabaseReference db;
 
     private RecyclerView pendingRecyclerView, acceptedRecyclerView;
     private DeliveryAdapter pendingAdapter, acceptedAdapter;
+    private boolean accepting = false; // A claim is in flight
+    private DeliveryFeed deliveryFeed; // Live pending / accepted orders, attached between onStart and onStop
+    private StatusOutbox outbox; // Queued "Completed" writes (undo window, retries, survives the app closing)
+    private final StatusOutbox.Listener outboxListener = new StatusOutbox.Listener() {
+        @Override
+        public void onOutboxChanged() {
+            feedCompleting();
+        }
+
+        @Override
+        public void onRejected(String kind, String orderID, String label, String reason) {
+            // e.g. the order was cancelled or reassigned before the completion went out
+            showCustomToast("Order " + orderID + " was not marked " + label + ": " + reason);
+        }
+    };
+    private RiderLocationPublisher locationPublisher; // Records the path of each order on board (RiderShiftService runs and feeds it)
+    private String riderID;
 
     private ImageButton homeButton, deliveryHistoryButton ;
 
@@ -85,7 +103,7 @@ public class DeliverymanHomeActivity extends AppCompatActivity {
         deliveryHistoryButton = findViewById(R.id.deliveryHistoryButton);
 
 
-        homeButton.setOnClickListener(v -> loadDeliveries());
+        homeButton.setOnClickListener(v -> pendingRecyclerView.smoothScrollToPosition(0)); // Lists are live, nothing to reload
         deliveryHistoryButton.setOnClickListener(v ->
                 startActivity(new Intent(this, DeliverymanDeliveryHistoryActivity.class)));
 
@@ -97,8 +115,41 @@ public class DeliverymanHomeActivity extends AppCompatActivity {
         acceptedTitle.setVisibility(View.GONE);
         acceptedRecyclerView.setVisibility(View.GONE);
 
+        outbox = StatusOutbox.get(this); // Also sends anything left queued from an earlier run
         setupAdapters(); // Setup click listeners
-        loadDeliveries(); // Load both lists
+        requestRiderPermissions();
+        locationPublisher = RiderLocationPublisher.get(this);
+
+        String currentDeliveryman = getCurrentDeliverymanID();
+        riderID = currentDeliveryman;
+        String currentBranch = getCurrentDeliverymanBranch();
+        if (currentDeliveryman != null && currentBranch != null) {
+            deliveryFeed = new DeliveryFeed(db, currentBranch, currentDeliveryman, new DeliveryFeed.Listener() {
+                @Override
+                public void onChanged(List<DeliveryRow> pending, List<DeliveryRow> accepted) {
+                    showDeliveries(pending, accepted);
+                }
+
+                @Override
+                public void onNewWork(DeliveryRow row) {
+                    // Already in the list; RiderShiftService notifies while the screen is hidden
+                }
+
+                @Override
+                public void onAssigned(DeliveryRow row) {
+                    // Same: shows under Accepted straight away
+                }
+
+                @Override
+                public void onFailed(String message) {
+                    hideLoadingDialog();
+                    showCustomToast("Failed to load deliveries");
+                    Log.e(TAG, "Delivery feed cancelled: " + message);
+                }
+            });
+            showLoadingDialog("Loading deliveries...");
+            RiderShiftService.start(this); // Keeps new-work notifications coming after this screen closes
+        }
 
         // -------------------- Order History --------------------
         ImageButton deliveryHistoryButton = findViewById(R.id.deliveryHistoryButton);
@@ -110,6 +161,9 @@ public class DeliverymanHomeActivity extends AppCompatActivity {
         // -------------------- LOG Out Button  --------------------
         ImageButton LogoutButton = findViewById(R.id.LogoutButton);
         LogoutButton.setOnClickListener(v -> {
+            locationPublisher.stop(); // Nothing to carry once logged out
+            RiderShiftService.stop(this); // Shift over: no more notifications or shared position
+
             // 1. Try sign out from FirebaseAuth (only works if current user is FirebaseAuth user)
             FirebaseAuth.getInstance().signOut();
 
@@ -127,6 +181,29 @@ public class DeliverymanHomeActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (deliveryFeed != null) deliveryFeed.start(); // (re)subscribe; only changes arrive after the first load
+        RiderShiftService.setScreenVisible(true); // New rows show here, no notification needed
+        outbox.addListener(outboxListener);
+        feedCompleting();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (deliveryFeed != null) deliveryFeed.stop(); // the shift service keeps listening for notifications
+        RiderShiftService.setScreenVisible(false);
+        outbox.removeListener(outboxListener);
+    }
+
+    // Ticks the rows whose completion is still queued in the outbox
+    private void feedCompleting() {
+        if (deliveryFeed == null) return;
+        deliveryFeed.setCompleting(outbox.pending(StatusTransitions.KIND_COMPLETE_DELIVERY).keySet());
+    }
+
     // Returns the branch ID of the currently logged-in deliveryman
     private String getCurrentDeliverymanBranch() {
         String branchID = getSharedPreferences("MyAppPrefs", MODE_PRIVATE)
@@ -157,111 +234,75 @@ public class DeliverymanHomeActivity extends AppCompatActivity {
     }
 
 
-    private void loadDeliveries() {
-        showLoadingDialog("Loading deliveries...");
-
-        acceptedTitle.setVisibility(View.GONE);
-        acceptedRecyclerView.setVisibility(View.GONE);
-
-        String currentDeliveryman = getCurrentDeliverymanID();
-        String currentBranch = getCurrentDeliverymanBranch();
-        if (currentBranch == null) return; // stop loading if branch not set
-
-        db.child("orders").addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                hideLoadingDialog();
-
-                List<DeliveryItem> pendingList = new ArrayList<>();
-                List<DeliveryItem> acceptedList = new ArrayList<>();
-
-                for (DataSnapshot snap : snapshot.getChildren()) {
-                    DeliveryItem order = snap.getValue(DeliveryItem.class);
-                    if (order == null) continue;
-
-                    if ("Completed".equalsIgnoreCase(order.status)) continue; // skip completed
+    private void showDeliveries(List<DeliveryRow> pendingList, List<DeliveryRow> acceptedList) {
+        hideLoadingDialog();
 
-                    // Only orders from same branch
-                    if (!currentBranch.equals(order.branchID)) continue;
+        // Update adapters
+        pendingAdapter.updateList(pendingList);
+        acceptedAdapter.updateList(acceptedList);
 
-                    if ("Delivering".equalsIgnoreCase(order.status) && currentDeliveryman.equals(order.assignedDeliverymanID)) {
-                        acceptedList.add(order); // accepted by current deliveryman
-                    } else if ("Delivery Pending".equalsIgnoreCase(order.status) && (order.assignedDeliverymanID == null || order.assignedDeliverymanID.isEmpty())) {
-                        pendingList.add(order);
-                    }
-                }
+        boolean hasAccepted = !acceptedList.isEmpty();
+        boolean hasPending = !pendingList.isEmpty();
 
-                // Update adapters
-                pendingAdapter.updateList(pendingList);
-                acceptedAdapter.updateList(acceptedList);
-
-                boolean hasAccepted = !acceptedList.isEmpty();
-                boolean hasPending = !pendingList.isEmpty();
-
-                boolean showPlaceholder = !hasAccepted && !hasPending;
-                noDeliveriesLayout.setVisibility(showPlaceholder ? View.VISIBLE : View.GONE);
-
-                // hide the lists when showing placeholder
-                acceptedTitle.setVisibility(hasAccepted ? View.VISIBLE : View.GONE);
-                acceptedRecyclerView.setVisibility(hasAccepted ? View.VISIBLE : View.GONE);
-                pendingTitle.setVisibility(hasPending ? View.VISIBLE : View.GONE);
-                pendingRecyclerView.setVisibility(hasPending ? View.VISIBLE : View.GONE);
-
-
-                pendingRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
-                    @Override
-                    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
-                        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
-                        if (layoutManager != null) {
-                            int lastVisible = layoutManager.findLastCompletelyVisibleItemPosition();
-                            if (lastVisible == pendingAdapter.getItemCount() - 1) {
-                                if (!acceptedList.isEmpty()) {
-                                    acceptedTitle.setVisibility(View.VISIBLE);
-                                    acceptedRecyclerView.setVisibility(View.VISIBLE);
-                                }
-                            }
-                        }
-                    }
-                });
-            }
+        boolean showPlaceholder = !hasAccepted && !hasPending;
+        noDeliveriesLayout.setVisibility(showPlaceholder ? View.VISIBLE : View.GONE);
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                hideLoadingDialog();
-            }
-        });
+        // hide the lists when showing placeholder
+        acceptedTitle.setVisibility(hasAccepted ? View.VISIBLE : View.GONE);
+        acceptedRecyclerView.setVisibility(hasAccepted ? View.VISIBLE : View.GONE);
+        pendingTitle.setVisibility(hasPending ? View.VISIBLE : View.GONE);
+        pendingRecyclerView.setVisibility(hasPending ? View.VISIBLE : View.GONE);
     }
 
     private void setupAdapters() {
         // Pending adapter: Accept order
         pendingAdapter.setOnAcceptClickListener(position -> {
             DeliveryItem order = pendingAdapter.getItem(position);
-            Log.d(TAG, "Accept clicked for order: " + (order != null ? order.orderID : "null"));
-
-            if (acceptedAdapter.getItemCount() > 0) {
-                showCustomToast("⚠ You can accept only 1 order at a time");
-                Log.d(TAG, "Cannot accept: another order is already active. Returning.");
+            if (order == null || accepting) return; // One claim at a time
+            Log.d(TAG, "Accept clicked for order: " + order.orderID);
+
+            // Batching: up to MAX_BATCH orders, each new drop close to one already carried
+            List<RoutePlanner.Stop> batch = carriedStops();
+            if (!RoutePlanner.canJoin(batch, stopOf(order))) {
+                showCustomToast(batch.size() >= RoutePlanner.MAX_BATCH
+                        ? "⚠ You can carry up to " + RoutePlanner.MAX_BATCH + " orders at a time"
+                        : "⚠ This order is too far from the ones you are carrying");
+                Log.d(TAG, "Cannot accept: order " + order.orderID + " does not fit the current batch of " + batch.size());
                 return;
             }
 
-            showLoadingDialog("Accepting delivery...");
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("assignedDeliverymanID", getCurrentDeliverymanID());
-            updates.put("status", "Delivering");
-            Log.d(TAG, "Attempting to update order status to 'Delivering' for order: " + order.orderID);
-
-            db.child("orders").child(order.orderID).updateChildren(updates)
-                    .addOnSuccessListener(a -> {
-                        hideLoadingDialog();
-                        Log.d(TAG, "Order successfully accepted. Status updated to 'Delivering' for order: " + order.orderID);
-                        loadDeliveries();
-                        Log.d(TAG, "loadDeliveries() called after successful acceptance.");
-                    })
-                    .addOnFailureListener(e -> {
-                        hideLoadingDialog();
-                        showCustomToast("Failed to accept delivery");
-                        Log.e(TAG, "Failed to accept order: " + order.orderID, e);
-                    });
+            accepting = true;
+            Log.d(TAG, "Claiming order: " + order.orderID);
+
+            // Compare-and-set: only succeeds while the order is still pending and unassigned.
+            // Applied locally first, so the feed moves the row to Accepted straight away.
+            DeliveryClaim.claim(db, order.orderID, getCurrentDeliverymanID(), new DeliveryClaim.Callback() {
+                @Override
+                public void onResult(DeliveryClaim.Outcome outcome) {
+                    accepting = false;
+                    Log.d(TAG, "Claim of order " + order.orderID + ": " + outcome);
+                    switch (outcome) {
+                        case CLAIMED:
+                            break; // the feed already shows it under Accepted
+                        case TAKEN:
+                            showCustomToast("Another deliveryman already took this order");
+                            break;
+                        case NOT_PENDING:
+                            showCustomToast("This order is no longer waiting for delivery");
+                            break;
+                        case MISSING:
+                            showCustomToast("This order no longer exists");
+                            break;
+                    }
+                }
+
+                @Override
+                public void onFailed(String message) {
+                    accepting = false;
+                    showCustomToast("Failed to accept delivery");
+                    Log.e(TAG, "Failed to accept order: " + order.orderID + " | " + message);
+                }
+            });
         });
 
         pendingAdapter.setOnViewMapClickListener(position -> {
@@ -288,138 +329,68 @@ public class DeliverymanHomeActivity extends AppCompatActivity {
                     ", paymentStatus=" + order.paymentStatus);
             // --------------------------
 
-            db.child("orders").child(order.orderID).child("status")
-                    .addListenerForSingleValueEvent(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(@NonNull DataSnapshot snapshot) {
-                            String currentStatus = snapshot.getValue(String.class);
-                            Log.d(TAG, "Current status from DB: " + currentStatus);
-                            if (currentStatus == null) {
-                                Log.w(TAG, "Current status from DB is null. Aborting.");
-                                return;
-                            }
-
-                            Map<String, Object> updates = new HashMap<>();
-
-                            if ("Completed".equalsIgnoreCase(currentStatus)) {
-                                Log.d(TAG, "Order status is already 'Completed'. Reverting to 'Delivering' immediately.");
-                                updates.put("status", "Delivering");
-                                db.child("orders").child(order.orderID).updateChildren(updates)
-                                        .addOnSuccessListener(aVoid -> {
-                                            showCustomToast("↩ Delivery reverted to Delivering");
-                                            Log.d(TAG, "Order reverted to 'Delivering' successfully: " + order.orderID);
-                                            loadDeliveries();
-                                            Log.d(TAG, "loadDeliveries() called after reverting status.");
-                                        })
-                                        .addOnFailureListener(e -> {
-                                            showCustomToast("Failed to revert delivery");
-                                            Log.e(TAG, "Failed to revert order: " + order.orderID, e);
-                                        });
-                            } else {
-                                Log.d(TAG, "Order status is not 'Completed'. Marking as 'Completed'.");
-                                updates.put("status", "Completed");
-                                db.child("orders").child(order.orderID).updateChildren(updates)
-                                        .addOnSuccessListener(aVoid -> {
-                                            showCustomToast("✓ Delivery Completed");
-                                            Log.d(TAG, "Order status updated to 'Completed' successfully: " + order.orderID);
-
-                                            // Start 15-second timer
-                                            Log.d(TAG, "Starting 15-second timer for order: " + order.orderID);
-                                            new CountDownTimer(15000, 15000) {
-                                                @Override
-                                                public void onTick(long millisUntilFinished) {
-                                                    // Not needed, but keeping for clarity
-                                                }
-
-                                                @Override
-                                                public void onFinish() {
-                                                    Log.d(TAG, "15-second timer finished for order: " + order.orderID);
-                                                    // Read status once before updating payment
-                                                    db.child("orders").child(order.orderID).child("status")
-                                                            .addListenerForSingleValueEvent(new ValueEventListener() {
-                                                                @Override
-                                                                public void onDataChange(@NonNull DataSnapshot snap) {
-                                                                    String finalStatus = snap.getValue(String.class);
-                                                                    Log.d(TAG, "Final status read from DB before payment update: " + finalStatus);
-                                                                    if (!"Completed".equalsIgnoreCase(finalStatus)) {
-                                                                        Log.d(TAG, "Order status changed from 'Completed', skipping payment update logic.");
-                                                                        return;
-                                                                    }
-
-                                                                    long deliveredTime = System.currentTimeMillis();
-                                                                    Map<String, Object> finalUpdates = new HashMap<>();
-                                                                    finalUpdates.put("deliveredTimestamp", deliveredTime);
-                                                                    Log.d(TAG, "Attempting to update deliveredTimestamp: " + deliveredTime);
-
-                                                                    db.child("orders").child(order.orderID).updateChildren(finalUpdates)
-                                                                            .addOnSuccessListener(aVoid1 -> Log.d(TAG, "Delivered timestamp updated successfully."))
-                                                                            .addOnFailureListener(e -> Log.e(TAG, "Failed to update delivered timestamp", e));
-
-                                                                    // --- MODIFIED CONDITION HERE ---
-                                                                    Log.d(TAG, "New payment condition check: Is paymentStatus 'Pending'? " + "Pending".equalsIgnoreCase(order.paymentStatus));
-                                                                    if ("Pending".equalsIgnoreCase(order.paymentStatus)) {
-                                                                        // -----------------------------
-                                                                        Log.d(TAG, "Payment conditions met. Attempting to update paymentStatus to 'Paid' and create new payment record.");
-
-                                                                        // Update payment status
-                                                                        db.child("orders").child(order.orderID)
-                                                                                .child("paymentStatus").setValue("Paid")
-                                                                                .addOnSuccessListener(aVoid12 -> Log.d(TAG, "Payment status updated to 'Paid' successfully."))
-                                                                                .addOnFailureListener(e -> Log.e(TAG, "Failed to update payment status to 'Paid'", e));
-
-                                                                        // Add new payment record
-                                                                        Map<String, Object> paymentData = new HashMap<>();
-                                                                        paymentData.put("amount", order.totalPrice);
-                                                                        paymentData.put("customerID", order.customerID);
-                                                                        paymentData.put("customerName", order.customerName);
-                                                                        paymentData.put("paymentID", order.orderID);
-                                                                        paymentData.put("paymentMethod", "Cash");
-                                                                        paymentData.put("timestamp", deliveredTime);
-                                                                        Log.d(TAG, "Payment record data to be added: " + paymentData.toString());
-
-                                                                        db.child("payments").child(order.orderID).setValue(paymentData)
-                                                                                .addOnSuccessListener(aVoid13 -> Log.d(TAG, "New payment record added successfully for order: " + order.orderID))
-                                                                                .addOnFailureListener(e -> Log.e(TAG, "Failed to add new payment record for order: " + order.orderID, e));
-                                                                    } else {
-                                                                        Log.d(TAG, "Payment conditions not met. Skipping payment update and record creation.");
-                                                                    }
-
-                                                                    showLoadingDialog("Refreshing orders...");
-                                                                    loadDeliveries();
-                                                                    Log.d(TAG, "loadDeliveries() called after payment/timestamp updates.");
-                                                                }
-
-                                                                @Override
-                                                                public void onCancelled(@NonNull DatabaseError error) {
-                                                                    Log.e(TAG, "Failed to read order status before payment update: " + error.getMessage(), error.toException());
-                                                                }
-                                                            });
-                                                }
-                                            }.start();
-                                        })
-                                        .addOnFailureListener(e -> {
-                                            showCustomToast("Failed to complete delivery");
-                                            Log.e(TAG, "Failed to mark order Completed: " + order.orderID, e);
-                                        });
-                            }
-                        }
-
-                        @Override
-                        public void onCancelled(@NonNull DatabaseError error) {
-                            Log.e(TAG, "Failed to read current order status: " + error.getMessage(), error.toException());
-                        }
-                    });
+            if (outbox.cancel(StatusTransitions.KIND_COMPLETE_DELIVERY, order.orderID)) {
+                // Unticked inside the undo window: nothing was written yet, so nothing to revert
+                showCustomToast("↩ Delivery reverted to Delivering");
+                Log.d(TAG, "Queued completion cancelled for order: " + order.orderID);
+            } else if (outbox.isPending(StatusTransitions.KIND_COMPLETE_DELIVERY, order.orderID)) {
+                showCustomToast("Delivery is already being completed");
+                acceptedAdapter.notifyItemChanged(position); // put the tick back
+            } else {
+                // Status, delivered time and (cash) payment go out together once the undo window is over,
+                // even if this screen or the app is closed in the meantime
+                outbox.enqueue(StatusTransitions.KIND_COMPLETE_DELIVERY,
+                        StatusTransitions.completeDelivery(order, System.currentTimeMillis(),
+                                locationPublisher.traceFor(order.orderID)), // path ridden, for delivery history
+                        StatusTransitions.UNDO_WINDOW_MS);
+                showCustomToast("✓ Delivery Completed");
+                Log.d(TAG, "Completion queued for order: " + order.orderID);
+            }
         });
 
+        // Accepted orders: the map shows the whole batch as one route
         acceptedAdapter.setOnViewMapClickListener(position -> {
             DeliveryItem order = acceptedAdapter.getItem(position);
             Log.d(TAG, "View map clicked for accepted order: " + (order != null ? order.orderID : "null"));
-            if (order != null) {
-                openMap(order.customerLat, order.customerLng);
-            }
+            List<RoutePlanner.Stop> batch = carriedStops();
+            if (batch.isEmpty() && order != null) batch.add(stopOf(order)); // only ticked-off orders left
+            if (!batch.isEmpty()) openRoute(batch);
         });
     }
 
+    // Orders this rider is still carrying (ticked-off ones are delivered)
+    private List<RoutePlanner.Stop> carriedStops() {
+        List<RoutePlanner.Stop> stops = new ArrayList<>();
+        for (int i = 0; i < acceptedAdapter.getItemCount(); i++) {
+            DeliveryItem item = acceptedAdapter.getItem(i);
+            if (outbox.isPending(StatusTransitions.KIND_COMPLETE_DELIVERY, item.orderID)) continue;
+            stops.add(stopOf(item));
+        }
+        return stops;
+    }
+
+    private static RoutePlanner.Stop stopOf(DeliveryItem order) {
+        return new RoutePlanner.Stop(order.orderID, order.customerName, order.customerLat, order.customerLng);
+    }
+
+    // MapActivity plans the visiting order once it knows where the rider is
+    private void openRoute(List<RoutePlanner.Stop> stops) {
+        String[] ids = new String[stops.size()], labels = new String[stops.size()];
+        double[] lats = new double[stops.size()], lngs = new double[stops.size()];
+        for (int i = 0; i < stops.size(); i++) {
+            ids[i] = stops.get(i).id;
+            labels[i] = stops.get(i).label;
+            lats[i] = stops.get(i).lat;
+            lngs[i] = stops.get(i).lng;
+        }
+        Intent intent = new Intent(this, MapActivity.class);
+        intent.putExtra(MapActivity.EXTRA_STOP_IDS, ids);
+        intent.putExtra(MapActivity.EXTRA_STOP_LABELS, labels);
+        intent.putExtra(MapActivity.EXTRA_STOP_LATS, lats);
+        intent.putExtra(MapActivity.EXTRA_STOP_LNGS, lngs);
+        startActivity(intent);
+    }
+
     private void openMap(double lat, double lng) {
         Intent intent = new Intent(this, MapActivity.class);
         intent.putExtra("lat", lat);
@@ -476,6 +447,28 @@ public class DeliverymanHomeActivity extends AppCompatActivity {
         }
     }
 
+    // Location lets dispatch and customers see where the rider is; Android 13+ also asks for
+    // notification permission at runtime. The lists still update without either.
+    private void requestRiderPermissions() {
+        List<String> missing = new ArrayList<>();
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            missing.add(Manifest.permission.ACCESS_FINE_LOCATION);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            missing.add(Manifest.permission.POST_NOTIFICATIONS);
+        }
+        if (!missing.isEmpty()) {
+            ActivityCompat.requestPermissions(this, missing.toArray(new String[0]), REQUEST_PERMISSIONS);
+        }
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode == REQUEST_PERMISSIONS && riderID != null) RiderShiftService.start(this); // Starts publishing if location was just granted
+    }
+
     private void showCustomToast(String message) {
         View layout = LayoutInflater.from(this).inflate(R.layout.custom_message, null);
         TextView toastMessage = layout.findViewById(R.id.toast_message);
@@ -0,0 +1,143 @@
+package com.example.pizzamaniaapp;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.Objects;
+
+// Item callbacks for the AsyncListDiffer in each list adapter.
+// Rows are matched by orderID / menuID and compared on exactly what the row displays,
+// so a data change only rebinds the rows that actually look different.
+//
+// The diff runs on a background thread, so lists handed to submitList() must not be
+// modified afterwards; callers always pass a fresh copy.
+public final class DiffCallbacks {
+
+    private DiffCallbacks() {}
+
+    // ================================ ORDERS ================================
+
+    public static final DiffUtil.ItemCallback<OrderRow> ORDER_ROW = new DiffUtil.ItemCallback<OrderRow>() {
+        @Override
+        public boolean areItemsTheSame(OrderRow oldRow, OrderRow newRow) {
+            return Objects.equals(oldRow.orderID, newRow.orderID);
+        }
+
+        @Override
+        public boolean areContentsTheSame(OrderRow oldRow, OrderRow newRow) {
+            return Objects.equals(oldRow.customerName, newRow.customerName)
+                    && Objects.equals(oldRow.collapsedText, newRow.collapsedText)
+                    && Objects.equals(oldRow.expandedText, newRow.expandedText)
+                    && Objects.equals(oldRow.paymentText, newRow.paymentText)
+                    && Objects.equals(oldRow.etaText, newRow.etaText)
+                    && oldRow.paymentColor == newRow.paymentColor
+                    && oldRow.statusIndex == newRow.statusIndex;
+        }
+    };
+
+    public static final DiffUtil.ItemCallback<DeliveryRow> DELIVERY_ROW = new DiffUtil.ItemCallback<DeliveryRow>() {
+        @Override
+        public boolean areItemsTheSame(DeliveryRow oldRow, DeliveryRow newRow) {
+            return Objects.equals(oldRow.item.orderID, newRow.item.orderID);
+        }
+
+        @Override
+        public boolean areContentsTheSame(DeliveryRow oldRow, DeliveryRow newRow) {
+            return Objects.equals(oldRow.customerText, newRow.customerText)
+                    && Objects.equals(oldRow.locationText, newRow.locationText)
+                    && oldRow.acceptedByCurrent == newRow.acceptedByCurrent
+                    && oldRow.completed == newRow.completed;
+        }
+    };
+
+    // History screens show a handful of summary fields; compare all the ones any of them renders
+    public static final DiffUtil.ItemCallback<OrderSummary> ORDER_SUMMARY = new DiffUtil.ItemCallback<OrderSummary>() {
+        @Override
+        public boolean areItemsTheSame(OrderSummary oldOrder, OrderSummary newOrder) {
+            return Objects.equals(oldOrder.getOrderID(), newOrder.getOrderID());
+        }
+
+        @Override
+        public boolean areContentsTheSame(OrderSummary oldOrder, OrderSummary newOrder) {
+            return Objects.equals(oldOrder.getCustomerName(), newOrder.getCustomerName())
+                    && Objects.equals(oldOrder.getBranchID(), newOrder.getBranchID())
+                    && Objects.equals(oldOrder.getStatus(), newOrder.getStatus())
+                    && oldOrder.getTotalPrice() == newOrder.getTotalPrice()
+                    && oldOrder.getItemCount() == newOrder.getItemCount()
+                    && oldOrder.getDeliveredTimestamp() == newOrder.getDeliveredTimestamp();
+        }
+    };
+
+    // ================================ CART ================================
+
+    public static final DiffUtil.ItemCallback<CustomerHomeActivity.CartItem> CART_ITEM =
+            new DiffUtil.ItemCallback<CustomerHomeActivity.CartItem>() {
+        @Override
+        public boolean areItemsTheSame(CustomerHomeActivity.CartItem oldItem, CustomerHomeActivity.CartItem newItem) {
+            return Objects.equals(oldItem.menuID, newItem.menuID);
+        }
+
+        @Override
+        public boolean areContentsTheSame(CustomerHomeActivity.CartItem oldItem, CustomerHomeActivity.CartItem newItem) {
+            return Objects.equals(oldItem.name, newItem.name)
+                    && Objects.equals(oldItem.imageURL, newItem.imageURL)
+                    && oldItem.price == newItem.price
+                    && oldItem.quantity == newItem.quantity;
+        }
+    };
+
+    // ================================ MENU ================================
+
+    public static final DiffUtil.ItemCallback<CustomerHomeActivity.MenuItem> MENU_ITEM =
+            new DiffUtil.ItemCallback<CustomerHomeActivity.MenuItem>() {
+        @Override
+        public boolean areItemsTheSame(CustomerHomeActivity.MenuItem oldItem, CustomerHomeActivity.MenuItem newItem) {
+            return Objects.equals(oldItem.menuID, newItem.menuID);
+        }
+
+        @Override
+        public boolean areContentsTheSame(CustomerHomeActivity.MenuItem oldItem, CustomerHomeActivity.MenuItem newItem) {
+            return Objects.equals(oldItem.name, newItem.name)
+                    && Objects.equals(oldItem.imageURL, newItem.imageURL)
+                    && oldItem.price == newItem.price;
+        }
+    };
+
+    // Admin cards also dim when sold out, so the sold-out bits count as content
+    public static final DiffUtil.ItemCallback<AdminHomeActivity.MenuItem> ADMIN_MENU_ITEM =
+            new DiffUtil.ItemCallback<AdminHomeActivity.MenuItem>() {
+        @Override
+        public boolean areItemsTheSame(AdminHomeActivity.MenuItem oldItem, AdminHomeActivity.MenuItem newItem) {
+            return Objects.equals(oldItem.menuID, newItem.menuID);
+        }
+
+        @Override
+        public boolean areContentsTheSame(AdminHomeActivity.MenuItem oldItem, AdminHomeActivity.MenuItem newItem) {
+            return Objects.equals(oldItem.name, newItem.name)
+                    && Objects.equals(oldItem.imageURL, newItem.imageURL)
+                    && oldItem.price == newItem.price
+                    && Objects.equals(oldItem.soldOutAt, newItem.soldOutAt);
+        }
+    };
+
+    // ================================ STAFF ================================
+
+    // Headers match by branchID, staff rows by employee / deliveryman ID; both only show a name
+    public static <B, S> DiffUtil.ItemCallback<StaffSections.Row<B, S>> staffRow(StaffSectionAdapter.Callbacks<B, S> ids) {
+        return new DiffUtil.ItemCallback<StaffSections.Row<B, S>>() {
+            @Override
+            public boolean areItemsTheSame(StaffSections.Row<B, S> oldRow, StaffSections.Row<B, S> newRow) {
+                if (oldRow.isHeader() != newRow.isHeader()) return false;
+                return oldRow.isHeader()
+                        ? Objects.equals(ids.branchID(oldRow.branch), ids.branchID(newRow.branch))
+                        : Objects.equals(ids.staffID(oldRow.staff), ids.staffID(newRow.staff));
+            }
+
+            @Override
+            public boolean areContentsTheSame(StaffSections.Row<B, S> oldRow, StaffSections.Row<B, S> newRow) {
+                return oldRow.isHeader()
+                        ? Objects.equals(ids.branchName(oldRow.branch), ids.branchName(newRow.branch))
+                        : Objects.equals(ids.staffName(oldRow.staff), ids.staffName(newRow.staff));
+            }
+        };
+    }
+}
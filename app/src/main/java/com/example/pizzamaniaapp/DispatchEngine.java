@@ -0,0 +1,264 @@
+package com.example.pizzamaniaapp;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Assigns a branch's "Delivery Pending" orders to its free riders, run from the branch's employee
+// screen (the app has no server; that screen already listens to every order of the branch).
+//
+// offer() is called with the orders still waiting and the riders busy with one. A short while
+// later (more orders often arrive together) one round runs:
+//   0. take the branch's DispatchLease; every employee phone of the branch runs an engine, but
+//      only the lease holder dispatches (the others retry once the lease could have run out)
+//   1. read the branch (pickup point) and its deliverymen in parallel
+//   2. read the last known position of each free rider (riderLocations/{riderID}, see below)
+//   3. DispatchSolver picks the assignment with the least total rider -> branch -> customer distance
+//   4. each assignment goes through the same guarded DeliveryClaim a rider's own accept does,
+//      so an order a rider claimed by hand meanwhile (TAKEN) or that left "Delivery Pending"
+//      (NOT_PENDING) is skipped instead of overwritten
+//   5. if any were skipped, the solver runs again on what is left (the unclaimed orders minus the
+//      skipped ones, the riders without an order) and step 4 repeats, until a pass skips nothing.
+//      Each pass drops the orders it tried, so this ends. The result is optimal for the orders
+//      still open after each pass, not necessarily the plan the first solve would have made had
+//      it known which orders were gone; claimed orders are never moved to improve it.
+//      A claim that fails (offline, rules) ends the round; its order comes round again.
+// Riders then see the order under Accepted through their live feed. Only one round runs at a time;
+// orders offered meanwhile get a round of their own once it finishes.
+//
+// A rider is free when their status is "Available" (or unset) and they hold no "Delivering" order.
+// A rider with no position, or one older than STALE_LOCATION_MS, is taken to be at the branch.
+// Main thread only.
+public final class DispatchEngine {
+
+    private static final String TAG = "DispatchEngine";
+
+    public static final String RIDER_LOCATIONS = "riderLocations"; // {riderID: {la, ln, t, m}}, see RiderLocationPublisher
+    public static final String LAT = "la";
+    public static final String LNG = "ln";
+    public static final String TIME = "t";
+
+    static final long STALE_LOCATION_MS = 10 * 60 * 1000;
+    private static final long DEBOUNCE_MS = 2000;
+
+    public interface Listener {
+        void onDispatched(List<DispatchSolver.Assignment> assignments); // published (not called for empty rounds)
+        void onFailed(String message);
+    }
+
+    private final DatabaseReference root;
+    private final String branchID;
+    private final String holder = UUID.randomUUID().toString(); // this engine's name on the lease
+    private final Listener listener;
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final Runnable roundRunnable = this::runRound;
+
+    private List<OrderSummary> waiting = Collections.emptyList();
+    private Set<String> busy = Collections.emptySet();
+    private boolean running, again, stopped;
+
+    public DispatchEngine(DatabaseReference root, String branchID, Listener listener) {
+        this.root = root;
+        this.branchID = branchID;
+        this.listener = listener;
+    }
+
+    // Latest unassigned "Delivery Pending" orders of the branch and the riders already delivering
+    public void offer(List<OrderSummary> waitingOrders, Set<String> busyRiders) {
+        waiting = waitingOrders;
+        busy = busyRiders;
+        if (stopped || waiting.isEmpty()) return;
+        if (running) {
+            again = true;
+            return;
+        }
+        main.removeCallbacks(roundRunnable);
+        main.postDelayed(roundRunnable, DEBOUNCE_MS);
+    }
+
+    public void stop() {
+        stopped = true;
+        main.removeCallbacks(roundRunnable);
+        DispatchLease.release(root, branchID, holder);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void runRound() {
+        if (stopped || waiting.isEmpty()) return;
+        running = true;
+        DispatchLease.acquire(root, branchID, holder, new DispatchLease.Callback() {
+            @Override
+            public void onResult(boolean held, long until) {
+                if (held) {
+                    readRiders(waiting, busy);
+                    return;
+                }
+                // Another phone dispatches; look again once its lease could have run out
+                running = false;
+                if (!stopped) {
+                    main.removeCallbacks(roundRunnable);
+                    main.postDelayed(roundRunnable, Math.max(0, until - DispatchLease.now()) + DEBOUNCE_MS);
+                }
+            }
+
+            @Override
+            public void onFailed(String message) {
+                finish(null, message);
+            }
+        });
+    }
+
+    private void readRiders(List<OrderSummary> orders, Set<String> busyNow) {
+        ParallelReads.read(new ParallelReads.Callback() {
+            @Override
+            public void onLoaded(DataSnapshot[] snaps) {
+                CustomerHomeActivity.Branch branch = SnapshotMappers.branch(snaps[0].getValue());
+                if (branch == null) {
+                    finish(null, "Branch " + branchID + " not found");
+                    return;
+                }
+                List<String> free = new ArrayList<>();
+                for (DataSnapshot rider : snaps[1].getChildren()) {
+                    Object status = rider.child("status").getValue();
+                    if (busyNow.contains(rider.getKey())) continue;
+                    if (status != null && !"Available".equalsIgnoreCase(status.toString())) continue;
+                    free.add(rider.getKey());
+                }
+                if (free.isEmpty()) {
+                    finish(Collections.emptyList(), null);
+                    return;
+                }
+                readPositions(branch, orders, free);
+            }
+
+            @Override
+            public void onFailed(DatabaseError error) {
+                finish(null, error.getMessage());
+            }
+        }, root.child("branches").child(branchID),
+                root.child("deliverymen").orderByChild("branchID").equalTo(branchID));
+    }
+
+    private void readPositions(CustomerHomeActivity.Branch branch, List<OrderSummary> orders, List<String> free) {
+        Query[] locations = new Query[free.size()];
+        for (int i = 0; i < free.size(); i++) locations[i] = root.child(RIDER_LOCATIONS).child(free.get(i));
+
+        ParallelReads.read(new ParallelReads.Callback() {
+            @Override
+            public void onLoaded(DataSnapshot[] snaps) {
+                long now = System.currentTimeMillis();
+                List<DispatchSolver.Rider> riders = new ArrayList<>(free.size());
+                for (int i = 0; i < free.size(); i++) {
+                    riders.add(rider(free.get(i), WireFormat.asMap(snaps[i].getValue()), branch, now));
+                }
+                List<DispatchSolver.Job> jobs = new ArrayList<>(orders.size());
+                for (OrderSummary order : orders) {
+                    jobs.add(new DispatchSolver.Job(order.getOrderID(), order.getTimestamp(),
+                            branch.latitude, branch.longitude, order.getCustomerLat(), order.getCustomerLng()));
+                }
+                publish(jobs, riders, new ArrayList<>());
+            }
+
+            @Override
+            public void onFailed(DatabaseError error) {
+                finish(null, error.getMessage());
+            }
+        }, locations);
+    }
+
+    // Solves jobs x riders and claims every assignment at once (step 4); once all have answered,
+    // the orders and riders left over by skipped claims go through step 5
+    private void publish(List<DispatchSolver.Job> jobs, List<DispatchSolver.Rider> riders,
+                         List<DispatchSolver.Assignment> claimed) {
+        List<DispatchSolver.Assignment> assignments = DispatchSolver.assign(jobs, riders);
+        if (assignments.isEmpty()) {
+            finish(claimed, null);
+            return;
+        }
+        Set<String> tried = new HashSet<>(), taken = new HashSet<>();
+        final int[] pending = {assignments.size()};
+        final String[] failure = {null};
+        for (DispatchSolver.Assignment assignment : assignments) {
+            tried.add(assignment.orderID);
+            DeliveryClaim.claim(root, assignment.orderID, assignment.riderID, new DeliveryClaim.Callback() {
+                @Override
+                public void onResult(DeliveryClaim.Outcome outcome) {
+                    if (outcome == DeliveryClaim.Outcome.CLAIMED) {
+                        claimed.add(assignment);
+                        taken.add(assignment.riderID);
+                    } else {
+                        Log.d(TAG, "Skipped " + assignment + ": " + outcome); // claimed by hand or moved on
+                    }
+                    done();
+                }
+
+                @Override
+                public void onFailed(String message) {
+                    failure[0] = message;
+                    done();
+                }
+
+                private void done() {
+                    if (--pending[0] > 0) return;
+                    if (failure[0] != null) {
+                        // The failed ones are still waiting and come round again
+                        if (claimed.isEmpty()) finish(null, failure[0]);
+                        else finish(claimed, null);
+                        return;
+                    }
+                    if (taken.size() == assignments.size()) {
+                        finish(claimed, null);
+                        return;
+                    }
+                    publish(remaining(jobs, tried, j -> j.orderID), remaining(riders, taken, r -> r.riderID), claimed);
+                }
+            });
+        }
+    }
+
+    private static <T> List<T> remaining(List<T> items, Set<String> drop, Function<T, String> id) {
+        List<T> left = new ArrayList<>(items.size());
+        for (T item : items) if (!drop.contains(id.apply(item))) left.add(item);
+        return left;
+    }
+
+    // Ends the round; runs another if orders were offered while this one was busy
+    private void finish(List<DispatchSolver.Assignment> assignments, String error) {
+        running = false;
+        if (error != null) {
+            Log.e(TAG, "Dispatch round failed: " + error);
+            listener.onFailed(error);
+        } else if (!assignments.isEmpty()) {
+            Log.d(TAG, "Dispatched " + assignments);
+            listener.onDispatched(assignments);
+        }
+        if (again && !stopped) {
+            again = false;
+            main.postDelayed(roundRunnable, DEBOUNCE_MS);
+        }
+    }
+
+    // Where the rider is now: their last published position if it is recent, else the branch
+    static DispatchSolver.Rider rider(String riderID, Map<String, Object> location, CustomerHomeActivity.Branch branch, long now) {
+        Object lat = location.get(LAT), lng = location.get(LNG), time = location.get(TIME);
+        boolean fresh = lat instanceof Number && lng instanceof Number && time instanceof Number
+                && now - ((Number) time).longValue() <= STALE_LOCATION_MS;
+        if (!fresh) return new DispatchSolver.Rider(riderID, branch.latitude, branch.longitude);
+        return new DispatchSolver.Rider(riderID, ((Number) lat).doubleValue(), ((Number) lng).doubleValue());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.pizzamaniaapp;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Makes one employee phone per branch the dispatcher.
+//
+// Every employee screen of a branch runs a DispatchEngine, but only the holder of the branch's
+// lease runs dispatch rounds: "dispatchLeases/{branchID}" = {h: holder, u: held until}. A round
+// starts by taking the lease in a transaction, which succeeds when the lease is free, expired or
+// already ours, and pushes it LEASE_MS ahead. A holder that goes away (screen closed, phone off)
+// releases it or simply lets it run out, and the next engine to try takes over.
+//
+// Times are the database server's clock as each phone estimates it (its own clock plus
+// ".info/serverTimeOffset", see now()), so a phone whose clock is minutes off still reads expiry
+// like the others. The estimate is only as good as the latency it was measured over, and a
+// holder's round can still be running when its lease runs out, so around the expiry two phones
+// can briefly both dispatch. That is safe for the orders: every assignment is a guarded
+// DeliveryClaim, so an order still goes to one rider only. It is not exclusive for the riders:
+// both rounds see the same rider free, and that rider may be handed one order by each phone.
+// LEASE_MS is far longer than a round, so this needs a holder that stalls for about a minute.
+public final class DispatchLease {
+
+    public static final String NODE = "dispatchLeases";
+    static final String HOLDER = "h";
+    static final String UNTIL = "u";
+
+    public static final long LEASE_MS = 60 * 1000;
+
+    public interface Callback {
+        void onResult(boolean held, long until); // main thread; until = when the current lease runs out
+        void onFailed(String message);
+    }
+
+    private static volatile long serverOffset; // server clock - this phone's clock, 0 until known
+    private static boolean watchingClock;
+
+    private DispatchLease() {}
+
+    // The server's time as this phone estimates it
+    public static long now() {
+        return System.currentTimeMillis() + serverOffset;
+    }
+
+    // Whether `holder` may take the lease as it stands (null = nobody holds it)
+    public static boolean canTake(Map<String, Object> lease, String holder, long now) {
+        if (lease == null || lease.isEmpty()) return true;
+        if (holder.equals(lease.get(HOLDER))) return true;
+        return until(lease) < now;
+    }
+
+    public static void acquire(DatabaseReference root, String branchID, String holder, Callback callback) {
+        watchClock(root);
+        root.child(NODE).child(branchID).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData data) {
+                long now = now();
+                Map<String, Object> lease = data.getValue() == null ? null : WireFormat.asMap(data.getValue());
+                if (!canTake(lease, holder, now)) return Transaction.abort();
+                Map<String, Object> taken = new HashMap<>();
+                taken.put(HOLDER, holder);
+                taken.put(UNTIL, now + LEASE_MS);
+                data.setValue(taken);
+                return Transaction.success(data);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot current) {
+                if (error != null) {
+                    callback.onFailed(error.getMessage());
+                    return;
+                }
+                Map<String, Object> lease = current == null ? null : WireFormat.asMap(current.getValue());
+                callback.onResult(committed, lease == null ? 0 : until(lease));
+            }
+        });
+    }
+
+    // Hands the lease back if we still hold it, so another phone need not wait for it to run out
+    public static void release(DatabaseReference root, String branchID, String holder) {
+        root.child(NODE).child(branchID).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData data) {
+                if (data.getValue() == null) return Transaction.success(data);
+                if (!holder.equals(WireFormat.asMap(data.getValue()).get(HOLDER))) return Transaction.abort();
+                data.setValue(null);
+                return Transaction.success(data);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot current) {
+                // Best effort: an unreleased lease runs out by itself
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------------
+
+    // Keeps serverOffset current for as long as the app runs (one listener, main thread)
+    private static void watchClock(DatabaseReference root) {
+        if (watchingClock) return;
+        watchingClock = true;
+        root.child(".info/serverTimeOffset").addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Object offset = snapshot.getValue();
+                if (offset instanceof Number) serverOffset = ((Number) offset).longValue();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                // Keeps the last offset known
+            }
+        });
+    }
+
+    private static long until(Map<String, Object> lease) {
+        Object until = lease.get(UNTIL);
+        return until instanceof Number ? ((Number) until).longValue() : 0;
+    }
+}
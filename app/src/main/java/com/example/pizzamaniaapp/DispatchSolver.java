@@ -0,0 +1,185 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Decides which free rider takes which "Delivery Pending" order of a branch (see DispatchEngine).
+//
+// The cost of giving an order to a rider is the distance the rider travels for it: from where the
+// rider is to the branch (pickup), then from the branch to the customer (drop). assign() minimises
+// the total over all assignments with the Hungarian method, exactly and in O(n² m) for n orders and
+// m riders (n <= m): 50 x 200 is a few hundred thousand steps. Each rider gets at most one order,
+// the same one-at-a-time rule the rider screen enforces.
+//
+// With more orders than free riders, the oldest orders are served first; minimising distance over
+// all of them would keep skipping far-away customers.
+public final class DispatchSolver {
+
+    private static final double EARTH_RADIUS_M = 6371000;
+
+    // An order waiting for a rider
+    public static final class Job {
+        public final String orderID;
+        public final long placedAt;
+        public final double pickupLat, pickupLng, dropLat, dropLng;
+
+        public Job(String orderID, long placedAt, double pickupLat, double pickupLng, double dropLat, double dropLng) {
+            this.orderID = orderID;
+            this.placedAt = placedAt;
+            this.pickupLat = pickupLat;
+            this.pickupLng = pickupLng;
+            this.dropLat = dropLat;
+            this.dropLng = dropLng;
+        }
+    }
+
+    // A rider free to take an order, where they are now
+    public static final class Rider {
+        public final String riderID;
+        public final double lat, lng;
+
+        public Rider(String riderID, double lat, double lng) {
+            this.riderID = riderID;
+            this.lat = lat;
+            this.lng = lng;
+        }
+    }
+
+    public static final class Assignment {
+        public final String orderID, riderID;
+        public final double meters; // rider -> pickup -> drop
+
+        Assignment(String orderID, String riderID, double meters) {
+            this.orderID = orderID;
+            this.riderID = riderID;
+            this.meters = meters;
+        }
+
+        @Override
+        public String toString() {
+            return orderID + " -> " + riderID + " (" + Math.round(meters) + " m)";
+        }
+    }
+
+    private DispatchSolver() {}
+
+    // Assignments in order-ID order; orders left over wait for the next round
+    public static List<Assignment> assign(List<Job> jobs, List<Rider> riders) {
+        if (jobs.isEmpty() || riders.isEmpty()) return Collections.emptyList();
+
+        List<Job> served = new ArrayList<>(jobs);
+        if (served.size() > riders.size()) {
+            served.sort((a, b) -> a.placedAt != b.placedAt
+                    ? Long.compare(a.placedAt, b.placedAt) : a.orderID.compareTo(b.orderID));
+            served = served.subList(0, riders.size());
+        }
+
+        double[][] cost = new double[served.size()][riders.size()];
+        for (int i = 0; i < served.size(); i++) {
+            Job job = served.get(i);
+            double drop = meters(job.pickupLat, job.pickupLng, job.dropLat, job.dropLng);
+            for (int j = 0; j < riders.size(); j++) {
+                Rider rider = riders.get(j);
+                cost[i][j] = meters(rider.lat, rider.lng, job.pickupLat, job.pickupLng) + drop;
+            }
+        }
+
+        int[] match = solve(cost);
+        List<Assignment> assignments = new ArrayList<>(served.size());
+        for (int i = 0; i < served.size(); i++) {
+            if (match[i] < 0) continue;
+            assignments.add(new Assignment(served.get(i).orderID, riders.get(match[i]).riderID, cost[i][match[i]]));
+        }
+        assignments.sort((a, b) -> a.orderID.compareTo(b.orderID));
+        return assignments;
+    }
+
+    // Minimum-cost assignment of rows to distinct columns: result[row] = column, or -1 when there
+    // are more rows than columns and the row is left out
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        int cols = rows == 0 ? 0 : cost[0].length;
+        if (rows == 0 || cols == 0) {
+            int[] none = new int[rows];
+            Arrays.fill(none, -1);
+            return none;
+        }
+        if (rows <= cols) return hungarian(cost, rows, cols);
+
+        // More rows than columns: solve the transpose and turn it round
+        double[][] transposed = new double[cols][rows];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) transposed[j][i] = cost[i][j];
+        }
+        int[] byColumn = hungarian(transposed, cols, rows);
+        int[] result = new int[rows];
+        Arrays.fill(result, -1);
+        for (int j = 0; j < cols; j++) result[byColumn[j]] = j;
+        return result;
+    }
+
+    // Great-circle distance in metres
+    public static double meters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Hungarian method with potentials, rows <= cols. Arrays are 1-based; column 0 is a sentinel.
+    private static int[] hungarian(double[][] cost, int rows, int cols) {
+        double[] u = new double[rows + 1];
+        double[] v = new double[cols + 1];
+        int[] owner = new int[cols + 1]; // owner[j] = row matched to column j (0 = none)
+        int[] way = new int[cols + 1];
+        double[] minv = new double[cols + 1];
+        boolean[] used = new boolean[cols + 1];
+
+        for (int i = 1; i <= rows; i++) {
+            owner[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = owner[j0], j1 = 0;
+                double delta = Double.POSITIVE_INFINITY;
+                for (int j = 1; j <= cols; j++) {
+                    if (used[j]) continue;
+                    double reduced = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                    if (reduced < minv[j]) {
+                        minv[j] = reduced;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= cols; j++) {
+                    if (used[j]) {
+                        u[owner[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (owner[j0] != 0);
+            do { // flip the augmenting path
+                int j1 = way[j0];
+                owner[j0] = owner[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] result = new int[rows];
+        for (int j = 1; j <= cols; j++) {
+            if (owner[j] != 0) result[owner[j] - 1] = j - 1;
+        }
+        return result;
+    }
+}
@@ -6,7 +6,6 @@ import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.os.Bundle;
 import android.os.CountDownTimer;
-import android.os.Handler;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -27,22 +26,46 @@ import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class EmployeeHomeActivity extends AppCompatActivity {
 
     private RecyclerView recyclerOrders;        // RecyclerView to show the list of orders
-    private List<Order> orderList;              // Stores all orders for this branch
+    private List<OrderRow> orderList;           // Bind-ready rows for all active orders of this branch
     private OrderAdapter adapter;               // Adapter to bind data to RecyclerView
-    private DatabaseReference ordersRef;        // Firebase reference to "orders" node
+    private DatabaseReference ordersRef;        // Firebase reference to "orderSummaries" node
+    private Query branchOrdersQuery;            // Summaries of the current branch only
     private ValueEventListener ordersListener;  // Listener to update UI when data changes
-    private Handler handler = new Handler();    // Used for delayed actions
+    private final SnapshotPipeline<BranchOrders> ordersPipeline = new SnapshotPipeline<>(error -> { // Filters and formats snapshots off the UI thread
+        hideLoadingDialog(); // Don't leave the spinner up if the orders couldn't be read
+        showCustomToast("Failed to load orders");
+    });
+    private DispatchEngine dispatchEngine;      // Hands "Delivery Pending" orders to free riders
+    private EtaFeed etaFeed;                    // Ready / arrival estimates shown on each row
+    private List<OrderRow> shownRows = new ArrayList<>(); // Rows of the latest snapshot, before estimates
+    private StatusOutbox outbox;                // Queued status writes (undo window, retries, survives the app closing)
+    private final StatusOutbox.Listener outboxListener = new StatusOutbox.Listener() {
+        @Override
+        public void onOutboxChanged() {
+            showOrders(); // Re-show rows when queued statuses change
+        }
+
+        @Override
+        public void onRejected(String kind, String orderID, String label, String reason) {
+            // The order moved on (e.g. a rider took it) before the queued status went out
+            showCustomToast("Order " + orderID + " was not set to " + label + ": " + reason);
+        }
+    };
+    private DataSnapshot lastSnapshot;          // Latest branch snapshot, re-filtered when the outbox changes
     private AlertDialog loadingDialog;          // Custom loading dialog
     private String currentBranchID;             // Current logged-in employee’s branch ID
-    private Runnable pendingRefreshRunnable;    // Holds delayed refresh task
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,7 +76,7 @@ public class EmployeeHomeActivity extends AppCompatActivity {
         recyclerOrders.setLayoutManager(new LinearLayoutManager(this)); // Vertical list
 
         orderList = new ArrayList<>();
-        ordersRef = FirebaseDatabase.getInstance().getReference("orders"); // Connect to Firebase node "orders"
+        ordersRef = FirebaseDatabase.getInstance().getReference(OrderSummary.NODE); // Connect to Firebase node "orderSummaries"
 
         // Set up adapter with order list and a callback for updating status
         adapter = new OrderAdapter(this, orderList, (order, newStatus) -> {
@@ -65,6 +88,29 @@ public class EmployeeHomeActivity extends AppCompatActivity {
         currentBranchID = getSharedPreferences("MyAppPrefs", MODE_PRIVATE)
                 .getString("branchID", null);
 
+        outbox = StatusOutbox.get(this); // Also sends anything left queued from an earlier run
+        outbox.addListener(outboxListener);
+
+        // Automatic dispatch for this branch's orders waiting for a rider
+        if (currentBranchID != null && !currentBranchID.isEmpty()) {
+            dispatchEngine = new DispatchEngine(FirebaseDatabase.getInstance().getReference(), currentBranchID,
+                    new DispatchEngine.Listener() {
+                        @Override
+                        public void onDispatched(List<DispatchSolver.Assignment> assignments) {
+                            showCustomToast(assignments.size() == 1
+                                    ? "1 order assigned to a deliveryman"
+                                    : assignments.size() + " orders assigned to deliverymen");
+                        }
+
+                        @Override
+                        public void onFailed(String message) {
+                            showCustomToast("Auto dispatch failed: " + message);
+                        }
+                    });
+            // Rider moves and the periodic refresh only touch the estimate lines
+            etaFeed = new EtaFeed(FirebaseDatabase.getInstance().getReference(), orderIDs -> showRows());
+        }
+
         // Show loading dialog initially
         showLoadingDialog("Loading orders...");
         loadOrders();  // Start loading orders from Firebase
@@ -102,22 +148,8 @@ public class EmployeeHomeActivity extends AppCompatActivity {
         ordersListener = new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
-                orderList.clear();  // Clear old list before refreshing
-                for (DataSnapshot dataSnapshot : snapshot.getChildren()) {
-                    Order order = dataSnapshot.getValue(Order.class);
-                    if (order != null) {
-                        order.setOrderId(dataSnapshot.getKey());  // Attach Firebase key as ID
-                        // Show only orders for this branch and only in certain statuses
-                        if (currentBranchID != null && currentBranchID.equals(order.getBranchID()) &&
-                                ("confirm order".equalsIgnoreCase(order.getStatus()) ||
-                                        "Preparing".equalsIgnoreCase(order.getStatus()) ||
-                                        "order pending".equalsIgnoreCase(order.getStatus()))) {
-                            orderList.add(order);
-                        }
-                    }
-                }
-                adapter.notifyDataSetChanged(); // Update RecyclerView
-                hideLoadingDialog();            // Hide loading after done
+                lastSnapshot = snapshot;
+                showOrders();
             }
 
             @Override
@@ -128,6 +160,77 @@ public class EmployeeHomeActivity extends AppCompatActivity {
         };
     }
 
+    // Parse and filter in the background; only the final list reaches the UI thread
+    private void showOrders() {
+        if (lastSnapshot == null) return;
+        String branchID = currentBranchID;
+        Map<String, String> queued = outbox.pending(StatusTransitions.KIND_ORDER_STATUS); // copy, safe off the UI thread
+        ordersPipeline.submit(lastSnapshot, snap -> branchOrders(snap, branchID, queued), orders -> {
+            shownRows = orders.rows;
+            if (etaFeed != null) etaFeed.sync(branchID, orders.all); // incremental: only affected orders recompute
+            showRows();                     // Update RecyclerView
+            hideLoadingDialog();            // Hide loading after done
+            if (dispatchEngine != null) dispatchEngine.offer(orders.waiting, orders.busyRiders);
+        });
+    }
+
+    // Latest rows with their current estimates (cached in the estimator, so this is cheap)
+    private void showRows() {
+        long now = System.currentTimeMillis();
+        List<OrderRow> rows = new ArrayList<>(shownRows.size());
+        for (OrderRow row : shownRows) {
+            EtaEstimator.Estimate estimate = etaFeed != null ? etaFeed.estimate(row.orderID) : null;
+            rows.add(row.withEta(estimate != null ? estimate.describe(now) : null));
+        }
+        adapter.setRows(rows);
+    }
+
+    // What one snapshot of the branch gives the screen, the dispatch engine and the estimates
+    private static final class BranchOrders {
+        final List<OrderSummary> all = new ArrayList<>();        // every order of the branch (prep-time history)
+        final List<OrderRow> rows = new ArrayList<>();           // orders the kitchen still works on
+        final List<OrderSummary> waiting = new ArrayList<>();    // "Delivery Pending", no rider yet
+        final Set<String> busyRiders = new HashSet<>();          // riders with a "Delivering" order
+    }
+
+    // Runs on the snapshot pipeline thread
+    // Show only orders for this branch and only in certain statuses.
+    // A status change still queued in the outbox is shown as if it were already written.
+    // Also collects what the dispatch engine needs: orders waiting for a rider and busy riders.
+    private static BranchOrders branchOrders(DataSnapshot snapshot, String branchID, Map<String, String> queued) {
+        BranchOrders branch = new BranchOrders();
+        List<OrderRow> orders = branch.rows;
+        for (DataSnapshot dataSnapshot : snapshot.getChildren()) {
+            if (!dataSnapshot.hasChildren()) continue;
+            OrderSummary order = WireFormat.summaryFromWire(dataSnapshot.getKey(),  // Firebase key is the order ID
+                    WireFormat.asMap(dataSnapshot.getValue()));
+            if (branchID == null || !branchID.equals(order.getBranchID())) continue;
+            branch.all.add(order);
+
+            String rider = order.getAssignedDeliverymanID();
+            boolean assigned = rider != null && !rider.isEmpty();
+            if (DeliveryBoard.ACCEPTED_STATUS.equalsIgnoreCase(order.getStatus()) && assigned) {
+                branch.busyRiders.add(rider);
+            }
+
+            String queuedStatus = queued.get(order.getOrderID());
+            if (queuedStatus == null && DeliveryBoard.PENDING_STATUS.equalsIgnoreCase(order.getStatus()) && !assigned) {
+                branch.waiting.add(order); // written and past its undo window
+            }
+
+            // Handed to the riders but still undoable: keep it listed until the write goes out
+            boolean leaving = queuedStatus != null && StatusTransitions.delayFor(queuedStatus) > 0;
+            if (queuedStatus != null) order.setStatus(queuedStatus);
+            if (leaving ||
+                    "confirm order".equalsIgnoreCase(order.getStatus()) ||
+                    "Preparing".equalsIgnoreCase(order.getStatus()) ||
+                    "order pending".equalsIgnoreCase(order.getStatus())) {
+                orders.add(OrderRow.from(order)); // text, colours and spinner index formatted here, not in bind
+            }
+        }
+        return branch;
+    }
+
     // Attach listener to Firebase and start listening
     private void loadOrders() {
         if (currentBranchID == null || currentBranchID.isEmpty()) {
@@ -137,67 +240,48 @@ public class EmployeeHomeActivity extends AppCompatActivity {
         }
 
         // Remove old listener if already attached
-        if (ordersListener != null) {
-            ordersRef.removeEventListener(ordersListener);
+        if (ordersListener != null && branchOrdersQuery != null) {
+            branchOrdersQuery.removeEventListener(ordersListener);
         }
 
-        // Create and attach new listener
+        // Create and attach new listener (filtered by branch on the server once the summaries are migrated)
         createOrdersListener();
-        ordersRef.addValueEventListener(ordersListener);
+        ValueEventListener listener = ordersListener;
+        SummaryBackfill.whenMigrated(ordersRef.getRoot(), migrated -> {
+            if (isDestroyed() || listener != ordersListener) return; // screen gone or reloaded meanwhile
+            branchOrdersQuery = SummaryBackfill.summaries(ordersRef, migrated, WireFormat.BRANCH_ID, currentBranchID);
+            branchOrdersQuery.addValueEventListener(listener);
+        });
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
         // Remove Firebase listener and pending tasks to avoid memory leaks
-        if (ordersListener != null) {
-            ordersRef.removeEventListener(ordersListener);
-        }
-        if (pendingRefreshRunnable != null) {
-            handler.removeCallbacks(pendingRefreshRunnable);
+        if (ordersListener != null && branchOrdersQuery != null) {
+            branchOrdersQuery.removeEventListener(ordersListener);
         }
+        ordersPipeline.cancel();
+        outbox.removeListener(outboxListener);
+        if (dispatchEngine != null) dispatchEngine.stop();
+        if (etaFeed != null) etaFeed.stop();
     }
 
-    // Update order status in Firebase
-    private void updateOrderStatus(Order order, String newStatus) {
+    // Queue the status change in the outbox; it only applies if the order still has the status shown.
+    // "Delivery Pending" waits out a 15-second undo window (picking another status replaces it);
+    // everything else goes out at once. The listener stays attached throughout.
+    private void updateOrderStatus(OrderSummary order, String newStatus) {
         if (order == null) return;
 
-        // Cancel any delayed refresh if exists
-        if (pendingRefreshRunnable != null) {
-            handler.removeCallbacks(pendingRefreshRunnable);
-            pendingRefreshRunnable = null;
-        }
+        long delay = StatusTransitions.delayFor(newStatus);
+        outbox.enqueue(StatusTransitions.KIND_ORDER_STATUS,
+                StatusTransitions.orderStatus(order, newStatus, System.currentTimeMillis()), delay);
 
-        // Temporarily remove listener to prevent duplicate events
-        if (ordersListener != null) {
-            ordersRef.removeEventListener(ordersListener);
+        if (delay > 0) {
+            showCustomToast("Order will disappear in 15 seconds...");
+        } else {
+            showCustomToast("Status Updated Successfully");
         }
-
-        // Update the status field in Firebase
-        ordersRef.child(order.getOrderId())
-                .child("status")
-                .setValue(newStatus)
-                .addOnSuccessListener(aVoid -> {
-                    if ("Delivery Pending".equalsIgnoreCase(newStatus)) {
-                        // If status = Delivery Pending, show message and refresh after 15s
-                        showCustomToast("Order will disappear in 15 seconds...");
-
-                        pendingRefreshRunnable = () -> {
-                            showLoadingDialog("Refreshing orders...");
-                            loadOrders();
-                            pendingRefreshRunnable = null; // Clear task
-                        };
-                        handler.postDelayed(pendingRefreshRunnable, 15000); // Delay refresh
-                    } else {
-                        // For other statuses, refresh immediately
-                        showCustomToast("Status Updated Successfully");
-                        loadOrders();
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    showCustomToast("Update Failed: " + e.getMessage());
-                    loadOrders(); // Re-attach listener if failed
-                });
     }
 
     // LOADING & TOAST
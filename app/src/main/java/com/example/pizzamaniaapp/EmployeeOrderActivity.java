@@ -24,10 +24,11 @@ public class EmployeeOrderActivity extends AppCompatActivity {
 
     private RecyclerView recyclerView;
     private EmployeeOrderHistoryAdapter adapter;
-    private List<Order> pendingOrders = new ArrayList<>();
+    private List<OrderSummary> pendingOrders = new ArrayList<>();
     private TextView emptyText;
     private DatabaseReference dbRef;
     private String currentEmployeeBranchID;
+    private final SnapshotPipeline<List<OrderSummary>> ordersPipeline = new SnapshotPipeline<>();
 
 
     @Override
@@ -48,37 +49,23 @@ public class EmployeeOrderActivity extends AppCompatActivity {
         SharedPreferences prefs = getSharedPreferences("MyAppPrefs", MODE_PRIVATE);
         currentEmployeeBranchID = prefs.getString("branchID", "b001");
 
-        dbRef = FirebaseDatabase.getInstance().getReference("orders");
+        dbRef = FirebaseDatabase.getInstance().getReference(OrderSummary.NODE);
         loadPendingOrders();
 
     }
 
     private void loadPendingOrders(){
 
-        dbRef.addListenerForSingleValueEvent(new ValueEventListener() {
+        // Only this branch's summaries are downloaded (once the summaries are migrated)
+        SummaryBackfill.whenMigrated(dbRef.getRoot(), migrated -> loadPendingOrders(migrated));
+    }
+
+    private void loadPendingOrders(boolean migrated) {
+        SummaryBackfill.summaries(dbRef, migrated, WireFormat.BRANCH_ID, currentEmployeeBranchID).addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
-                pendingOrders.clear();
-
-                for (DataSnapshot orderSnap : snapshot.getChildren()) {
-                    Order order = orderSnap.getValue(Order.class);
-                    if (order == null) continue;
-
-                    if ("Delivery Pending".equalsIgnoreCase(order.getStatus())
-                            && currentEmployeeBranchID.equals(order.getBranchID())) {
-                        pendingOrders.add(order);
-                    }
-                }
-
-                if (pendingOrders.isEmpty()) {
-                    emptyText.setText("No pending orders yet");
-                    emptyText.setVisibility(TextView.VISIBLE);
-                    recyclerView.setVisibility(RecyclerView.GONE);
-                } else {
-                    emptyText.setVisibility(TextView.GONE);
-                    recyclerView.setVisibility(RecyclerView.VISIBLE);
-                    adapter.notifyDataSetChanged();
-                }
+                String branchID = currentEmployeeBranchID;
+                ordersPipeline.submit(snapshot, snap -> deliveryPending(snap, branchID), orders -> showOrders(orders));
             }
 
             @Override
@@ -90,4 +77,39 @@ public class EmployeeOrderActivity extends AppCompatActivity {
             }
         });
     }
+
+    // Runs on the snapshot pipeline thread
+    private static List<OrderSummary> deliveryPending(DataSnapshot snapshot, String branchID) {
+        List<OrderSummary> orders = new ArrayList<>();
+        for (DataSnapshot orderSnap : snapshot.getChildren()) {
+            OrderSummary order = WireFormat.summaryFromWire(orderSnap.getKey(), WireFormat.asMap(orderSnap.getValue()));
+
+            if ("Delivery Pending".equalsIgnoreCase(order.getStatus())
+                    && branchID.equals(order.getBranchID())) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    private void showOrders(List<OrderSummary> orders) {
+        pendingOrders.clear();
+        pendingOrders.addAll(orders);
+        adapter.submitList(orders); // diffed in the background, only changed rows rebind
+
+        if (pendingOrders.isEmpty()) {
+            emptyText.setText("No pending orders yet");
+            emptyText.setVisibility(TextView.VISIBLE);
+            recyclerView.setVisibility(RecyclerView.GONE);
+        } else {
+            emptyText.setVisibility(TextView.GONE);
+            recyclerView.setVisibility(RecyclerView.VISIBLE);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        ordersPipeline.cancel();
+    }
 }
\ No newline at end of file
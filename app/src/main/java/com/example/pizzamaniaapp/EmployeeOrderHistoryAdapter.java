@@ -7,18 +7,20 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class EmployeeOrderHistoryAdapter extends RecyclerView.Adapter<EmployeeOrderHistoryAdapter.OrderViewHolder> {
 
     private final Context context;
-    private final List<Order> orderList;
+    private final AsyncListDiffer<OrderSummary> differ = new AsyncListDiffer<>(this, DiffCallbacks.ORDER_SUMMARY);
 
-    public EmployeeOrderHistoryAdapter(Context context, List<Order> orderList) {
+    public EmployeeOrderHistoryAdapter(Context context, List<OrderSummary> orderList) {
         this.context = context;
-        this.orderList = orderList;
+        differ.submitList(new ArrayList<>(orderList));
     }
 
     @NonNull
@@ -30,17 +32,22 @@ public class EmployeeOrderHistoryAdapter extends RecyclerView.Adapter<EmployeeOr
 
     @Override
     public void onBindViewHolder(@NonNull OrderViewHolder holder, int position) {
-        Order order = orderList.get(position);
+        OrderSummary order = differ.getCurrentList().get(position);
 
-        holder.tvOrderId.setText("Order ID: " + order.getOrderId());
+        holder.tvOrderId.setText("Order ID: " + order.getOrderID());
         holder.tvCustomerName.setText("Customer: " + order.getCustomerName());
         holder.tvTotalPrice.setText("Total: Rs. " + order.getTotalPrice());
         holder.tvStatus.setText("Status: " + order.getStatus());
     }
 
+    // Show a new set of orders; only rows that were added, removed or changed are rebound
+    public void submitList(List<OrderSummary> orders) {
+        differ.submitList(new ArrayList<>(orders));
+    }
+
     @Override
     public int getItemCount() {
-        return orderList.size();
+        return differ.getCurrentList().size();
     }
 
     static class OrderViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,357 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Estimates when in-flight orders will arrive, from what is already in the database:
+//
+//   kitchen   orders in "confirm order" / "Preparing" are cooked KITCHEN_SLOTS at a time in the
+//             order they were placed; each round takes the branch's typical prep time, learnt from
+//             its recent orders (readyTimestamp - timestamp), DEFAULT_PREP_MS until there is enough
+//   handoff   a ready order waits HANDOFF_MS for a rider to pick it up
+//   travel    straight-line distance x ROAD_FACTOR at the rider's recent speed, from where the
+//             rider is (when delivering and their position is fresh) or from the branch
+//
+// Each estimate has a typical (median prep) and a late (80th percentile prep) arrival.
+//
+// Updates are incremental. sync() compares a branch snapshot with what it saw last and the other
+// inputs are single events; each returns the orders whose estimate may have changed and drops only
+// those from the cache, e.g. an order entering the kitchen affects the orders queued behind it, a
+// rider moving only their own orders. estimate() is a cache hit otherwise. Entries also expire
+// after REFRESH_MS, since "ready in 2 minutes" ages on its own.
+//
+// Plain Java with explicit times; use from one thread.
+public final class EtaEstimator {
+
+    public static final long DEFAULT_PREP_MS = 15 * 60 * 1000;
+    public static final int KITCHEN_SLOTS = 3;                  // orders cooked at the same time
+    public static final long HANDOFF_MS = 3 * 60 * 1000;        // ready -> picked up
+    public static final long MIN_LEFT_MS = 2 * 60 * 1000;       // an overdue order is never "ready now"
+    public static final double ROAD_FACTOR = 1.3;               // roads vs straight line
+    public static final double DEFAULT_SPEED_MPS = 6;           // ~22 km/h through town
+    public static final long DEFAULT_TRAVEL_MS = 15 * 60 * 1000; // branch position not known yet
+    public static final int HISTORY_SIZE = 200;                 // recent prep times kept per branch
+    public static final int MIN_HISTORY = 5;
+    public static final long REFRESH_MS = 30 * 1000;
+    static final long STALE_RIDER_MS = 10 * 60 * 1000;          // as DispatchEngine: older positions are ignored
+
+    // Kitchen queue: first placed, first cooked
+    private static final Comparator<Tracked> QUEUE_ORDER = (a, b) -> a.placedAt != b.placedAt
+            ? Long.compare(a.placedAt, b.placedAt) : a.orderID.compareTo(b.orderID);
+
+    // Prep history: oldest ready first, so the oldest is what gives way
+    private static final Comparator<Sample> READY_ORDER = (a, b) -> a.readyAt != b.readyAt
+            ? Long.compare(a.readyAt, b.readyAt) : a.orderID.compareTo(b.orderID);
+
+    private static final long MIN_PREP_MS = 60 * 1000, MAX_PREP_MS = 3 * 60 * 60 * 1000; // outside: bad data
+
+    public static final class Estimate {
+        public final String orderID;
+        public final String stage;      // status the estimate was made for
+        public final int ahead;         // orders before it in the kitchen
+        public final long readyAt;      // kitchen done (typical); 0 once out of the kitchen
+        public final long arriveAt;     // typical
+        public final long arriveLate;   // with a slow (80th percentile) kitchen
+        final long computedAt;
+
+        Estimate(String orderID, String stage, int ahead, long readyAt, long arriveAt, long arriveLate, long computedAt) {
+            this.orderID = orderID;
+            this.stage = stage;
+            this.ahead = ahead;
+            this.readyAt = readyAt;
+            this.arriveAt = arriveAt;
+            this.arriveLate = Math.max(arriveAt, arriveLate);
+            this.computedAt = computedAt;
+        }
+
+        // Whether a customer would notice the difference: another stage or queue place, or a time
+        // moved by a minute or more (EtaFeed only republishes then)
+        public boolean differsFrom(Estimate other) {
+            return other == null || !Objects.equals(stage, other.stage) || ahead != other.ahead
+                    || Math.abs(readyAt - other.readyAt) >= 60000 || Math.abs(arriveAt - other.arriveAt) >= 60000
+                    || Math.abs(arriveLate - other.arriveLate) >= 60000;
+        }
+
+        // e.g. "Ready in ~12 min · arrives in 25-31 min"
+        public String describe(long now) {
+            String arrive = minutes(arriveAt - now) == minutes(arriveLate - now)
+                    ? "~" + minutes(arriveAt - now) + " min"
+                    : minutes(arriveAt - now) + "-" + minutes(arriveLate - now) + " min";
+            if (readyAt == 0) return "Arrives in " + arrive;
+            return "Ready in ~" + minutes(readyAt - now) + " min · arrives in " + arrive;
+        }
+
+        private static long minutes(long ms) {
+            return Math.max(1, Math.round(ms / 60000.0));
+        }
+    }
+
+    // What an order's estimate depends on, kept per in-flight order
+    private static final class Tracked {
+        final String orderID, branchID, status, riderID;
+        final long placedAt;
+        final double lat, lng;
+
+        Tracked(OrderSummary order) {
+            orderID = order.getOrderID();
+            branchID = order.getBranchID();
+            status = order.getStatus();
+            riderID = order.getAssignedDeliverymanID();
+            placedAt = order.getTimestamp();
+            lat = order.getCustomerLat();
+            lng = order.getCustomerLng();
+        }
+
+        boolean inKitchen() {
+            return isKitchen(status);
+        }
+
+        boolean sameAs(Tracked other) {
+            return other != null && eq(status, other.status) && eq(riderID, other.riderID) && eq(branchID, other.branchID)
+                    && placedAt == other.placedAt && lat == other.lat && lng == other.lng;
+        }
+
+        private static boolean eq(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    // One finished order's prep time
+    private static final class Sample {
+        final String orderID;
+        final long readyAt, ms;
+
+        Sample(String orderID, long readyAt, long ms) {
+            this.orderID = orderID;
+            this.readyAt = readyAt;
+            this.ms = ms;
+        }
+    }
+
+    // The HISTORY_SIZE most recently ready orders' prep times, with cached quantiles. Only the kept
+    // orders are remembered: one older than all of them (evicted earlier, and still in every
+    // branch snapshot) is turned away by its ready time, so nothing grows with the branch's history.
+    private static final class PrepHistory {
+        final TreeSet<Sample> kept = new TreeSet<>(READY_ORDER);
+        final Set<String> seen = new HashSet<>(); // orderIDs in kept
+        long[] sorted;
+
+        boolean add(String orderID, long readyAt, long ms) {
+            if (ms < MIN_PREP_MS || ms > MAX_PREP_MS || seen.contains(orderID)) return false;
+            Sample sample = new Sample(orderID, readyAt, ms);
+            if (kept.size() == HISTORY_SIZE) {
+                if (READY_ORDER.compare(sample, kept.first()) < 0) return false;
+                seen.remove(kept.pollFirst().orderID);
+            }
+            kept.add(sample);
+            seen.add(orderID);
+            sorted = null;
+            return true;
+        }
+
+        long quantile(double q) {
+            int size = kept.size();
+            if (size < MIN_HISTORY) return DEFAULT_PREP_MS;
+            if (sorted == null) {
+                sorted = new long[size];
+                int i = 0;
+                for (Sample sample : kept) sorted[i++] = sample.ms;
+                Arrays.sort(sorted);
+            }
+            return sorted[(int) Math.min(size - 1, Math.floor(q * size))];
+        }
+    }
+
+    private final Map<String, Tracked> orders = new HashMap<>();                 // in-flight orders
+    private final Map<String, TreeSet<Tracked>> kitchens = new HashMap<>();      // branch -> queue by (placedAt, orderID)
+    private final Map<String, PrepHistory> history = new HashMap<>();
+    private final Map<String, double[]> branches = new HashMap<>();              // branch -> {lat, lng}
+    private final Map<String, double[]> riders = new HashMap<>();                // rider -> {lat, lng, time, m/s}
+    private final Map<String, Set<String>> byRider = new HashMap<>();            // rider -> orders they deliver
+    private final Map<String, Estimate> cache = new HashMap<>();
+
+    // A branch's orders as last seen (e.g. one snapshot of orderSummaries for the branch).
+    // Finished orders feed the prep-time history; in-flight ones are tracked; orders of the branch
+    // that are missing or finished stop being tracked.
+    public Set<String> sync(String branchID, Collection<OrderSummary> branchOrders) {
+        Set<String> changed = new HashSet<>();
+        Set<String> present = new HashSet<>();
+        boolean historyChanged = false;
+        for (OrderSummary order : branchOrders) {
+            if (order.getReadyTimestamp() > 0 && order.getTimestamp() > 0) {
+                historyChanged |= historyOf(branchID).add(order.getOrderID(), order.getReadyTimestamp(),
+                        order.getReadyTimestamp() - order.getTimestamp());
+            }
+            if (!isInFlight(order.getStatus())) continue;
+            present.add(order.getOrderID());
+            changed.addAll(put(new Tracked(order)));
+        }
+        for (Tracked gone : new ArrayList<>(orders.values())) {
+            if (branchID.equals(gone.branchID) && !present.contains(gone.orderID)) changed.addAll(remove(gone.orderID));
+        }
+        if (historyChanged) changed.addAll(kitchenAndWaiting(branchID)); // the typical prep time moved
+        cache.keySet().removeAll(changed);
+        return changed;
+    }
+
+    public Set<String> branchLocated(String branchID, double lat, double lng) {
+        double[] old = branches.put(branchID, new double[]{lat, lng});
+        if (old != null && old[0] == lat && old[1] == lng) return new HashSet<>();
+        Set<String> changed = new HashSet<>();
+        for (Tracked order : orders.values()) {
+            if (branchID.equals(order.branchID)) changed.add(order.orderID);
+        }
+        cache.keySet().removeAll(changed);
+        return changed;
+    }
+
+    public Set<String> riderMoved(String riderID, double lat, double lng, long time) {
+        double[] old = riders.get(riderID);
+        double speed = old == null ? 0 : old[3];
+        if (old != null && time > old[2] + 10_000) { // speed from fixes at least 10 s apart, smoothed
+            double mps = DispatchSolver.meters(old[0], old[1], lat, lng) / ((time - old[2]) / 1000.0);
+            if (mps >= 1 && mps <= 30) speed = speed == 0 ? mps : 0.7 * speed + 0.3 * mps;
+        }
+        riders.put(riderID, new double[]{lat, lng, time, speed});
+        Set<String> changed = new HashSet<>(byRider.getOrDefault(riderID, new HashSet<>()));
+        cache.keySet().removeAll(changed);
+        return changed;
+    }
+
+    // Cached unless invalidated or older than REFRESH_MS; null for orders not in flight
+    public Estimate estimate(String orderID, long now) {
+        Estimate cached = cache.get(orderID);
+        if (cached != null && now - cached.computedAt < REFRESH_MS) return cached;
+        Tracked order = orders.get(orderID);
+        if (order == null) return null;
+        Estimate estimate = compute(order, now);
+        cache.put(orderID, estimate);
+        return estimate;
+    }
+
+    // Prep times kept for the branch (at most HISTORY_SIZE)
+    int prepSamples(String branchID) {
+        PrepHistory prep = history.get(branchID);
+        return prep == null ? 0 : prep.seen.size();
+    }
+
+    public Set<String> tracked() {
+        return new HashSet<>(orders.keySet());
+    }
+
+    // Riders delivering tracked orders (whose positions are worth following)
+    public Set<String> riders() {
+        return new HashSet<>(byRider.keySet());
+    }
+
+    static boolean isKitchen(String status) {
+        return "confirm order".equalsIgnoreCase(status) || "Preparing".equalsIgnoreCase(status)
+                || "order pending".equalsIgnoreCase(status);
+    }
+
+    static boolean isInFlight(String status) {
+        return isKitchen(status) || DeliveryBoard.PENDING_STATUS.equalsIgnoreCase(status)
+                || DeliveryBoard.ACCEPTED_STATUS.equalsIgnoreCase(status);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private Set<String> put(Tracked order) {
+        Tracked old = orders.get(order.orderID);
+        if (order.sameAs(old)) return new HashSet<>();
+        Set<String> changed = old != null ? remove(old.orderID) : new HashSet<>();
+        orders.put(order.orderID, order);
+        if (order.inKitchen()) {
+            TreeSet<Tracked> queue = kitchens.computeIfAbsent(order.branchID, b -> new TreeSet<>(QUEUE_ORDER));
+            queue.add(order);
+            changed.addAll(behind(queue, order)); // everyone queued after it moves back
+        }
+        if (order.riderID != null && !order.riderID.isEmpty()) {
+            byRider.computeIfAbsent(order.riderID, r -> new HashSet<>()).add(order.orderID);
+        }
+        changed.add(order.orderID);
+        return changed;
+    }
+
+    private Set<String> remove(String orderID) {
+        Set<String> changed = new HashSet<>();
+        Tracked order = orders.remove(orderID);
+        cache.remove(orderID);
+        if (order == null) return changed;
+        changed.add(orderID);
+        TreeSet<Tracked> queue = kitchens.get(order.branchID);
+        if (queue != null && queue.remove(order)) {
+            changed.addAll(behind(queue, order)); // everyone queued after it moves up
+        }
+        Set<String> riding = order.riderID == null ? null : byRider.get(order.riderID);
+        if (riding != null) {
+            riding.remove(orderID);
+            if (riding.isEmpty()) byRider.remove(order.riderID);
+        }
+        return changed;
+    }
+
+    private static Set<String> behind(TreeSet<Tracked> queue, Tracked order) {
+        Set<String> ids = new HashSet<>();
+        for (Tracked later : queue.tailSet(order, false)) ids.add(later.orderID);
+        return ids;
+    }
+
+    private Set<String> kitchenAndWaiting(String branchID) {
+        Set<String> ids = new HashSet<>();
+        for (Tracked order : orders.values()) {
+            if (branchID.equals(order.branchID) && !DeliveryBoard.ACCEPTED_STATUS.equalsIgnoreCase(order.status)) ids.add(order.orderID);
+        }
+        return ids;
+    }
+
+    private Estimate compute(Tracked order, long now) {
+        if (order.inKitchen()) {
+            PrepHistory prep = historyOf(order.branchID);
+            TreeSet<Tracked> queue = kitchens.get(order.branchID);
+            int ahead = queue == null ? 0 : queue.headSet(order, false).size();
+            int round = ahead / KITCHEN_SLOTS; // rounds of cooking before it gets a slot
+            long readyAt = readyAt(order, round, prep.quantile(0.5), now);
+            long readyLate = readyAt(order, round, prep.quantile(0.8), now);
+            long travel = travelFromBranch(order);
+            return new Estimate(order.orderID, order.status, ahead, readyAt,
+                    readyAt + HANDOFF_MS + travel, readyLate + HANDOFF_MS + travel, now);
+        }
+        if (DeliveryBoard.PENDING_STATUS.equalsIgnoreCase(order.status)) {
+            long arrive = now + HANDOFF_MS + travelFromBranch(order);
+            return new Estimate(order.orderID, order.status, 0, 0, arrive, arrive, now);
+        }
+        // Delivering: from the rider when we know where they are, else as if they just left
+        double[] rider = order.riderID == null ? null : riders.get(order.riderID);
+        long travel = rider != null && now - (long) rider[2] <= STALE_RIDER_MS
+                ? travel(rider[0], rider[1], order, rider[3])
+                : travelFromBranch(order);
+        return new Estimate(order.orderID, order.status, 0, 0, now + travel, now + travel, now);
+    }
+
+    private static long readyAt(Tracked order, int round, long prepMs, long now) {
+        return Math.max(order.placedAt + (round + 1) * prepMs, now + MIN_LEFT_MS);
+    }
+
+    private long travelFromBranch(Tracked order) {
+        double[] branch = branches.get(order.branchID);
+        return branch == null ? DEFAULT_TRAVEL_MS : travel(branch[0], branch[1], order, 0);
+    }
+
+    private static long travel(double lat, double lng, Tracked order, double speed) {
+        double mps = speed > 0 ? speed : DEFAULT_SPEED_MPS;
+        return Math.round(DispatchSolver.meters(lat, lng, order.lat, order.lng) * ROAD_FACTOR / mps * 1000);
+    }
+
+    private PrepHistory historyOf(String branchID) {
+        return history.computeIfAbsent(branchID, b -> new PrepHistory());
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.pizzamaniaapp;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Feeds an EtaEstimator from Firebase and tells the screen which orders' estimates changed.
+//
+// Staff side (employee screen), where the whole branch is visible anyway:
+//   branch orders   sync() from the screen's own branch listener
+//   branch position branches/{branchID}, read once per branch
+//   rider positions riderLocations/{riderID}, listened to only for riders delivering a tracked order
+// Every event goes through the estimator, which returns just the orders it affects; the listener
+// gets those, and each of them whose estimate moved noticeably (Estimate.differsFrom) is
+// published to orderEtas/{orderID} (WireFormat.etaToWire). An order this phone sees leave flight
+// has its node removed, whoever published it.
+//
+// Customer side (order history): watchOrders() listens to orderEtas/{orderID} of the customer's
+// own orders only, so a customer never reads another customer's order, and the database rules
+// need not let them read the branch's summaries. Estimates are only published while some
+// employee screen of the branch is open, so the customer's feed also runs the estimator on their
+// own orders (their branch's position, their rider's position) and falls back to that when
+// nothing was published or the published estimate is overdue. It does not know the branch's
+// kitchen queue, so it takes the order to be next in line, at the prep time the customer's own
+// past orders suggest (DEFAULT_PREP_MS until there are enough): rougher, but never blank.
+// Customers never publish.
+//
+// Stale nodes: the transitions that take an order out of flight (StatusTransitions) delete its
+// node in the same update, and staff phones delete any they see leave flight. An order finished
+// some other way while no employee screen is open keeps its node, but customers only watch
+// in-flight orders, so nobody reads it.
+//
+// Every REFRESH_MS the listener also gets all known orders, since "ready in 5 min" goes stale on
+// its own. Main thread only; stop() from onDestroy.
+public final class EtaFeed {
+
+    private static final String TAG = "EtaFeed";
+
+    public static final String NODE = "orderEtas"; // {orderID: WireFormat.etaToWire}
+
+    public interface Listener {
+        void onEtasChanged(Set<String> orderIDs); // call estimate() for the new values
+    }
+
+    private final DatabaseReference root;
+    private final Listener listener;
+    private final EtaEstimator eta = new EtaEstimator();
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final Runnable refreshRunnable = this::refresh;
+
+    private final Set<String> located = new HashSet<>();                           // branch positions requested
+    private final Map<String, ValueEventListener> riderListeners = new HashMap<>();
+    private final Map<String, EtaEstimator.Estimate> published = new HashMap<>();  // staff: last written per order
+    private final Map<String, ValueEventListener> orderListeners = new HashMap<>(); // customer: orderEtas/{id}
+    private final Map<String, EtaEstimator.Estimate> received = new HashMap<>();   // customer: as published
+    private final Set<String> ownBranches = new HashSet<>();                      // customer: branches of watched orders
+    private boolean staff;                                                        // sync() was called: publishes
+    private boolean stopped;
+
+    public EtaFeed(DatabaseReference root, Listener listener) {
+        this.root = root;
+        this.listener = listener;
+    }
+
+    // The branch's orders as just seen (all statuses: finished ones teach the prep time).
+    // Returns the orders whose estimate changed; the caller is redrawing anyway, so no callback.
+    public Set<String> sync(String branchID, Collection<OrderSummary> branchOrders) {
+        if (stopped) return new HashSet<>();
+        staff = true;
+        locate(branchID);
+        Set<String> changed = eta.sync(branchID, branchOrders);
+        followRiders();
+        publish(changed);
+        scheduleRefresh();
+        return changed;
+    }
+
+    // The customer's own orders (all statuses: finished ones teach the local prep time). Listens to
+    // the published estimates of exactly the in-flight ones and estimates them locally as well.
+    public void watchOrders(Collection<OrderSummary> orders) {
+        if (stopped) return;
+        Map<String, List<OrderSummary>> byBranch = new HashMap<>();
+        for (String branchID : ownBranches) byBranch.put(branchID, new ArrayList<>()); // so orders that went are dropped
+        Set<String> orderIDs = new HashSet<>();
+        for (OrderSummary order : orders) {
+            if (order.getBranchID() == null) continue;
+            byBranch.computeIfAbsent(order.getBranchID(), b -> new ArrayList<>()).add(order);
+            if (EtaEstimator.isInFlight(order.getStatus())) orderIDs.add(order.getOrderID());
+        }
+        Set<String> changed = new HashSet<>();
+        ownBranches.clear();
+        for (Map.Entry<String, List<OrderSummary>> branch : byBranch.entrySet()) {
+            changed.addAll(eta.sync(branch.getKey(), branch.getValue()));
+            if (branch.getValue().isEmpty()) continue;
+            ownBranches.add(branch.getKey());
+            locate(branch.getKey());
+        }
+        followRiders();
+
+        for (String orderID : new ArrayList<>(orderListeners.keySet())) {
+            if (!orderIDs.contains(orderID)) unwatch(orderID);
+        }
+        for (String orderID : orderIDs) {
+            if (orderListeners.containsKey(orderID)) continue;
+            ValueEventListener orderListener = new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    EtaEstimator.Estimate estimate = WireFormat.etaFromWire(orderID, WireFormat.asMap(snapshot.getValue()));
+                    if (estimate != null) received.put(orderID, estimate);
+                    else received.remove(orderID);
+                    changed(Collections.singleton(orderID));
+                    scheduleRefresh();
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    Log.w(TAG, "Estimate for " + orderID + " unavailable", error.toException());
+                }
+            };
+            root.child(NODE).child(orderID).addValueEventListener(orderListener);
+            orderListeners.put(orderID, orderListener);
+        }
+        changed(changed);
+        scheduleRefresh();
+    }
+
+    // Current estimate, or null for an order that is not in flight (or not known yet). A published
+    // one wins while it is not overdue; after that nobody is updating it, and the local one is used.
+    public EtaEstimator.Estimate estimate(String orderID) {
+        long now = System.currentTimeMillis();
+        EtaEstimator.Estimate estimate = received.get(orderID);
+        if (estimate != null && estimate.arriveLate >= now) return estimate;
+        return eta.estimate(orderID, now);
+    }
+
+    public void stop() {
+        stopped = true;
+        main.removeCallbacks(refreshRunnable);
+        for (String orderID : new ArrayList<>(orderListeners.keySet())) unwatch(orderID);
+        for (Map.Entry<String, ValueEventListener> rider : riderListeners.entrySet()) {
+            root.child(DispatchEngine.RIDER_LOCATIONS).child(rider.getKey()).removeEventListener(rider.getValue());
+        }
+        riderListeners.clear();
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void unwatch(String orderID) {
+        ValueEventListener orderListener = orderListeners.remove(orderID);
+        if (orderListener != null) root.child(NODE).child(orderID).removeEventListener(orderListener);
+        if (received.remove(orderID) != null && !stopped) changed(Collections.singleton(orderID));
+    }
+
+    // Writes the estimates that moved noticeably and removes those of orders that just left flight
+    // (an order in orderIDs but no longer tracked). Staff only.
+    private void publish(Set<String> orderIDs) {
+        if (!staff) return;
+        Set<String> tracked = eta.tracked();
+        long now = System.currentTimeMillis();
+        WriteBatch batch = new WriteBatch("Publish estimates");
+        List<String> written = new ArrayList<>();
+        for (String orderID : orderIDs) {
+            EtaEstimator.Estimate estimate = tracked.contains(orderID) ? eta.estimate(orderID, now) : null;
+            if (estimate == null) {
+                published.remove(orderID);
+                batch.delete(NODE + "/" + orderID);
+            } else if (estimate.differsFrom(published.get(orderID))) {
+                published.put(orderID, estimate);
+                batch.set(NODE + "/" + orderID, WireFormat.etaToWire(estimate));
+                written.add(orderID);
+            }
+        }
+        if (batch.isEmpty()) return;
+        batch.commit(root).addOnFailureListener(e -> {
+            Log.w(TAG, "Estimates not published", e);
+            published.keySet().removeAll(written); // written again with the next change
+        });
+    }
+
+    private void locate(String branchID) {
+        if (!located.add(branchID)) return;
+        root.child("branches").child(branchID).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                CustomerHomeActivity.Branch branch = SnapshotMappers.branch(snapshot.getValue());
+                if (branch == null || stopped) return;
+                changed(eta.branchLocated(branchID, branch.latitude, branch.longitude));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                located.remove(branchID); // try again with the next sync
+            }
+        });
+    }
+
+    // Keep one listener per rider delivering a tracked order, and none for anyone else
+    private void followRiders() {
+        Set<String> wanted = eta.riders();
+        for (String riderID : new ArrayList<>(riderListeners.keySet())) {
+            if (wanted.contains(riderID)) continue;
+            root.child(DispatchEngine.RIDER_LOCATIONS).child(riderID).removeEventListener(riderListeners.remove(riderID));
+        }
+        for (String riderID : wanted) {
+            if (riderListeners.containsKey(riderID)) continue;
+            ValueEventListener riderListener = new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    Map<String, Object> location = WireFormat.asMap(snapshot.getValue());
+                    Object lat = location.get(DispatchEngine.LAT), lng = location.get(DispatchEngine.LNG),
+                            time = location.get(DispatchEngine.TIME);
+                    if (!(lat instanceof Number) || !(lng instanceof Number) || !(time instanceof Number)) return;
+                    changed(eta.riderMoved(riderID, ((Number) lat).doubleValue(), ((Number) lng).doubleValue(),
+                            ((Number) time).longValue()));
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    Log.w(TAG, "Rider " + riderID + " position unavailable", error.toException());
+                }
+            };
+            root.child(DispatchEngine.RIDER_LOCATIONS).child(riderID).addValueEventListener(riderListener);
+            riderListeners.put(riderID, riderListener);
+        }
+    }
+
+    private void scheduleRefresh() {
+        main.removeCallbacks(refreshRunnable);
+        if (!stopped && (!eta.tracked().isEmpty() || !received.isEmpty())) {
+            main.postDelayed(refreshRunnable, EtaEstimator.REFRESH_MS);
+        }
+    }
+
+    private void refresh() {
+        Set<String> known = new HashSet<>(eta.tracked());
+        known.addAll(received.keySet());
+        if (stopped || known.isEmpty()) return;
+        changed(known); // the cache expires them by itself
+        main.postDelayed(refreshRunnable, EtaEstimator.REFRESH_MS);
+    }
+
+    // Staff side also republishes whatever moved
+    private void changed(Set<String> orderIDs) {
+        if (stopped || orderIDs.isEmpty()) return;
+        publish(orderIDs);
+        listener.onEtasChanged(orderIDs);
+    }
+}
@@ -16,13 +16,17 @@ import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
 import com.google.firebase.database.ValueEventListener;
 
 import com.example.pizzamaniaapp.HistoryOrderAdapter;
 
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class HistoryOrderActivity extends AppCompatActivity {
 
@@ -30,9 +34,13 @@ public class HistoryOrderActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private HistoryOrderAdapter orderAdapter;  //  same type as the object
 
-    private List<Order> completedOrders = new ArrayList<>();
+    private List<OrderSummary> completedOrders = new ArrayList<>();
+    private final SnapshotPipeline<List<OrderSummary>> ordersPipeline = new SnapshotPipeline<>();
 
     private DatabaseReference dbRef;
+    private Query customerOrdersQuery;           // This customer's summaries, listened to while the screen is open
+    private ValueEventListener ordersListener;
+    private EtaFeed etaFeed;                     // Estimates for the orders still on their way
     private String currentUserID;
 
     private TextView emptyText;
@@ -55,9 +63,10 @@ public class HistoryOrderActivity extends AppCompatActivity {
         currentUserID = prefs.getString("userID", "u001");
         Log.d(TAG, "Loading orders for user: " + currentUserID);
 
-        dbRef = FirebaseDatabase.getInstance().getReference("orders");
+        dbRef = FirebaseDatabase.getInstance().getReference(OrderSummary.NODE);
+        etaFeed = new EtaFeed(FirebaseDatabase.getInstance().getReference(), this::showEtas);
 
-        loadCompletedOrders();
+        loadOrders();
 
         // -------------------- Order History --------------------
         ImageButton Backbtn = findViewById(R.id.Backbtn);
@@ -67,44 +76,14 @@ public class HistoryOrderActivity extends AppCompatActivity {
         });
     }
 
-    private void loadCompletedOrders() {
-        dbRef.addListenerForSingleValueEvent(new ValueEventListener() {
+    private void loadOrders() {
+        // Only this customer's summaries are downloaded; kept live so status changes show up
+        ordersListener = new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
-                completedOrders.clear();
-
                 Log.d(TAG, "Orders snapshot count: " + snapshot.getChildrenCount());
-
-                for (DataSnapshot orderSnap : snapshot.getChildren()) {
-                    try {
-                        Order order = orderSnap.getValue(Order.class);
-
-                        if (order == null) {
-                            Log.w(TAG, "Skipped null order for key: " + orderSnap.getKey());
-                            continue;
-                        }
-
-                        Log.d(TAG, "Order status: " + order.getStatus() + ", CustomerID: " + order.getCustomerID());
-
-                        // Check if this order belongs to current user AND is completed
-                        if ("Completed".equalsIgnoreCase(order.getStatus())
-                                && currentUserID.equals(order.getCustomerID())) {
-                            completedOrders.add(order);
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Failed to parse order: " + orderSnap.getKey(), e);
-                    }
-                }
-
-                if (completedOrders.isEmpty()) {
-                    emptyText.setText("No completed orders yet");
-                    emptyText.setVisibility(TextView.VISIBLE);
-                    recyclerView.setVisibility(RecyclerView.GONE);
-                } else {
-                    emptyText.setVisibility(TextView.GONE);
-                    recyclerView.setVisibility(RecyclerView.VISIBLE);
-                    orderAdapter.notifyDataSetChanged();
-                }
+                String userID = currentUserID;
+                ordersPipeline.submit(snapshot, snap -> ordersFor(snap, userID), orders -> showOrders(orders));
             }
 
             @Override
@@ -114,6 +93,80 @@ public class HistoryOrderActivity extends AppCompatActivity {
                 emptyText.setVisibility(TextView.VISIBLE);
                 recyclerView.setVisibility(RecyclerView.GONE);
             }
+        };
+        // Filtered by customer on the server once the summaries are migrated
+        SummaryBackfill.whenMigrated(dbRef.getRoot(), migrated -> {
+            if (isDestroyed()) return;
+            customerOrdersQuery = SummaryBackfill.summaries(dbRef, migrated, WireFormat.CUSTOMER_ID, currentUserID);
+            customerOrdersQuery.addValueEventListener(ordersListener);
         });
     }
+
+    // Runs on the snapshot pipeline thread
+    // Orders still on their way first, then the completed ones
+    private static List<OrderSummary> ordersFor(DataSnapshot snapshot, String userID) {
+        List<OrderSummary> orders = new ArrayList<>();
+        List<OrderSummary> completed = new ArrayList<>();
+        for (DataSnapshot orderSnap : snapshot.getChildren()) {
+            try {
+                if (!orderSnap.hasChildren()) {
+                    Log.w(TAG, "Skipped null order for key: " + orderSnap.getKey());
+                    continue;
+                }
+                OrderSummary order = WireFormat.summaryFromWire(orderSnap.getKey(), WireFormat.asMap(orderSnap.getValue()));
+
+                // Check if this order belongs to current user AND is in flight or completed
+                if (!userID.equals(order.getCustomerID())) continue;
+                if (EtaEstimator.isInFlight(order.getStatus())) {
+                    orders.add(order);
+                } else if ("Completed".equalsIgnoreCase(order.getStatus())) {
+                    completed.add(order);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to parse order: " + orderSnap.getKey(), e);
+            }
+        }
+        orders.addAll(completed);
+        return orders;
+    }
+
+    private void showOrders(List<OrderSummary> orders) {
+        completedOrders.clear();
+        completedOrders.addAll(orders);
+        orderAdapter.submitList(orders); // diffed in the background, only changed rows rebind
+
+        // Estimates for this customer's orders on their way (nobody else's); the completed ones
+        // teach the local fallback how long the kitchen takes
+        etaFeed.watchOrders(orders);
+
+        if (completedOrders.isEmpty()) {
+            emptyText.setText("No orders yet");
+            emptyText.setVisibility(TextView.VISIBLE);
+            recyclerView.setVisibility(RecyclerView.GONE);
+        } else {
+            emptyText.setVisibility(TextView.GONE);
+            recyclerView.setVisibility(RecyclerView.VISIBLE);
+        }
+    }
+
+    // Only the rows whose estimate changed are rebound
+    private void showEtas(Set<String> orderIDs) {
+        long now = System.currentTimeMillis();
+        Map<String, String> texts = new HashMap<>();
+        for (String orderID : orderIDs) {
+            EtaEstimator.Estimate estimate = etaFeed.estimate(orderID);
+            texts.put(orderID, estimate != null ? estimate.describe(now) : null);
+        }
+        orderAdapter.showEtas(texts);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (ordersListener != null && customerOrdersQuery != null) {
+            customerOrdersQuery.removeEventListener(ordersListener);
+        }
+        ordersPipeline.cancel();
+        etaFeed.stop();
+    }
 }
@@ -1,25 +1,36 @@
 package com.example.pizzamaniaapp;
 
 import android.content.Context;
+import android.content.Intent;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class HistoryOrderAdapter extends RecyclerView.Adapter<HistoryOrderAdapter.HistoryOrderViewHolder> {
 
     private Context context;
-    private List<Order> orderList;
+    private final AsyncListDiffer<OrderSummary> differ = new AsyncListDiffer<>(this, DiffCallbacks.ORDER_SUMMARY);
+    private final OrderItemsLoader itemsLoader = new OrderItemsLoader();
+    private final Set<String> expandedOrders = new HashSet<>();
+    private final Map<String, String> etaTexts = new HashMap<>(); // orderID -> estimate line, orders in flight only
 
-    public HistoryOrderAdapter(Context context, List<Order> orderList) {
+    public HistoryOrderAdapter(Context context, List<OrderSummary> orderList) {
         this.context = context;
-        this.orderList = orderList;
+        differ.submitList(new ArrayList<>(orderList));
     }
 
     @NonNull
@@ -31,27 +42,112 @@ public class HistoryOrderAdapter extends RecyclerView.Adapter<HistoryOrderAdapte
 
     @Override
     public void onBindViewHolder(@NonNull HistoryOrderViewHolder holder, int position) {
-        Order order = orderList.get(position);
+        OrderSummary order = differ.getCurrentList().get(position);
         holder.tvCustomerName.setText(order.getCustomerName());
 
         StringBuilder details = new StringBuilder();
         details.append("Branch: ").append(order.getBranchID()).append("\n");
-        details.append("Items: ").append(order.getItems().size()).append("\n");
-        for (Item item : order.getItems()) {
-            details.append("- ").append(item.getName())
-                    .append(" x").append(item.getQuantity()).append("\n");
+        details.append("Items: ").append(order.getItemCount()).append("\n");
+
+        // item lines are fetched the first time the row is tapped
+        List<Item> items = itemsLoader.getCached(order.getOrderID());
+        if (expandedOrders.contains(order.getOrderID())) {
+            if (items != null) {
+                for (Item item : items) {
+                    details.append("- ").append(item.getName())
+                            .append(" x").append(item.getQuantity()).append("\n");
+                }
+            } else {
+                details.append("Loading items...\n");
+            }
+        } else {
+            details.append("(tap to show items)\n");
         }
         details.append("Status: ").append(order.getStatus()).append("\n");
+        String eta = etaTexts.get(order.getOrderID());
+        if (eta != null) details.append(eta).append("\n");
+        boolean onItsWay = isOnItsWay(order);
+        if (onItsWay) details.append("Hold to follow your rider on the map\n");
         details.append("Total: Rs. ").append(order.getTotalPrice());
 
         holder.tvItems.setText(details.toString());
+        holder.itemView.setOnClickListener(v -> toggleItems(holder.getAdapterPosition()));
+        holder.itemView.setOnLongClickListener(onItsWay ? v -> followRider(order) : null);
+    }
+
+    // Out with a rider, whose published position the customer may follow
+    private static boolean isOnItsWay(OrderSummary order) {
+        String riderID = order.getAssignedDeliverymanID();
+        return DeliveryBoard.ACCEPTED_STATUS.equalsIgnoreCase(order.getStatus()) && riderID != null && !riderID.isEmpty();
+    }
+
+    private boolean followRider(OrderSummary order) {
+        Intent intent = new Intent(context, MapActivity.class);
+        intent.putExtra(MapActivity.EXTRA_FOLLOW_RIDER, order.getAssignedDeliverymanID());
+        intent.putExtra("lat", order.getCustomerLat());
+        intent.putExtra("lng", order.getCustomerLng());
+        context.startActivity(intent);
+        return true;
+    }
+
+    private void toggleItems(int position) {
+        if (position == RecyclerView.NO_POSITION) return;
+        String orderID = differ.getCurrentList().get(position).getOrderID();
+
+        if (expandedOrders.remove(orderID)) {
+            notifyItemChanged(position);
+            return;
+        }
 
+        expandedOrders.add(orderID);
+        notifyItemChanged(position);
+        itemsLoader.load(orderID, new OrderItemsLoader.Callback() {
+            @Override
+            public void onItemsLoaded(String loadedID, List<Item> items) {
+                rebind(loadedID);
+            }
 
+            @Override
+            public void onItemsFailed(String failedID, String message) {
+                expandedOrders.remove(failedID); // back to "tap to show items", so a tap retries
+                rebind(failedID);
+                Toast.makeText(context, "Could not load items: " + message, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void rebind(String orderID) {
+        for (int i = 0; i < differ.getCurrentList().size(); i++) {
+            if (orderID.equals(differ.getCurrentList().get(i).getOrderID())) {
+                notifyItemChanged(i);
+                break;
+            }
+        }
+    }
+
+    // Show a new set of orders; only rows that were added, removed or changed are rebound
+    public void submitList(List<OrderSummary> orders) {
+        differ.submitList(new ArrayList<>(orders));
+    }
+
+    // New estimate lines (null drops one); kept for rows not shown yet, rebinds only rows whose line changed
+    public void showEtas(Map<String, String> texts) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> entry : texts.entrySet()) {
+            String text = entry.getValue();
+            String old = text != null ? etaTexts.put(entry.getKey(), text) : etaTexts.remove(entry.getKey());
+            if (text == null ? old != null : !text.equals(old)) changed.add(entry.getKey());
+        }
+        if (changed.isEmpty()) return;
+        List<OrderSummary> current = differ.getCurrentList();
+        for (int i = 0; i < current.size(); i++) {
+            if (changed.contains(current.get(i).getOrderID())) notifyItemChanged(i);
+        }
     }
 
     @Override
     public int getItemCount() {
-        return orderList.size();
+        return differ.getCurrentList().size();
     }
 
     static class HistoryOrderViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,50 @@
+package com.example.pizzamaniaapp;
+
+// A contiguous run of numbered IDs ("e041".."e140") handed out by IdCounters.
+// IDs keep the app's existing format: a one-letter prefix and at least three digits.
+public final class IdBlock {
+
+    public final char prefix; // 'e', 'd' or 'u'
+    public final long start;  // number of the first ID
+    public final int count;
+
+    public IdBlock(char prefix, long start, int count) {
+        this.prefix = prefix;
+        this.start = start;
+        this.count = count;
+    }
+
+    // i-th ID of the block (0-based)
+    public String id(int i) {
+        if (i < 0 || i >= count) throw new IndexOutOfBoundsException("ID " + i + " of a block of " + count);
+        return format(prefix, start + i);
+    }
+
+    // Number after the last ID of the block, i.e. where the counter stands afterwards
+    public long end() {
+        return start + count;
+    }
+
+    public static String format(char prefix, long number) {
+        return prefix + String.format("%03d", number);
+    }
+
+    // Parses "e042" -> 42; -1 if the key is not prefix + digits
+    public static long number(String key, char prefix) {
+        if (key == null || key.length() < 2 || key.charAt(0) != prefix || key.length() > 19) return -1;
+        long number = 0;
+        for (int i = 1; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    // First number above every existing ID (1 for an empty node); seeds a missing counter
+    public static long nextNumber(Iterable<String> keys, char prefix) {
+        long max = 0;
+        for (String key : keys) max = Math.max(max, number(key, prefix));
+        return max + 1;
+    }
+}
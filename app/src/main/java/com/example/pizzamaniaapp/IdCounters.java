@@ -0,0 +1,118 @@
+package com.example.pizzamaniaapp;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hands out employee / deliveryman / user IDs from counters kept under idCounters/
+// ({"employees": 141, "deliverymen": 37, "users": 520} = the next free number of each).
+//
+// reserve() takes a contiguous block of staff IDs and the same number of user IDs in one
+// transaction, so two admins (or an import and a sign-up) can never be given the same IDs, and
+// nobody has to download the whole employees/users node to find a free number. A counter that
+// does not exist yet is seeded once from the highest ID already in its node. Numbers handed out
+// but never written (a cancelled popup) simply stay unused. Callers about to write records under
+// IDs they already have (a CSV import) pass floors, and the counters end up past those too.
+public final class IdCounters {
+
+    public static final String NODE = "idCounters";
+    public static final String USERS = "users";
+
+    public interface Callback {
+        // staff is null when only user IDs were asked for (main thread)
+        void onReserved(IdBlock staff, IdBlock users);
+        void onFailed(String message);
+    }
+
+    private IdCounters() {}
+
+    // count staff IDs from staffNode ("employees" / "deliverymen", prefix 'e' / 'd') plus count user IDs.
+    // Pass staffNode = null to reserve user IDs only.
+    public static void reserve(DatabaseReference root, String staffNode, char staffPrefix, int count, Callback callback) {
+        reserve(root, staffNode, staffPrefix, count, 1, 1, callback);
+    }
+
+    // As above, but the blocks start no lower than staffFloor / userFloor (count may be 0 to only
+    // move the counters up to the floors)
+    public static void reserve(DatabaseReference root, String staffNode, char staffPrefix, int count,
+                               long staffFloor, long userFloor, Callback callback) {
+        DatabaseReference counters = root.child(NODE);
+        counters.get().addOnSuccessListener(snapshot -> {
+            // Counters that are missing get seeded from their node (only ever the first time)
+            List<Query> seeds = new ArrayList<>();
+            boolean seedStaff = staffNode != null && !snapshot.hasChild(staffNode);
+            boolean seedUsers = !snapshot.hasChild(USERS);
+            if (seedStaff) seeds.add(root.child(staffNode));
+            if (seedUsers) seeds.add(root.child(USERS));
+
+            if (seeds.isEmpty()) {
+                take(counters, staffNode, staffPrefix, count, staffFloor, userFloor, callback);
+                return;
+            }
+            ParallelReads.read(new ParallelReads.Callback() {
+                @Override
+                public void onLoaded(DataSnapshot[] snaps) {
+                    long staffSeed = seedStaff ? IdBlock.nextNumber(keys(snaps[0]), staffPrefix) : 1;
+                    long userSeed = seedUsers ? IdBlock.nextNumber(keys(snaps[snaps.length - 1]), 'u') : 1;
+                    take(counters, staffNode, staffPrefix, count, Math.max(staffSeed, staffFloor),
+                            Math.max(userSeed, userFloor), callback);
+                }
+
+                @Override
+                public void onFailed(DatabaseError error) {
+                    callback.onFailed(error.getMessage());
+                }
+            }, seeds.toArray(new Query[0]));
+        }).addOnFailureListener(e -> callback.onFailed(e.getMessage()));
+    }
+
+    private static void take(DatabaseReference counters, String staffNode, char staffPrefix, int count,
+                             long staffFloor, long userFloor, Callback callback) {
+        final long[] starts = new long[2]; // staff, users (from the run that committed)
+        counters.runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData data) {
+                // May run more than once (first against the local cache); the floors only matter
+                // while a counter is missing or still below them
+                if (staffNode != null) {
+                    starts[0] = Math.max(number(data.child(staffNode).getValue()), staffFloor);
+                    data.child(staffNode).setValue(starts[0] + count);
+                }
+                starts[1] = Math.max(number(data.child(USERS).getValue()), userFloor);
+                data.child(USERS).setValue(starts[1] + count);
+                return Transaction.success(data);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot current) {
+                if (error != null) {
+                    callback.onFailed(error.getMessage());
+                } else if (!committed) {
+                    callback.onFailed("Could not reserve IDs, please try again");
+                } else {
+                    callback.onReserved(staffNode == null ? null : new IdBlock(staffPrefix, starts[0], count),
+                            new IdBlock('u', starts[1], count));
+                }
+            }
+        });
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 1;
+    }
+
+    private static List<String> keys(DataSnapshot snapshot) {
+        List<String> keys = new ArrayList<>((int) snapshot.getChildrenCount());
+        for (DataSnapshot child : snapshot.getChildren()) keys.add(child.getKey());
+        return keys;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Decides which of a rider's GPS fixes are worth keeping, how often to ask for the next one and
+// when to write what was kept (RiderLocationPublisher does the asking and writing).
+//
+//   filter   fixes less accurate than MAX_ACCURACY_M, out of order, or implying an impossible jump
+//            (faster than MAX_SPEED_MPS beyond their accuracy) are dropped. A fix JUMP_M further
+//            than the current speed explains is held until the next fix confirms it (lands nearer
+//            to it than to the last one): with fixes 30 s apart a multipath jump can look like
+//            plausible speed.
+//   stopped  the rider has stayed within STOP_RADIUS_M for STOP_AFTER_MS (at a door, at a light)
+//   sample   every 5 s when riding fast, 10 s when slow, 30 s when stopped
+//   batch    kept fixes collect into a trail and are written together: every WRITE_GAP_MS while
+//            moving, every STOPPED_WRITE_GAP_MS while stopped, or as soon as the rider stops or
+//            starts. Never two writes within WRITE_GAP_MS, so at most 4 writes a minute.
+//   idle     a free rider with nothing on board (idle(true)): dispatch only needs roughly where they
+//            are, so one fix every IDLE_INTERVAL_MS, coarser fixes accepted (IDLE_MAX_ACCURACY_M),
+//            no trail, and one write per IDLE_WRITE_GAP_MS at most.
+//
+// Plain Java with explicit timestamps, so recorded traces can be replayed in tests.
+public final class LocationSampler {
+
+    public static final double MAX_ACCURACY_M = 50;
+    public static final double MAX_SPEED_MPS = 40;          // ~145 km/h
+    public static final double STOP_RADIUS_M = 30;
+    public static final long STOP_AFTER_MS = 60_000;
+    public static final double JUMP_M = 150;                // further than this needs a second fix to agree
+    public static final double MIN_STEP_M = 10;             // trail points closer than this add nothing
+    public static final double FAST_MPS = 8;                // ~30 km/h
+
+    public static final long FAST_INTERVAL_MS = 5_000;
+    public static final long SLOW_INTERVAL_MS = 10_000;
+    public static final long STOPPED_INTERVAL_MS = 30_000;
+
+    public static final long WRITE_GAP_MS = 15_000;
+    public static final long STOPPED_WRITE_GAP_MS = 60_000;
+    public static final int MAX_TRAIL = 20;
+
+    public static final long IDLE_INTERVAL_MS = 120_000;
+    public static final long IDLE_WRITE_GAP_MS = 120_000;
+    public static final double IDLE_MAX_ACCURACY_M = 200;   // wifi / cell fixes are good enough for dispatch
+
+    public static final class Fix {
+        public final double lat, lng;
+        public final float accuracy; // metres
+        public final long time;      // ms
+
+        public Fix(double lat, double lng, float accuracy, long time) {
+            this.lat = lat;
+            this.lng = lng;
+            this.accuracy = accuracy;
+            this.time = time;
+        }
+    }
+
+    // One write: where the rider is now plus the trail since the last write
+    public static final class Batch {
+        public final Fix latest;
+        public final boolean moving;
+        public final List<Fix> trail;
+
+        Batch(Fix latest, boolean moving, List<Fix> trail) {
+            this.latest = latest;
+            this.moving = moving;
+            this.trail = Collections.unmodifiableList(trail);
+        }
+    }
+
+    private Fix last;            // last accepted fix
+    private Fix suspect;         // a jump waiting for the next fix to confirm it
+    private Fix anchor;          // where the rider was when they last left STOP_RADIUS_M
+    private double speed;        // smoothed, m/s
+    private boolean moving = true;
+    private boolean stateChanged;
+    private boolean idle;
+    private long lastWrite = Long.MIN_VALUE / 2;
+    private Fix lastWritten;
+    private final List<Fix> trail = new ArrayList<>();
+
+    // Feeds one fix; returns what to write now, or null
+    public Batch offer(Fix fix) {
+        if (!plausible(fix)) return null;
+        boolean confirmed = false;
+        if (suspect != null) {
+            Fix held = suspect;
+            suspect = null;
+            confirmed = fix.time > held.time && meters(held, fix) < meters(last, fix);
+            if (confirmed) absorb(held);
+        }
+        if (!confirmed && isJump(fix)) {
+            suspect = fix;
+        } else {
+            absorb(fix);
+        }
+        return last != null && due(last.time) ? batch() : null;
+    }
+
+    // Takes an accepted fix into the speed, stop and trail state
+    private void absorb(Fix fix) {
+        if (last != null) {
+            double seconds = (fix.time - last.time) / 1000.0;
+            double step = meters(last, fix);
+            speed = seconds > 0 ? 0.5 * speed + 0.5 * (step / seconds) : speed;
+        }
+        last = fix;
+
+        // Stop detection: leaving the radius restarts the clock
+        if (anchor == null || meters(anchor, fix) > STOP_RADIUS_M) {
+            anchor = fix;
+            setMoving(true);
+        } else if (fix.time - anchor.time >= STOP_AFTER_MS) {
+            setMoving(false);
+            speed = 0;
+        }
+
+        if (!idle && (moving || stateChanged)) {
+            Fix previous = trail.isEmpty() ? lastWritten : trail.get(trail.size() - 1);
+            if (previous == null || meters(previous, fix) >= MIN_STEP_M) {
+                trail.add(fix);
+            }
+        }
+    }
+
+    // What is left unwritten (when publishing stops), regardless of the write gap; null if nothing
+    public Batch flush() {
+        return last != null && last != lastWritten ? batch() : null;
+    }
+
+    // Fixes kept since the last write (not handed out yet)
+    public List<Fix> unwritten() {
+        return new ArrayList<>(trail);
+    }
+
+    // Nothing on board: sample and write only as often as dispatch needs (see the header)
+    public void idle(boolean idle) {
+        if (this.idle && !idle) stateChanged = true; // an order came on board: write the next fix at once
+        this.idle = idle;
+    }
+
+    public boolean idle() {
+        return idle;
+    }
+
+    // How often fixes are wanted right now
+    public long intervalMs() {
+        if (idle) return IDLE_INTERVAL_MS;
+        if (!moving) return STOPPED_INTERVAL_MS;
+        return speed >= FAST_MPS ? FAST_INTERVAL_MS : SLOW_INTERVAL_MS;
+    }
+
+    public boolean moving() {
+        return moving;
+    }
+
+    // ---------------------------------------------------------------------
+
+    private boolean plausible(Fix fix) {
+        if (fix.accuracy > (idle ? IDLE_MAX_ACCURACY_M : MAX_ACCURACY_M)) return false;
+        if (last == null) return true;
+        if (fix.time <= last.time) return false;
+        double seconds = (fix.time - last.time) / 1000.0;
+        return (meters(last, fix) - fix.accuracy - last.accuracy) / seconds <= MAX_SPEED_MPS;
+    }
+
+    // Further from the last fix than accuracy and the current speed explain
+    private boolean isJump(Fix fix) {
+        if (last == null) return false;
+        double expected = speed * (fix.time - last.time) / 1000.0;
+        return meters(last, fix) - fix.accuracy - last.accuracy - expected > JUMP_M;
+    }
+
+    private static double meters(Fix a, Fix b) {
+        return DispatchSolver.meters(a.lat, a.lng, b.lat, b.lng);
+    }
+
+    private void setMoving(boolean now) {
+        if (moving != now) stateChanged = true;
+        moving = now;
+    }
+
+    private boolean due(long now) {
+        long sinceWrite = now - lastWrite;
+        if (sinceWrite < WRITE_GAP_MS) return false;  // hard floor on the write rate
+        if (idle) return sinceWrite >= IDLE_WRITE_GAP_MS && last != lastWritten;
+        if (stateChanged || trail.size() >= MAX_TRAIL) return true;
+        return sinceWrite >= (moving ? WRITE_GAP_MS : STOPPED_WRITE_GAP_MS) && last != lastWritten;
+    }
+
+    private Batch batch() {
+        Batch batch = new Batch(last, moving, new ArrayList<>(trail));
+        trail.clear();
+        stateChanged = false;
+        lastWrite = last.time;
+        lastWritten = last;
+        return batch;
+    }
+}
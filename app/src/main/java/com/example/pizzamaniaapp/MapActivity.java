@@ -1,13 +1,17 @@
 package com.example.pizzamaniaapp;
 
 import android.Manifest;
+import android.animation.ValueAnimator;
 import android.content.Intent;
 import android.content.IntentSender;
 import android.content.pm.PackageManager;
+import android.graphics.Color;
 import android.location.Location;
 import android.net.Uri;
 import android.os.Bundle;
 import android.util.Log;
+import android.view.View;
+import android.view.animation.LinearInterpolator;
 import android.widget.ImageButton;
 import android.widget.Toast;
 
@@ -17,7 +21,9 @@ import androidx.core.app.ActivityCompat;
 
 import com.google.android.gms.common.api.ResolvableApiException;
 import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
 import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.gms.location.LocationSettingsRequest;
 import com.google.android.gms.location.LocationSettingsResponse;
@@ -29,20 +35,82 @@ import com.google.android.gms.maps.SupportMapFragment;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.Polyline;
+import com.google.android.gms.maps.model.PolylineOptions;
 import com.google.android.gms.tasks.Task;
 import com.google.android.material.button.MaterialButton;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
 
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Shows where to deliver: either one customer ("lat"/"lng" extras) or a rider's batch of orders
+// (the EXTRA_STOP_* arrays), which is drawn as a numbered route in the order RoutePlanner picks
+// from the rider's first location fix.
+//
+// With EXTRA_TRACE it shows a delivery's recorded route instead (see TraceCodec), without tracking.
+// With EXTRA_FOLLOW_RIDER it is the customer's view of an order on its way: the rider marker
+// follows riderLocations/{riderID} (what RiderLocationPublisher writes while they carry orders)
+// instead of this phone's GPS, so no location permission is asked for.
+//
+// Markers and the route line are added once and then moved: the rider marker glides to each new
+// fix, and the camera only follows when the framed area no longer fits. Location updates are
+// registered between onStart and onStop.
 public class MapActivity extends AppCompatActivity implements OnMapReadyCallback {
 
+    public static final String EXTRA_STOP_IDS = "stopIDs";
+    public static final String EXTRA_STOP_LABELS = "stopLabels";
+    public static final String EXTRA_STOP_LATS = "stopLats";
+    public static final String EXTRA_STOP_LNGS = "stopLngs";
+    public static final String EXTRA_TRACE = "trace"; // TraceCodec text: show a ridden route instead
+    public static final String EXTRA_FOLLOW_RIDER = "followRider"; // riderID: follow their published position
+
     private static final int LOCATION_PERMISSION_REQUEST = 1001;
     private static final int GPS_ENABLE_REQUEST = 1002;
     private static final String TAG = "MapActivity";
+    private static final long RIDER_ANIMATION_MS = 1000;  // Marker glide between fixes
+    private static final double CAMERA_SLACK = 0.25;      // Framed area extends this share of its span on each side
+    private static final double MIN_SPAN_DEG = 0.002;     // ~200 m, so a lone customer isn't framed at street level
 
     private GoogleMap mMap;
     private FusedLocationProviderClient fusedLocationClient;
     private double customerLat, customerLng;
+    private List<RoutePlanner.Stop> stops;        // Drops to make (a single customer outside batch mode)
+    private List<RoutePlanner.Stop> route;        // Visiting order, planned at the first location fix
+    private boolean batchMode;
+    private List<TraceCodec.Point> trace;         // Recorded route (history), null when live
     private boolean gpsPromptShown = false;
+    private String followedRiderID;               // Customer view: whose position to follow, else null
+    private DatabaseReference followedRef;        // riderLocations/{followedRiderID}
+    private ValueEventListener followListener;    // Registered between onStart and onStop
+
+    private final Map<RoutePlanner.Stop, Marker> stopMarkers = new HashMap<>(); // Created once, retitled when the route is planned
+    private Marker riderMarker;                   // Moved on each fix, never re-added
+    private Polyline routeLine;                   // Batch mode only
+    private ValueAnimator riderAnimator;          // Glides the rider marker between fixes
+    private LatLngBounds framed;                  // What the camera was last zoomed to (padded)
+    private LatLngBounds framedFor;               // The markers' bounds it was padded from
+    private boolean tracking = false;             // Location updates wanted (GPS is on, permission granted)
+    private boolean updatesRequested = false;     // Callback currently registered
+
+    private final LocationCallback locationCallback = new LocationCallback() {
+        @Override
+        public void onLocationResult(@NonNull LocationResult result) {
+            Location location = result.getLastLocation();
+            if (location != null && mMap != null) onLocation(location);
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,6 +121,26 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
         customerLat = getIntent().getDoubleExtra("lat", 0);
         customerLng = getIntent().getDoubleExtra("lng", 0);
         Log.d(TAG, "Received customer coordinates: lat=" + customerLat + ", lng=" + customerLng);
+        stops = stopsFromIntent(getIntent());
+        batchMode = stops.size() > 1;
+        if (!stops.isEmpty()) {
+            customerLat = stops.get(0).lat; // fallback camera position
+            customerLng = stops.get(0).lng;
+        } else {
+            stops.add(new RoutePlanner.Stop(null, "Customer", customerLat, customerLng));
+        }
+
+        String encodedTrace = getIntent().getStringExtra(EXTRA_TRACE);
+        if (encodedTrace != null) {
+            try {
+                trace = TraceCodec.decode(encodedTrace);
+            } catch (IllegalArgumentException e) {
+                Log.e(TAG, "Unreadable trace: " + e.getMessage());
+                trace = new ArrayList<>();
+            }
+        }
+
+        followedRiderID = getIntent().getStringExtra(EXTRA_FOLLOW_RIDER);
 
         fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
 
@@ -72,7 +160,13 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
         });
 
         MaterialButton goToMapButton = findViewById(R.id.goToMapButton);
+        if (trace != null || followedRiderID != null) goToMapButton.setVisibility(View.GONE); // nothing to navigate to
         goToMapButton.setOnClickListener(v -> {
+            if (batchMode) {
+                // Google Maps directions through every drop in route order
+                startActivity(new Intent(Intent.ACTION_VIEW, directionsUri(route != null ? route : stops)));
+                return;
+            }
             // Launch Google Maps navigation to customer
             Uri gmmIntentUri = Uri.parse("google.navigation:q=" + customerLat + "," + customerLng);
             Intent mapIntent = new Intent(Intent.ACTION_VIEW, gmmIntentUri);
@@ -87,6 +181,18 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
         mMap = googleMap;
         mMap.getUiSettings().setZoomControlsEnabled(true);
 
+        if (trace != null) {
+            showTrace(); // no location needed to look at the past
+            return;
+        }
+        if (followedRiderID != null) {
+            addStopMarkers();
+            route = stops;
+            mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(new LatLng(customerLat, customerLng), 15f));
+            followRider(); // the rider's position comes from the database, not this phone
+            return;
+        }
+
         if (ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
                 != PackageManager.PERMISSION_GRANTED) {
             Log.w(TAG, "Location permission not granted, requesting...");
@@ -134,15 +240,29 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
     }
 
     private void showMarkers() {
-        LatLng customer = new LatLng(customerLat, customerLng);
+        // Customer marker(s) (RED), numbered once the route is planned
+        if (stopMarkers.isEmpty()) addStopMarkers();
+        tracking = true;
+        startLocationUpdates();
+    }
 
-        // Customer marker (RED)
-        mMap.addMarker(new MarkerOptions()
-                        .position(customer)
-                        .title("Customer")
-                        .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_RED)))
-                .showInfoWindow(); // show label
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (tracking) startLocationUpdates(); // back from the background
+        if (followedRiderID != null && mMap != null) followRider();
+    }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        stopLocationUpdates(); // the callback would otherwise outlive the activity
+        unfollowRider();
+        if (riderAnimator != null) riderAnimator.cancel();
+    }
+
+    private void startLocationUpdates() {
+        if (updatesRequested) return;
         if (ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
                 != PackageManager.PERMISSION_GRANTED &&
                 ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_COARSE_LOCATION)
@@ -155,37 +275,212 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
                 .setInterval(5000)
                 .setFastestInterval(2000);
 
-        fusedLocationClient.requestLocationUpdates(locationRequest, new com.google.android.gms.location.LocationCallback() {
+        fusedLocationClient.requestLocationUpdates(locationRequest, locationCallback, getMainLooper());
+        updatesRequested = true;
+    }
+
+    private void stopLocationUpdates() {
+        if (!updatesRequested) return;
+        fusedLocationClient.removeLocationUpdates(locationCallback);
+        updatesRequested = false;
+    }
+
+    private void followRider() {
+        if (followListener != null) return;
+        followedRef = FirebaseDatabase.getInstance().getReference(DispatchEngine.RIDER_LOCATIONS).child(followedRiderID);
+        followListener = new ValueEventListener() {
             @Override
-            public void onLocationResult(@NonNull com.google.android.gms.location.LocationResult result) {
-                Location location = result.getLastLocation();
-                if (location != null) {
-                    mMap.clear(); // clear previous markers
-
-                    // Customer marker
-                    mMap.addMarker(new MarkerOptions()
-                                    .position(customer)
-                                    .title("Customer")
-                                    .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_RED)))
-                            .showInfoWindow();
-
-                    // Deliveryman marker (BLUE)
-                    LatLng deliveryman = new LatLng(location.getLatitude(), location.getLongitude());
-                    mMap.addMarker(new MarkerOptions()
-                                    .position(deliveryman)
-                                    .title("You")
-                                    .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_BLUE)))
-                            .showInfoWindow();
-
-                    // Zoom to include both
-                    LatLngBounds.Builder builder = new LatLngBounds.Builder();
-                    builder.include(customer);
-                    builder.include(deliveryman);
-                    LatLngBounds bounds = builder.build();
-                    mMap.animateCamera(CameraUpdateFactory.newLatLngBounds(bounds, 150));
-                }
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Map<String, Object> location = WireFormat.asMap(snapshot.getValue());
+                Object lat = location.get(DispatchEngine.LAT), lng = location.get(DispatchEngine.LNG);
+                if (!(lat instanceof Number) || !(lng instanceof Number) || mMap == null) return;
+                showRider(new LatLng(((Number) lat).doubleValue(), ((Number) lng).doubleValue()));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Rider position unavailable: " + error.getMessage());
+            }
+        };
+        followedRef.addValueEventListener(followListener);
+    }
+
+    private void unfollowRider() {
+        if (followListener == null) return;
+        followedRef.removeEventListener(followListener);
+        followListener = null;
+    }
+
+    // Moves what is already on the map; markers and the route line are only created on the first fix
+    private void onLocation(Location location) {
+        LatLng deliveryman = new LatLng(location.getLatitude(), location.getLongitude());
+
+        // Plan the visiting order once, from the first fix (it shouldn't reshuffle on the way)
+        if (route == null) {
+            route = RoutePlanner.plan(location.getLatitude(), location.getLongitude(), stops);
+            Log.d(TAG, "Planned route over " + route.size() + " stop(s): "
+                    + Math.round(RoutePlanner.length(location.getLatitude(), location.getLongitude(), route)) + " m");
+            numberStopMarkers();
+        }
+        showRider(deliveryman);
+    }
+
+    private void showRider(LatLng deliveryman) {
+        // Deliveryman marker (BLUE), glides to each new fix
+        if (riderMarker == null) {
+            riderMarker = mMap.addMarker(new MarkerOptions()
+                    .position(deliveryman)
+                    .title(followedRiderID != null ? "Your rider" : "You")
+                    .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_BLUE)));
+            if (batchMode) {
+                // Route line: you -> 1 -> 2 -> ...
+                routeLine = mMap.addPolyline(new PolylineOptions().color(Color.BLACK).width(8f));
             }
-        }, getMainLooper());
+            moveRider(deliveryman);
+        } else {
+            animateRider(deliveryman);
+        }
+
+        frameCamera(deliveryman);
+    }
+
+    private void animateRider(LatLng to) {
+        if (riderAnimator != null) riderAnimator.cancel(); // start from wherever the marker is now
+        LatLng from = riderMarker.getPosition();
+        riderAnimator = ValueAnimator.ofFloat(0f, 1f);
+        riderAnimator.setDuration(RIDER_ANIMATION_MS);
+        riderAnimator.setInterpolator(new LinearInterpolator());
+        riderAnimator.addUpdateListener(animation -> {
+            float f = animation.getAnimatedFraction();
+            moveRider(new LatLng(from.latitude + (to.latitude - from.latitude) * f,
+                    from.longitude + (to.longitude - from.longitude) * f));
+        });
+        riderAnimator.start();
+    }
+
+    private void moveRider(LatLng position) {
+        if (riderMarker != null) riderMarker.setPosition(position);
+        if (routeLine != null) {
+            List<LatLng> points = new ArrayList<>(route.size() + 1);
+            points.add(position);
+            for (RoutePlanner.Stop stop : route) points.add(new LatLng(stop.lat, stop.lng));
+            routeLine.setPoints(points);
+        }
+    }
+
+    // Zooms to include everyone, but only when that view changes materially: someone left the
+    // framed area, or everything now fits in less than half of it
+    private void frameCamera(LatLng deliveryman) {
+        LatLngBounds.Builder builder = new LatLngBounds.Builder();
+        for (RoutePlanner.Stop stop : route) builder.include(new LatLng(stop.lat, stop.lng));
+        builder.include(deliveryman);
+        LatLngBounds wanted = builder.build();
+
+        boolean escaped = framed == null || !framed.contains(wanted.northeast) || !framed.contains(wanted.southwest);
+        // Unpadded against unpadded, both clamped to MIN_SPAN_DEG: markers bunched closer than that
+        // are framed the same however close they get, so that alone never reframes
+        boolean shrank = framedFor != null
+                && latSpan(wanted) < latSpan(framedFor) / 2 && lngSpan(wanted) < lngSpan(framedFor) / 2;
+        if (!escaped && !shrank) return;
+
+        // Frame with some slack so the next few fixes stay inside without moving the camera
+        LatLng ne = wanted.northeast, sw = wanted.southwest;
+        double padLat = latSpan(wanted) * CAMERA_SLACK;
+        double padLng = lngSpan(wanted) * CAMERA_SLACK;
+        framedFor = wanted;
+        framed = new LatLngBounds(new LatLng(sw.latitude - padLat, sw.longitude - padLng),
+                new LatLng(ne.latitude + padLat, ne.longitude + padLng));
+        mMap.animateCamera(CameraUpdateFactory.newLatLngBounds(framed, 150));
+    }
+
+    // Spans are at least MIN_SPAN_DEG, so a lone marker still gets a street or two around it
+    private static double latSpan(LatLngBounds bounds) {
+        return Math.max(bounds.northeast.latitude - bounds.southwest.latitude, MIN_SPAN_DEG);
+    }
+
+    private static double lngSpan(LatLngBounds bounds) {
+        return Math.max(bounds.northeast.longitude - bounds.southwest.longitude, MIN_SPAN_DEG);
+    }
+
+    // The recorded route: a line from pickup to drop, with the times at either end
+    private void showTrace() {
+        if (trace.size() < 2) {
+            Toast.makeText(this, "No route recorded for this delivery", Toast.LENGTH_SHORT).show();
+            mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(new LatLng(customerLat, customerLng), 15f));
+            return;
+        }
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm", Locale.getDefault());
+        PolylineOptions line = new PolylineOptions().color(Color.BLUE).width(10f);
+        LatLngBounds.Builder bounds = new LatLngBounds.Builder();
+        for (TraceCodec.Point point : trace) {
+            LatLng position = new LatLng(point.lat, point.lng);
+            line.add(position);
+            bounds.include(position);
+        }
+        mMap.addPolyline(line);
+
+        TraceCodec.Point first = trace.get(0), last = trace.get(trace.size() - 1);
+        mMap.addMarker(new MarkerOptions()
+                .position(new LatLng(first.lat, first.lng))
+                .title("Picked up " + time.format(new Date(first.time)))
+                .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_GREEN)));
+        Marker end = mMap.addMarker(new MarkerOptions()
+                .position(new LatLng(last.lat, last.lng))
+                .title("Delivered " + time.format(new Date(last.time)))
+                .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_RED)));
+        if (end != null) end.showInfoWindow();
+
+        Log.d(TAG, "Showing recorded route of " + trace.size() + " points");
+        LatLngBounds framedTrace = bounds.build();
+        mMap.setOnMapLoadedCallback(() -> mMap.moveCamera(CameraUpdateFactory.newLatLngBounds(framedTrace, 150)));
+    }
+
+    private void addStopMarkers() {
+        for (RoutePlanner.Stop stop : stops) {
+            Marker marker = mMap.addMarker(new MarkerOptions()
+                    .position(new LatLng(stop.lat, stop.lng))
+                    .title(batchMode ? stop.label : followedRiderID != null ? "Delivery address" : "Customer")
+                    .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_RED)));
+            if (marker != null) stopMarkers.put(stop, marker);
+        }
+    }
+
+    // Titles the drops 1, 2, ... in route order and shows the label of the next one
+    private void numberStopMarkers() {
+        for (int i = 0; i < route.size(); i++) {
+            Marker marker = stopMarkers.get(route.get(i));
+            if (marker == null) continue;
+            if (batchMode) marker.setTitle((i + 1) + ". " + route.get(i).label);
+            if (i == 0) marker.showInfoWindow();
+        }
+    }
+
+    private static List<RoutePlanner.Stop> stopsFromIntent(Intent intent) {
+        List<RoutePlanner.Stop> stops = new ArrayList<>();
+        double[] lats = intent.getDoubleArrayExtra(EXTRA_STOP_LATS);
+        double[] lngs = intent.getDoubleArrayExtra(EXTRA_STOP_LNGS);
+        String[] ids = intent.getStringArrayExtra(EXTRA_STOP_IDS);
+        String[] labels = intent.getStringArrayExtra(EXTRA_STOP_LABELS);
+        if (lats == null || lngs == null || lats.length != lngs.length) return stops;
+        for (int i = 0; i < lats.length; i++) {
+            String id = ids != null && i < ids.length ? ids[i] : null;
+            String label = labels != null && i < labels.length && labels[i] != null ? labels[i] : "Customer";
+            stops.add(new RoutePlanner.Stop(id, label, lats[i], lngs[i]));
+        }
+        return stops;
+    }
+
+    // Directions to the last drop with the others as waypoints, in visiting order
+    private static Uri directionsUri(List<RoutePlanner.Stop> ordered) {
+        RoutePlanner.Stop last = ordered.get(ordered.size() - 1);
+        StringBuilder waypoints = new StringBuilder();
+        for (int i = 0; i < ordered.size() - 1; i++) {
+            if (i > 0) waypoints.append('|');
+            waypoints.append(ordered.get(i).lat).append(',').append(ordered.get(i).lng);
+        }
+        return Uri.parse("https://www.google.com/maps/dir/?api=1&travelmode=driving"
+                + "&destination=" + last.lat + "," + last.lng
+                + "&waypoints=" + Uri.encode(waypoints.toString()));
     }
 
     @Override
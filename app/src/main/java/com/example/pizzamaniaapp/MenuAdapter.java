@@ -8,6 +8,7 @@ import android.widget.ImageView; // UI component for displaying images
 import android.widget.TextView; // UI component for displaying text
 
 import androidx.annotation.NonNull; // Marks parameters/returns as non-null
+import androidx.recyclerview.widget.AsyncListDiffer; // Diffs list updates on a background thread
 import androidx.recyclerview.widget.RecyclerView; // RecyclerView for efficient lists
 
 import com.bumptech.glide.Glide; // Library for loading images from URLs
@@ -17,9 +18,12 @@ import java.util.List; // Collection type for ordered lists
 // 🔹 Adapter for displaying individual menu items (inside a branch row)
 public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.MenuViewHolder> {
 
-    private final List<AdminHomeActivity.MenuItem> menuList; // List of menu items
+    private final AsyncListDiffer<AdminHomeActivity.MenuItem> differ =
+            new AsyncListDiffer<>(this, DiffCallbacks.ADMIN_MENU_ITEM); // Menu items on screen (diffed by menuID)
     private final OnEditClickListener editListener; // Callback for edit button
     private final OnDeleteClickListener deleteListener; // Callback for delete button
+    private final OnSoldOutToggleListener soldOutListener; // Callback for long-press (sold out toggle)
+    private int branchOrdinal = -1; // Branch this row shows (BranchSet ordinal), for the sold-out state
 
     // 🔹 Interface for edit action
     public interface OnEditClickListener {
@@ -31,13 +35,20 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.MenuViewHolder
         void onDeleteClick(AdminHomeActivity.MenuItem item); // Called when delete is clicked
     }
 
+    // 🔹 Interface for toggling "sold out" at the row's branch
+    public interface OnSoldOutToggleListener {
+        void onSoldOutToggle(AdminHomeActivity.MenuItem item); // Called when a menu card is long-pressed
+    }
+
     // 🔹 Constructor accepts list and callbacks
     public MenuAdapter(List<AdminHomeActivity.MenuItem> menuList,
                        OnEditClickListener editListener,
-                       OnDeleteClickListener deleteListener) {
-        this.menuList = menuList; // Assign menu list
+                       OnDeleteClickListener deleteListener,
+                       OnSoldOutToggleListener soldOutListener) {
+        differ.submitList(menuList); // Assign menu list
         this.editListener = editListener; // Assign edit callback
         this.deleteListener = deleteListener; // Assign delete callback
+        this.soldOutListener = soldOutListener; // Assign sold-out callback
     }
 
     @NonNull
@@ -46,13 +57,34 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.MenuViewHolder
         // Inflate layout for each menu item
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.menu_item_layout, parent, false);
-        return new MenuViewHolder(view); // Return holder
+        MenuViewHolder holder = new MenuViewHolder(view); // Create holder
+
+        // Click listeners are wired once per holder and look up the item at click time
+        holder.editBtn.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (editListener != null && position != RecyclerView.NO_POSITION) {
+                editListener.onEditClick(differ.getCurrentList().get(position));
+            }
+        });
+        holder.deleteBtn.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (deleteListener != null && position != RecyclerView.NO_POSITION) {
+                deleteListener.onDeleteClick(differ.getCurrentList().get(position));
+            }
+        });
+        holder.itemView.setOnLongClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (soldOutListener == null || position == RecyclerView.NO_POSITION) return false;
+            soldOutListener.onSoldOutToggle(differ.getCurrentList().get(position));
+            return true; // ✅ long-press handled
+        });
+        return holder; // Return holder
     }
 
     @Override
     public void onBindViewHolder(@NonNull MenuViewHolder holder, int position) {
         // Get the current menu item
-        AdminHomeActivity.MenuItem item = menuList.get(position);
+        AdminHomeActivity.MenuItem item = differ.getCurrentList().get(position);
 
         // Set name and price
         holder.name.setText(item.name);
@@ -64,24 +96,23 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.MenuViewHolder
                 .placeholder(R.drawable.sample_pizza)
                 .into(holder.image);
 
-        // Handle edit button click
-        holder.editBtn.setOnClickListener(v -> {
-            if (editListener != null) {
-                editListener.onEditClick(item);
-            }
-        });
-
-        // Handle delete button click
-        holder.deleteBtn.setOnClickListener(v -> {
-            if (deleteListener != null) {
-                deleteListener.onDeleteClick(item);
-            }
-        });
+        // Dim cards that are sold out at this branch
+        holder.itemView.setAlpha(item.soldOutAt.contains(branchOrdinal) ? 0.4f : 1f);
     }
 
     @Override
     public int getItemCount() {
-        return menuList.size(); // Return total number of menu items
+        return differ.getCurrentList().size(); // Return total number of menu items
+    }
+
+    // 🔹 Swap in another branch's menus (the adapter is reused when its branch row is recycled)
+    public void setItems(List<AdminHomeActivity.MenuItem> items, int branchOrdinal) {
+        if (branchOrdinal != this.branchOrdinal) {
+            // Row now shows a different branch: replace outright, diffing unrelated lists is wasted work
+            this.branchOrdinal = branchOrdinal;
+            differ.submitList(null);
+        }
+        differ.submitList(items); // Same branch reloaded: only changed cards rebind
     }
 
     // 🔹 ViewHolder class holds UI components for each menu item
@@ -0,0 +1,298 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bulk price / availability edits over a selection of menu items. The selection is whatever the
+// admin search currently matches, so cat:, branch:, price: and free text all select.
+//
+// A Plan keeps only the items that actually change, each with a readable before/after for the
+// preview and the exact paths it writes under menu/{id}:
+//   price rule          -> price
+//   add / remove branch -> branches + ab (+ the branch's so word when it was sold out there)
+//   sold out / in stock -> the branch's so/{word}, the same word toggleSoldOut() transacts on
+// Nothing else in the record is rewritten. There is no separate per-branch menu node: the
+// branches list and the ab/so bitsets inside each record are the per-branch projection, so an
+// item's list and bitsets always travel in the same update.
+//
+// The plan is built from the catalog the admin screen loaded, which can be stale by the time the
+// admin confirms. So MenuImport.apply() reads each chunk's records again and rebase()s every change
+// onto the record as it is then: a branch another admin added meanwhile stays in the list, and an
+// item that no longer needs the edit is left alone. Prices are the exception: the rule is worked
+// out once, on the prices the preview shows, and rebase() writes those absolute prices (or skips
+// an item whose price has moved since). Every rebase is therefore idempotent, so applying a plan
+// again after a failed chunk never raises a price twice. chunks() splits a plan into groups of at
+// most maxPaths paths (never splitting an item), each written as one atomic multi-path update.
+public final class MenuBulkEdit {
+
+    public static final int CHUNK_PATHS = 300; // paths per multi-path update
+
+    private MenuBulkEdit() {}
+
+    // "+10%", "-5%" (percent), "+100", "-50" (amount), "=1500" or "1500" (new price).
+    // Results are rounded to cents.
+    public static final class PriceRule {
+        private final char kind; // '%', '+' or '='
+        private final double value;
+
+        private PriceRule(char kind, double value) {
+            this.kind = kind;
+            this.value = value;
+        }
+
+        // IllegalArgumentException with a message fit for a toast when the rule can't be read
+        public static PriceRule parse(String input) {
+            String rule = input == null ? "" : input.replace(" ", "");
+            if (rule.isEmpty()) throw new IllegalArgumentException("Enter a price rule, e.g. +10% or =1500");
+            try {
+                if (rule.endsWith("%")) {
+                    char sign = rule.charAt(0);
+                    if (sign != '+' && sign != '-') throw new IllegalArgumentException("Write percentages as +10% or -10%");
+                    double percent = Double.parseDouble(rule.substring(0, rule.length() - 1));
+                    if (percent <= -100) throw new IllegalArgumentException("A price can't drop by 100% or more");
+                    return checked(new PriceRule('%', percent));
+                }
+                if (rule.startsWith("+") || rule.startsWith("-")) return checked(new PriceRule('+', Double.parseDouble(rule)));
+                double price = Double.parseDouble(rule.startsWith("=") ? rule.substring(1) : rule);
+                if (!(price > 0)) throw new IllegalArgumentException("The new price must be above 0");
+                return checked(new PriceRule('=', price));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid price rule " + input);
+            }
+        }
+
+        private static PriceRule checked(PriceRule rule) {
+            if (Double.isNaN(rule.value) || Double.isInfinite(rule.value)) throw new IllegalArgumentException("Invalid price rule");
+            return rule;
+        }
+
+        public double apply(double price) {
+            double result;
+            if (kind == '%') result = price * (1 + value / 100);
+            else if (kind == '+') result = price + value;
+            else result = value;
+            return Math.round(result * 100) / 100.0;
+        }
+
+        @Override
+        public String toString() {
+            String amount = MenuCsv.formatPrice(Math.abs(value));
+            if (kind == '%') return (value < 0 ? "-" : "+") + amount + "%";
+            if (kind == '+') return (value < 0 ? "-" : "+") + amount;
+            return "=" + amount;
+        }
+    }
+
+    // What one operation does to one item: the change, or null (plus a reason in skipped, when
+    // given) if the item is left alone
+    interface Step {
+        Change apply(AdminHomeActivity.MenuItem item, List<String> skipped);
+    }
+
+    // One item's edit
+    public static final class Change {
+        public final AdminHomeActivity.MenuItem item;
+        public final String field, before, after;
+        final Map<String, Object> fields = new LinkedHashMap<>(); // under menu/{id}
+
+        Change(AdminHomeActivity.MenuItem item, String field, String before, String after) {
+            this.item = item;
+            this.field = field;
+            this.before = before;
+            this.after = after;
+        }
+
+        // Paths from the database root
+        public Map<String, Object> paths() {
+            Map<String, Object> paths = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> field : fields.entrySet()) {
+                paths.put("menu/" + item.menuID + "/" + field.getKey(), field.getValue());
+            }
+            return Collections.unmodifiableMap(paths);
+        }
+
+        // Paths under menu/{id}, for the item's transaction
+        public Map<String, Object> fields() {
+            return Collections.unmodifiableMap(fields);
+        }
+
+        private Change put(String field, Object value) {
+            fields.put(field, value);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return item.menuID + " " + item.name + ": " + field + " " + before + " → " + after;
+        }
+    }
+
+    // The changes one bulk operation makes, plus the selected items it left alone and why
+    public static final class Plan {
+        public final String title;
+        private final Step step;
+        private final List<Change> changes = new ArrayList<>();
+        private final List<String> skipped = new ArrayList<>();
+
+        Plan(String title, Step step, List<AdminHomeActivity.MenuItem> items) {
+            this.title = title;
+            this.step = step;
+            for (AdminHomeActivity.MenuItem item : items) {
+                Change change = step.apply(item, skipped);
+                if (change != null) changes.add(change);
+            }
+        }
+
+        public List<Change> changes() {
+            return Collections.unmodifiableList(changes);
+        }
+
+        public List<String> skipped() {
+            return Collections.unmodifiableList(skipped);
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+
+        public int size() {
+            return changes.size();
+        }
+
+        // The same edit worked out again on the item as it is in the database now (null when it no
+        // longer changes anything). Pure, so it can run inside a transaction.
+        public Change rebase(AdminHomeActivity.MenuItem current) {
+            return current == null ? null : step.apply(current, null);
+        }
+
+        // The first limit changes and skips, one per line, for the confirmation dialog
+        public String preview(int limit) {
+            StringBuilder text = new StringBuilder();
+            text.append(changes.size()).append(changes.size() == 1 ? " menu" : " menus").append(" will change");
+            appendLines(text, changes, limit);
+            if (!skipped.isEmpty()) {
+                text.append("\n\n").append(skipped.size()).append(" left unchanged");
+                appendLines(text, skipped, limit);
+            }
+            return text.toString();
+        }
+
+        // Whole items per group, at most maxPaths paths each (an item larger than that gets its own group)
+        public List<List<Change>> chunks(int maxPaths) {
+            List<List<Change>> chunks = new ArrayList<>();
+            List<Change> current = new ArrayList<>();
+            int paths = 0;
+            for (Change change : changes) {
+                if (!current.isEmpty() && paths + change.fields.size() > maxPaths) {
+                    chunks.add(current);
+                    current = new ArrayList<>();
+                    paths = 0;
+                }
+                current.add(change);
+                paths += change.fields.size();
+            }
+            if (!current.isEmpty()) chunks.add(current);
+            return chunks;
+        }
+
+        private static void appendLines(StringBuilder text, List<?> lines, int limit) {
+            for (int i = 0; i < lines.size() && i < limit; i++) text.append('\n').append(lines.get(i));
+            if (lines.size() > limit) text.append("\n…and ").append(lines.size() - limit).append(" more");
+        }
+    }
+
+    // ================================ OPERATIONS ================================
+
+    // The first call per item (building the preview) works the rule out and remembers
+    // {price seen, new price}; later calls (rebase) only ever write that new price
+    public static Plan price(List<AdminHomeActivity.MenuItem> items, PriceRule rule) {
+        Map<String, double[]> previewed = new HashMap<>();
+        return new Plan("price " + rule, (item, skipped) -> {
+            double[] seen = previewed.get(item.menuID);
+            if (seen != null) {
+                if (item.price == seen[1]) return null; // already written
+                if (item.price != seen[0]) {
+                    skip(skipped, item, "price changed to " + MenuCsv.formatPrice(item.price) + " since the preview");
+                    return null;
+                }
+                return priceChange(item, seen[1]);
+            }
+            double price = rule.apply(item.price);
+            if (price == item.price) return null;
+            if (!(price > 0)) {
+                skip(skipped, item, "would cost " + MenuCsv.formatPrice(price));
+                return null;
+            }
+            previewed.put(item.menuID, new double[]{item.price, price});
+            return priceChange(item, price);
+        }, items);
+    }
+
+    public static Plan addToBranch(List<AdminHomeActivity.MenuItem> items, String branchID, String branchName) {
+        int ordinal = requireOrdinal(branchID);
+        return new Plan("add to " + branchName, (item, skipped) -> {
+            if (item.availableAt.contains(ordinal)) return null;
+            BranchSet available = item.availableAt.with(ordinal);
+            return new Change(item, "at " + branchName, "not offered", "offered")
+                    .put("branches", available.readableList(item.branches))
+                    .put(SnapshotMappers.MENU_BRANCH_BITS, available.toWire());
+        }, items);
+    }
+
+    // An item is never left without branches; those are skipped and listed
+    public static Plan removeFromBranch(List<AdminHomeActivity.MenuItem> items, String branchID, String branchName) {
+        int ordinal = requireOrdinal(branchID);
+        return new Plan("remove from " + branchName, (item, skipped) -> {
+            if (!item.availableAt.contains(ordinal)) return null;
+            BranchSet available = item.availableAt.without(ordinal);
+            if (available.isEmpty()) {
+                skip(skipped, item, "only offered at " + branchName);
+                return null;
+            }
+            Change change = new Change(item, "at " + branchName, "offered", "not offered")
+                    .put("branches", available.readableList(item.branches))
+                    .put(SnapshotMappers.MENU_BRANCH_BITS, available.toWire());
+            if (item.soldOutAt.contains(ordinal)) putSoldOutWord(change, item.soldOutAt.without(ordinal), ordinal);
+            return change;
+        }, items);
+    }
+
+    // Only items offered at the branch are touched
+    public static Plan soldOut(List<AdminHomeActivity.MenuItem> items, String branchID, String branchName, boolean soldOut) {
+        int ordinal = requireOrdinal(branchID);
+        return new Plan((soldOut ? "sold out at " : "back in stock at ") + branchName, (item, skipped) -> {
+            if (!item.availableAt.contains(ordinal) || item.soldOutAt.contains(ordinal) == soldOut) return null;
+            Change change = new Change(item, "at " + branchName,
+                    soldOut ? "in stock" : "sold out", soldOut ? "sold out" : "in stock");
+            putSoldOutWord(change, soldOut ? item.soldOutAt.with(ordinal) : item.soldOutAt.without(ordinal), ordinal);
+            return change;
+        }, items);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static Change priceChange(AdminHomeActivity.MenuItem item, double price) {
+        return new Change(item, "price", MenuCsv.formatPrice(item.price), MenuCsv.formatPrice(price)).put("price", price);
+    }
+
+    private static void skip(List<String> skipped, AdminHomeActivity.MenuItem item, String reason) {
+        if (skipped != null) skipped.add(item.menuID + " " + item.name + ": " + reason);
+    }
+
+    private static int requireOrdinal(String branchID) {
+        int ordinal = BranchSet.ordinal(branchID);
+        if (ordinal < 0) throw new IllegalArgumentException("Branch " + branchID + " has no availability bit");
+        return ordinal;
+    }
+
+    // Writes only the word holding this branch's bit, like toggleSoldOut()
+    private static void putSoldOutWord(Change change, BranchSet soldOut, int ordinal) {
+        int word = BranchSet.wordIndex(ordinal);
+        List<Long> wire = soldOut.toWire();
+        change.put(SnapshotMappers.MENU_SOLD_OUT_BITS + "/" + word, word < wire.size() ? wire.get(word) : 0L);
+    }
+}
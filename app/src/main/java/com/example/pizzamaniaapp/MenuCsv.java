@@ -0,0 +1,230 @@
+package com.example.pizzamaniaapp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// CSV format for bulk menu import/export, one menu item per row:
+//
+//     menuID,name,category,description,price,imageURL,branches,soldOut
+//
+// branches and soldOut are branch IDs separated by ';' ("b001;b003"); soldOut must be a subset of
+// branches. Every row carries its menuID, so an import simply overwrites those records and running
+// the same file twice is harmless. Column order is free and unknown columns are ignored.
+//
+// Like StaffCsv, both directions stream one row at a time.
+public final class MenuCsv {
+
+    public static final String[] HEADER = {"menuID", "name", "category", "description", "price", "imageURL", "branches", "soldOut"};
+    private static final String[] REQUIRED = {"menuID", "name", "category", "price", "branches"};
+
+    public static final int MAX_REPORTED_ERRORS = 20; // the rest are only counted
+
+    private MenuCsv() {}
+
+    // One parsed row; line is the 1-based line the row starts on
+    public static final class Record {
+        public String menuID = "", name = "", category = "", description = "", imageURL = "";
+        public double price;
+        public List<String> branches = new ArrayList<>();
+        public List<String> soldOut = new ArrayList<>();
+        public int line;
+
+        // Row for an existing item (sold-out bits outside its branches are dropped)
+        public static Record of(AdminHomeActivity.MenuItem item) {
+            Record r = new Record();
+            r.menuID = nonNull(item.menuID);
+            r.name = nonNull(item.name);
+            r.category = nonNull(item.category);
+            r.description = nonNull(item.description);
+            r.imageURL = nonNull(item.imageURL);
+            r.price = item.price;
+            if (item.branches != null) r.branches = new ArrayList<>(item.branches);
+            r.soldOut = item.soldOutAt.intersect(item.availableAt).branchIDs();
+            return r;
+        }
+
+        // The record the admin screen would save for this row
+        public AdminHomeActivity.MenuItem toMenuItem() {
+            AdminHomeActivity.MenuItem item = new AdminHomeActivity.MenuItem();
+            item.menuID = menuID;
+            item.name = name;
+            item.category = category;
+            item.description = description;
+            item.imageURL = imageURL;
+            item.price = price;
+            item.branches = new ArrayList<>(branches);
+            item.availableAt = BranchSet.of(branches);
+            item.soldOutAt = BranchSet.of(soldOut);
+            return item;
+        }
+    }
+
+    // ================================ READING ================================
+
+    // Validating reader: next() returns the next good row and records problems with bad ones.
+    // Branch IDs are checked against the given set (null skips that check).
+    public static final class Reader implements Closeable {
+        private final CsvTokenizer tokens;
+        private final Set<String> branchIDs;
+        private final int[] columns; // HEADER index -> CSV column, -1 if absent
+        private final Set<String> seenIds = new HashSet<>();
+        private final List<String> errors = new ArrayList<>();
+        private int errorCount, rows;
+
+        public Reader(java.io.Reader in, Set<String> branchIDs) throws IOException {
+            this.tokens = new CsvTokenizer(in);
+            this.branchIDs = branchIDs;
+
+            List<String> header = tokens.row();
+            if (header == null) throw new IOException("The file is empty");
+            columns = CsvTokenizer.columns(header, HEADER);
+            for (String name : REQUIRED) {
+                if (columns[CsvTokenizer.index(HEADER, name)] < 0) throw new IOException("Missing column \"" + name + "\"");
+            }
+        }
+
+        // Next valid row, or null at the end of the file
+        public Record next() throws IOException {
+            List<String> cells;
+            while ((cells = tokens.row()) != null) {
+                int line = tokens.rowLine();
+                if (CsvTokenizer.isBlank(cells)) continue;
+                rows++;
+                Record record = parse(cells, line);
+                if (record != null) return record;
+            }
+            return null;
+        }
+
+        // Data rows read so far, good and bad
+        public int rows() {
+            return rows;
+        }
+
+        public int errorCount() {
+            return errorCount;
+        }
+
+        // First MAX_REPORTED_ERRORS problems, "Line 12: ..."
+        public List<String> errors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        @Override
+        public void close() throws IOException {
+            tokens.close();
+        }
+
+        private Record parse(List<String> cells, int line) {
+            Record r = new Record();
+            r.line = line;
+            r.menuID = cell(cells, "menuID");
+            r.name = cell(cells, "name");
+            r.category = cell(cells, "category");
+            r.description = cell(cells, "description");
+            r.imageURL = cell(cells, "imageURL");
+            r.branches = split(cell(cells, "branches"));
+            r.soldOut = split(cell(cells, "soldOut"));
+            String price = cell(cells, "price");
+
+            if (r.menuID.isEmpty() || r.name.isEmpty() || r.category.isEmpty() || price.isEmpty() || r.branches.isEmpty()) {
+                return error(line, "menuID, name, category, price and branches are required");
+            }
+            if (IdBlock.number(r.menuID, 'm') < 0) return error(line, "invalid menuID " + r.menuID);
+            try {
+                r.price = Double.parseDouble(price);
+            } catch (NumberFormatException e) {
+                return error(line, "invalid price " + price);
+            }
+            if (!(r.price > 0) || Double.isInfinite(r.price)) return error(line, "price must be above 0");
+            for (String branchID : r.branches) {
+                if (branchIDs != null && !branchIDs.contains(branchID)) return error(line, "unknown branch " + branchID);
+                if (BranchSet.ordinal(branchID) < 0) return error(line, "invalid branch ID " + branchID);
+            }
+            for (String branchID : r.soldOut) {
+                if (!r.branches.contains(branchID)) return error(line, "sold out at " + branchID + ", which is not in branches");
+            }
+            if (!seenIds.add(r.menuID)) return error(line, "duplicate menuID " + r.menuID);
+            return r;
+        }
+
+        private Record error(int line, String message) {
+            if (errorCount++ < MAX_REPORTED_ERRORS) errors.add("Line " + line + ": " + message);
+            return null;
+        }
+
+        private String cell(List<String> cells, String name) {
+            int index = columns[CsvTokenizer.index(HEADER, name)];
+            return index >= 0 && index < cells.size() ? cells.get(index).trim() : "";
+        }
+    }
+
+    // ================================ WRITING ================================
+
+    // Writes the header straight away, then one line per write()
+    public static final class Writer implements Closeable {
+        private final java.io.Writer out;
+        private final StringBuilder line = new StringBuilder(256);
+
+        public Writer(java.io.Writer out) throws IOException {
+            this.out = out;
+            CsvTokenizer.writeHeader(out, HEADER);
+        }
+
+        public void write(Record r) throws IOException {
+            line.setLength(0);
+            append(r.menuID).append(',');
+            append(r.name).append(',');
+            append(r.category).append(',');
+            append(r.description).append(',');
+            line.append(formatPrice(r.price)).append(',');
+            append(r.imageURL).append(',');
+            append(String.join(";", r.branches)).append(',');
+            append(String.join(";", r.soldOut)).append("\r\n");
+            out.write(line.toString());
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private StringBuilder append(String value) {
+            return CsvTokenizer.append(line, value);
+        }
+    }
+
+    // ================================ HELPERS ================================
+
+    // "1500" for whole prices, "1499.50" otherwise
+    public static String formatPrice(double price) {
+        return price == Math.rint(price)
+                ? String.format(Locale.US, "%.0f", price)
+                : String.format(Locale.US, "%.2f", price);
+    }
+
+    // "b001; b003" -> [b001, b003]; duplicates and empty entries dropped
+    private static List<String> split(String list) {
+        List<String> ids = new ArrayList<>();
+        if (list.isEmpty()) return ids;
+        for (String id : list.split(";")) {
+            String trimmed = id.trim();
+            if (!trimmed.isEmpty() && !ids.contains(trimmed)) ids.add(trimmed);
+        }
+        return ids;
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.pizzamaniaapp;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Bulk writes to the menu catalog from the admin screen.
+//
+// apply(): commits a MenuBulkEdit plan chunk by chunk. Each chunk reads its items' records again
+// (in parallel), rebases every change onto them and writes the result as one atomic multi-path
+// update, so a chunk is fully old or fully new and nothing is rewritten from a stale catalog.
+// The update itself is not conditional: an edit to the same fields landing in the one round trip
+// between the read and the write is overwritten. Rebasing is idempotent (MenuBulkEdit), so after
+// a failure the same plan can simply be applied again.
+//
+// Import (MenuCsv):
+//   1. one read of "branches"
+//   2. stream the file once to validate every row; nothing is written if any row is bad
+//   3. stream it again and write CHUNK_ROWS items per atomic multi-path update
+// Every row is keyed by its menuID and sets the same fields each time, so unlike StaffImport
+// there is no checkpoint: after an interruption, importing the same file again is safe.
+//
+// Export pages through "menu" with orderByKey() + startAfter(), one page in memory at a time.
+//
+// File work runs on a private single thread; listener calls are delivered on the main thread.
+public final class MenuImport {
+
+    public static final int CHUNK_ROWS = 100;   // items per import update (~10 paths each)
+    public static final int EXPORT_PAGE = 500;  // items per export read
+
+    public interface Listener {
+        void onProgress(int done, int total); // total is -1 while exporting
+        void onFinished(int rows);
+        void onFailed(String message);
+    }
+
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "menu-import");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private MenuImport() {}
+
+    // ================================ BULK EDIT ================================
+
+    // Main thread. Chunks go one after another; a failure stops before the next chunk.
+    // onFinished gets the number of items actually changed (others may already have been).
+    public static void apply(DatabaseReference root, MenuBulkEdit.Plan plan, Listener listener) {
+        applyChunk(root, plan, plan.chunks(MenuBulkEdit.CHUNK_PATHS), 0, 0, listener);
+    }
+
+    private static void applyChunk(DatabaseReference root, MenuBulkEdit.Plan plan, List<List<MenuBulkEdit.Change>> chunks,
+                                   int index, int done, Listener listener) {
+        if (index == chunks.size()) {
+            listener.onFinished(done);
+            return;
+        }
+        List<MenuBulkEdit.Change> chunk = chunks.get(index);
+        Query[] records = new Query[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) records[i] = root.child("menu").child(chunk.get(i).item.menuID);
+        ParallelReads.read(new ParallelReads.Callback() {
+            @Override
+            public void onLoaded(DataSnapshot[] snapshots) {
+                WriteBatch batch = new WriteBatch("bulk edit " + plan.title).countReads(1);
+                int items = 0;
+                for (int i = 0; i < chunk.size(); i++) {
+                    AdminHomeActivity.MenuItem current = SnapshotMappers.adminMenuItem(snapshots[i].getValue());
+                    if (current == null) continue; // deleted meanwhile
+                    current.menuID = snapshots[i].getKey();
+                    MenuBulkEdit.Change rebased = plan.rebase(current);
+                    if (rebased == null) continue;
+                    batch.setAll(rebased.paths());
+                    items++;
+                }
+                int changed = done + items;
+                if (batch.isEmpty()) {
+                    listener.onProgress(changed, plan.size());
+                    applyChunk(root, plan, chunks, index + 1, changed, listener);
+                    return;
+                }
+                batch.commit(root)
+                        .addOnSuccessListener(aVoid -> {
+                            listener.onProgress(changed, plan.size());
+                            applyChunk(root, plan, chunks, index + 1, changed, listener);
+                        })
+                        .addOnFailureListener(e -> listener.onFailed("Stopped after " + done + " of " + plan.size()
+                                + " menus (" + e.getMessage() + "). Applying the same edit again is safe."));
+            }
+
+            @Override
+            public void onFailed(DatabaseError error) {
+                listener.onFailed("Stopped after " + done + " of " + plan.size() + " menus (" + error.getMessage() + ")");
+            }
+        }, records);
+    }
+
+    // ================================ IMPORT ================================
+
+    public static void start(Context context, DatabaseReference root, Uri file, Listener listener) {
+        Context app = context.getApplicationContext();
+        root.child("branches").get()
+                .addOnSuccessListener(snapshot -> {
+                    Set<String> branchIDs = new HashSet<>();
+                    for (DataSnapshot branch : snapshot.getChildren()) branchIDs.add(branch.getKey());
+                    IO.execute(() -> validate(app, root, file, branchIDs, listener));
+                })
+                .addOnFailureListener(e -> listener.onFailed(e.getMessage()));
+    }
+
+    // IO thread: every row must be valid before anything is written
+    private static void validate(Context context, DatabaseReference root, Uri file, Set<String> branchIDs, Listener listener) {
+        int total = 0;
+        try (MenuCsv.Reader check = open(context, file, branchIDs)) {
+            while (check.next() != null) total++;
+            if (check.errorCount() > 0) {
+                StringBuilder message = new StringBuilder(check.errorCount() + " invalid row(s), nothing written:");
+                for (String error : check.errors()) message.append('\n').append(error);
+                post(() -> listener.onFailed(message.toString()));
+                return;
+            }
+        } catch (IOException e) {
+            post(() -> listener.onFailed("Could not read the file: " + e.getMessage()));
+            return;
+        }
+
+        MenuCsv.Reader reader;
+        try {
+            reader = open(context, file, branchIDs);
+        } catch (IOException e) {
+            post(() -> listener.onFailed("Could not read the file: " + e.getMessage()));
+            return;
+        }
+        final int rows = total;
+        post(() -> listener.onProgress(0, rows));
+        writeChunk(root, reader, 0, rows, listener);
+    }
+
+    // IO thread: next CHUNK_ROWS items as one update
+    private static void writeChunk(DatabaseReference root, MenuCsv.Reader reader, int done, int total, Listener listener) {
+        WriteBatch batch = new WriteBatch("import menu");
+        int rows = 0;
+        try {
+            MenuCsv.Record record;
+            while (rows < CHUNK_ROWS && (record = reader.next()) != null) {
+                addRecord(batch, record);
+                rows++;
+            }
+        } catch (IOException e) {
+            closeQuietly(reader);
+            post(() -> listener.onFailed("Could not read the file: " + e.getMessage()));
+            return;
+        }
+        if (batch.isEmpty()) {
+            closeQuietly(reader);
+            post(() -> listener.onFinished(done));
+            return;
+        }
+
+        final int committed = done + rows;
+        batch.commit(root)
+                .addOnSuccessListener(aVoid -> {
+                    listener.onProgress(committed, total);
+                    if (committed >= total) {
+                        IO.execute(() -> closeQuietly(reader));
+                        listener.onFinished(committed);
+                    } else {
+                        IO.execute(() -> writeChunk(root, reader, committed, total, listener));
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    IO.execute(() -> closeQuietly(reader));
+                    listener.onFailed("Import stopped after " + done + " of " + total + " menus (" + e.getMessage()
+                            + "). Importing the same file again is safe.");
+                });
+    }
+
+    // Field by field, so anything else stored on the record survives; an empty soldOut clears it
+    static void addRecord(WriteBatch batch, MenuCsv.Record record) {
+        AdminHomeActivity.MenuItem item = record.toMenuItem();
+        Map<String, Object> fields = SnapshotMappers.menuToWire(item);
+        if (item.soldOutAt.isEmpty()) fields.put(SnapshotMappers.MENU_SOLD_OUT_BITS, null);
+        batch.setFields("menu/" + item.menuID, fields);
+    }
+
+    private static MenuCsv.Reader open(Context context, Uri file, Set<String> branchIDs) throws IOException {
+        InputStream in = context.getContentResolver().openInputStream(file);
+        if (in == null) throw new IOException("cannot open " + file);
+        return new MenuCsv.Reader(new InputStreamReader(in, StandardCharsets.UTF_8), branchIDs);
+    }
+
+    // ================================ EXPORT ================================
+
+    public static void export(Context context, DatabaseReference root, Uri file, Listener listener) {
+        Context app = context.getApplicationContext();
+        IO.execute(() -> {
+            MenuCsv.Writer writer;
+            try {
+                OutputStream out = app.getContentResolver().openOutputStream(file);
+                if (out == null) throw new IOException("cannot open " + file);
+                writer = new MenuCsv.Writer(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                post(() -> listener.onFailed("Could not write the file: " + e.getMessage()));
+                return;
+            }
+            post(() -> exportPage(root, writer, null, 0, listener));
+        });
+    }
+
+    // Reads one page after lastKey, writes it on the IO thread, then asks for the next
+    private static void exportPage(DatabaseReference root, MenuCsv.Writer writer, String lastKey, int written,
+                                   Listener listener) {
+        Query page = root.child("menu").orderByKey();
+        if (lastKey != null) page = page.startAfter(lastKey);
+        page.limitToFirst(EXPORT_PAGE).get()
+                .addOnSuccessListener(snapshot -> IO.execute(() -> {
+                    int count = written;
+                    String last = lastKey;
+                    try {
+                        for (DataSnapshot child : snapshot.getChildren()) {
+                            last = child.getKey();
+                            AdminHomeActivity.MenuItem item = SnapshotMappers.adminMenuItem(child.getValue());
+                            if (item == null) continue;
+                            writer.write(MenuCsv.Record.of(item));
+                            count++;
+                        }
+                        if (snapshot.getChildrenCount() < EXPORT_PAGE) {
+                            writer.close();
+                            final int rows = count;
+                            post(() -> listener.onFinished(rows));
+                            return;
+                        }
+                        writer.flush();
+                    } catch (IOException e) {
+                        closeQuietly(writer);
+                        post(() -> listener.onFailed("Could not write the file: " + e.getMessage()));
+                        return;
+                    }
+                    final int rows = count;
+                    final String next = last;
+                    post(() -> {
+                        listener.onProgress(rows, -1);
+                        exportPage(root, writer, next, rows, listener);
+                    });
+                }))
+                .addOnFailureListener(e -> {
+                    IO.execute(() -> closeQuietly(writer));
+                    listener.onFailed("Export stopped after " + written + " menus: " + e.getMessage());
+                });
+    }
+
+    // ================================ HELPERS ================================
+
+    private static void post(Runnable runnable) {
+        MAIN.post(runnable);
+    }
+
+    private static void closeQuietly(java.io.Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Search index over the menus loaded for a branch, built once per menu load on a background thread.
+//
+// Matching and ranking live in TextIndex (prefix trie over name, category and description, with
+// typo correction); this class maps the ranked ids back to menus and keeps the dropdown suggestions.
+//
+// Immutable once built; search() can run on any thread.
+public final class MenuSearchIndex {
+
+    public static final MenuSearchIndex EMPTY = build(Collections.<CustomerHomeActivity.MenuItem>emptyList());
+
+    private final List<CustomerHomeActivity.MenuItem> items;
+    private final TextIndex text;
+    private final List<String> suggestions;
+
+    private MenuSearchIndex(List<CustomerHomeActivity.MenuItem> items, TextIndex text, List<String> suggestions) {
+        this.items = items;
+        this.text = text;
+        this.suggestions = suggestions;
+    }
+
+    public static MenuSearchIndex build(List<CustomerHomeActivity.MenuItem> menus) {
+        List<CustomerHomeActivity.MenuItem> items = Collections.unmodifiableList(new ArrayList<>(menus));
+        TextIndex.Builder text = new TextIndex.Builder();
+        Set<String> suggestions = new LinkedHashSet<>(); // dedups names and categories in one pass
+
+        for (CustomerHomeActivity.MenuItem item : items) {
+            text.add(item.name, item.category, item.description);
+            if (item.name != null) suggestions.add(item.name);
+            if (item.category != null) suggestions.add(item.category);
+        }
+        return new MenuSearchIndex(items, text.build(), Collections.unmodifiableList(new ArrayList<>(suggestions)));
+    }
+
+    // All indexed menus, in load order
+    public List<CustomerHomeActivity.MenuItem> items() {
+        return items;
+    }
+
+    // Distinct menu names and categories for the search box dropdown
+    public List<String> suggestions() {
+        return suggestions;
+    }
+
+    // Menus matching every word of the query (the last word may be partly typed), best match first.
+    // An empty query returns everything.
+    public List<CustomerHomeActivity.MenuItem> search(String query) {
+        if (TextIndex.normalize(query).isEmpty()) return items;
+        int[] ids = text.search(query);
+        List<CustomerHomeActivity.MenuItem> results = new ArrayList<>(ids.length);
+        for (int id : ids) results.add(items.get(id));
+        return results;
+    }
+}
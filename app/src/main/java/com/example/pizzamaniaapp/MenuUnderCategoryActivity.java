@@ -43,18 +43,19 @@
 
 
 // setupSearch()
-// - Initializes search input and button
+// - Initializes search input and button (once)
 // - Configures autocomplete suggestions from all menus
+// - Searches as the user types, debounced by SEARCH_DEBOUNCE_MS
 
 
-// performSearch(query)
-// - Filters menu items by name containing query (case-insensitive)
-// - Updates adapter with filtered list
-// - If no matches, shows toast and resets to full menu list
+// performSearch(query, explicit)
+// - Looks the query up in MenuSearchIndex (name/category/description prefixes) on a background thread
+// - Updates adapter with matches, best match first
+// - If no matches, resets to full menu list (toast only for button / Enter)
 
 
 // updateSearchSuggestions()
-// - Updates autocomplete suggestions based on current menu list
+// - Updates autocomplete suggestions from the current search index
 
 
 // showLoadingDialog(message)
@@ -84,6 +85,10 @@ import android.graphics.Color; // 🎨 Lets you work with colors in your app.
 import android.graphics.drawable.ColorDrawable; // 🖌️ Used to create a colored background for UI elements or dialogs.
 import android.os.Bundle; // 📦 Holds data passed to an activity when it starts.
 import android.os.CountDownTimer; // ⏱️ Creates timers that count down and trigger events.
+import android.os.Handler; // ⏲️ Posts delayed work (search debounce).
+import android.os.Looper; // 🔁 Main thread looper for the debounce handler.
+import android.text.Editable; // ✏️ Text passed to TextWatcher callbacks.
+import android.text.TextWatcher; // ⌨️ Listens for typing in the search box.
 import android.view.Gravity; // 📐 Helps position elements (e.g., center, top) on the screen.
 import android.view.LayoutInflater; // 🏗️ Turns XML layouts into View objects you can use in code.
 import android.view.View; // 🧩 The base class for all UI elements.
@@ -144,6 +149,15 @@ public class MenuUnderCategoryActivity extends AppCompatActivity { // 🏠 Defin
     private List<String> searchSuggestions = new ArrayList<>(); // 🔎 Holds text suggestions for the search box.
     private ArrayAdapter<String> suggestionsAdapter; // 🧩 Adapter for showing suggestions in AutoCompleteTextView.
     private List<MenuItem> allMenus = new ArrayList<>(); // 📚 Stores all menus to filter for searching.
+    private final SnapshotPipeline<MenuSearchIndex> menuPipeline = new SnapshotPipeline<>(error -> { // 🧵 Parses menus and builds the search index off the UI thread.
+        hideLoadingDialog(); // Don't leave the spinner up if parsing failed
+        showCustomToast("Failed to load menu");
+    });
+    private MenuSearchIndex searchIndex = MenuSearchIndex.EMPTY; // 🌳 Prefix/word index over allMenus, rebuilt per load.
+    private final SnapshotPipeline<List<MenuItem>> searchPipeline = new SnapshotPipeline<>(); // 🧵 Runs searches off the UI thread (newest query wins).
+    private final Handler searchHandler = new Handler(Looper.getMainLooper()); // ⏲️ Debounces as-you-type searches.
+    private Runnable pendingSearch; // ⏳ Search waiting for the user to stop typing.
+    private static final long SEARCH_DEBOUNCE_MS = 150; // ⏱️ Pause in typing before searching.
 
     @Override // ✅ Marks this method as overriding a parent class method (AppCompatActivity's onCreate).
     protected void onCreate(Bundle savedInstanceState) { // 🏁 Called when the activity starts; used to set up the UI and data.
@@ -181,15 +195,15 @@ public class MenuUnderCategoryActivity extends AppCompatActivity { // 🏠 Defin
             allMenus.clear(); // 🧹 Clears full menus list.
             allMenus.addAll(menuList); // ➕ Adds all menus for searching.
 
-            // Setup search immediately
-            setupSearch(); // 🔍 Prepares search box with suggestions.
-            updateSearchSuggestions(); // 📜 Updates dropdown suggestions for search.
+            // Index the provided menus in the background, then fill the suggestions 🌳📜
+            menuPipeline.submit(() -> MenuSearchIndex.build(menuList), this::applySearchIndex);
         } else { // ❌ If menu list was not provided
             loadMenusForBranch(branchID, categoryName); // 🌐 Loads menus from Firebase for the selected branch and category.
         }
 
         adapter = new MenuUnderCategoryAdapter(categoryMenus, this::showMenuPopup); // 🧩 Creates adapter with menus and click listener for popup.
         recyclerView.setAdapter(adapter); // 🔗 Connects adapter to RecyclerView.
+        setupSearch(); // 🔍 Wires the search box once (results come from searchIndex when it is ready).
 
         // ------------------- GET USER INFO -------------------
         SharedPreferences prefs = getSharedPreferences("MyAppPrefs", MODE_PRIVATE); // 📂 Opens shared preferences to get stored user data.
@@ -211,6 +225,14 @@ public class MenuUnderCategoryActivity extends AppCompatActivity { // 🏠 Defin
         });
     }
 
+    @Override
+    protected void onDestroy() { // 🧹 Called when the activity is closed.
+        super.onDestroy();
+        menuPipeline.cancel(); // 🛑 Drop any menu parsing still in flight.
+        searchHandler.removeCallbacksAndMessages(null); // 🛑 Forget a search waiting on the debounce.
+        searchPipeline.cancel(); // 🛑 ...and any search still running.
+    }
+
     // This method makes the layout fit the screen edges, handling status and navigation bars 🖼️✨
     private void setupEdgeToEdge() {
         // Set a listener for window insets (like status and navigation bars) 🖲️👀
@@ -224,6 +246,22 @@ public class MenuUnderCategoryActivity extends AppCompatActivity { // 🏠 Defin
         });
     }
 
+    // Runs on the snapshot pipeline thread 🧵
+    // Keeps items that exist, are available at the branch (bit test), and match the category filter ✅🔍
+    private static List<MenuItem> menusForBranch(DataSnapshot snapshot, String branchID, String categoryFilter) {
+        int branchOrdinal = BranchSet.ordinal(branchID);
+        List<MenuItem> menus = new ArrayList<>();
+        for (DataSnapshot menuSnap : snapshot.getChildren()) {
+            MenuItem menuItem = SnapshotMappers.menuItem(menuSnap.getValue());
+            if (menuItem != null
+                    && menuItem.isAvailableAt(branchOrdinal)
+                    && (categoryFilter == null || categoryFilter.equals(menuItem.category))) {
+                menus.add(menuItem);
+            }
+        }
+        return menus;
+    }
+
     // Loads menu items from Firebase for a specific branch and optional category 🏪📋
     private void loadMenusForBranch(String branchID, String categoryFilter) {
         // Show a loading dialog to the user while fetching menus ⏳📡
@@ -233,34 +271,23 @@ public class MenuUnderCategoryActivity extends AppCompatActivity { // 🏠 Defin
         dbRef.child("menu").addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
-                // Clear old data before adding new ones 🧹♻️
-                allMenus.clear();
-                categoryMenus.clear();
-
-                // Loop through all menu items in the snapshot 🔄📑
-                for (DataSnapshot menuSnap : snapshot.getChildren()) {
-                    // Convert snapshot into a MenuItem object 🔄🍕
-                    MenuItem menuItem = menuSnap.getValue(MenuItem.class);
-
-                    // Check: item exists, belongs to branch, and matches category filter ✅🔍
-                    if (menuItem != null
-                            && menuItem.branches != null
-                            && menuItem.branches.contains(branchID)
-                            && (categoryFilter == null || menuItem.category.equals(categoryFilter))) {
-                        // Add matching item to both lists 📝💾
-                        allMenus.add(menuItem);
-                        categoryMenus.add(menuItem);
-                    }
-                }
-
-                // Notify adapter that data changed to refresh RecyclerView 🔄📲
-                adapter.notifyDataSetChanged();
-                // Hide loading dialog now that menus are loaded ✅🛑
-                hideLoadingDialog();
-
-                // Set up search functionality and update suggestions 🔎💡
-                setupSearch();
-                updateSearchSuggestions();
+                // Filter on the background pipeline, then refresh the UI on the main thread 🧵📲
+                menuPipeline.submit(snapshot,
+                        snap -> MenuSearchIndex.build(menusForBranch(snap, branchID, categoryFilter)), index -> {
+                    // Replace old data with the new ones 🧹♻️
+                    allMenus.clear();
+                    categoryMenus.clear();
+                    allMenus.addAll(index.items());
+                    categoryMenus.addAll(index.items());
+
+                    // Hand the new list to the adapter, it rebinds only the changed items 🔄📲
+                    adapter.submitList(categoryMenus);
+                    // Hide loading dialog now that menus are loaded ✅🛑
+                    hideLoadingDialog();
+
+                    // Search against the new menus and update suggestions 🔎💡
+                    applySearchIndex(index);
+                });
             }
 
             @Override
@@ -287,7 +314,7 @@ public class MenuUnderCategoryActivity extends AppCompatActivity { // 🏠 Defin
             public void onDataChange(@NonNull DataSnapshot snapshot) {
                 // If the cart already exists, get its data ✅📋
                 if (snapshot.exists()) {
-                    currentCart = snapshot.getValue(Cart.class);
+                    currentCart = WireFormat.cartFromWire(cartID, WireFormat.asMap(snapshot.getValue()));
                 } else {
                     // If not found, create a new empty cart for this customer 🆕🛒
                     currentCart = new Cart(cartID, branchID, customerID);
@@ -409,7 +436,7 @@ public class MenuUnderCategoryActivity extends AppCompatActivity { // 🏠 Defin
             currentCart.totalPrice = totalPrice;
 
             // Save updated cart to Firebase ✅
-            dbRef.child("carts").child(currentCart.cartID).setValue(currentCart)
+            dbRef.child("carts").child(currentCart.cartID).setValue(WireFormat.cartToWire(currentCart))
                     .addOnSuccessListener(aVoid -> showCustomToast("Cart updated")) // Success msg 🎉
                     .addOnFailureListener(e -> showCustomToast("Failed to update cart")); // Error msg ❌
 
@@ -422,16 +449,20 @@ public class MenuUnderCategoryActivity extends AppCompatActivity { // 🏠 Defin
     }
 
     // ---------------- UPDATE SEARCH SUGGESTIONS ----------------
+// Switches searches to a freshly built index and refreshes the dropdown 🌳🔄
+    private void applySearchIndex(MenuSearchIndex index) {
+        searchIndex = index;
+        updateSearchSuggestions();
+    }
+
 // Updates the autocomplete suggestions based on all menu items 🔎✨
     private void updateSearchSuggestions() {
         searchSuggestions.clear(); // Clear previous suggestions 🧹
-        for (MenuItem menu : allMenus) {
-            if (!searchSuggestions.contains(menu.name)) {
-                searchSuggestions.add(menu.name); // Add unique menu names to suggestions 📝
-            }
-        }
+        searchSuggestions.addAll(searchIndex.suggestions()); // Names + categories, deduplicated when the index was built 📝
         if (suggestionsAdapter != null) {
-            suggestionsAdapter.notifyDataSetChanged(); // Refresh the dropdown with new suggestions 🔄
+            // clear/addAll keeps the adapter's own filter copy in sync (just notifying would not) 🔄
+            suggestionsAdapter.clear();
+            suggestionsAdapter.addAll(searchSuggestions);
         }
     }
 
@@ -441,47 +472,64 @@ public class MenuUnderCategoryActivity extends AppCompatActivity { // 🏠 Defin
         AutoCompleteTextView searchBox = findViewById(R.id.searchBox); // Input field with autocomplete 🔤
         ImageButton searchButton = findViewById(R.id.searchButton); // Button to trigger search 🔍
 
-        // Connect search suggestions to the AutoCompleteTextView 🧩
-        suggestionsAdapter = new ArrayAdapter<>(this, android.R.layout.simple_dropdown_item_1line, searchSuggestions);
+        // Connect search suggestions to the AutoCompleteTextView (created once) 🧩
+        suggestionsAdapter = new ArrayAdapter<>(this, android.R.layout.simple_dropdown_item_1line, new ArrayList<>(searchSuggestions));
         searchBox.setAdapter(suggestionsAdapter);
         searchBox.setThreshold(1); // Start showing suggestions after 1 character ✨
 
         // Trigger search when button is clicked 🖱️
-        searchButton.setOnClickListener(v -> performSearch(searchBox.getText().toString().trim()));
+        searchButton.setOnClickListener(v -> performSearch(searchBox.getText().toString().trim(), true));
         // Trigger search when user presses enter on keyboard ⌨️
         searchBox.setOnEditorActionListener((v, actionId, event) -> {
-            performSearch(searchBox.getText().toString().trim());
+            performSearch(searchBox.getText().toString().trim(), true);
             return true;
         });
+
+        // Search as the user types, after a short pause ⌨️⏲️
+        searchBox.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                String query = s.toString().trim();
+                if (pendingSearch != null) searchHandler.removeCallbacks(pendingSearch); // Restart the wait ⏳
+                pendingSearch = () -> performSearch(query, false);
+                searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
+            }
+        });
     }
 
     // ---------------- PERFORM SEARCH ----------------
-// Filters the menu list based on the search query 🔎🍕
-    private void performSearch(String query) {
+// Looks the query up in the search index on a background thread 🔎🍕
+// explicit = button / Enter; only then does "No menus found" pop up (not on every keystroke)
+    private void performSearch(String query, boolean explicit) {
+        if (pendingSearch != null) searchHandler.removeCallbacks(pendingSearch); // Running now, skip the debounced copy ⏭️
+
         if (query.isEmpty()) {
             // If search is empty, show all menus 🆓
+            searchPipeline.cancel(); // Drop a search still running for older text 🛑
             categoryMenus.clear();
             categoryMenus.addAll(allMenus);
-            adapter.notifyDataSetChanged();
+            adapter.submitList(categoryMenus);
             return;
         }
 
-        List<MenuItem> filtered = new ArrayList<>();
-        for (MenuItem menu : allMenus) {
-            if (menu.name.toLowerCase().contains(query.toLowerCase())) {
-                filtered.add(menu); // Add menus that match query ✅
+        MenuSearchIndex index = searchIndex;
+        searchPipeline.submit(() -> index.search(query), filtered -> {
+            categoryMenus.clear();
+            if (filtered.isEmpty()) {
+                if (explicit) showCustomToast("No menus found"); // Show message if no results ❌
+                categoryMenus.addAll(allMenus); // Restore full menu list to avoid blank page 🛡️
+            } else {
+                categoryMenus.addAll(filtered); // Show only matching menus, best match first 📝
             }
-        }
 
-        categoryMenus.clear();
-        if (filtered.isEmpty()) {
-            showCustomToast("No menus found"); // Show message if no results ❌
-            categoryMenus.addAll(allMenus); // Restore full menu list to avoid blank page 🛡️
-        } else {
-            categoryMenus.addAll(filtered); // Show only filtered menus 📝
-        }
-
-        adapter.notifyDataSetChanged(); // Refresh RecyclerView with search results 🔄
+            adapter.submitList(categoryMenus); // Refresh RecyclerView with search results 🔄
+        });
     }
 
     // ---------------- LOADING & TOAST ----------------
@@ -9,18 +9,21 @@ import android.widget.ImageView; // UI component to display images
 import android.widget.TextView; // UI component to display text
 
 import androidx.annotation.NonNull; // Annotation indicating a parameter or return value cannot be null
+import androidx.recyclerview.widget.AsyncListDiffer; // Computes list changes on a background thread
 import androidx.recyclerview.widget.RecyclerView; // A flexible view for providing a limited window into a large dataset
 
 import com.bumptech.glide.Glide; // Third-party library for efficient image loading from URLs
 import com.google.android.material.button.MaterialButton; // A styled button with Material Design principles
 
+import java.util.ArrayList; // Resizable list (copies handed to the differ)
 import java.util.List; // Java interface for ordered collections (used for the list of menu items)
 
 // The adapter class for displaying a list of menu items within a single category in a RecyclerView
 public class MenuUnderCategoryAdapter extends RecyclerView.Adapter<MenuUnderCategoryAdapter.MenuViewHolder> {
 
-    // A list to hold the menu items to be displayed
-    private final List<CustomerHomeActivity.MenuItem> menuList;
+    // Holds the menu items being displayed and diffs new lists against them by menuID
+    private final AsyncListDiffer<CustomerHomeActivity.MenuItem> differ =
+            new AsyncListDiffer<>(this, DiffCallbacks.MENU_ITEM);
     // A listener to handle clicks on a menu item
     private final OnMenuClickListener listener;
 
@@ -32,7 +35,7 @@ public class MenuUnderCategoryAdapter extends RecyclerView.Adapter<MenuUnderCate
     // Constructor to initialize the adapter with the list of menus and the click listener
     public MenuUnderCategoryAdapter(List<CustomerHomeActivity.MenuItem> menuList,
                                     OnMenuClickListener listener) {
-        this.menuList = menuList; // Assign the provided list of menu items
+        differ.submitList(menuList != null ? new ArrayList<>(menuList) : null); // Show the provided list of menu items
         this.listener = listener; // Assign the provided click listener
     }
 
@@ -49,7 +52,7 @@ public class MenuUnderCategoryAdapter extends RecyclerView.Adapter<MenuUnderCate
     @Override
     public void onBindViewHolder(@NonNull MenuViewHolder holder, int position) {
         // Gets the MenuItem object from the list at the current position
-        CustomerHomeActivity.MenuItem item = menuList.get(position);
+        CustomerHomeActivity.MenuItem item = differ.getCurrentList().get(position);
 
         // Binds the menu item's name to the TextView in the ViewHolder
         holder.name.setText(item.name);
@@ -74,11 +77,16 @@ public class MenuUnderCategoryAdapter extends RecyclerView.Adapter<MenuUnderCate
         });
     }
 
+    // Replaces the displayed menus; only added, removed or changed items are rebound
+    public void submitList(List<CustomerHomeActivity.MenuItem> menus) {
+        differ.submitList(new ArrayList<>(menus)); // Copy, since the diff reads it on a background thread
+    }
+
     // Returns the total number of items in the data set held by the adapter
     @Override
     public int getItemCount() {
-        // Returns the size of the menu list, or 0 if the list is null
-        return menuList != null ? menuList.size() : 0;
+        // Returns the size of the displayed list (empty, never null)
+        return differ.getCurrentList().size();
     }
 
     // A static inner class that describes an item view and metadata about its place within the RecyclerView
@@ -3,115 +3,156 @@ package com.example.pizzamaniaapp;
 
 // imports for Android components
 import android.content.Context;
-import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.Spinner;
 import android.widget.TextView;
+import android.widget.Toast;
 
 // imports for AndroidX RecyclerView
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
 import androidx.recyclerview.widget.RecyclerView;
 
 // import for Java utilities
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 // main class declaration extending RecyclerView.Adapter
 public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHolder> {
 
     // variables
-    private Context context;
-    private List<Order> orderList;
+    private final AsyncListDiffer<OrderRow> differ = new AsyncListDiffer<>(this, DiffCallbacks.ORDER_ROW); // diffs rows off the UI thread
     private OnStatusUpdateListener listener;
+    private final ArrayAdapter<String> spinnerAdapter;                   // one status adapter shared by every row
+    private final OrderItemsLoader itemsLoader = new OrderItemsLoader(); // fetches item lines on expand
+    private final Set<String> expandedOrders = new HashSet<>();         // orderIDs whose items are shown
 
     // interface for status update callback
     public interface OnStatusUpdateListener {
-        void onStatusUpdate(Order order, String newStatus);
+        void onStatusUpdate(OrderSummary order, String newStatus);
     }
 
     // constructor
-    public OrderAdapter(Context context, List<Order> orderList, OnStatusUpdateListener listener) {
-        this.context = context;
-        this.orderList = orderList;
+    public OrderAdapter(Context context, List<OrderRow> orderList, OnStatusUpdateListener listener) {
         this.listener = listener;
+        differ.submitList(new ArrayList<>(orderList));
+
+        // Spinner setup (done once, not per bind)
+        spinnerAdapter = new ArrayAdapter<>(context, android.R.layout.simple_spinner_item, OrderRow.STATUSES);
+        spinnerAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
     }
 
-    // create new ViewHolder
+    // create new ViewHolder and wire its listeners once
     @NonNull
     @Override
     public OrderViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(context).inflate(R.layout.employee_order_item, parent, false);
-        return new OrderViewHolder(view);
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.employee_order_item, parent, false);
+        OrderViewHolder holder = new OrderViewHolder(view);
+        holder.spinnerStatus.setAdapter(spinnerAdapter);
+
+        // expand / collapse the item lines
+        holder.tvItems.setOnClickListener(v -> toggleItems(v, holder.getAdapterPosition()));
+
+        // Update only makes sense for a real status, not the placeholder
+        holder.spinnerStatus.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                holder.btnUpdate.setEnabled(position != OrderRow.NO_STATUS);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                holder.btnUpdate.setEnabled(false);
+            }
+        });
+
+        // button click listener for update
+        holder.btnUpdate.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (holder.spinnerStatus.getSelectedItemPosition() == OrderRow.NO_STATUS) return;
+            if (listener != null && position != RecyclerView.NO_POSITION) {
+                String newStatus = holder.spinnerStatus.getSelectedItem().toString();
+                listener.onStatusUpdate(differ.getCurrentList().get(position).order, newStatus);
+            }
+        });
+        return holder;
     }
 
-    // bind data to ViewHolder
+    // bind data to ViewHolder (only copies precomputed values)
     @Override
     public void onBindViewHolder(@NonNull OrderViewHolder holder, int position) {
-        Order order = orderList.get(position);
-        holder.tvCustomerName.setText(order.getCustomerName());
-
-        // check if order has items
-        if (order.getItems() != null && !order.getItems().isEmpty()) {
-            StringBuilder itemsDetails = new StringBuilder();
-            itemsDetails.append("Branch: ").append(order.getBranchID()).append("\n");   // ✅ show BranchID
-            itemsDetails.append("Items: ").append(order.getItems().size()).append("\n");
-
-            // loop through items
-            for (Item item : order.getItems()) {
-                itemsDetails.append("- ")
-                        .append(item.getName())
-                        .append(" x")
-                        .append(item.getQuantity())
-                        .append("\n");
-            }
-
-            //  Use order-level status
-            String status = order.getStatus();
-            itemsDetails.append("Status: ").append(status != null ? status : "N/A").append("\n");
+        OrderRow row = differ.getCurrentList().get(position);
+        holder.tvCustomerName.setText(row.customerName);
+        holder.tvItems.setText(row.itemsText(expandedOrders.contains(row.orderID)));
+        holder.tvPaymentStatus.setText(row.paymentText);
+        holder.tvPaymentStatus.setTextColor(row.paymentColor);
+        holder.spinnerStatus.setSelection(row.statusIndex); // always, so a recycled view never keeps the last row's status
+        holder.btnUpdate.setEnabled(row.statusIndex != OrderRow.NO_STATUS);
+    }
 
-            itemsDetails.append("Total: Rs. ").append(order.getTotalPrice());
+    // expand a row (fetching its items the first time) or collapse it again
+    private void toggleItems(View view, int position) {
+        if (position == RecyclerView.NO_POSITION) return;
+        String orderID = differ.getCurrentList().get(position).orderID;
 
-            // set text to items TextView
-            holder.tvItems.setText(itemsDetails.toString());
+        if (expandedOrders.remove(orderID)) {
+            notifyItemChanged(position);
+            return;
+        }
 
-            // Payment status (from first item)
-            String paymentStatus = order.getItems().get(0).getPaymentStatus();
-            if (paymentStatus != null) {
-                holder.tvPaymentStatus.setText("Payment: " + paymentStatus);
-                holder.tvPaymentStatus.setTextColor(paymentStatus.equalsIgnoreCase("Pending") ? Color.RED : Color.GREEN);
+        expandedOrders.add(orderID);
+        notifyItemChanged(position);
+        itemsLoader.load(orderID, new OrderItemsLoader.Callback() {
+            @Override
+            public void onItemsLoaded(String loadedID, List<Item> items) {
+                List<OrderRow> rows = new ArrayList<>(differ.getCurrentList());
+                int index = indexOf(rows, loadedID);
+                if (index < 0 || rows.get(index).expandedText != null) return;
+                // format the item lines once and keep them on the row (the diff rebinds just this row)
+                rows.set(index, rows.get(index).withItems(items));
+                differ.submitList(rows);
             }
 
-            // Spinner setup
-            String[] statuses = {"confirm order", "Preparing", "Delivery Pending", "Delivering", "Completed"};
-            ArrayAdapter<String> spinnerAdapter = new ArrayAdapter<>(context, android.R.layout.simple_spinner_item, statuses);
-            spinnerAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-            holder.spinnerStatus.setAdapter(spinnerAdapter);
-
-            // set spinner selection based on status
-            if (status != null) {
-                int spinnerPosition = spinnerAdapter.getPosition(status);
-                if (spinnerPosition >= 0) {
-                    holder.spinnerStatus.setSelection(spinnerPosition);
-                }
+            @Override
+            public void onItemsFailed(String failedID, String message) {
+                // collapse the row again instead of showing an order with no items
+                expandedOrders.remove(failedID);
+                int index = indexOf(differ.getCurrentList(), failedID);
+                if (index >= 0) notifyItemChanged(index);
+                Toast.makeText(view.getContext(), "Could not load items: " + message, Toast.LENGTH_SHORT).show();
             }
+        });
+    }
+
+    // replace all rows after a data change, keeping item lines of rows that are still expanded;
+    // only rows whose orderID is new or whose displayed values changed are rebound
+    public void setRows(List<OrderRow> rows) {
+        List<OrderRow> next = new ArrayList<>(rows.size());
+        for (OrderRow row : rows) {
+            List<Item> items = expandedOrders.contains(row.orderID) ? itemsLoader.getCached(row.orderID) : null;
+            next.add(items != null ? row.withItems(items) : row);
+        }
+        differ.submitList(next);
+    }
 
-            // button click listener for update
-            holder.btnUpdate.setOnClickListener(v -> {
-                if (listener != null) {
-                    String newStatus = holder.spinnerStatus.getSelectedItem().toString();
-                    listener.onStatusUpdate(order, newStatus);
-                }
-            });
+    private static int indexOf(List<OrderRow> rows, String orderID) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (orderID.equals(rows.get(i).orderID)) return i;
         }
+        return -1;
     }
 
     // return number of items
     @Override
     public int getItemCount() {
-        return orderList.size();
+        return differ.getCurrentList().size();
     }
 
     // ViewHolder inner class
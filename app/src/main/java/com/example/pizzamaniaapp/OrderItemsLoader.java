@@ -0,0 +1,62 @@
+package com.example.pizzamaniaapp;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Fetches the item lines of an order on demand ("orders/{orderID}/items") and caches them
+// (item lines never change once placed), so list screens only pay for rows the user expands.
+public class OrderItemsLoader {
+
+    public interface Callback {
+        void onItemsLoaded(String orderID, List<Item> items);
+        void onItemsFailed(String orderID, String message); // nothing is cached, the next load tries again
+    }
+
+    private final DatabaseReference ordersRef = FirebaseDatabase.getInstance().getReference("orders");
+    private final Map<String, List<Item>> cache = new HashMap<>();
+
+    // Returns cached items or null if this order has not been fetched yet
+    public List<Item> getCached(String orderID) {
+        return cache.get(orderID);
+    }
+
+    public void load(String orderID, Callback callback) {
+        List<Item> cached = cache.get(orderID);
+        if (cached != null) {
+            callback.onItemsLoaded(orderID, cached);
+            return;
+        }
+
+        // v2 orders keep their lines under "i"; older orders under "items"
+        fetch(orderID, WireFormat.ITEMS, callback, true);
+    }
+
+    private void fetch(String orderID, String itemsKey, Callback callback, boolean tryLegacy) {
+        ordersRef.child(orderID).child(itemsKey).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (!snapshot.exists() && tryLegacy) {
+                    fetch(orderID, "items", callback, false);
+                    return;
+                }
+                List<Item> items = WireFormat.itemsFromWire(snapshot.getValue(), null);
+                cache.put(orderID, items);
+                callback.onItemsLoaded(orderID, items);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onItemsFailed(orderID, error.getMessage());
+            }
+        });
+    }
+}
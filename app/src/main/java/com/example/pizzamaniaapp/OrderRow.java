@@ -0,0 +1,115 @@
+package com.example.pizzamaniaapp;
+
+import android.graphics.Color;
+
+import java.util.List;
+
+// Bind-ready row for OrderAdapter. Built once per data change (on the snapshot pipeline thread),
+// so onBindViewHolder only copies precomputed text, colours and the spinner index into views.
+public final class OrderRow {
+
+    // Spinner choices shown on every row (shared by one ArrayAdapter in OrderAdapter). The first is
+    // a placeholder for statuses the kitchen can't pick (e.g. "Order Pending"), never sent as one.
+    public static final String[] STATUSES = {"Choose status", "confirm order", "Preparing", "Delivery Pending", "Delivering", "Completed"};
+    public static final int NO_STATUS = 0;
+
+    public final OrderSummary order;
+    public final String orderID;
+    public final String customerName;
+    public final String collapsedText;  // order details with "(tap to show items)"
+    public final String expandedText;   // order details with the item lines, null until they are loaded
+    public final String loadingText;    // shown while the item lines are being fetched
+    public final String paymentText;
+    public final int paymentColor;
+    public final int statusIndex;       // position in STATUSES, NO_STATUS when the status isn't one of them
+    public final String etaText;        // e.g. "Ready in ~12 min · arrives in 25-31 min", null if unknown
+    private final List<Item> items;     // null until loaded
+
+    private OrderRow(OrderSummary order, String etaText) {
+        // Payment status (order-level)
+        String paymentStatus = order.getPaymentStatus();
+
+        this.order = order;
+        this.orderID = order.getOrderID();
+        this.customerName = order.getCustomerName();
+        this.collapsedText = header(order) + "(tap to show items)\n" + footer(order, etaText);
+        this.expandedText = null;
+        this.loadingText = header(order) + "Loading items...\n" + footer(order, etaText);
+        this.paymentText = "Payment: " + (paymentStatus != null ? paymentStatus : "N/A");
+        this.paymentColor = paymentStatus == null ? Color.BLACK
+                : paymentStatus.equalsIgnoreCase("Pending") ? Color.RED : Color.GREEN;
+        this.statusIndex = statusIndex(order.getStatus());
+        this.etaText = etaText;
+        this.items = null;
+    }
+
+    // Same texts as base, plus the item lines
+    private OrderRow(OrderRow base, List<Item> items) {
+        StringBuilder details = new StringBuilder(header(base.order));
+        for (Item item : items) {
+            details.append("- ")
+                    .append(item.getName())
+                    .append(" x")
+                    .append(item.getQuantity())
+                    .append("\n");
+        }
+        details.append(footer(base.order, base.etaText));
+
+        this.order = base.order;
+        this.orderID = base.orderID;
+        this.customerName = base.customerName;
+        this.collapsedText = base.collapsedText;
+        this.expandedText = details.toString();
+        this.loadingText = base.loadingText;
+        this.paymentText = base.paymentText;
+        this.paymentColor = base.paymentColor;
+        this.statusIndex = base.statusIndex;
+        this.etaText = base.etaText;
+        this.items = items;
+    }
+
+    public static OrderRow from(OrderSummary order) {
+        return new OrderRow(order, null);
+    }
+
+    // Same row with the item lines filled in (called once, when they arrive)
+    public OrderRow withItems(List<Item> items) {
+        return new OrderRow(this, items);
+    }
+
+    // Same row with a new estimate line (EtaFeed); unchanged text returns this row
+    public OrderRow withEta(String etaText) {
+        if (etaText == null ? this.etaText == null : etaText.equals(this.etaText)) return this;
+        OrderRow row = new OrderRow(order, etaText);
+        return items != null ? row.withItems(items) : row;
+    }
+
+    private static String header(OrderSummary order) {
+        return "Branch: " + order.getBranchID() + "\n"   // ✅ show BranchID
+                + "Items: " + order.getItemCount() + "\n";
+    }
+
+    //  Use order-level status
+    private static String footer(OrderSummary order, String etaText) {
+        String status = order.getStatus();
+        return "Status: " + (status != null ? status : "N/A") + "\n"
+                + (etaText != null ? etaText + "\n" : "")
+                + "Total: Rs. " + order.getTotalPrice();
+    }
+
+    // Text for the items TextView (no allocation)
+    public String itemsText(boolean expanded) {
+        if (!expanded) return collapsedText;
+        return expandedText != null ? expandedText : loadingText;
+    }
+
+    // NO_STATUS for statuses the spinner doesn't offer (e.g. "Order Pending"), so the placeholder
+    // is shown rather than whatever the recycled row had selected
+    static int statusIndex(String status) {
+        if (status == null) return NO_STATUS;
+        for (int i = NO_STATUS + 1; i < STATUSES.length; i++) {
+            if (STATUSES[i].equalsIgnoreCase(status)) return i;
+        }
+        return NO_STATUS;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.pizzamaniaapp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Compact list-row view of an order, stored under "orderSummaries/{orderID}".
+// Holds everything the order lists render; the item lines stay in "orders/{orderID}/items"
+// and are only fetched when a row is expanded (see OrderItemsLoader).
+public class OrderSummary {
+    public static final String NODE = "orderSummaries";
+
+    // Summary fields that status changes move; the full order copies them (orderMirror)
+    private static final String[] MIRRORED = {WireFormat.STATUS, WireFormat.DELIVERYMAN_ID,
+            WireFormat.PAYMENT_STATUS, WireFormat.DELIVERED_TIMESTAMP, WireFormat.READY_TIMESTAMP};
+
+    private String orderID;
+    private String branchID;
+    private String customerID;
+    private String customerName;
+    private double customerLat;
+    private double customerLng;
+    private String assignedDeliverymanID;
+    private String status;
+    private String paymentStatus;
+    private double totalPrice;
+    private int itemCount;
+    private long timestamp;
+    private long deliveredTimestamp;
+    private long readyTimestamp;      // when the kitchen handed it to the riders ("Delivery Pending")
+
+    public OrderSummary() {}
+
+    // Build the summary written next to a freshly placed order
+    public static OrderSummary from(CustomerHomeActivity.Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.orderID = order.orderID;
+        summary.branchID = order.branchID;
+        summary.customerID = order.customerID;
+        summary.customerName = order.customerName;
+        summary.customerLat = order.customerLat;
+        summary.customerLng = order.customerLng;
+        summary.assignedDeliverymanID = order.assignedDeliverymanID;
+        summary.status = order.status;
+        summary.paymentStatus = order.paymentStatus;
+        summary.totalPrice = order.totalPrice;
+        summary.timestamp = order.timestamp;
+        summary.deliveredTimestamp = order.deliveredTimestamp;
+        summary.itemCount = order.items == null ? 0 : order.items.size(); // item lines, as the order screens always showed
+        return summary;
+    }
+
+    // Root-relative paths that write the same fields to both the order and its summary.
+    // Fields are given by their Java names and stored under their WireFormat short keys.
+    // Pass the result to FirebaseDatabase.getReference().updateChildren() so both stay in sync atomically.
+    public static Map<String, Object> mirroredUpdate(String orderID, Map<String, Object> fields) {
+        Map<String, Object> updates = new HashMap<>();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            String key = WireFormat.orderKey(field.getKey());
+            updates.put("orders/" + orderID + "/" + key, field.getValue());
+            updates.put(NODE + "/" + orderID + "/" + key, field.getValue());
+        }
+        return updates;
+    }
+
+    // Root-relative paths that bring "orders/{orderID}" in line with its summary row as it stands
+    // (a field the summary does not have is removed from the order too). Only StatusOutbox rows an
+    // earlier version left half sent still need it; transitions now write both in one update.
+    public static Map<String, Object> orderMirror(String orderID, Map<String, Object> summary) {
+        Map<String, Object> wire = WireFormat.summaryToWire(WireFormat.summaryFromWire(orderID, summary));
+        Map<String, Object> updates = new HashMap<>();
+        for (String key : MIRRORED) updates.put("orders/" + orderID + "/" + key, wire.get(key));
+        return updates;
+    }
+
+    public static Map<String, Object> mirroredUpdate(String orderID, String field, Object value) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(field, value);
+        return mirroredUpdate(orderID, fields);
+    }
+
+    public String getOrderID() { return orderID; }
+    public void setOrderID(String orderID) { this.orderID = orderID; }
+
+    public String getBranchID() { return branchID; }
+    public void setBranchID(String branchID) { this.branchID = branchID; }
+
+    public String getCustomerID() { return customerID; }
+    public void setCustomerID(String customerID) { this.customerID = customerID; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public double getCustomerLat() { return customerLat; }
+    public void setCustomerLat(double customerLat) { this.customerLat = customerLat; }
+
+    public double getCustomerLng() { return customerLng; }
+    public void setCustomerLng(double customerLng) { this.customerLng = customerLng; }
+
+    public String getAssignedDeliverymanID() { return assignedDeliverymanID; }
+    public void setAssignedDeliverymanID(String assignedDeliverymanID) { this.assignedDeliverymanID = assignedDeliverymanID; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public double getTotalPrice() { return totalPrice; }
+    public void setTotalPrice(double totalPrice) { this.totalPrice = totalPrice; }
+
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    public long getDeliveredTimestamp() { return deliveredTimestamp; }
+    public void setDeliveredTimestamp(long deliveredTimestamp) { this.deliveredTimestamp = deliveredTimestamp; }
+
+    public long getReadyTimestamp() { return readyTimestamp; }
+    public void setReadyTimestamp(long readyTimestamp) { this.readyTimestamp = readyTimestamp; }
+}
@@ -0,0 +1,52 @@
+package com.example.pizzamaniaapp;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+// Reads several database locations at the same time and hands every snapshot over together,
+// in the order the locations were given. Used where a screen needs a couple of whole nodes
+// (e.g. "branches" + "employees") rather than chaining one read per row.
+//
+// Firebase delivers listener callbacks on the main thread, so the bookkeeping needs no locking.
+// The callback fires exactly once: onLoaded when all reads succeed, onFailed on the first error.
+public final class ParallelReads {
+
+    public interface Callback {
+        void onLoaded(DataSnapshot[] snapshots);
+        void onFailed(DatabaseError error);
+    }
+
+    private ParallelReads() {}
+
+    public static void read(Callback callback, Query... locations) {
+        final DataSnapshot[] snapshots = new DataSnapshot[locations.length];
+        final int[] pending = {locations.length};
+        final boolean[] done = {false};
+
+        for (int i = 0; i < locations.length; i++) {
+            final int slot = i;
+            locations[i].addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    if (done[0]) return;
+                    snapshots[slot] = snapshot;
+                    if (--pending[0] == 0) {
+                        done[0] = true;
+                        callback.onLoaded(snapshots);
+                    }
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    if (done[0]) return;
+                    done[0] = true;
+                    callback.onFailed(error);
+                }
+            });
+        }
+    }
+}
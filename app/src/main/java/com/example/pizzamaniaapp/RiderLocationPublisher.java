@@ -0,0 +1,180 @@
+package com.example.pizzamaniaapp;
+
+import android.Manifest;
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.android.gms.location.LocationServices;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Publishes where a rider is while they are on shift, for dispatch (DispatchEngine) and tracking.
+//
+// LocationSampler decides everything battery- and write-related: this class asks the fused provider
+// for fixes at the sampler's interval (high accuracy while moving with orders on board, balanced
+// power once stopped or while idle, re-requested whenever the interval changes) and writes the
+// latest position of each batch the sampler hands back:
+//   riderLocations/{riderID}   {la, ln, t, m}   latest position, m = moving
+// Fixes are delivered batched too (setMaxWaitTime), so the radio and the CPU wake less often.
+//
+// The kept fixes are only remembered here (breadcrumbs, at most MAX_BREADCRUMBS), so that
+// completing a delivery can store the path ridden since the order was picked up: traceFor() gives
+// it simplified and encoded, and it is kept per order under TraceCodec.ORDER_TRACES. No open-ended
+// per-rider history is written.
+//
+// Process-wide; RiderShiftService starts it while the rider is on shift and carrying orders, or
+// idle (LocationSampler.idle: a fix every couple of minutes) while they are "Available" with
+// nothing on board, since free riders' positions are what dispatch needs. It stops it otherwise,
+// and tells it from its own feed which orders are on board (carrying()), so a trace starts when
+// the order is accepted even if the rider's home screen is closed at the time.
+// Main thread only.
+public final class RiderLocationPublisher {
+
+    private static final String TAG = "RiderLocationPublisher";
+
+    public static final String MOVING = "m";
+
+    private static final int MAX_BREADCRUMBS = 5000; // a long shift of kept fixes; oldest dropped first
+
+    private static RiderLocationPublisher instance;
+
+    private final Context context;
+    private final FusedLocationProviderClient client;
+    private String riderID;
+    private LocationSampler sampler;
+    private long requestedInterval; // 0 = no request active
+    private final List<TraceCodec.Point> breadcrumbs = new ArrayList<>();
+    private final Map<String, Long> carriedSince = new HashMap<>(); // orderID -> when it was first seen on board
+
+    private final LocationCallback callback = new LocationCallback() {
+        @Override
+        public void onLocationResult(@NonNull LocationResult result) {
+            for (Location location : result.getLocations()) onFix(location);
+        }
+    };
+
+    private RiderLocationPublisher(Context context) {
+        this.context = context.getApplicationContext();
+        client = LocationServices.getFusedLocationProviderClient(this.context);
+    }
+
+    public static RiderLocationPublisher get(Context context) {
+        if (instance == null) instance = new RiderLocationPublisher(context);
+        return instance;
+    }
+
+    // Starts (or keeps) publishing for this rider, at full rate while carrying and idle otherwise;
+    // does nothing without location permission
+    public void start(String riderID, boolean carrying) {
+        if (riderID.equals(this.riderID) && requestedInterval != 0) {
+            sampler.idle(!carrying);
+            if (sampler.intervalMs() != requestedInterval) request();
+            return;
+        }
+        if (ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            Log.w(TAG, "No location permission, not publishing");
+            return;
+        }
+        if (!riderID.equals(this.riderID)) stop();
+        this.riderID = riderID;
+        if (sampler == null) sampler = new LocationSampler();
+        sampler.idle(!carrying);
+        request();
+    }
+
+    // The orders on board right now; an order's trace starts when it first shows up here
+    public void carrying(Collection<String> orderIDs) {
+        long now = System.currentTimeMillis();
+        carriedSince.keySet().retainAll(orderIDs);
+        for (String orderID : orderIDs) {
+            if (!carriedSince.containsKey(orderID)) carriedSince.put(orderID, now);
+        }
+    }
+
+    // The path ridden with this order on board, compressed; null if there is too little of it
+    public String traceFor(String orderID) {
+        Long since = carriedSince.get(orderID);
+        if (since == null) return null;
+        List<TraceCodec.Point> path = new ArrayList<>();
+        for (TraceCodec.Point point : breadcrumbs) {
+            if (point.time >= since) path.add(point);
+        }
+        if (sampler != null) {
+            for (LocationSampler.Fix fix : sampler.unwritten()) {
+                if (fix.time >= since) path.add(new TraceCodec.Point(fix.lat, fix.lng, fix.time));
+            }
+        }
+        return path.size() < 2 ? null : TraceCodec.compress(path);
+    }
+
+    // Stops listening and writes whatever the sampler still holds
+    public void stop() {
+        if (requestedInterval != 0) client.removeLocationUpdates(callback);
+        requestedInterval = 0;
+        if (sampler != null && riderID != null) {
+            LocationSampler.Batch rest = sampler.flush();
+            if (rest != null) write(rest);
+        }
+        sampler = null;
+        riderID = null;
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void onFix(Location location) {
+        if (sampler == null) return; // stopped while results were on their way
+        LocationSampler.Batch batch = sampler.offer(new LocationSampler.Fix(location.getLatitude(), location.getLongitude(),
+                location.hasAccuracy() ? location.getAccuracy() : Float.MAX_VALUE, location.getTime()));
+        if (batch != null) write(batch);
+        if (sampler.intervalMs() != requestedInterval) request();
+    }
+
+    @SuppressLint("MissingPermission") // checked in start()
+    private void request() {
+        long intervalMs = sampler.intervalMs();
+        boolean precise = sampler.moving() && !sampler.idle();
+        LocationRequest request = LocationRequest.create()
+                .setPriority(precise ? LocationRequest.PRIORITY_HIGH_ACCURACY : LocationRequest.PRIORITY_BALANCED_POWER_ACCURACY)
+                .setInterval(intervalMs)
+                .setFastestInterval(intervalMs / 2)
+                .setMaxWaitTime(Math.max(intervalMs, LocationSampler.WRITE_GAP_MS)); // deliver fixes in batches, no more often than we write
+        requestedInterval = intervalMs;
+        client.requestLocationUpdates(request, callback, Looper.getMainLooper()); // replaces the earlier request
+        Log.d(TAG, "Sampling every " + intervalMs + " ms (" + (sampler.idle() ? "idle" : sampler.moving() ? "moving" : "stopped") + ")");
+    }
+
+    private void write(LocationSampler.Batch batch) {
+        String rider = riderID;
+        List<TraceCodec.Point> trail = new ArrayList<>(batch.trail.size());
+        for (LocationSampler.Fix fix : batch.trail) trail.add(new TraceCodec.Point(fix.lat, fix.lng, fix.time));
+        breadcrumbs.addAll(trail);
+        if (breadcrumbs.size() > MAX_BREADCRUMBS) breadcrumbs.subList(0, breadcrumbs.size() - MAX_BREADCRUMBS).clear();
+
+        Map<String, Object> latest = new HashMap<>();
+        latest.put(DispatchEngine.LAT, batch.latest.lat);
+        latest.put(DispatchEngine.LNG, batch.latest.lng);
+        latest.put(DispatchEngine.TIME, batch.latest.time);
+        latest.put(MOVING, batch.moving);
+
+        new WriteBatch("Rider location " + rider)
+                .setFields(DispatchEngine.RIDER_LOCATIONS + "/" + rider, latest)
+                .commit(FirebaseDatabase.getInstance().getReference())
+                .addOnFailureListener(e -> Log.w(TAG, "Location write failed for " + rider, e)); // the next batch supersedes it
+    }
+}
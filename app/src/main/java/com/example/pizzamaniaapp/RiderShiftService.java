@@ -0,0 +1,230 @@
+package com.example.pizzamaniaapp;
+
+import android.Manifest;
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.content.pm.ServiceInfo;
+import android.os.Build;
+import android.os.IBinder;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps a rider's shift going while the app is in the background: "new delivery" notifications
+// and the position the dispatcher needs.
+//
+// DeliverymanHomeActivity only listens while it is on screen, so on its own it could only ever
+// notify the rider about work they were already looking at. This foreground service runs from
+// the moment the rider's home screen opens until they log out and holds its own DeliveryFeed on
+// the same two queries (the database client shares them with the screen's feed, so nothing is
+// downloaded twice). It notifies about each pending order that turns up at the rider's branch
+// and each order dispatched to them, but stays quiet while the home screen is visible: the list
+// already shows the row there, and the rider's own accepts would otherwise be announced back.
+//
+// It also decides how RiderLocationPublisher runs: at full rate while the rider carries orders,
+// so each delivery's path is recorded and the customer can follow it (MapActivity), and idle
+// (one coarse fix every couple of minutes) while they are "Available" (or unset) with nothing on
+// board, which is all DispatchEngine needs to see where free riders are. Otherwise it is stopped.
+// The service is a location one once the location permission is granted; the rider screen
+// starts it again after asking, which upgrades it.
+//
+// Rider and branch come from the login prefs, so a restart by the system (START_STICKY) picks
+// up the same shift.
+public class RiderShiftService extends Service {
+
+    private static final String TAG = "RiderShiftService";
+    private static final String CHANNEL_ID = "new_deliveries"; // New pending / dispatched orders
+    private static final String SHIFT_CHANNEL_ID = "rider_shift"; // The ongoing "on shift" notification
+    private static final int SHIFT_NOTIFICATION_ID = 51;
+
+    private static volatile boolean screenVisible; // DeliverymanHomeActivity is started
+
+    private DeliveryFeed feed;
+    private RiderLocationPublisher publisher;
+    private String riderID;
+    private DatabaseReference statusRef;         // deliverymen/{riderID}/status
+    private ValueEventListener statusListener;
+    private boolean available = true;            // status "Available" or unset
+    private boolean carrying;                    // has accepted orders
+
+    public static void start(Context context) {
+        ContextCompat.startForegroundService(context, new Intent(context, RiderShiftService.class));
+    }
+
+    public static void stop(Context context) {
+        context.stopService(new Intent(context, RiderShiftService.class));
+    }
+
+    // Called from the home screen's onStart / onStop
+    public static void setScreenVisible(boolean visible) {
+        screenVisible = visible;
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        createChannels();
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        boolean located = ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+        int types = 0;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            types = ServiceInfo.FOREGROUND_SERVICE_TYPE_DATA_SYNC | (located ? ServiceInfo.FOREGROUND_SERVICE_TYPE_LOCATION : 0);
+        }
+        ServiceCompat.startForeground(this, SHIFT_NOTIFICATION_ID, shiftNotification(), types);
+        if (feed != null) { // already on shift; the permission may have just been granted
+            updatePublishing();
+            return START_STICKY;
+        }
+
+        SharedPreferences prefs = getSharedPreferences("MyAppPrefs", MODE_PRIVATE);
+        riderID = prefs.getString("userID", null);
+        String branchID = prefs.getString("branchID", null);
+        if (riderID == null || riderID.isEmpty() || branchID == null || branchID.isEmpty()) {
+            Log.w(TAG, "No rider logged in, ending the shift");
+            stopSelf();
+            return START_NOT_STICKY;
+        }
+
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        publisher = RiderLocationPublisher.get(this);
+        feed = new DeliveryFeed(root, branchID, riderID, new DeliveryFeed.Listener() {
+            @Override
+            public void onChanged(List<DeliveryRow> pending, List<DeliveryRow> accepted) {
+                // The lists are the home screen's business; only what is on board matters here
+                carrying = !accepted.isEmpty();
+                updatePublishing();
+                List<String> onBoard = new ArrayList<>(accepted.size());
+                for (DeliveryRow row : accepted) onBoard.add(row.item.orderID);
+                publisher.carrying(onBoard); // each order's recorded path starts when it is first on board
+            }
+
+            @Override
+            public void onNewWork(DeliveryRow row) {
+                notifyDelivery(row, "New delivery");
+            }
+
+            @Override
+            public void onAssigned(DeliveryRow row) {
+                notifyDelivery(row, "Delivery assigned to you"); // auto dispatch
+            }
+
+            @Override
+            public void onFailed(String message) {
+                Log.e(TAG, "Shift feed cancelled: " + message);
+            }
+        });
+        feed.start();
+
+        statusRef = root.child("deliverymen").child(riderID).child("status");
+        statusListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Object status = snapshot.getValue();
+                available = status == null || "Available".equalsIgnoreCase(status.toString());
+                updatePublishing();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Rider status unavailable: " + error.getMessage());
+            }
+        };
+        statusRef.addValueEventListener(statusListener);
+        return START_STICKY;
+    }
+
+    @Override
+    public void onDestroy() {
+        if (feed != null) feed.stop();
+        feed = null;
+        if (statusRef != null && statusListener != null) statusRef.removeEventListener(statusListener);
+        if (publisher != null) publisher.stop(); // shift over: position no longer shared
+        super.onDestroy();
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null; // started only
+    }
+
+    // ---------------------------------------------------------------------
+
+    // Full rate with orders on board, idle while free for work, off otherwise (start() is a no-op
+    // without the location permission, and only switches the rate when already running)
+    private void updatePublishing() {
+        if (publisher == null || riderID == null) return;
+        if (carrying || available) publisher.start(riderID, carrying);
+        else publisher.stop();
+    }
+
+    // Channels are required from Android 8
+    private void createChannels() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return;
+        NotificationManager manager = getSystemService(NotificationManager.class);
+        if (manager == null) return;
+        NotificationChannel deliveries = new NotificationChannel(CHANNEL_ID, "New deliveries", NotificationManager.IMPORTANCE_HIGH);
+        deliveries.setDescription("Orders waiting for a deliveryman at your branch");
+        manager.createNotificationChannel(deliveries);
+        NotificationChannel shift = new NotificationChannel(SHIFT_CHANNEL_ID, "On shift", NotificationManager.IMPORTANCE_LOW);
+        shift.setDescription("Shown while the app watches for new deliveries and shares your location");
+        manager.createNotificationChannel(shift);
+    }
+
+    private Notification shiftNotification() {
+        return new NotificationCompat.Builder(this, SHIFT_CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher2)
+                .setContentTitle("On shift")
+                .setContentText("You'll be notified about new deliveries; your location is shared with your branch and your customers")
+                .setContentIntent(openHome())
+                .setOngoing(true)
+                .build();
+    }
+
+    private void notifyDelivery(DeliveryRow row, String title) {
+        if (screenVisible) return; // the row is on screen already
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            return; // Permission denied: the row still shows when the app is opened
+        }
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher2)
+                .setContentTitle(title)
+                .setContentText(row.customerText)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setContentIntent(openHome())
+                .setAutoCancel(true);
+
+        NotificationManagerCompat.from(this).notify(row.item.orderID.hashCode(), builder.build()); // One per order
+    }
+
+    private PendingIntent openHome() {
+        Intent intent = new Intent(this, DeliverymanHomeActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        return PendingIntent.getActivity(this, 0, intent, PendingIntent.FLAG_IMMUTABLE);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Visiting order for a rider's batch of deliveries, starting from where the rider is.
+//
+// A batch is small (MAX_BATCH drops), so a quick heuristic is enough: nearest neighbour builds a
+// first route, then 2-opt reverses any stretch of it that makes the route shorter, and or-opt
+// moves short runs of stops to a better place, until neither helps. The route is open: it starts
+// at the rider and ends at the last customer, there is no way back to count. Distances are
+// straight-line (DispatchSolver.meters).
+//
+// canJoin() is the batching rule the rider screen applies before accepting another order.
+public final class RoutePlanner {
+
+    public static final int MAX_BATCH = 4;              // orders one rider may carry at once
+    public static final double BATCH_RADIUS_M = 3000;   // a new drop must be this close to one already carried
+
+    private static final double MIN_GAIN_M = 1e-6;      // moves that gain less than this don't count
+
+    // A customer to drop at
+    public static final class Stop {
+        public final String id;     // order ID
+        public final String label;  // shown on the map
+        public final double lat, lng;
+
+        public Stop(String id, String label, double lat, double lng) {
+            this.id = id;
+            this.label = label;
+            this.lat = lat;
+            this.lng = lng;
+        }
+    }
+
+    private RoutePlanner() {}
+
+    public static List<Stop> plan(double startLat, double startLng, List<Stop> stops) {
+        List<Stop> route = nearestNeighbour(startLat, startLng, stops);
+        if (route.size() < 2) return route;
+        List<Stop> path = new ArrayList<>(route.size() + 1);
+        path.add(new Stop(null, null, startLat, startLng));
+        path.addAll(route);
+        improve(path);
+        return new ArrayList<>(path.subList(1, path.size()));
+    }
+
+    // Total metres from the start through every stop in order
+    public static double length(double startLat, double startLng, List<Stop> route) {
+        double total = 0, lat = startLat, lng = startLng;
+        for (Stop stop : route) {
+            total += DispatchSolver.meters(lat, lng, stop.lat, stop.lng);
+            lat = stop.lat;
+            lng = stop.lng;
+        }
+        return total;
+    }
+
+    // Whether a rider already carrying `batch` may also take `candidate`
+    public static boolean canJoin(List<Stop> batch, Stop candidate) {
+        if (batch.isEmpty()) return true;
+        if (batch.size() >= MAX_BATCH) return false;
+        for (Stop stop : batch) {
+            if (DispatchSolver.meters(stop.lat, stop.lng, candidate.lat, candidate.lng) <= BATCH_RADIUS_M) return true;
+        }
+        return false;
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static List<Stop> nearestNeighbour(double startLat, double startLng, List<Stop> stops) {
+        List<Stop> left = new ArrayList<>(stops);
+        List<Stop> route = new ArrayList<>(stops.size());
+        double lat = startLat, lng = startLng;
+        while (!left.isEmpty()) {
+            int best = 0;
+            double bestMeters = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < left.size(); i++) {
+                double meters = DispatchSolver.meters(lat, lng, left.get(i).lat, left.get(i).lng);
+                if (meters < bestMeters) {
+                    bestMeters = meters;
+                    best = i;
+                }
+            }
+            Stop next = left.remove(best);
+            route.add(next);
+            lat = next.lat;
+            lng = next.lng;
+        }
+        return route;
+    }
+
+    // Improves the path (path[0] is the rider, fixed) until neither move helps
+    private static void improve(List<Stop> path) {
+        boolean improved = true;
+        while (improved) {
+            improved = twoOpt(path);
+            improved |= orOpt(path);
+        }
+    }
+
+    // Reverses a stretch path[i..j] when that shortens the path. Edges (i-1, i) and (j, j+1) become
+    // (i-1, j) and (i, j+1); a stretch running to the end only has the first edge, the route being open.
+    private static boolean twoOpt(List<Stop> path) {
+        boolean any = false, improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 1; i < path.size() - 1; i++) {
+                for (int j = i + 1; j < path.size(); j++) {
+                    double before = d(path.get(i - 1), path.get(i));
+                    double after = d(path.get(i - 1), path.get(j));
+                    if (j + 1 < path.size()) {
+                        before += d(path.get(j), path.get(j + 1));
+                        after += d(path.get(i), path.get(j + 1));
+                    }
+                    if (before - after > MIN_GAIN_M) {
+                        Collections.reverse(path.subList(i, j + 1));
+                        improved = any = true;
+                    }
+                }
+            }
+        }
+        return any;
+    }
+
+    // Or-opt: moves a run of 1-3 consecutive stops (either way round) to wherever it is cheapest.
+    // Catches what 2-opt alone misses, e.g. one drop picked up on the wrong side of the route.
+    private static boolean orOpt(List<Stop> path) {
+        boolean any = false;
+        for (int length = 1; length <= 3; length++) {
+            for (int i = 1; i + length <= path.size(); i++) {
+                Stop first = path.get(i), last = path.get(i + length - 1);
+                Stop before = path.get(i - 1);
+                Stop after = i + length < path.size() ? path.get(i + length) : null;
+                double saved = d(before, first) + (after == null ? 0 : d(last, after) - d(before, after));
+
+                List<Stop> rest = new ArrayList<>(path);
+                List<Stop> run = new ArrayList<>(rest.subList(i, i + length));
+                rest.subList(i, i + length).clear();
+
+                int bestAt = -1;
+                boolean bestReversed = false;
+                double bestCost = saved - MIN_GAIN_M;
+                for (int k = 0; k < rest.size(); k++) { // insert after rest[k]
+                    if (k == i - 1) continue; // where it came from
+                    Stop a = rest.get(k), b = k + 1 < rest.size() ? rest.get(k + 1) : null;
+                    double gap = b == null ? 0 : d(a, b);
+                    double forward = d(a, first) + (b == null ? 0 : d(last, b)) - gap;
+                    double backward = d(a, last) + (b == null ? 0 : d(first, b)) - gap;
+                    if (forward < bestCost) {
+                        bestCost = forward;
+                        bestAt = k;
+                        bestReversed = false;
+                    }
+                    if (backward < bestCost) {
+                        bestCost = backward;
+                        bestAt = k;
+                        bestReversed = true;
+                    }
+                }
+                if (bestAt < 0) continue;
+
+                if (bestReversed) Collections.reverse(run);
+                rest.addAll(bestAt + 1, run);
+                path.clear();
+                path.addAll(rest);
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    private static double d(Stop a, Stop b) {
+        return DispatchSolver.meters(a.lat, a.lng, b.lat, b.lng);
+    }
+}
@@ -33,7 +33,7 @@ public class SignUpActivity extends AppCompatActivity {
     private FirebaseAuth mAuth;
 
     //Firebase class that points to a location
-    private DatabaseReference usersRef,counterRef;
+    private DatabaseReference usersRef;
 
 
     @Override
@@ -52,7 +52,6 @@ public class SignUpActivity extends AppCompatActivity {
 
         //Real Time Firebase Database refernces
         usersRef = FirebaseDatabase.getInstance().getReference("users");
-        counterRef = FirebaseDatabase.getInstance().getReference("userCounter");
 
         //Finds the view
         inputName = findViewById(R.id.inputName);
@@ -91,46 +90,36 @@ public class SignUpActivity extends AppCompatActivity {
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
 
-                        // Step 2: Find the highest userID in "users"
-                        usersRef.get().addOnCompleteListener(snapshotTask -> {
-                            if (snapshotTask.isSuccessful() && snapshotTask.getResult() != null) {
-                                long maxId = 0;
-                                for (DataSnapshot child : snapshotTask.getResult().getChildren()) {
-                                    String key = child.getKey(); // e.g., "u018"
-                                    if (key != null && key.startsWith("u")) {
-                                        try {
-                                            long num = Long.parseLong(key.substring(1));
-                                            if (num > maxId) {
-                                                maxId = num;
-                                            }
-                                        } catch (NumberFormatException ignored) {}
+                        // Step 2: Reserve the next userID (shared counter, see IdCounters)
+                        IdCounters.reserve(FirebaseDatabase.getInstance().getReference(), null, 'u', 1,
+                                new IdCounters.Callback() {
+                                    @Override
+                                    public void onReserved(IdBlock staff, IdBlock users) {
+                                        String userID = users.id(0); // e.g. "u019"
+
+                                        // Step 3: Create User object (role = Customer)
+                                        User user = new User(userID, name, email, phone, address, "Customer");
+
+                                        // Step 4: Save under users/{userID}
+                                        usersRef.child(userID).setValue(user)
+                                                .addOnCompleteListener(task1 -> {
+                                                    if (task1.isSuccessful()) {
+                                                        Toast.makeText(SignUpActivity.this, "Sign-up successful!", Toast.LENGTH_SHORT).show();
+
+                                                        // Step 5: Go to LoginActivity
+                                                        startActivity(new Intent(SignUpActivity.this, LoginActivity.class));
+                                                        finish();
+                                                    } else {
+                                                        Toast.makeText(SignUpActivity.this, "Failed to save user info", Toast.LENGTH_SHORT).show();
+                                                    }
+                                                });
                                     }
-                                }
-
-                                // Next available ID
-                                long newIdNumber = maxId + 1;
-                                String userID = String.format("u%03d", newIdNumber);
-
-                                // Step 3: Create User object (role = Customer)
-                                User user = new User(userID, name, email, phone, address, "Customer");
-
-                                // Step 4: Save under users/{userID}
-                                usersRef.child(userID).setValue(user)
-                                        .addOnCompleteListener(task1 -> {
-                                            if (task1.isSuccessful()) {
-                                                Toast.makeText(SignUpActivity.this, "Sign-up successful!", Toast.LENGTH_SHORT).show();
-
-                                                // Step 5: Go to LoginActivity
-                                                startActivity(new Intent(SignUpActivity.this, LoginActivity.class));
-                                                finish();
-                                            } else {
-                                                Toast.makeText(SignUpActivity.this, "Failed to save user info", Toast.LENGTH_SHORT).show();
-                                            }
-                                        });
-                            } else {
-                                Toast.makeText(SignUpActivity.this, "Failed to fetch users", Toast.LENGTH_SHORT).show();
-                            }
-                        });
+
+                                    @Override
+                                    public void onFailed(String message) {
+                                        Toast.makeText(SignUpActivity.this, "Failed to create user ID", Toast.LENGTH_SHORT).show();
+                                    }
+                                });
 
                     } else {
                         // Firebase Auth error
@@ -0,0 +1,175 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Hand-written converters from DataSnapshot.getValue() (plain Map/List/Long/Double/String)
+// to the menu, branch and staff models, replacing getValue(SomeModel.class).
+// The reflective path inspects every model class and boxes each field on the main thread;
+// these just copy fields across. Orders, summaries and carts are handled by WireFormat.
+//
+// Every mapper returns null when the node is missing, same as getValue(Class) did.
+public final class SnapshotMappers {
+
+    // Menu availability bitsets (see BranchSet), stored next to the readable "branches" list
+    public static final String MENU_BRANCH_BITS = "ab";
+    public static final String MENU_SOLD_OUT_BITS = "so";
+
+    private SnapshotMappers() {}
+
+    // ================================ MENU ================================
+
+    public static CustomerHomeActivity.MenuItem menuItem(Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) raw;
+        CustomerHomeActivity.MenuItem item = new CustomerHomeActivity.MenuItem();
+        item.menuID = string(map, "menuID");
+        item.name = string(map, "name");
+        item.category = string(map, "category");
+        item.description = string(map, "description");
+        item.imageURL = string(map, "imageURL");
+        item.price = number(map, "price");
+        item.branches = stringList(map, "branches");
+        item.availableAt = branchBits(map, item.branches);
+        item.soldOutAt = BranchSet.fromWire(map.get(MENU_SOLD_OUT_BITS));
+        return item;
+    }
+
+    public static AdminHomeActivity.MenuItem adminMenuItem(Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) raw;
+        AdminHomeActivity.MenuItem item = new AdminHomeActivity.MenuItem();
+        item.menuID = string(map, "menuID");
+        item.name = string(map, "name");
+        item.category = string(map, "category");
+        item.description = string(map, "description");
+        item.imageURL = string(map, "imageURL");
+        item.price = number(map, "price");
+        item.branches = stringList(map, "branches");
+        item.availableAt = branchBits(map, item.branches);
+        item.soldOutAt = BranchSet.fromWire(map.get(MENU_SOLD_OUT_BITS));
+        return item;
+    }
+
+    // What the admin screen writes to menu/{id}: the readable fields plus the availability bitsets
+    public static Map<String, Object> menuToWire(AdminHomeActivity.MenuItem item) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("menuID", item.menuID);
+        map.put("name", item.name);
+        map.put("category", item.category);
+        map.put("description", item.description);
+        map.put("imageURL", item.imageURL);
+        map.put("price", item.price);
+        map.put("branches", item.branches);
+        map.put(MENU_BRANCH_BITS, item.availableAt.toWire());
+        if (!item.soldOutAt.isEmpty()) map.put(MENU_SOLD_OUT_BITS, item.soldOutAt.toWire());
+        return map;
+    }
+
+    // =============================== BRANCHES ===============================
+
+    public static CustomerHomeActivity.Branch branch(Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) raw;
+        CustomerHomeActivity.Branch branch = new CustomerHomeActivity.Branch();
+        branch.branchID = string(map, "branchID");
+        branch.name = string(map, "name");
+        branch.latitude = number(map, "latitude");
+        branch.longitude = number(map, "longitude");
+        branch.contact = whole(map, "contact");
+        return branch;
+    }
+
+    public static AdminBranchEmployeeManagementActivity.Branch staffBranch(Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) raw;
+        return new AdminBranchEmployeeManagementActivity.Branch(
+                string(map, "branchID"),
+                string(map, "name"),
+                whole(map, "contact"),
+                number(map, "latitude"),
+                number(map, "longitude"));
+    }
+
+    public static AdminDeliverymanManagement.Branch deliveryBranch(Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) raw;
+        return new AdminDeliverymanManagement.Branch(string(map, "branchID"), string(map, "name"));
+    }
+
+    // ================================ STAFF ================================
+
+    public static AdminBranchEmployeeManagementActivity.Employee employee(Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) raw;
+        AdminBranchEmployeeManagementActivity.Employee employee = new AdminBranchEmployeeManagementActivity.Employee();
+        employee.employeeID = string(map, "employeeID");
+        employee.branchID = string(map, "branchID");
+        employee.name = string(map, "name");
+        employee.email = string(map, "email");
+        employee.address = string(map, "address");
+        employee.userID = string(map, "userID");
+        employee.password = string(map, "password");
+        employee.contact = whole(map, "contact");
+        return employee;
+    }
+
+    public static AdminDeliverymanManagement.Deliveryman deliveryman(Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) raw;
+        AdminDeliverymanManagement.Deliveryman del = new AdminDeliverymanManagement.Deliveryman();
+        del.delID = string(map, "delID");
+        del.branchID = string(map, "branchID");
+        del.name = string(map, "name");
+        del.email = string(map, "email");
+        del.address = string(map, "address");
+        del.userID = string(map, "userID");
+        del.password = string(map, "password");
+        del.status = string(map, "status");
+        del.contact = whole(map, "contact");
+        return del;
+    }
+
+    // ================================ HELPERS ================================
+
+    private static String string(Map<?, ?> map, String key) {
+        Object value = map.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    private static double number(Map<?, ?> map, String key) {
+        Object value = map.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    private static long whole(Map<?, ?> map, String key) {
+        Object value = map.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    // The stored bits ("ab") are authoritative; the readable "branches" list is only used for a
+    // record written before the bits existed. Every writer (admin form, bulk edit, CSV import,
+    // branch delete) writes both from the same BranchSet, see BranchSet.readableList().
+    private static BranchSet branchBits(Map<?, ?> map, List<String> branches) {
+        Object bits = map.get(MENU_BRANCH_BITS);
+        if (bits != null) return BranchSet.fromWire(bits);
+        return BranchSet.of(branches);
+    }
+
+    // Firebase returns arrays as a List (with null holes) or, when sparse, as a Map
+    private static List<String> stringList(Map<?, ?> map, String key) {
+        Object value = map.get(key);
+        Iterable<?> values;
+        if (value instanceof List) values = (List<?>) value;
+        else if (value instanceof Map) values = ((Map<?, ?>) value).values();
+        else return null;
+
+        List<String> list = new ArrayList<>();
+        for (Object o : values) {
+            if (o != null) list.add(o.toString());
+        }
+        return list;
+    }
+}
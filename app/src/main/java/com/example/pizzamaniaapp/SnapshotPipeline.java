@@ -0,0 +1,138 @@
+package com.example.pizzamaniaapp;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Moves snapshot parsing, filtering and sorting off the UI thread.
+//
+// Each screen owns one pipeline per list. submit() hands the (immutable) DataSnapshot to a small
+// shared background executor, runs the Processor there, and posts only the finished result back
+// to the main thread. A newer submit() or cancel() supersedes any work still in flight, so a
+// stale snapshot can never overwrite a fresher one and nothing is delivered after onDestroy().
+//
+// Superseding happens per pipeline: each one keeps a single slot holding its latest job and has at
+// most one drain queued on the executor, so a busy screen replaces its own pending work instead of
+// pushing another screen's only load out of the queue. The executor itself never drops anything.
+// A Processor that throws is logged and reported to the pipeline's ErrorListener (main thread),
+// so a screen can take its loading dialog down instead of waiting for a result that never comes.
+// Whatever a job throws, its drain still hands the pipeline back, so one bad snapshot can't
+// leave the list deaf to every later one.
+public class SnapshotPipeline<T> {
+
+    // Turns a snapshot into whatever the screen renders (runs on a background thread)
+    public interface Processor<T> {
+        T process(DataSnapshot snapshot);
+    }
+
+    // Work that doesn't start from a snapshot, e.g. regrouping an already loaded list (background thread)
+    public interface Task<T> {
+        T run();
+    }
+
+    // Receives the processed result (runs on the main thread)
+    public interface Consumer<T> {
+        void onResult(T result);
+    }
+
+    // Told when the latest job threw instead of producing a result (runs on the main thread)
+    public interface ErrorListener {
+        void onError(Exception error);
+    }
+
+    private static final String TAG = "SnapshotPipeline";
+
+    // Shared by every pipeline: two workers over an unbounded queue. The queue cannot grow past
+    // one drain per live pipeline, since each pipeline collapses its own backlog into its slot.
+    private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(
+            2, 2, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "snapshot-pipeline");
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicReference<Runnable> latest = new AtomicReference<>(); // newest job not started yet
+    private final AtomicBoolean draining = new AtomicBoolean();              // a drain is queued or running
+    private final Runnable drain = this::drain;
+    private final ErrorListener onError;
+
+    public SnapshotPipeline() {
+        this(null);
+    }
+
+    public SnapshotPipeline(ErrorListener onError) {
+        this.onError = onError;
+    }
+
+    public void submit(DataSnapshot snapshot, Processor<T> processor, Consumer<T> consumer) {
+        execute(() -> processor.process(snapshot), "snapshot " + snapshot.getKey(), consumer);
+    }
+
+    // Same superseding rules as submit(), for in-memory work
+    public void submit(Task<T> task, Consumer<T> consumer) {
+        execute(task, "task", consumer);
+    }
+
+    private void execute(Task<T> task, String label, Consumer<T> consumer) {
+        final int ticket = generation.incrementAndGet();
+        latest.set(() -> {
+            if (isStale(ticket)) return; // newer work arrived while queued
+
+            T result;
+            try {
+                result = task.run();
+            } catch (Exception e) { // also checked exceptions a Processor rethrows sneakily
+                Log.e(TAG, "Failed to process " + label, e);
+                MAIN.post(() -> {
+                    if (!isStale(ticket) && onError != null) onError.onError(e);
+                });
+                return;
+            }
+
+            if (isStale(ticket)) return;
+            MAIN.post(() -> {
+                if (!isStale(ticket)) consumer.onResult(result);
+            });
+        });
+        if (draining.compareAndSet(false, true)) EXECUTOR.execute(drain);
+    }
+
+    // Runs this pipeline's latest job. One that arrived meanwhile is queued again behind the other
+    // pipelines' work rather than run in a loop, so a busy list can't hold a worker to itself.
+    private void drain() {
+        try {
+            Runnable job = latest.getAndSet(null);
+            if (job != null) job.run();
+        } catch (Exception e) {
+            Log.e(TAG, "Pipeline job failed", e); // jobs report their own failures; this is the backstop
+        } finally {
+            draining.set(false); // even after an Error, so the next submit() schedules a drain
+        }
+        if (latest.get() != null && draining.compareAndSet(false, true)) EXECUTOR.execute(drain);
+    }
+
+    // Drop any in-flight work (call from onDestroy or before detaching a listener)
+    public void cancel() {
+        generation.incrementAndGet();
+        latest.set(null);
+    }
+
+    private boolean isStale(int ticket) {
+        return ticket != generation.get();
+    }
+}
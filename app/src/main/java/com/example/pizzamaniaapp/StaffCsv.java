@@ -0,0 +1,227 @@
+package com.example.pizzamaniaapp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// CSV format for bulk staff import/export (employees or deliverymen), one staff member per row:
+//
+//     id,userID,branchID,name,email,password,contact,address,status
+//
+// Rows with id + userID blank are new staff and get IDs from a reserved block; rows that carry
+// both (e.g. from an export) update those records, so a file round-trips. The reader keeps the
+// highest explicit IDs it saw, and the import moves the ID counters past them in the same
+// transaction that reserves the block, so a hand-written "e900" can never be handed out again. Export leaves the
+// password blank and a blank password on an existing row keeps the current one. status only
+// applies to deliverymen. Column order is free and unknown columns are ignored.
+//
+// A row's own IDs are checked against the database before anything is written (conflict()):
+// an import only ever updates staff of its own kind and never changes anyone's role.
+//
+// Both directions stream: Reader parses one row per next() and Writer appends rows as they come,
+// so thousands of rows never have to sit in memory at once.
+public final class StaffCsv {
+
+    public static final String[] HEADER = {"id", "userID", "branchID", "name", "email", "password", "contact", "address", "status"};
+    private static final String[] REQUIRED = {"branchID", "name", "email", "contact", "address"};
+
+    public static final int MAX_REPORTED_ERRORS = 20; // the rest are only counted
+
+    private StaffCsv() {}
+
+    // One parsed row; line is the 1-based line the row starts on
+    public static final class Record {
+        public String id = "", userID = "", branchID = "", name = "", email = "", password = "", address = "", status = "";
+        public long contact;
+        public int line;
+
+        // New staff member: needs a staff ID and a user ID from the reserved block
+        public boolean needsIds() {
+            return id.isEmpty();
+        }
+    }
+
+    // Why a row that carries its own IDs may not be written over what is stored at them, or null
+    // if it may. The user must be new or already have this role (an admin, a customer or the other
+    // kind of staff is refused, so an import can't change roles), and an existing staff record must
+    // be linked to that same user. A user with no staff record behind the row's id is someone
+    // else's login and is refused as well.
+    public static String conflict(Record r, String role, Object storedStaff, Object storedUser) {
+        if (storedUser instanceof Map) {
+            Object storedRole = ((Map<?, ?>) storedUser).get("role");
+            if (!role.equals(storedRole)) return "userID " + r.userID + " has role " + storedRole + ", not " + role;
+            if (!(storedStaff instanceof Map)) return "userID " + r.userID + " already belongs to another account";
+        }
+        if (storedStaff instanceof Map) {
+            Object linked = ((Map<?, ?>) storedStaff).get("userID");
+            if (!r.userID.equals(linked)) return "id " + r.id + " is linked to userID " + linked + ", not " + r.userID;
+        }
+        return null;
+    }
+
+    // ================================ READING ================================
+
+    // Validating reader: next() returns the next good row and records problems with bad ones.
+    // Branch IDs are checked against the given set (null skips that check).
+    public static final class Reader implements Closeable {
+        private final CsvTokenizer tokens;
+        private final char idPrefix;
+        private final Set<String> branchIDs;
+        private final int[] columns; // HEADER index -> CSV column, -1 if absent
+        private final Set<String> seenIds = new HashSet<>();
+        private final Set<String> seenUserIds = new HashSet<>();
+        private long highestId, highestUserId; // 0 until a row carries its own IDs
+        private final List<String> errors = new ArrayList<>();
+        private int errorCount, rows;
+
+        public Reader(java.io.Reader in, char idPrefix, Set<String> branchIDs) throws IOException {
+            this.tokens = new CsvTokenizer(in);
+            this.idPrefix = idPrefix;
+            this.branchIDs = branchIDs;
+
+            List<String> header = tokens.row();
+            if (header == null) throw new IOException("The file is empty");
+            columns = CsvTokenizer.columns(header, HEADER);
+            for (String name : REQUIRED) {
+                if (columns[CsvTokenizer.index(HEADER, name)] < 0) throw new IOException("Missing column \"" + name + "\"");
+            }
+        }
+
+        // Next valid row, or null at the end of the file
+        public Record next() throws IOException {
+            List<String> cells;
+            while ((cells = tokens.row()) != null) {
+                int line = tokens.rowLine();
+                if (CsvTokenizer.isBlank(cells)) continue;
+                rows++;
+                Record record = parse(cells, line);
+                if (record != null) return record;
+            }
+            return null;
+        }
+
+        // Data rows read so far, good and bad
+        public int rows() {
+            return rows;
+        }
+
+        // Highest staff / user number among the valid rows that carry their own IDs (0 if none)
+        public long highestId() {
+            return highestId;
+        }
+
+        public long highestUserId() {
+            return highestUserId;
+        }
+
+        public int errorCount() {
+            return errorCount;
+        }
+
+        // First MAX_REPORTED_ERRORS problems, "Line 12: ..."
+        public List<String> errors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        @Override
+        public void close() throws IOException {
+            tokens.close();
+        }
+
+        private Record parse(List<String> cells, int line) {
+            Record r = new Record();
+            r.line = line;
+            r.id = cell(cells, "id");
+            r.userID = cell(cells, "userID");
+            r.branchID = cell(cells, "branchID");
+            r.name = cell(cells, "name");
+            r.email = cell(cells, "email");
+            r.password = cell(cells, "password");
+            r.address = cell(cells, "address");
+            r.status = cell(cells, "status");
+            String contact = cell(cells, "contact");
+
+            if (r.branchID.isEmpty() || r.name.isEmpty() || r.email.isEmpty() || contact.isEmpty() || r.address.isEmpty()) {
+                return error(line, "branchID, name, email, contact and address are required");
+            }
+            if (branchIDs != null && !branchIDs.contains(r.branchID)) return error(line, "unknown branch " + r.branchID);
+            if (r.email.indexOf('@') <= 0 || r.email.indexOf('@') == r.email.length() - 1) {
+                return error(line, "invalid email " + r.email);
+            }
+            try {
+                r.contact = Long.parseLong(contact.replace(" ", ""));
+            } catch (NumberFormatException e) {
+                return error(line, "invalid contact number " + contact);
+            }
+
+            if (r.id.isEmpty() != r.userID.isEmpty()) return error(line, "id and userID must both be set or both be blank");
+            if (r.needsIds()) {
+                if (r.password.isEmpty()) return error(line, "a password is required for new staff");
+            } else {
+                long id = IdBlock.number(r.id, idPrefix), userId = IdBlock.number(r.userID, 'u');
+                if (id < 0) return error(line, "invalid id " + r.id);
+                if (userId < 0) return error(line, "invalid userID " + r.userID);
+                if (!seenIds.add(r.id)) return error(line, "duplicate id " + r.id);
+                if (!seenUserIds.add(r.userID)) return error(line, "duplicate userID " + r.userID);
+                highestId = Math.max(highestId, id);
+                highestUserId = Math.max(highestUserId, userId);
+            }
+            return r;
+        }
+
+        private Record error(int line, String message) {
+            if (errorCount++ < MAX_REPORTED_ERRORS) errors.add("Line " + line + ": " + message);
+            return null;
+        }
+
+        private String cell(List<String> cells, String name) {
+            int index = columns[CsvTokenizer.index(HEADER, name)];
+            return index >= 0 && index < cells.size() ? cells.get(index).trim() : "";
+        }
+    }
+
+    // ================================ WRITING ================================
+
+    // Writes the header straight away, then one line per write()
+    public static final class Writer implements Closeable {
+        private final java.io.Writer out;
+        private final StringBuilder line = new StringBuilder(128);
+
+        public Writer(java.io.Writer out) throws IOException {
+            this.out = out;
+            CsvTokenizer.writeHeader(out, HEADER);
+        }
+
+        public void write(Record r) throws IOException {
+            line.setLength(0);
+            append(r.id).append(',');
+            append(r.userID).append(',');
+            append(r.branchID).append(',');
+            append(r.name).append(',');
+            append(r.email).append(',');
+            append("").append(','); // passwords are never exported
+            line.append(r.contact).append(',');
+            append(r.address).append(',');
+            append(r.status).append("\r\n");
+            out.write(line.toString());
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private StringBuilder append(String value) {
+            return CsvTokenizer.append(line, value);
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package com.example.pizzamaniaapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Bulk import / export of employees or deliverymen as StaffCsv files.
+//
+// Import:
+//   1. one read of "branches" (+ the checkpoint when resuming)
+//   2. stream the file once to validate every row and count the new staff; nothing is written
+//      if any row is bad
+//   2b. read the staff record and user behind every row that carries its own IDs (CHUNK_ROWS
+//      rows per round of parallel reads) and refuse the file if one would take over another
+//      account or change a role (StaffCsv.conflict)
+//   3. reserve a contiguous block of staff IDs + user IDs for the new rows in one transaction,
+//      which also moves the counters past any IDs the file sets itself
+//   4. stream the file again and write CHUNK_ROWS rows per atomic multi-path update (WriteBatch)
+// Each chunk also writes staffImports/{importID}/done, so the checkpoint moves in the same
+// update as the rows it counts. An interrupted import resumes after the last committed chunk
+// and reserves a fresh block for whatever is left.
+//
+// Export pages through the node with orderByKey() + startAfter() and appends each page to the
+// file, so memory stays at one page however many staff there are.
+//
+// File work runs on a private single thread; listener calls are delivered on the main thread.
+public final class StaffImport {
+
+    public static final int CHUNK_ROWS = 100;   // rows per update (~15 paths each)
+    public static final int EXPORT_PAGE = 500;  // records per export read
+    private static final String CHECKPOINTS = "staffImports";
+    private static final String PREFS = "StaffImport";
+
+    // What each staff screen imports / exports
+    public enum Kind {
+        EMPLOYEES("employees", 'e', "employeeID", "Employee", "phone"),
+        DELIVERYMEN("deliverymen", 'd', "delID", "Deliveryman", "contact");
+
+        public final String node;     // staff node in the database
+        public final char prefix;     // ID prefix
+        final String idField;         // the record's own ID field
+        final String role;            // users/{id}/role
+        final String userContact;     // users/{id} field holding the phone number
+
+        Kind(String node, char prefix, String idField, String role, String userContact) {
+            this.node = node;
+            this.prefix = prefix;
+            this.idField = idField;
+            this.role = role;
+            this.userContact = userContact;
+        }
+    }
+
+    public interface Listener {
+        void onProgress(int done, int total); // total is -1 while exporting
+        void onFinished(int rows);
+        void onFailed(String message);
+    }
+
+    // A checkpoint left by an import that did not finish
+    public static final class Pending {
+        public final String importID;
+        public final Uri file;
+
+        Pending(String importID, Uri file) {
+            this.importID = importID;
+            this.file = file;
+        }
+    }
+
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "staff-import");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private final Context context;
+    private final DatabaseReference root;
+    private final Kind kind;
+    private final Uri file;
+    private final String importID;
+    private final Listener listener;
+    private final boolean resuming;
+
+    // Import state, only touched on the IO thread once writing starts
+    private StaffCsv.Reader reader;
+    private Set<String> branchIDs;
+    private int total, done, newRows;
+    private long highestId, highestUserId; // explicit IDs in the file, the counters must pass them
+    private final List<StaffCsv.Record> explicit = new ArrayList<>(); // remaining rows with their own IDs
+    private IdBlock staffIds, userIds;
+    private int nextId;
+
+    private StaffImport(Context context, DatabaseReference root, Kind kind, Uri file, String importID,
+                        boolean resuming, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.root = root;
+        this.kind = kind;
+        this.file = file;
+        this.importID = importID;
+        this.listener = listener;
+        this.resuming = resuming;
+    }
+
+    // ================================ IMPORT ================================
+
+    // Starts importing a new file (any previous checkpoint of this kind is dropped)
+    public static void start(Context context, DatabaseReference root, Kind kind, Uri file, Listener listener) {
+        String importID = root.child(CHECKPOINTS).push().getKey();
+        prefs(context).edit()
+                .putString(kind.node + ".id", importID)
+                .putString(kind.node + ".uri", file.toString())
+                .apply();
+        // The checkpoint exists from the start, so on resume a missing one means "already finished"
+        Map<String, Object> checkpoint = new HashMap<>();
+        checkpoint.put("node", kind.node);
+        checkpoint.put("done", 0);
+        root.child(CHECKPOINTS).child(importID).setValue(checkpoint);
+        new StaffImport(context, root, kind, file, importID, false, listener).load();
+    }
+
+    // Continues an import after its last committed chunk
+    public static void resume(Context context, DatabaseReference root, Kind kind, Pending pending, Listener listener) {
+        new StaffImport(context, root, kind, pending.file, pending.importID, true, listener).load();
+    }
+
+    // The unfinished import of this kind, if any
+    public static Pending pending(Context context, Kind kind) {
+        SharedPreferences prefs = prefs(context);
+        String importID = prefs.getString(kind.node + ".id", null);
+        String uri = prefs.getString(kind.node + ".uri", null);
+        return importID != null && uri != null ? new Pending(importID, Uri.parse(uri)) : null;
+    }
+
+    public static void discard(Context context, DatabaseReference root, Kind kind) {
+        Pending pending = pending(context, kind);
+        if (pending != null) root.child(CHECKPOINTS).child(pending.importID).removeValue();
+        forget(context, kind);
+    }
+
+    private static void forget(Context context, Kind kind) {
+        prefs(context).edit().remove(kind.node + ".id").remove(kind.node + ".uri").apply();
+    }
+
+    // Step 1: branches to validate against + how far a previous run got
+    private void load() {
+        ParallelReads.read(new ParallelReads.Callback() {
+            @Override
+            public void onLoaded(DataSnapshot[] snaps) {
+                if (resuming && !snaps[1].exists()) { // last chunk committed, only the local note was left
+                    forget(context, kind);
+                    fail("That import had already finished");
+                    return;
+                }
+                Set<String> ids = new HashSet<>();
+                for (DataSnapshot branch : snaps[0].getChildren()) ids.add(branch.getKey());
+                Long committed = snaps[1].child("done").getValue(Long.class);
+                branchIDs = ids;
+                done = committed != null ? committed.intValue() : 0;
+                IO.execute(StaffImport.this::validate);
+            }
+
+            @Override
+            public void onFailed(DatabaseError error) {
+                fail(error.getMessage());
+            }
+        }, root.child("branches"), root.child(CHECKPOINTS).child(importID));
+    }
+
+    // Step 2 (IO thread): every row must be valid before anything is written
+    private void validate() {
+        try (StaffCsv.Reader check = open()) {
+            StaffCsv.Record record;
+            int valid = 0;
+            while ((record = check.next()) != null) {
+                if (valid++ < done) continue;
+                if (record.needsIds()) {
+                    newRows++;
+                } else {
+                    record.name = record.email = record.password = record.address = ""; // only IDs and line are kept
+                    explicit.add(record);
+                }
+            }
+            if (check.errorCount() > 0) {
+                StringBuilder message = new StringBuilder(check.errorCount() + " invalid row(s), nothing written:");
+                for (String error : check.errors()) message.append('\n').append(error);
+                discard(context, root, kind); // nothing to resume from a file that has to be fixed
+                fail(message.toString());
+                return;
+            }
+            total = valid;
+            highestId = check.highestId();
+            highestUserId = check.highestUserId();
+        } catch (IOException e) {
+            discard(context, root, kind);
+            fail("Could not read the file: " + e.getMessage());
+            return;
+        }
+        MAIN.post(() -> verify(0, new ArrayList<>()));
+    }
+
+    // Step 2b: rows with their own IDs, checked against what is stored at those IDs
+    private void verify(int from, List<String> conflicts) {
+        if (from >= explicit.size()) {
+            if (conflicts.isEmpty()) {
+                explicit.clear();
+                reserve();
+                return;
+            }
+            StringBuilder message = new StringBuilder(conflicts.size() + " row(s) would overwrite other accounts, nothing written:");
+            for (int i = 0; i < Math.min(conflicts.size(), StaffCsv.MAX_REPORTED_ERRORS); i++) message.append('\n').append(conflicts.get(i));
+            discard(context, root, kind);
+            fail(message.toString());
+            return;
+        }
+        List<StaffCsv.Record> rows = explicit.subList(from, Math.min(from + CHUNK_ROWS, explicit.size()));
+        Query[] reads = new Query[rows.size() * 2];
+        for (int i = 0; i < rows.size(); i++) {
+            reads[2 * i] = root.child(kind.node).child(rows.get(i).id);
+            reads[2 * i + 1] = root.child("users").child(rows.get(i).userID);
+        }
+        ParallelReads.read(new ParallelReads.Callback() {
+            @Override
+            public void onLoaded(DataSnapshot[] snaps) {
+                for (int i = 0; i < rows.size(); i++) {
+                    StaffCsv.Record row = rows.get(i);
+                    String conflict = StaffCsv.conflict(row, kind.role, snaps[2 * i].getValue(), snaps[2 * i + 1].getValue());
+                    if (conflict != null) conflicts.add("Line " + row.line + ": " + conflict);
+                }
+                verify(from + rows.size(), conflicts);
+            }
+
+            @Override
+            public void onFailed(DatabaseError error) {
+                fail("Could not check existing staff: " + error.getMessage());
+            }
+        }, reads);
+    }
+
+    // Step 3: one transaction for all the IDs the remaining new rows need, starting above the file's own
+    private void reserve() {
+        if (newRows == 0 && highestId == 0) {
+            IO.execute(this::beginWriting);
+            return;
+        }
+        IdCounters.reserve(root, kind.node, kind.prefix, newRows, highestId + 1, highestUserId + 1, new IdCounters.Callback() {
+            @Override
+            public void onReserved(IdBlock staff, IdBlock users) {
+                staffIds = staff;
+                userIds = users;
+                IO.execute(StaffImport.this::beginWriting);
+            }
+
+            @Override
+            public void onFailed(String message) {
+                fail("Could not reserve IDs: " + message);
+            }
+        });
+    }
+
+    // Step 4 (IO thread): reopen the file and skip what a previous run already committed
+    private void beginWriting() {
+        try {
+            reader = open();
+            for (int i = 0; i < done; i++) reader.next();
+        } catch (IOException e) {
+            fail("Could not read the file: " + e.getMessage());
+            return;
+        }
+        post(() -> listener.onProgress(done, total));
+        writeChunk();
+    }
+
+    // IO thread: next CHUNK_ROWS rows plus the checkpoint, as one update
+    private void writeChunk() {
+        WriteBatch batch = new WriteBatch("import " + kind.node);
+        int rows = 0;
+        try {
+            StaffCsv.Record record;
+            while (rows < CHUNK_ROWS && (record = reader.next()) != null) {
+                addRecord(batch, record);
+                rows++;
+            }
+        } catch (IOException e) {
+            closeReader();
+            fail("Could not read the file: " + e.getMessage());
+            return;
+        }
+
+        final int committed = done + rows;
+        final boolean last = committed >= total;
+        if (last) {
+            batch.delete(CHECKPOINTS + "/" + importID);
+        } else {
+            Map<String, Object> checkpoint = new HashMap<>();
+            checkpoint.put("node", kind.node);
+            checkpoint.put("done", committed);
+            checkpoint.put("total", total);
+            batch.set(CHECKPOINTS + "/" + importID, checkpoint);
+        }
+
+        batch.commit(root)
+                .addOnSuccessListener(aVoid -> {
+                    done = committed;
+                    listener.onProgress(done, total);
+                    if (last) {
+                        closeReader();
+                        forget(context, kind);
+                        listener.onFinished(total);
+                    } else {
+                        IO.execute(this::writeChunk);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    closeReader();
+                    listener.onFailed("Import stopped after " + done + " of " + total + " rows (" + e.getMessage()
+                            + "). Import again to resume.");
+                });
+    }
+
+    // Staff record + linked user, field by field so an existing record keeps what the file leaves blank
+    private void addRecord(WriteBatch batch, StaffCsv.Record r) {
+        String staffID = r.id, userID = r.userID;
+        if (r.needsIds()) {
+            staffID = staffIds.id(nextId);
+            userID = userIds.id(nextId);
+            nextId++;
+        }
+
+        Map<String, Object> staff = new HashMap<>();
+        staff.put(kind.idField, staffID);
+        staff.put("branchID", r.branchID);
+        staff.put("name", r.name);
+        staff.put("email", r.email);
+        staff.put("contact", r.contact);
+        staff.put("address", r.address);
+        staff.put("userID", userID);
+        if (!r.password.isEmpty()) staff.put("password", r.password);
+        if (kind == Kind.DELIVERYMEN && (r.needsIds() || !r.status.isEmpty())) {
+            staff.put("status", r.status.isEmpty() ? "Available" : r.status); // new deliverymen start Available
+        }
+        batch.setFields(kind.node + "/" + staffID, staff);
+
+        Map<String, Object> user = new HashMap<>();
+        user.put("userID", userID);
+        user.put("name", r.name);
+        user.put("email", r.email);
+        user.put("address", r.address);
+        user.put(kind.userContact, r.contact);
+        user.put("role", kind.role);
+        batch.setFields("users/" + userID, user);
+    }
+
+    private StaffCsv.Reader open() throws IOException {
+        InputStream in = context.getContentResolver().openInputStream(file);
+        if (in == null) throw new IOException("cannot open " + file);
+        return new StaffCsv.Reader(new InputStreamReader(in, StandardCharsets.UTF_8), kind.prefix, branchIDs);
+    }
+
+    private void closeReader() {
+        if (reader == null) return;
+        try {
+            reader.close();
+        } catch (IOException ignored) {}
+        reader = null;
+    }
+
+    // ================================ EXPORT ================================
+
+    public static void export(Context context, DatabaseReference root, Kind kind, Uri file, Listener listener) {
+        IO.execute(() -> {
+            StaffCsv.Writer writer;
+            try {
+                OutputStream out = context.getContentResolver().openOutputStream(file);
+                if (out == null) throw new IOException("cannot open " + file);
+                writer = new StaffCsv.Writer(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                post(() -> listener.onFailed("Could not write the file: " + e.getMessage()));
+                return;
+            }
+            MAIN.post(() -> exportPage(root, kind, writer, null, 0, listener));
+        });
+    }
+
+    // Reads one page after lastKey, writes it on the IO thread, then asks for the next
+    private static void exportPage(DatabaseReference root, Kind kind, StaffCsv.Writer writer, String lastKey,
+                                   int written, Listener listener) {
+        Query page = root.child(kind.node).orderByKey();
+        if (lastKey != null) page = page.startAfter(lastKey);
+        ParallelReads.read(new ParallelReads.Callback() {
+            @Override
+            public void onLoaded(DataSnapshot[] snaps) {
+                DataSnapshot snapshot = snaps[0];
+                IO.execute(() -> {
+                    int count = written;
+                    String last = lastKey;
+                    try {
+                        for (DataSnapshot child : snapshot.getChildren()) {
+                            last = child.getKey();
+                            StaffCsv.Record record = record(kind, child.getValue());
+                            if (record == null) continue;
+                            writer.write(record);
+                            count++;
+                        }
+                        if (snapshot.getChildrenCount() < EXPORT_PAGE) {
+                            writer.close();
+                            final int rows = count;
+                            post(() -> listener.onFinished(rows));
+                            return;
+                        }
+                        writer.flush();
+                    } catch (IOException e) {
+                        closeQuietly(writer);
+                        post(() -> listener.onFailed("Could not write the file: " + e.getMessage()));
+                        return;
+                    }
+                    final int rows = count;
+                    final String next = last;
+                    post(() -> {
+                        listener.onProgress(rows, -1);
+                        exportPage(root, kind, writer, next, rows, listener);
+                    });
+                });
+            }
+
+            @Override
+            public void onFailed(DatabaseError error) {
+                IO.execute(() -> closeQuietly(writer));
+                listener.onFailed("Export stopped after " + written + " rows: " + error.getMessage());
+            }
+        }, page.limitToFirst(EXPORT_PAGE));
+    }
+
+    // One raw staff record as a CSV row (null if it isn't a record)
+    static StaffCsv.Record record(Kind kind, Object raw) {
+        StaffCsv.Record r = new StaffCsv.Record();
+        if (kind == Kind.EMPLOYEES) {
+            AdminBranchEmployeeManagementActivity.Employee e = SnapshotMappers.employee(raw);
+            if (e == null) return null;
+            r.id = e.employeeID; r.userID = e.userID; r.branchID = e.branchID; r.name = e.name;
+            r.email = e.email; r.contact = e.contact; r.address = e.address;
+        } else {
+            AdminDeliverymanManagement.Deliveryman d = SnapshotMappers.deliveryman(raw);
+            if (d == null) return null;
+            r.id = d.delID; r.userID = d.userID; r.branchID = d.branchID; r.name = d.name;
+            r.email = d.email; r.contact = d.contact; r.address = d.address; r.status = d.status;
+        }
+        return r;
+    }
+
+    // ================================ HELPERS ================================
+
+    private void fail(String message) {
+        post(() -> listener.onFailed(message));
+    }
+
+    private static void post(Runnable runnable) {
+        MAIN.post(runnable);
+    }
+
+    private static void closeQuietly(StaffCsv.Writer writer) {
+        try {
+            writer.close();
+        } catch (IOException ignored) {}
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.pizzamaniaapp; // Package name of this class
+
+import android.view.LayoutInflater; // Converts XML layouts into View objects
+import android.view.View; // Basic UI component
+import android.view.ViewGroup; // Parent container for Views
+import android.widget.TextView; // UI element for displaying text
+
+import androidx.annotation.NonNull; // Annotation meaning "cannot be null"
+import androidx.recyclerview.widget.AsyncListDiffer; // Diffs old vs new rows on a background thread
+import androidx.recyclerview.widget.RecyclerView; // Scrollable, recycling list view
+
+import java.util.List; // Current rows
+
+// 🔹 Sectioned list for the admin staff screens: a header row per branch followed by its staff rows.
+// Replaces one inflated LinearLayout per branch (and per staff member) with recycled views,
+// so only the rows on screen exist no matter how many branches there are.
+// Rows are diffed by branch / staff ID, so an edit only rebinds the rows that changed.
+public class StaffSectionAdapter<B, S> extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    private static final int TYPE_BRANCH = 0; // Branch header row
+    private static final int TYPE_STAFF = 1;  // Employee / deliveryman row
+
+    // 🔹 What each screen plugs in: names to show and what the buttons do
+    public interface Callbacks<B, S> {
+        String branchID(B branch);
+        String staffID(S staff);
+        String branchName(B branch);
+        String staffName(S staff);
+        void onAddStaff(B branch);
+        void onEditStaff(S staff);
+        void onDeleteStaff(S staff);
+        default void onEditBranch(B branch) {}   // Only if the header layout has an edit button
+        default void onDeleteBranch(B branch) {} // Only if the header layout has a delete button
+    }
+
+    private final int headerLayout; // branch_row or deliveryman_branch_row
+    private final int addButtonId;  // "Add Employee" / "Add Deliveryman" button inside the header
+    private final Callbacks<B, S> callbacks;
+    private final AsyncListDiffer<StaffSections.Row<B, S>> differ; // diffs rows off the UI thread
+
+    public StaffSectionAdapter(int headerLayout, int addButtonId, Callbacks<B, S> callbacks) {
+        this.headerLayout = headerLayout;
+        this.addButtonId = addButtonId;
+        this.callbacks = callbacks;
+        this.differ = new AsyncListDiffer<>(this, DiffCallbacks.staffRow(callbacks));
+    }
+
+    // 🔹 Show freshly grouped branches and staff (the rows are immutable, so no copy is needed)
+    public void setSections(StaffSections<B, S> newSections) {
+        differ.submitList(newSections.rows());
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return rows().get(position).isHeader() ? TYPE_BRANCH : TYPE_STAFF;
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == TYPE_BRANCH) {
+            BranchHolder holder = new BranchHolder(inflater.inflate(headerLayout, parent, false), addButtonId);
+            // Listeners are wired once per holder and look up the row at click time
+            holder.addButton.setOnClickListener(v -> {
+                StaffSections.Row<B, S> row = rowAt(holder);
+                if (row != null) callbacks.onAddStaff(row.branch);
+            });
+            if (holder.editButton != null) holder.editButton.setOnClickListener(v -> {
+                StaffSections.Row<B, S> row = rowAt(holder);
+                if (row != null) callbacks.onEditBranch(row.branch);
+            });
+            if (holder.deleteButton != null) holder.deleteButton.setOnClickListener(v -> {
+                StaffSections.Row<B, S> row = rowAt(holder);
+                if (row != null) callbacks.onDeleteBranch(row.branch);
+            });
+            return holder;
+        }
+
+        StaffHolder holder = new StaffHolder(inflater.inflate(R.layout.employee_row, parent, false));
+        holder.editButton.setOnClickListener(v -> {
+            StaffSections.Row<B, S> row = rowAt(holder);
+            if (row != null) callbacks.onEditStaff(row.staff);
+        });
+        holder.deleteButton.setOnClickListener(v -> {
+            StaffSections.Row<B, S> row = rowAt(holder);
+            if (row != null) callbacks.onDeleteStaff(row.staff);
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        StaffSections.Row<B, S> row = rows().get(position);
+        if (holder instanceof BranchHolder) {
+            ((BranchHolder) holder).name.setText(callbacks.branchName(row.branch)); // Branch name
+        } else {
+            ((StaffHolder) holder).name.setText(callbacks.staffName(row.staff)); // Staff member name
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return rows().size(); // Headers + staff rows
+    }
+
+    private List<StaffSections.Row<B, S>> rows() {
+        return differ.getCurrentList();
+    }
+
+    private StaffSections.Row<B, S> rowAt(RecyclerView.ViewHolder holder) {
+        int position = holder.getAdapterPosition();
+        return position != RecyclerView.NO_POSITION ? rows().get(position) : null;
+    }
+
+    // 🔹 Branch header: name, add-staff button and (employee screen only) edit/delete buttons
+    static class BranchHolder extends RecyclerView.ViewHolder {
+        final TextView name;
+        final View addButton, editButton, deleteButton;
+
+        BranchHolder(@NonNull View itemView, int addButtonId) {
+            super(itemView);
+            name = itemView.findViewById(R.id.branchName);
+            addButton = itemView.findViewById(addButtonId);
+            editButton = itemView.findViewById(R.id.editBranchBtn);     // null in deliveryman_branch_row
+            deleteButton = itemView.findViewById(R.id.deleteBranchBtn); // null in deliveryman_branch_row
+        }
+    }
+
+    // 🔹 Staff row: name plus edit/delete buttons
+    static class StaffHolder extends RecyclerView.ViewHolder {
+        final TextView name;
+        final View editButton, deleteButton;
+
+        StaffHolder(@NonNull View itemView) {
+            super(itemView);
+            name = itemView.findViewById(R.id.employeeName);
+            editButton = itemView.findViewById(R.id.editEmployeeBtn);
+            deleteButton = itemView.findViewById(R.id.deleteEmployeeBtn);
+        }
+    }
+}
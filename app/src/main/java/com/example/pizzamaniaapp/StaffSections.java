@@ -0,0 +1,88 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Branches and their staff flattened into one list of rows (a header per branch, then its staff),
+// which is what StaffSectionAdapter binds from.
+//
+// Built from one read of "branches" plus one read of the whole staff node ("employees" or
+// "deliverymen"), grouped client-side in a single pass, instead of one orderByChild("branchID")
+// query per branch. Branches keep the order they are given in; staff keep their order within a
+// branch. Staff whose branch is not in the list are left out, as the per-branch queries did.
+// Immutable once built.
+public final class StaffSections<B, S> {
+
+    // One row: a branch header (staff == null) or a staff member under that branch
+    public static final class Row<B, S> {
+        public final B branch;
+        public final S staff;
+
+        Row(B branch, S staff) {
+            this.branch = branch;
+            this.staff = staff;
+        }
+
+        public boolean isHeader() {
+            return staff == null;
+        }
+    }
+
+    private final List<Row<B, S>> rows;
+    private final int branchCount;
+
+    private StaffSections(List<Row<B, S>> rows, int branchCount) {
+        this.rows = rows;
+        this.branchCount = branchCount;
+    }
+
+    public static <B, S> StaffSections<B, S> empty() {
+        return new StaffSections<>(Collections.<Row<B, S>>emptyList(), 0);
+    }
+
+    public static <B, S> StaffSections<B, S> group(List<B> branches, Function<B, String> branchIdOf,
+                                                   List<S> staff, Function<S, String> staffBranchOf) {
+        // branchID -> staff of that branch, filled in one pass over the staff list
+        Map<String, List<S>> byBranch = new HashMap<>(branches.size() * 2);
+        for (B branch : branches) byBranch.put(branchIdOf.apply(branch), new ArrayList<>());
+        for (S member : staff) {
+            if (member == null) continue;
+            List<S> members = byBranch.get(staffBranchOf.apply(member));
+            if (members != null) members.add(member);
+        }
+
+        List<Row<B, S>> rows = new ArrayList<>(branches.size() + staff.size());
+        for (B branch : branches) {
+            rows.add(new Row<>(branch, null));
+            for (S member : byBranch.get(branchIdOf.apply(branch))) rows.add(new Row<>(branch, member));
+        }
+        return new StaffSections<>(Collections.unmodifiableList(rows), branches.size());
+    }
+
+    // Branches by ID number (b001, b002, ... b010); an empty, missing or hand-typed ID sorts last
+    // (by its text) instead of failing the whole screen
+    public static <B> Comparator<B> byBranchNumber(Function<B, String> branchIdOf) {
+        return (a, b) -> {
+            String idA = branchIdOf.apply(a);
+            String idB = branchIdOf.apply(b);
+            long numberA = IdBlock.number(idA, 'b');
+            long numberB = IdBlock.number(idB, 'b');
+            if (numberA >= 0 && numberB >= 0) return Long.compare(numberA, numberB);
+            if (numberA >= 0 || numberB >= 0) return numberA >= 0 ? -1 : 1;
+            return String.valueOf(idA).compareTo(String.valueOf(idB));
+        };
+    }
+
+    public List<Row<B, S>> rows() {
+        return rows;
+    }
+
+    public int branchCount() {
+        return branchCount;
+    }
+}
@@ -0,0 +1,440 @@
+package com.example.pizzamaniaapp;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Durable queue of order status changes made by staff (see StatusTransitions), kept in SQLite so
+// a change survives the activity or the whole process dying before it reaches the database.
+//
+// Each entry is one guarded transition with a due time. Until it is due it can be cancelled (the
+// undo window). When due it is sent as:
+//
+//   1. a read of "orderSummaries/{id}", to check the row is still in a state the transition was
+//      decided against (a row that moved on rejects it)
+//   2. one multi-path update with everything the transition writes: the summary, the same fields
+//      on "orders/{id}", the payment and ridden path, and the row's next revision
+//
+// The rules only accept that revision while the row is still the one read, so the update lands
+// whole or not at all. When it is refused because the row changed after the read, the entry goes
+// back to step 1 at once; refused against the very row it was made from, the rules themselves
+// said no. A replay after process death finds the row already showing the transition
+// (Transition.applied) if the update had landed, and just drops the entry.
+//
+// Other failures are retried with exponential backoff, at most StatusTransitions.MAX_ATTEMPTS
+// times; a rejected transition, one the rules refuse or one out of attempts is dead-lettered:
+// kept in the table with its reason for a week, and reported to the listeners. Rows an earlier
+// version left half sent (summary committed, the rest not) are COMMITTED: their remaining writes
+// are retried until they land and never given up, since the summary already says it happened.
+// There is at most one live entry per order and kind: queueing again replaces the earlier one.
+// Entries left over from a previous run are loaded on first use and anything overdue goes out
+// straight away.
+//
+// Use from the main thread; SQLite work runs on a single background thread.
+public final class StatusOutbox {
+
+    private static final String TAG = "StatusOutbox";
+
+    public interface Listener {
+        void onOutboxChanged(); // entries were added, sent or cancelled (main thread)
+
+        // A transition was given up and will not be written; label is the status it was moving to
+        default void onRejected(String kind, String orderID, String label, String reason) {}
+    }
+
+    private static StatusOutbox instance;
+
+    private final Store store;
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> new Thread(r, "status-outbox"));
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final Map<String, Entry> entries = new LinkedHashMap<>(); // kind/orderID -> entry
+    private final Set<Entry> inFlight = new HashSet<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private final Runnable flushRunnable = this::flush;
+
+    private StatusOutbox(Context context) {
+        store = new Store(context.getApplicationContext(), Store.DB_NAME);
+    }
+
+    // The process-wide outbox; the first call loads what earlier runs left and starts sending it
+    public static StatusOutbox get(Context context) {
+        if (instance == null) {
+            instance = new StatusOutbox(context);
+            instance.load();
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Queues a transition to be sent after delayMs. Replacing a queued one of the same kind also
+    // accepts the status that one was moving to, since it may have been written meanwhile.
+    public void enqueue(String kind, StatusTransitions.Transition transition, long delayMs) {
+        Entry replaced = entries.get(key(kind, transition.orderID));
+        if (replaced != null && !transition.from.isEmpty()) {
+            transition.from.addAll(replaced.transition.from);
+            transition.from.add(replaced.label);
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(kind, transition.orderID, transition.label, transition,
+                new HashMap<>(), now, now + delayMs, 0, Entry.QUEUED);
+        entries.put(entry.key(), entry);
+        io.execute(() -> store.put(entry));
+        changed();
+    }
+
+    // Undo: drops a transition that has not been sent yet. False when there is none or it is already on its way.
+    public boolean cancel(String kind, String orderID) {
+        Entry entry = entries.get(key(kind, orderID));
+        if (entry == null || inFlight.contains(entry) || entry.stage != Entry.QUEUED) return false;
+        entries.remove(entry.key());
+        io.execute(() -> store.delete(entry));
+        changed();
+        return true;
+    }
+
+    public boolean isPending(String kind, String orderID) {
+        return entries.containsKey(key(kind, orderID));
+    }
+
+    // orderID -> status it is moving to, for every queued transition of one kind
+    public Map<String, String> pending(String kind) {
+        Map<String, String> pending = new HashMap<>();
+        for (Entry entry : entries.values()) {
+            if (entry.kind.equals(kind)) pending.put(entry.orderID, entry.label);
+        }
+        return pending;
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void load() {
+        io.execute(() -> {
+            List<Entry> saved = store.live();
+            main.post(() -> {
+                for (Entry entry : saved) {
+                    if (!entries.containsKey(entry.key())) entries.put(entry.key(), entry); // newer in-memory entries win
+                }
+                if (!saved.isEmpty()) Log.d(TAG, saved.size() + " transition(s) left from an earlier run");
+                changed();
+            });
+        });
+    }
+
+    private void changed() {
+        schedule();
+        for (Listener listener : new ArrayList<>(listeners)) listener.onOutboxChanged();
+    }
+
+    // Wakes up when the next entry is due
+    private void schedule() {
+        main.removeCallbacks(flushRunnable);
+        long next = Long.MAX_VALUE;
+        for (Entry entry : entries.values()) {
+            if (!inFlight.contains(entry)) next = Math.min(next, entry.dueAt);
+        }
+        if (next != Long.MAX_VALUE) main.postDelayed(flushRunnable, Math.max(0, next - System.currentTimeMillis()));
+    }
+
+    private void flush() {
+        long now = System.currentTimeMillis();
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            if (entry.dueAt <= now && inFlight.add(entry)) send(entry);
+        }
+        schedule();
+    }
+
+    private void send(Entry entry) {
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        if (entry.stage == Entry.COMMITTED) sendLeftover(root, entry);
+        else sendTransition(root, entry, -1);
+    }
+
+    // Steps 1 and 2. refusedAt is the revision the last update was made from when the rules
+    // refused it, -1 on the first try.
+    private void sendTransition(DatabaseReference root, Entry entry, long refusedAt) {
+        StatusTransitions.Transition transition = entry.transition;
+        root.child(OrderSummary.NODE).child(entry.orderID).get()
+                .addOnSuccessListener(snapshot -> {
+                    Map<String, Object> summary = snapshot.exists() ? WireFormat.asMap(snapshot.getValue()) : null;
+                    if (transition.applied(summary)) { // it landed earlier (a replay, or the ack got lost)
+                        sent(entry);
+                        return;
+                    }
+                    Map<String, Object> update = transition.update(summary);
+                    if (update == null) {
+                        dead(entry, summary == null ? "the order no longer exists"
+                                : "the order is " + WireFormat.summaryFromWire(entry.orderID, summary).getStatus() + " now");
+                        return;
+                    }
+                    long revision = WireFormat.revision(summary);
+                    if (revision == refusedAt) {
+                        dead(entry, "refused by the database rules");
+                        return;
+                    }
+                    new WriteBatch("Transition " + entry.key()).countReads(1).setAll(update)
+                            .commit(root, (error, ref) -> {
+                                if (error == null) sent(entry);
+                                else if (error.getCode() == DatabaseError.PERMISSION_DENIED) sendTransition(root, entry, revision);
+                                else failed(entry, error);
+                            });
+                })
+                .addOnFailureListener(e -> failed(entry, DatabaseError.fromException(e)));
+    }
+
+    // A row an earlier version left COMMITTED: copies the summary onto the order and writes the
+    // records it still owed
+    private void sendLeftover(DatabaseReference root, Entry entry) {
+        root.child(OrderSummary.NODE).child(entry.orderID).get()
+                .addOnSuccessListener(snapshot -> {
+                    if (!snapshot.exists()) { // order deleted meanwhile: nothing to follow
+                        sent(entry);
+                        return;
+                    }
+                    new WriteBatch("Follow-up " + entry.key()).countReads(1)
+                            .setAll(OrderSummary.orderMirror(entry.orderID, WireFormat.asMap(snapshot.getValue())))
+                            .setAll(entry.updates)
+                            .commit(root, (error, ref) -> {
+                                if (error == null) sent(entry);
+                                else failed(entry, error);
+                            });
+                })
+                .addOnFailureListener(e -> failed(entry, DatabaseError.fromException(e)));
+    }
+
+    private void sent(Entry entry) {
+        inFlight.remove(entry);
+        if (entries.get(entry.key()) == entry) entries.remove(entry.key()); // not replaced meanwhile
+        io.execute(() -> store.delete(entry));
+        changed();
+    }
+
+    private void failed(Entry entry, DatabaseError error) {
+        inFlight.remove(entry);
+        entry.attempts++;
+        if (entry.stage != Entry.COMMITTED && !StatusTransitions.shouldRetry(entry.attempts, error.getCode())) {
+            dead(entry, error.getMessage() + " (attempt " + entry.attempts + ")");
+            return;
+        }
+        entry.dueAt = System.currentTimeMillis() + StatusTransitions.backoff(entry.attempts);
+        Log.w(TAG, "Transition " + entry.key() + " failed (attempt " + entry.attempts + "), retrying", error.toException());
+        if (entries.get(entry.key()) == entry) io.execute(() -> store.put(entry));
+        schedule();
+    }
+
+    // Gives the entry up: it stays in the table with its reason, and the screens are told
+    private void dead(Entry entry, String reason) {
+        inFlight.remove(entry);
+        Log.e(TAG, "Transition " + entry.key() + " given up: " + reason);
+        if (entries.get(entry.key()) == entry) {
+            entries.remove(entry.key());
+            entry.deadReason = reason;
+            io.execute(() -> store.put(entry));
+        }
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onRejected(entry.kind, entry.orderID, entry.label, reason);
+        }
+        changed();
+    }
+
+    private static String key(String kind, String orderID) {
+        return kind + "/" + orderID;
+    }
+
+    // One queued transition. Identity matters: a replaced entry is a different object.
+    static final class Entry {
+        static final int QUEUED = 0;    // nothing written yet
+        static final int COMMITTED = 1; // left by an earlier version: summary row changed, order mirror and updates still to write
+
+        final String kind, orderID, label;
+        final StatusTransitions.Transition transition;
+        final Map<String, Object> updates; // root-relative path -> plain value still owed by a COMMITTED entry
+        final long createdAt;
+        long dueAt;
+        int attempts;
+        int stage;
+        String deadReason;
+
+        Entry(String kind, String orderID, String label, StatusTransitions.Transition transition,
+              Map<String, Object> updates, long createdAt, long dueAt, int attempts, int stage) {
+            this.kind = kind;
+            this.orderID = orderID;
+            this.label = label;
+            this.transition = transition;
+            this.updates = updates;
+            this.createdAt = createdAt;
+            this.dueAt = dueAt;
+            this.attempts = attempts;
+            this.stage = stage;
+        }
+
+        String key() {
+            return StatusOutbox.key(kind, orderID);
+        }
+    }
+
+    // SQLite table behind the outbox, one row per (kind, orderID); only used on the io thread
+    static final class Store extends SQLiteOpenHelper {
+
+        static final String DB_NAME = "statusOutbox.db";
+        private static final int DB_VERSION = 2;
+        private static final String TABLE = "transitions";
+        private static final long KEEP_DEAD_MS = 7L * 24 * 60 * 60 * 1000;
+
+        Store(Context context, String name) {
+            super(context, name, null, DB_VERSION);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE " + TABLE + " (" +
+                    "kind TEXT NOT NULL," +
+                    "orderID TEXT NOT NULL," +
+                    "label TEXT," +
+                    "updates TEXT NOT NULL," +      // JSON object of path -> value still owed (COMMITTED only)
+                    "createdAt INTEGER NOT NULL," +
+                    "dueAt INTEGER NOT NULL," +
+                    "attempts INTEGER NOT NULL," +
+                    "transition TEXT," +            // JSON of the guarded summary change
+                    "stage INTEGER NOT NULL DEFAULT 0," +
+                    "deadReason TEXT," +            // set once given up
+                    "PRIMARY KEY (kind, orderID))");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            if (oldVersion < 2) {
+                db.execSQL("ALTER TABLE " + TABLE + " ADD COLUMN transition TEXT");
+                db.execSQL("ALTER TABLE " + TABLE + " ADD COLUMN stage INTEGER NOT NULL DEFAULT 0");
+                db.execSQL("ALTER TABLE " + TABLE + " ADD COLUMN deadReason TEXT");
+                // Version 1 rows are blind writes with no precondition to check: never replay them
+                db.execSQL("UPDATE " + TABLE + " SET deadReason = 'queued before transitions were guarded'");
+            }
+        }
+
+        void put(Entry entry) {
+            ContentValues values = new ContentValues();
+            values.put("kind", entry.kind);
+            values.put("orderID", entry.orderID);
+            values.put("label", entry.label);
+            values.put("updates", toJson(entry.updates).toString());
+            values.put("createdAt", entry.createdAt);
+            values.put("dueAt", entry.dueAt);
+            values.put("attempts", entry.attempts);
+            values.put("transition", entry.transition == null ? null : transitionToJson(entry.transition));
+            values.put("stage", entry.stage);
+            values.put("deadReason", entry.deadReason);
+            getWritableDatabase().insertWithOnConflict(TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        }
+
+        // Only removes the row if it still belongs to this entry (it may have been replaced)
+        void delete(Entry entry) {
+            getWritableDatabase().delete(TABLE, "kind=? AND orderID=? AND createdAt=?",
+                    new String[]{entry.kind, entry.orderID, String.valueOf(entry.createdAt)});
+        }
+
+        // Entries still to send; dead letters past KEEP_DEAD_MS are pruned on the way
+        List<Entry> live() {
+            getWritableDatabase().delete(TABLE, "deadReason IS NOT NULL AND createdAt < ?",
+                    new String[]{String.valueOf(System.currentTimeMillis() - KEEP_DEAD_MS)});
+            List<Entry> live = new ArrayList<>();
+            try (Cursor cursor = getReadableDatabase().rawQuery(
+                    "SELECT kind, orderID, label, updates, createdAt, dueAt, attempts, transition, stage FROM " + TABLE +
+                            " WHERE deadReason IS NULL ORDER BY dueAt", null)) {
+                while (cursor.moveToNext()) {
+                    try {
+                        String orderID = cursor.getString(1), label = cursor.getString(2);
+                        StatusTransitions.Transition transition = cursor.isNull(7) ? null
+                                : transitionFromJson(orderID, label, cursor.getString(7));
+                        if (transition == null && cursor.getInt(8) != Entry.COMMITTED) continue; // nothing left to send
+                        live.add(new Entry(cursor.getString(0), orderID, label, transition,
+                                fromJson(new JSONObject(cursor.getString(3))), cursor.getLong(4), cursor.getLong(5),
+                                cursor.getInt(6), cursor.getInt(8)));
+                    } catch (JSONException e) {
+                        Log.e(TAG, "Dropping unreadable transition " + cursor.getString(0) + "/" + cursor.getString(1), e);
+                    }
+                }
+            }
+            return live;
+        }
+
+        private static String transitionToJson(StatusTransitions.Transition transition) {
+            JSONObject json = new JSONObject();
+            try {
+                json.put("fields", toJson(transition.fields));
+                json.put("from", new JSONArray(transition.from));
+                json.put("rider", transition.riderID == null ? JSONObject.NULL : transition.riderID);
+                json.put("payment", toJson(transition.payment));
+                json.put("followUp", toJson(transition.followUp));
+            } catch (JSONException e) {
+                throw new IllegalArgumentException("Transition values must be plain values", e);
+            }
+            return json.toString();
+        }
+
+        private static StatusTransitions.Transition transitionFromJson(String orderID, String label, String text)
+                throws JSONException {
+            JSONObject json = new JSONObject(text);
+            StatusTransitions.Transition transition = new StatusTransitions.Transition(orderID, label);
+            transition.fields.putAll(fromJson(json.getJSONObject("fields")));
+            JSONArray from = json.getJSONArray("from");
+            for (int i = 0; i < from.length(); i++) transition.from.add(from.getString(i));
+            transition.riderID = json.isNull("rider") ? null : json.getString("rider");
+            transition.payment.putAll(fromJson(json.getJSONObject("payment")));
+            if (json.has("followUp")) transition.followUp.putAll(fromJson(json.getJSONObject("followUp")));
+            return transition;
+        }
+
+        private static JSONObject toJson(Map<String, Object> updates) {
+            JSONObject json = new JSONObject();
+            try {
+                for (Map.Entry<String, Object> update : updates.entrySet()) {
+                    json.put(update.getKey(), update.getValue() == null ? JSONObject.NULL : update.getValue());
+                }
+            } catch (JSONException e) {
+                throw new IllegalArgumentException("Transition values must be plain values", e);
+            }
+            return json;
+        }
+
+        private static Map<String, Object> fromJson(JSONObject json) throws JSONException {
+            Map<String, Object> updates = new HashMap<>();
+            for (Iterator<String> keys = json.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                Object value = json.get(key);
+                updates.put(key, value == JSONObject.NULL ? null : value);
+            }
+            return updates;
+        }
+    }
+}
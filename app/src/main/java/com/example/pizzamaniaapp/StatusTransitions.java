@@ -0,0 +1,194 @@
+package com.example.pizzamaniaapp;
+
+import com.google.firebase.database.DatabaseError;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// The order status changes staff make, each built as a guarded Transition for StatusOutbox.
+//
+// Completing a delivery used to be four writes spread over a 15-second CountDownTimer (status,
+// then deliveredTimestamp, paymentStatus and the payments record after re-reading the status).
+// Here everything a transition changes is queued together, and the undo window is spent in the
+// outbox before anything is written: undoing just drops the queued transition, no revert write.
+//
+// A transition is not a blind write. It names the statuses (and, for a delivery, the rider) the
+// summary row must still have when it is finally sent. The outbox reads the row, checks it, and
+// writes everything the transition changes (summary, full order, payment, ridden path, removal
+// of the customer's published estimate) in one multi-path update that also moves the row's
+// revision on (WireFormat.revisionUpdate), so the database refuses all of it if the row changed
+// after the read: a change queued minutes ago cannot overwrite a newer one (a cancelled order,
+// another rider's claim), and nothing is ever half written. The cash payment is only recorded by the transition that actually turns the row
+// from "Pending" to "Paid", and a row that already shows the transition (applied()) is left
+// alone, so a replay never records it twice.
+//
+// Only plain values go into a transition (no nested maps), so it can be stored as-is.
+public final class StatusTransitions {
+
+    public static final String KIND_COMPLETE_DELIVERY = "completeDelivery"; // rider ticked "Completed"
+    public static final String KIND_ORDER_STATUS = "orderStatus";           // employee changed the status
+
+    public static final long UNDO_WINDOW_MS = 15000;  // same 15 s the timers gave
+    public static final long FIRST_RETRY_MS = 2000;
+    public static final long MAX_RETRY_MS = 5 * 60 * 1000;
+    public static final int MAX_ATTEMPTS = 10;        // about a quarter of an hour of retries, then it is given up
+
+    // One guarded change of an order's summary row, plus the other records written with it
+    public static final class Transition {
+        public final String orderID;
+        public final String label;                                  // the status it moves to
+        final Map<String, Object> fields = new LinkedHashMap<>();   // summary short key -> value
+        final Set<String> from = new LinkedHashSet<>();             // statuses the row may be in (any case); empty = any
+        String riderID;                                             // who must be carrying it, null = anyone
+        final Map<String, Object> payment = new LinkedHashMap<>();  // root paths, only if this marks the order paid
+        final Map<String, Object> followUp = new LinkedHashMap<>(); // other root paths written with the row
+
+        Transition(String orderID, String label) {
+            this.orderID = orderID;
+            this.label = label;
+        }
+
+        // Whether the row (short keys) is still in a state this transition was decided against
+        public boolean allows(Map<String, Object> summary) {
+            if (summary == null || summary.isEmpty()) return false;
+            OrderSummary current = WireFormat.summaryFromWire(orderID, summary);
+            if (riderID != null && !riderID.equals(current.getAssignedDeliverymanID())) return false;
+            if (from.isEmpty()) return true;
+            for (String status : from) {
+                if (status.equalsIgnoreCase(current.getStatus())) return true;
+            }
+            return false;
+        }
+
+        // Whether applying it to this row records the cash payment
+        public boolean pays(Map<String, Object> summary) {
+            return !payment.isEmpty() && summary != null
+                    && "Pending".equalsIgnoreCase(WireFormat.summaryFromWire(orderID, summary).getPaymentStatus());
+        }
+
+        // Child key -> value to set on the row (null deletes), or null when the row does not allow it
+        public Map<String, Object> changes(Map<String, Object> summary) {
+            if (!allows(summary)) return null;
+            Map<String, Object> changes = new LinkedHashMap<>(fields);
+            if (pays(summary)) changes.put(WireFormat.PAYMENT_STATUS, "Paid");
+
+            Map<String, Object> after = new HashMap<>(summary);
+            after.putAll(changes);
+            OrderSummary row = WireFormat.summaryFromWire(orderID, after);
+            changes.putAll(WireFormat.laneKeys(row.getBranchID(), row.getAssignedDeliverymanID(), row.getStatus()));
+            return changes;
+        }
+
+        // Root paths besides the summary and the order; paid = pays() held on the row
+        public Map<String, Object> followUp(boolean paid) {
+            Map<String, Object> paths = new LinkedHashMap<>(followUp);
+            if (paid) paths.putAll(payment);
+            return paths;
+        }
+
+        // Everything it writes, as root paths for one update made from the row as read: the
+        // changes on the summary and (but for the summary-only lane keys) on the full order, the
+        // other records and the row's next revision. Null when the row does not allow it.
+        public Map<String, Object> update(Map<String, Object> summary) {
+            Map<String, Object> changes = changes(summary);
+            if (changes == null) return null;
+            Map<String, Object> paths = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> change : changes.entrySet()) {
+                String key = change.getKey();
+                paths.put(OrderSummary.NODE + "/" + orderID + "/" + key, change.getValue());
+                if (!key.equals(WireFormat.BRANCH_STATUS) && !key.equals(WireFormat.RIDER_STATUS)) {
+                    paths.put("orders/" + orderID + "/" + key, change.getValue());
+                }
+            }
+            paths.putAll(followUp(pays(summary)));
+            paths.putAll(WireFormat.revisionUpdate(orderID, summary));
+            return paths;
+        }
+
+        // Whether the row already shows it: a replay of a transition whose update landed before
+        // the app could record that it had
+        public boolean applied(Map<String, Object> summary) {
+            if (summary == null || summary.isEmpty()) return false;
+            if (riderID != null && !riderID.equals(summary.get(WireFormat.DELIVERYMAN_ID))) return false;
+            for (Map.Entry<String, Object> field : fields.entrySet()) {
+                if (!same(field.getValue(), summary.get(field.getKey()))) return false;
+            }
+            return true;
+        }
+    }
+
+    private StatusTransitions() {}
+
+    // Stored numbers come back as Long or Integer (SQLite JSON) and Long or Double (the database)
+    private static boolean same(Object expected, Object stored) {
+        if (expected instanceof Number && stored instanceof Number) {
+            return ((Number) expected).doubleValue() == ((Number) stored).doubleValue();
+        }
+        return Objects.equals(expected, stored);
+    }
+
+    // Status "Completed", when it was delivered and, for cash on delivery, the payment taken at the door
+    public static Transition completeDelivery(DeliverymanHomeActivity.DeliveryItem order, long deliveredTime) {
+        return completeDelivery(order, deliveredTime, null);
+    }
+
+    // As above, also storing the rider's path for the order (TraceCodec text) when there is one.
+    // Only applies while the order is still "Delivering" with this rider.
+    public static Transition completeDelivery(DeliverymanHomeActivity.DeliveryItem order, long deliveredTime, String trace) {
+        Transition transition = new Transition(order.orderID, "Completed");
+        transition.fields.put(WireFormat.STATUS, "Completed");
+        transition.fields.put(WireFormat.DELIVERED_TIMESTAMP, deliveredTime);
+        transition.from.add(DeliveryBoard.ACCEPTED_STATUS);
+        transition.riderID = order.assignedDeliverymanID;
+
+        if ("Pending".equalsIgnoreCase(order.paymentStatus)) {
+            Map<String, Object> payment = new LinkedHashMap<>();
+            payment.put("amount", order.totalPrice);
+            payment.put("customerID", order.customerID);
+            payment.put("customerName", order.customerName);
+            payment.put("paymentID", order.orderID);
+            payment.put("paymentMethod", "Cash");
+            payment.put("timestamp", deliveredTime);
+            for (Map.Entry<String, Object> field : payment.entrySet()) {
+                transition.payment.put("payments/" + order.orderID + "/" + field.getKey(), field.getValue());
+            }
+        }
+        if (trace != null) transition.followUp.put(TraceCodec.ORDER_TRACES + "/" + order.orderID, trace);
+        transition.followUp.put(EtaFeed.NODE + "/" + order.orderID, null); // delivered: no estimate left to show
+        return transition;
+    }
+
+    // Handing an order to the riders also records when it left the kitchen (prep-time history for ETAs);
+    // taking it out of flight (cancelled, ...) removes its published estimate, whichever phone wrote it.
+    // Only applies while the order still has the status the employee saw.
+    public static Transition orderStatus(OrderSummary order, String newStatus, long time) {
+        Transition transition = new Transition(order.getOrderID(), newStatus);
+        transition.fields.put(WireFormat.STATUS, newStatus);
+        if (DeliveryBoard.PENDING_STATUS.equalsIgnoreCase(newStatus)) transition.fields.put(WireFormat.READY_TIMESTAMP, time);
+        if (!EtaEstimator.isInFlight(newStatus)) transition.followUp.put(EtaFeed.NODE + "/" + order.getOrderID(), null);
+        if (order.getStatus() != null) transition.from.add(order.getStatus());
+        return transition;
+    }
+
+    // Handing an order to the riders gets the undo window; other status changes go out at once
+    public static long delayFor(String newStatus) {
+        return DeliveryBoard.PENDING_STATUS.equalsIgnoreCase(newStatus) ? UNDO_WINDOW_MS : 0;
+    }
+
+    // Wait before retry number `attempts` (1-based): 2 s, 4 s, 8 s, ... capped at 5 minutes
+    public static long backoff(int attempts) {
+        if (attempts <= 1) return FIRST_RETRY_MS;
+        int shift = Math.min(attempts - 1, 20);
+        return Math.min(FIRST_RETRY_MS << shift, MAX_RETRY_MS);
+    }
+
+    // Whether a failed send is worth another attempt: not once the rules refused it, nor after MAX_ATTEMPTS
+    // (a refusal because the row moved on since it was read is not a failure: it is read again)
+    public static boolean shouldRetry(int attempts, int errorCode) {
+        return errorCode != DatabaseError.PERMISSION_DENIED && attempts < MAX_ATTEMPTS;
+    }
+}
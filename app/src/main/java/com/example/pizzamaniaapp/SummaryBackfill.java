@@ -0,0 +1,224 @@
+package com.example.pizzamaniaapp;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// One-off migration that gives every order placed before "orderSummaries" existed its summary row.
+//
+// The order lists only read summaries, so an order without one is invisible to the kitchen and
+// the customer. Rows that are missing, that only hold the few fields a later status update
+// mirrored into them, or that still use the verbose field names are rebuilt from "orders/{id}"
+// with the summary's own values on top (they are the newer ones), and written in v2 short keys.
+//
+// Version 2 also rebuilds rows whose composite query keys (WireFormat.BRANCH_STATUS /
+// RIDER_STATUS) are missing or do not match their branch, rider and status. Until it has run,
+// whenMigrated() answers false, so DeliveryFeed keeps reading unfiltered rather than missing
+// rows whose keys are not there yet.
+//
+// Only the admin screen runs it: it downloads the whole "orders" and "orderSummaries" trees, which
+// is a one-off cost for the admin but not something every kitchen phone should pay. "orders" also
+// holds the chatbot's "orders/{userID}/{pushId}" nodes; anything that is not an order (no branch or
+// customer) is skipped rather than given a summary row.
+//
+// Each row is rewritten in a transaction, so a status change landing meanwhile is kept, and two
+// admin sessions running the backfill at once write the same result. "migrations/orderSummaries"
+// records the finished version; once it is current the admin screen skips straight past with a
+// single small read instead of downloading every order.
+//
+// Lists only query summaries on their short keys once that marker is set (whenMigrated): until
+// then a verbose row would silently drop out of orderByChild("b"), so they read the node whole and
+// filter on the client, as they did before v2. The indexes the queries need are in
+// DB/database.rules.json.
+public final class SummaryBackfill {
+
+    private static final String TAG = "SummaryBackfill";
+
+    public static final String MARKER = "migrations/orderSummaries";
+    public static final int VERSION = 2;
+
+    public interface Ready {
+        void onReady(boolean migrated); // main thread
+    }
+
+    private static boolean started;           // once per process is enough
+    private static volatile boolean migrated; // the marker never goes back, so once seen it is remembered
+
+    private SummaryBackfill() {}
+
+    // Whether a node under "orders" is an order at all (the chatbot keeps per-user lists there too)
+    public static boolean isOrder(Map<String, Object> order) {
+        return order != null
+                && (order.get(WireFormat.BRANCH_ID) instanceof String || order.get("branchID") instanceof String)
+                && (order.get(WireFormat.CUSTOMER_ID) instanceof String || order.get("customerID") instanceof String);
+    }
+
+    // Whether a summary row (null = none) has to be rebuilt from its order
+    public static boolean needsBackfill(Map<String, Object> summary) {
+        if (summary == null || summary.isEmpty()
+                || !Integer.valueOf(WireFormat.VERSION).equals(number(summary.get(WireFormat.VERSION_KEY)))
+                || !summary.containsKey(WireFormat.BRANCH_ID)) {
+            return true;
+        }
+        OrderSummary row = WireFormat.summaryFromWire(null, summary);
+        for (Map.Entry<String, Object> key : WireFormat.laneKeys(row.getBranchID(), row.getAssignedDeliverymanID(),
+                row.getStatus()).entrySet()) {
+            if (!Objects.equals(key.getValue(), summary.get(key.getKey()))) return true;
+        }
+        return false;
+    }
+
+    // The complete v2 summary for an order, keeping whatever the existing row already says
+    public static Map<String, Object> backfilled(String orderID, Map<String, Object> order, Map<String, Object> summary) {
+        Map<String, Object> merged = new LinkedHashMap<>(
+                WireFormat.summaryToWire(OrderSummary.from(WireFormat.orderFromWire(orderID, order))));
+        if (summary != null) {
+            // verbose names first, so a short key written by a later v2 update wins over them
+            for (Map.Entry<String, Object> field : summary.entrySet()) {
+                String key = WireFormat.shortOrderKey(field.getKey());
+                if (key != null && !key.equals(field.getKey())) merged.put(key, field.getValue());
+            }
+            for (Map.Entry<String, Object> field : summary.entrySet()) {
+                if (field.getKey().equals(WireFormat.shortOrderKey(field.getKey()))) merged.put(field.getKey(), field.getValue());
+            }
+        }
+        merged.remove(WireFormat.ITEMS); // summaries never carry the item lines
+        return WireFormat.summaryToWire(WireFormat.summaryFromWire(orderID, merged));
+    }
+
+    // Brings the summaries up to date unless the marker says it was already done (admin screen only)
+    public static void run(DatabaseReference root) {
+        if (started) return;
+        started = true;
+        root.child(MARKER).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Integer done = number(snapshot.getValue());
+                if (done != null && done >= VERSION) {
+                    migrated = true;
+                    return;
+                }
+                ParallelReads.read(new ParallelReads.Callback() {
+                    @Override
+                    public void onLoaded(DataSnapshot[] snapshots) {
+                        backfill(root, WireFormat.asMap(snapshots[0].getValue()), WireFormat.asMap(snapshots[1].getValue()));
+                    }
+
+                    @Override
+                    public void onFailed(DatabaseError error) {
+                        retryLater("read orders", error);
+                    }
+                }, root.child("orders"), root.child(OrderSummary.NODE));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                retryLater("read marker", error);
+            }
+        });
+    }
+
+    // Whether lists may query summaries on the short keys yet (false as well when the marker can't be read)
+    public static void whenMigrated(DatabaseReference root, Ready ready) {
+        if (migrated) {
+            ready.onReady(true);
+            return;
+        }
+        root.child(MARKER).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Integer done = number(snapshot.getValue());
+                if (done != null && done >= VERSION) migrated = true;
+                ready.onReady(migrated);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Marker not read, listing summaries unfiltered: " + error.getMessage());
+                ready.onReady(false);
+            }
+        });
+    }
+
+    // The summaries whose `key` equals `value`: a server-side query once migrated, else the whole
+    // node (callers filter on the client either way)
+    public static Query summaries(DatabaseReference summaries, boolean migrated, String key, String value) {
+        return migrated ? summaries.orderByChild(key).equalTo(value) : summaries;
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static void backfill(DatabaseReference root, Map<String, Object> orders, Map<String, Object> summaries) {
+        Map<String, Map<String, Object>> todo = new LinkedHashMap<>();
+        int skipped = 0;
+        for (Map.Entry<String, Object> order : orders.entrySet()) {
+            Map<String, Object> fields = order.getValue() instanceof Map ? WireFormat.asMap(order.getValue()) : null;
+            if (!isOrder(fields)) {
+                skipped++;
+                continue;
+            }
+            Map<String, Object> summary = WireFormat.asMap(summaries.get(order.getKey()));
+            if (needsBackfill(summary)) todo.put(order.getKey(), fields);
+        }
+        Log.d(TAG, todo.size() + " of " + (orders.size() - skipped) + " orders need a summary row ("
+                + skipped + " other nodes skipped)");
+        if (todo.isEmpty()) {
+            markDone(root);
+            return;
+        }
+
+        final int[] pending = {todo.size()};
+        final boolean[] failed = {false};
+        for (Map.Entry<String, Map<String, Object>> order : todo.entrySet()) {
+            String orderID = order.getKey();
+            root.child(OrderSummary.NODE).child(orderID).runTransaction(new Transaction.Handler() {
+                @NonNull
+                @Override
+                public Transaction.Result doTransaction(@NonNull MutableData data) {
+                    Map<String, Object> current = data.getValue() == null ? null : WireFormat.asMap(data.getValue());
+                    if (!needsBackfill(current)) return Transaction.success(data); // done by another phone
+                    data.setValue(backfilled(orderID, order.getValue(), current));
+                    return Transaction.success(data);
+                }
+
+                @Override
+                public void onComplete(DatabaseError error, boolean committed, DataSnapshot current) {
+                    if (error != null) {
+                        failed[0] = true;
+                        Log.w(TAG, "Summary for " + orderID + " not written: " + error.getMessage());
+                    }
+                    if (--pending[0] > 0) return;
+                    if (failed[0]) retryLater("backfill", error);
+                    else markDone(root);
+                }
+            });
+        }
+    }
+
+    private static void markDone(DatabaseReference root) {
+        root.child(MARKER).setValue(VERSION);
+        migrated = true;
+    }
+
+    // Nothing is marked done, so the next time the admin screen opens it tries again
+    private static void retryLater(String step, DatabaseError error) {
+        started = false;
+        Log.w(TAG, "Backfill stopped at " + step + (error == null ? "" : ": " + error.getMessage()));
+    }
+
+    private static Integer number(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Word-prefix index over the name, category and description of a list of records, addressed by
+// position (id). Shared by the customer search (MenuSearchIndex) and the admin catalog (AdminCatalog).
+//
+// Every word is normalized (lowercase, letters and digits only) and added to a prefix trie. Each trie
+// node keeps the postings for every word passing through it, so an as-you-type lookup is a walk of the
+// query's characters plus a merge of short int arrays; no text is lowercased or scanned while searching.
+// Results are ranked: name matches beat category matches beat description matches, whole words beat
+// prefixes, and a name that starts with the whole query comes first.
+//
+// A query word that isn't a prefix of anything ("peperoni", "margarita") falls back to the closest
+// indexed words by edit distance (a BkTree over the vocabulary, built in the same pass): one typo for
+// words of four letters or more, two from eight. Corrected words rank below exact ones.
+//
+// Immutable once built; search() can run on any thread.
+public final class TextIndex {
+
+    // Field weights (doubled in the postings so the low bit can flag a whole-word match)
+    private static final int NAME = 3, CATEGORY = 2, DESCRIPTION = 1;
+    private static final int NAME_PREFIX_BONUS = 8;
+
+    // Typo tolerance: shortest word that may have one (two) edits, and how many corrections to try
+    private static final int ONE_TYPO_LENGTH = 4, TWO_TYPO_LENGTH = 8;
+    private static final int MAX_CORRECTIONS = 6;
+
+    private final int size;
+    private final String[] normalizedNames;
+    private final Node root;
+    private final BkTree vocabulary;
+    private final Node[] wordNodes; // trie node of each vocabulary word, by BkTree index
+
+    private TextIndex(String[] normalizedNames, Node root, BkTree vocabulary, Node[] wordNodes) {
+        this.size = normalizedNames.length;
+        this.normalizedNames = normalizedNames;
+        this.root = root;
+        this.vocabulary = vocabulary;
+        this.wordNodes = wordNodes;
+    }
+
+    // Collects records in id order (0, 1, 2, ...), then build()
+    public static final class Builder {
+        private final ArrayList<String> names = new ArrayList<>();
+        private final Node root = new Node();
+        private final Map<String, Node> words = new LinkedHashMap<>(); // whole words worth correcting towards
+
+        // Adds the next record; returns its id
+        public int add(String name, String category, String description) {
+            int id = names.size();
+            String normalizedName = normalize(name);
+            names.add(normalizedName);
+            addTokens(root, words, id, normalizedName, NAME);
+            addTokens(root, words, id, normalize(category), CATEGORY);
+            addTokens(root, words, id, normalize(description), DESCRIPTION);
+            return id;
+        }
+
+        public TextIndex build() {
+            root.freeze();
+            return new TextIndex(names.toArray(new String[0]), root,
+                    BkTree.build(new ArrayList<>(words.keySet())), words.values().toArray(new Node[0]));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Ids of the records matching every word of the query (the last word may be partly typed), best
+    // match first. An empty query returns every id in order.
+    public int[] search(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            int[] all = new int[size];
+            for (int id = 0; id < size; id++) all[id] = id;
+            return all;
+        }
+        String[] tokens = normalized.split(" ");
+
+        int[] score = new int[size];
+        int[] matchedTokens = new int[size];
+        for (int t = 0; t < tokens.length; t++) {
+            Node node = root.find(tokens[t]);
+            if (node != null) {
+                collect(node, 0, t, score, matchedTokens);
+                continue;
+            }
+
+            // Not a prefix of anything: try the closest whole words instead (closest first, so an item
+            // reachable through several corrections is scored by the best one)
+            long[] corrections = vocabulary.within(tokens[t], allowedTypos(tokens[t]), MAX_CORRECTIONS);
+            if (corrections.length == 0) return new int[0];
+            for (long correction : corrections) {
+                collect(wordNodes[(int) correction], (int) (correction >>> 32), t, score, matchedTokens);
+            }
+        }
+
+        // Sort by score (descending) then id, packed into longs to avoid boxing
+        long[] keys = new long[size];
+        int count = 0;
+        for (int id = 0; id < size; id++) {
+            if (matchedTokens[id] != tokens.length) continue;
+            int total = score[id] + (normalizedNames[id].startsWith(normalized) ? NAME_PREFIX_BONUS : 0);
+            keys[count++] = ((long) (Integer.MAX_VALUE - total) << 32) | id;
+        }
+        Arrays.sort(keys, 0, count);
+
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) ids[i] = (int) keys[i];
+        return ids;
+    }
+
+    // Lowercase, letters and digits only, single spaces between words
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true; // swallow leading spaces
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') sb.setLength(end - 1);
+        return sb.toString();
+    }
+
+    // Adds a node's postings for query word t, marking ids that matched every word so far.
+    // A corrected word loses two rank points (one field weight) per edit.
+    private static void collect(Node node, int typos, int t, int[] score, int[] matchedTokens) {
+        for (int k = 0; k < node.size; k++) {
+            int id = node.ids[k];
+            if (matchedTokens[id] != t) continue; // already missed an earlier word (or matched this one)
+            matchedTokens[id] = t + 1;
+            score[id] += Math.max(0, node.ranks[k] - 2 * typos);
+        }
+    }
+
+    private static int allowedTypos(String word) {
+        if (isNumber(word)) return 0; // "12" vs "18" is not a typo
+        return word.length() >= TWO_TYPO_LENGTH ? 2 : word.length() >= ONE_TYPO_LENGTH ? 1 : 0;
+    }
+
+    private static boolean isNumber(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static void addTokens(Node root, Map<String, Node> words, int id, String normalized, int weight) {
+        if (normalized.isEmpty()) return;
+        int start = 0;
+        while (start < normalized.length()) {
+            int end = normalized.indexOf(' ', start);
+            if (end < 0) end = normalized.length();
+
+            Node node = root;
+            for (int i = start; i < end; i++) {
+                node = node.child(normalized.charAt(i));
+                node.add(id, weight * 2 + (i == end - 1 ? 1 : 0)); // low bit: the word ends here
+            }
+            // Only words a typo could plausibly target go into the BK-tree
+            if (end - start >= ONE_TYPO_LENGTH - 1) {
+                String word = normalized.substring(start, end);
+                if (!isNumber(word)) words.put(word, node);
+            }
+            start = end + 1;
+        }
+    }
+
+    // Trie node: children by character plus the (id, rank) postings of every word through this prefix
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        int[] ids = new int[2];
+        int[] ranks = new int[2];
+        int size;
+
+        Node child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) return children[i];
+            }
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = c;
+            return children[children.length - 1] = new Node();
+        }
+
+        Node find(String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                Node next = null;
+                char c = prefix.charAt(i);
+                for (int k = 0; k < node.keys.length; k++) {
+                    if (node.keys[k] == c) {
+                        next = node.children[k];
+                        break;
+                    }
+                }
+                node = next;
+            }
+            return node;
+        }
+
+        // Records are added in id order, so a repeat of the same id is always the last posting
+        void add(int id, int rank) {
+            if (size > 0 && ids[size - 1] == id) {
+                ranks[size - 1] = Math.max(ranks[size - 1], rank);
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                ranks = Arrays.copyOf(ranks, size * 2);
+            }
+            ids[size] = id;
+            ranks[size] = rank;
+            size++;
+        }
+
+        // Trim postings once building is done
+        void freeze() {
+            ids = Arrays.copyOf(ids, size);
+            ranks = Arrays.copyOf(ranks, size);
+            for (Node child : children) child.freeze();
+        }
+    }
+}
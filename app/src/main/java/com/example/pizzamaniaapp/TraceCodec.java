@@ -0,0 +1,146 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+// Compact storage for a rider's path (breadcrumbs), e.g. orderTraces/{orderID}.
+//
+//   simplify  Douglas-Peucker: keeps the fewest points such that every dropped fix is within
+//             TOLERANCE_M of the line that replaces it. Straight stretches collapse to their ends,
+//             corners stay.
+//   encode    each point as the difference from the previous one (latitude and longitude in 1e-5
+//             degrees, ~1 m; time in seconds), zig-zagged so small negatives stay small, then as a
+//             varint of 5-bit groups, each group one printable character (the encoded-polyline
+//             alphabet, so the text is safe to store as a database string).
+//
+// A minute of riding at 1 Hz is ~1.4 KB as {la, ln, t} objects; simplified and encoded it is
+// usually a few dozen characters.
+public final class TraceCodec {
+
+    public static final String ORDER_TRACES = "orderTraces"; // {orderID: encoded trace}
+    public static final double TOLERANCE_M = 8;
+
+    private static final double SCALE = 1e5;
+    private static final double M_PER_DEG = 111_320;
+
+    public static final class Point {
+        public final double lat, lng;
+        public final long time; // ms; stored to the second
+
+        public Point(double lat, double lng, long time) {
+            this.lat = lat;
+            this.lng = lng;
+            this.time = time;
+        }
+    }
+
+    private TraceCodec() {}
+
+    // Simplified and encoded in one go
+    public static String compress(List<Point> points) {
+        return encode(simplify(points, TOLERANCE_M));
+    }
+
+    public static List<Point> simplify(List<Point> points, double toleranceM) {
+        int n = points.size();
+        if (n < 3) return new ArrayList<>(points);
+
+        boolean[] keep = new boolean[n];
+        keep[0] = keep[n - 1] = true;
+        Deque<int[]> spans = new ArrayDeque<>(); // explicit stack: long traces would overflow recursion
+        spans.push(new int[]{0, n - 1});
+        while (!spans.isEmpty()) {
+            int[] span = spans.pop();
+            int first = span[0], last = span[1];
+            double worst = -1;
+            int worstAt = -1;
+            for (int i = first + 1; i < last; i++) {
+                double d = distanceToSegment(points.get(i), points.get(first), points.get(last));
+                if (d > worst) {
+                    worst = d;
+                    worstAt = i;
+                }
+            }
+            if (worst > toleranceM) {
+                keep[worstAt] = true;
+                spans.push(new int[]{first, worstAt});
+                spans.push(new int[]{worstAt, last});
+            }
+        }
+
+        List<Point> kept = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) kept.add(points.get(i));
+        }
+        return kept;
+    }
+
+    public static String encode(List<Point> points) {
+        StringBuilder out = new StringBuilder(points.size() * 8);
+        long lat = 0, lng = 0, seconds = 0;
+        for (Point point : points) {
+            long pLat = Math.round(point.lat * SCALE), pLng = Math.round(point.lng * SCALE), pSeconds = point.time / 1000;
+            writeVarint(out, pLat - lat);
+            writeVarint(out, pLng - lng);
+            writeVarint(out, pSeconds - seconds);
+            lat = pLat;
+            lng = pLng;
+            seconds = pSeconds;
+        }
+        return out.toString();
+    }
+
+    // Throws IllegalArgumentException for text that isn't an encoded trace
+    public static List<Point> decode(String text) {
+        if (text == null || text.isEmpty()) return Collections.emptyList();
+        List<Point> points = new ArrayList<>();
+        int[] at = {0};
+        long lat = 0, lng = 0, seconds = 0;
+        while (at[0] < text.length()) {
+            lat += readVarint(text, at);
+            lng += readVarint(text, at);
+            seconds += readVarint(text, at);
+            points.add(new Point(lat / SCALE, lng / SCALE, seconds * 1000));
+        }
+        return points;
+    }
+
+    // Metres from p to the segment a-b, on a local flat projection (fine over a city)
+    static double distanceToSegment(Point p, Point a, Point b) {
+        double cos = Math.cos(Math.toRadians(a.lat));
+        double bx = (b.lng - a.lng) * cos * M_PER_DEG, by = (b.lat - a.lat) * M_PER_DEG;
+        double px = (p.lng - a.lng) * cos * M_PER_DEG, py = (p.lat - a.lat) * M_PER_DEG;
+        double lengthSq = bx * bx + by * by;
+        double t = lengthSq == 0 ? 0 : Math.max(0, Math.min(1, (px * bx + py * by) / lengthSq));
+        double dx = px - t * bx, dy = py - t * by;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static void writeVarint(StringBuilder out, long value) {
+        long v = (value << 1) ^ (value >> 63); // zig-zag
+        while (v >= 0x20) {
+            out.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>>= 5;
+        }
+        out.append((char) (v + 63));
+    }
+
+    private static long readVarint(String text, int[] at) {
+        long v = 0;
+        int shift = 0;
+        while (true) {
+            if (at[0] >= text.length() || shift > 60) throw new IllegalArgumentException("Truncated trace at " + at[0]);
+            int c = text.charAt(at[0]++) - 63;
+            if (c < 0 || c > 0x3f) throw new IllegalArgumentException("Not a trace character at " + (at[0] - 1));
+            v |= (long) (c & 0x1f) << shift;
+            shift += 5;
+            if (c < 0x20) break;
+        }
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
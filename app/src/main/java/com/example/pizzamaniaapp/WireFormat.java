@@ -0,0 +1,404 @@
+package com.example.pizzamaniaapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact (v2) Firebase layout for orders, order summaries, order items and carts.
+//
+// Every record is written with short keys plus "v": 2. The record's own ID is its Firebase key,
+// empty strings and zero counts/timestamps are left out (coordinates and prices are always
+// written, since 0 is a real latitude and a real price), and item lines no longer repeat the order's status,
+// payment status, orderID and timestamp (they are filled in from the parent when read).
+//
+// Readers accept both layouts: each field is read from its short key first and falls back to
+// the old verbose name, so records written before v2 (and records where a v2 update only
+// touched a few fields) keep working during the migration window.
+//
+// Queries are another matter: every list (kitchen, customer history, rider feeds) filters
+// "orderSummaries" with orderByChild() on a short key (BRANCH_ID, CUSTOMER_ID, DELIVERYMAN_ID,
+// STATUS), and a row that only has "branchID" never matches. SummaryBackfill therefore rewrites
+// every summary without "v": 2 in short keys (and creates the ones that are missing), and lists
+// only switch to those queries once its marker is set (SummaryBackfill.whenMigrated), when no
+// verbose summary is left for a query to miss. Full orders are only ever read
+// by ID, which is why they can stay verbose until they are next written.
+//
+// Summaries also carry two composite query keys, BRANCH_STATUS ("b001|Delivery Pending") and
+// RIDER_STATUS ("d004|Delivering"), so a rider's feed asks for exactly its branch's waiting orders
+// and its own deliveries instead of every order in that status. Whatever changes a summary's
+// branch, rider or status writes them too (summaryToWire, laneKeys).
+public final class WireFormat {
+
+    public static final String VERSION_KEY = "v";
+    public static final int VERSION = 2;
+
+    // ----- order / summary keys -----
+    public static final String BRANCH_ID = "b";
+    public static final String CUSTOMER_ID = "c";
+    public static final String CUSTOMER_NAME = "n";
+    public static final String CUSTOMER_LAT = "la";
+    public static final String CUSTOMER_LNG = "ln";
+    public static final String DELIVERYMAN_ID = "d";
+    public static final String STATUS = "s";
+    public static final String PAYMENT_STATUS = "p";
+    public static final String TOTAL_PRICE = "t";
+    public static final String TIMESTAMP = "ts";
+    public static final String DELIVERED_TIMESTAMP = "dt";
+    public static final String READY_TIMESTAMP = "rt";
+    public static final String ITEMS = "i";
+    public static final String ITEM_COUNT = "ic";
+
+    // ----- summary-only query keys -----
+    public static final String BRANCH_STATUS = "bs";
+    public static final String RIDER_STATUS = "ds";
+    public static final String REVISION = "rv"; // moved on by one with every guarded write (see revisionUpdate)
+
+    // ----- item line keys -----
+    public static final String MENU_ID = "m";
+    public static final String NAME = "n";
+    public static final String IMAGE_URL = "u";
+    public static final String QUANTITY = "q";
+    public static final String PRICE = "pr";
+
+    // ----- cart keys -----
+    public static final String TOTAL_ITEMS = "ti";
+
+    // ----- published estimate keys (orderEtas/{orderID}; stage and time use STATUS / TIMESTAMP) -----
+    public static final String ETA_AHEAD = "a";
+    public static final String READY_AT = "r";
+    public static final String ARRIVE_AT = "at";
+    public static final String ARRIVE_LATE = "al";
+
+    // verbose field name -> short key, used to translate single-field order updates
+    private static final Map<String, String> ORDER_KEYS = new HashMap<>();
+    static {
+        ORDER_KEYS.put("branchID", BRANCH_ID);
+        ORDER_KEYS.put("customerID", CUSTOMER_ID);
+        ORDER_KEYS.put("customerName", CUSTOMER_NAME);
+        ORDER_KEYS.put("customerLat", CUSTOMER_LAT);
+        ORDER_KEYS.put("customerLng", CUSTOMER_LNG);
+        ORDER_KEYS.put("assignedDeliverymanID", DELIVERYMAN_ID);
+        ORDER_KEYS.put("status", STATUS);
+        ORDER_KEYS.put("paymentStatus", PAYMENT_STATUS);
+        ORDER_KEYS.put("totalPrice", TOTAL_PRICE);
+        ORDER_KEYS.put("timestamp", TIMESTAMP);
+        ORDER_KEYS.put("deliveredTimestamp", DELIVERED_TIMESTAMP);
+        ORDER_KEYS.put("readyTimestamp", READY_TIMESTAMP);
+        ORDER_KEYS.put("items", ITEMS);
+        ORDER_KEYS.put("itemCount", ITEM_COUNT);
+    }
+
+    private WireFormat() {}
+
+    // Short key for an order field, e.g. "paymentStatus" -> "p"
+    public static String orderKey(String field) {
+        String key = ORDER_KEYS.get(field);
+        if (key == null) throw new IllegalArgumentException("Unknown order field: " + field);
+        return key;
+    }
+
+    // Short key for an order field named either way ("status" or "s"), or null for anything else
+    public static String shortOrderKey(String key) {
+        if (ORDER_KEYS.containsKey(key)) return ORDER_KEYS.get(key);
+        return ORDER_KEYS.containsValue(key) ? key : null;
+    }
+
+    // "b001|Delivery Pending"; null when either part is missing
+    public static String laneKey(String id, String status) {
+        if (id == null || id.isEmpty() || status == null || status.isEmpty()) return null;
+        return id + "|" + status;
+    }
+
+    // Both query keys of a summary in this state, by short key. A null value (no rider) removes
+    // the key when the map is used as an update.
+    public static Map<String, Object> laneKeys(String branchID, String riderID, String status) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(BRANCH_STATUS, laneKey(branchID, status));
+        keys.put(RIDER_STATUS, laneKey(riderID, status));
+        return keys;
+    }
+
+    // The path that moves a summary row, as it was read, on to its next revision (a row without
+    // one is at 0). The rules only accept rv = stored + 1, so a multi-path update carrying it is
+    // refused as a whole (PERMISSION_DENIED) when somebody changed the row since it was read.
+    public static Map<String, Object> revisionUpdate(String orderID, Map<String, Object> summary) {
+        Map<String, Object> update = new HashMap<>();
+        update.put(OrderSummary.NODE + "/" + orderID + "/" + REVISION, revision(summary) + 1);
+        return update;
+    }
+
+    // A summary row's revision (0 when it has none, or there is no row)
+    public static long revision(Map<String, Object> summary) {
+        return summary == null ? 0 : whole(summary, REVISION, null);
+    }
+
+    // =============================== ORDERS ===============================
+
+    public static Map<String, Object> orderToWire(CustomerHomeActivity.Order order) {
+        Map<String, Object> map = header();
+        putOrderFields(map, order.branchID, order.customerID, order.customerName,
+                order.customerLat, order.customerLng, order.assignedDeliverymanID,
+                order.status, order.paymentStatus, order.totalPrice,
+                order.timestamp, order.deliveredTimestamp);
+        map.put(ITEMS, cartItemsToWire(order.items));
+        return map;
+    }
+
+    public static CustomerHomeActivity.Order orderFromWire(String orderID, Map<String, Object> map) {
+        CustomerHomeActivity.Order order = new CustomerHomeActivity.Order();
+        order.orderID = orderID;
+        order.branchID = string(map, BRANCH_ID, "branchID");
+        order.customerID = string(map, CUSTOMER_ID, "customerID");
+        order.customerName = string(map, CUSTOMER_NAME, "customerName");
+        order.customerLat = number(map, CUSTOMER_LAT, "customerLat");
+        order.customerLng = number(map, CUSTOMER_LNG, "customerLng");
+        order.assignedDeliverymanID = string(map, DELIVERYMAN_ID, "assignedDeliverymanID");
+        order.status = string(map, STATUS, "status");
+        order.paymentStatus = string(map, PAYMENT_STATUS, "paymentStatus");
+        order.totalPrice = number(map, TOTAL_PRICE, "totalPrice");
+        order.timestamp = whole(map, TIMESTAMP, "timestamp");
+        order.deliveredTimestamp = whole(map, DELIVERED_TIMESTAMP, "deliveredTimestamp");
+        order.items = cartItemsFromWire(value(map, ITEMS, "items"));
+        return order;
+    }
+
+    // ============================ ORDER SUMMARIES ============================
+
+    public static Map<String, Object> summaryToWire(OrderSummary summary) {
+        Map<String, Object> map = header();
+        putOrderFields(map, summary.getBranchID(), summary.getCustomerID(), summary.getCustomerName(),
+                summary.getCustomerLat(), summary.getCustomerLng(), summary.getAssignedDeliverymanID(),
+                summary.getStatus(), summary.getPaymentStatus(), summary.getTotalPrice(),
+                summary.getTimestamp(), summary.getDeliveredTimestamp());
+        putIfSet(map, ITEM_COUNT, summary.getItemCount());
+        putIfSet(map, READY_TIMESTAMP, summary.getReadyTimestamp());
+        for (Map.Entry<String, Object> key : laneKeys(summary.getBranchID(), summary.getAssignedDeliverymanID(),
+                summary.getStatus()).entrySet()) {
+            putIfSet(map, key.getKey(), (String) key.getValue());
+        }
+        return map;
+    }
+
+    public static OrderSummary summaryFromWire(String orderID, Map<String, Object> map) {
+        OrderSummary summary = new OrderSummary();
+        summary.setOrderID(orderID);
+        summary.setBranchID(string(map, BRANCH_ID, "branchID"));
+        summary.setCustomerID(string(map, CUSTOMER_ID, "customerID"));
+        summary.setCustomerName(string(map, CUSTOMER_NAME, "customerName"));
+        summary.setCustomerLat(number(map, CUSTOMER_LAT, "customerLat"));
+        summary.setCustomerLng(number(map, CUSTOMER_LNG, "customerLng"));
+        summary.setAssignedDeliverymanID(string(map, DELIVERYMAN_ID, "assignedDeliverymanID"));
+        summary.setStatus(string(map, STATUS, "status"));
+        summary.setPaymentStatus(string(map, PAYMENT_STATUS, "paymentStatus"));
+        summary.setTotalPrice(number(map, TOTAL_PRICE, "totalPrice"));
+        summary.setTimestamp(whole(map, TIMESTAMP, "timestamp"));
+        summary.setDeliveredTimestamp(whole(map, DELIVERED_TIMESTAMP, "deliveredTimestamp"));
+        summary.setItemCount((int) whole(map, ITEM_COUNT, "itemCount"));
+        summary.setReadyTimestamp(whole(map, READY_TIMESTAMP, "readyTimestamp"));
+        return summary;
+    }
+
+    // Deliveryman rows are read from the summary node
+    public static DeliverymanHomeActivity.DeliveryItem deliveryItemFromWire(String orderID, Map<String, Object> map) {
+        DeliverymanHomeActivity.DeliveryItem item = new DeliverymanHomeActivity.DeliveryItem();
+        item.orderID = orderID;
+        item.branchID = string(map, BRANCH_ID, "branchID");
+        item.customerID = string(map, CUSTOMER_ID, "customerID");
+        item.customerName = string(map, CUSTOMER_NAME, "customerName");
+        item.customerAddress = string(map, null, "customerAddress");
+        item.customerLat = number(map, CUSTOMER_LAT, "customerLat");
+        item.customerLng = number(map, CUSTOMER_LNG, "customerLng");
+        item.assignedDeliverymanID = string(map, DELIVERYMAN_ID, "assignedDeliverymanID");
+        item.status = string(map, STATUS, "status");
+        item.paymentStatus = string(map, PAYMENT_STATUS, "paymentStatus");
+        item.paymentMethod = string(map, null, "paymentMethod");
+        item.totalPrice = number(map, TOTAL_PRICE, "totalPrice");
+        item.deliveredTimestamp = whole(map, DELIVERED_TIMESTAMP, "deliveredTimestamp");
+        return item;
+    }
+
+    // ============================ ORDER ESTIMATES ============================
+
+    public static Map<String, Object> etaToWire(EtaEstimator.Estimate estimate) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        putIfSet(map, STATUS, estimate.stage);
+        putIfSet(map, ETA_AHEAD, (long) estimate.ahead);
+        putIfSet(map, READY_AT, estimate.readyAt);
+        putIfSet(map, ARRIVE_AT, estimate.arriveAt);
+        putIfSet(map, ARRIVE_LATE, estimate.arriveLate);
+        putIfSet(map, TIMESTAMP, estimate.computedAt);
+        return map;
+    }
+
+    // Null when the node holds no arrival time (missing or removed)
+    public static EtaEstimator.Estimate etaFromWire(String orderID, Map<String, Object> map) {
+        long arriveAt = whole(map, ARRIVE_AT, null);
+        if (arriveAt == 0) return null;
+        return new EtaEstimator.Estimate(orderID, string(map, STATUS, null), (int) whole(map, ETA_AHEAD, null),
+                whole(map, READY_AT, null), arriveAt, whole(map, ARRIVE_LATE, null), whole(map, TIMESTAMP, null));
+    }
+
+    // ============================== ORDER ITEMS ==============================
+
+    // Item lines of "orders/{orderID}/items". The parent order is optional; when given, its
+    // order-level fields are copied onto each line (v2 lines do not store them).
+    public static List<Item> itemsFromWire(Object node, CustomerHomeActivity.Order parent) {
+        List<Item> items = new ArrayList<>();
+        for (Object child : children(node)) {
+            Map<String, Object> map = asMap(child);
+            if (map.isEmpty()) continue;
+
+            Item item = new Item();
+            item.setMenuID(string(map, MENU_ID, "menuID"));
+            item.setName(string(map, NAME, "name"));
+            item.setImageURL(string(map, IMAGE_URL, "imageURL"));
+            item.setQuantity((int) whole(map, QUANTITY, "quantity"));
+            item.setPrice(number(map, PRICE, "price"));
+            // line total is derived in v2; older lines may have stored it
+            double lineTotal = number(map, null, "totalPrice");
+            item.setTotalPrice(lineTotal > 0 ? lineTotal : item.getPrice() * item.getQuantity());
+
+            if (parent != null) {
+                item.setOrderID(parent.orderID);
+                item.setStatus(parent.status);
+                item.setPaymentStatus(parent.paymentStatus);
+                item.setTimestamp(parent.timestamp);
+            } else {
+                item.setOrderID(string(map, null, "orderID"));
+                item.setStatus(string(map, null, "status"));
+                item.setPaymentStatus(string(map, null, "paymentStatus"));
+                item.setTimestamp(whole(map, null, "timestamp"));
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    // ================================ CARTS ================================
+
+    public static Map<String, Object> cartToWire(CustomerHomeActivity.Cart cart) {
+        Map<String, Object> map = header();
+        putIfSet(map, BRANCH_ID, cart.branchID);
+        putIfSet(map, CUSTOMER_ID, cart.customerID);
+        putIfSet(map, TOTAL_ITEMS, cart.totalItems);
+        putIfSet(map, TOTAL_PRICE, cart.totalPrice);
+        map.put(ITEMS, cartItemsToWire(cart.items));
+        return map;
+    }
+
+    public static CustomerHomeActivity.Cart cartFromWire(String cartID, Map<String, Object> map) {
+        CustomerHomeActivity.Cart cart = new CustomerHomeActivity.Cart();
+        cart.cartID = cartID;
+        cart.branchID = string(map, BRANCH_ID, "branchID");
+        cart.customerID = string(map, CUSTOMER_ID, "customerID");
+        cart.totalItems = (int) whole(map, TOTAL_ITEMS, "totalItems");
+        cart.totalPrice = number(map, TOTAL_PRICE, "totalPrice");
+        cart.items = cartItemsFromWire(value(map, ITEMS, "items"));
+        return cart;
+    }
+
+    private static List<Map<String, Object>> cartItemsToWire(List<CustomerHomeActivity.CartItem> items) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        if (items == null) return list;
+        for (CustomerHomeActivity.CartItem item : items) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            putIfSet(map, MENU_ID, item.menuID);
+            putIfSet(map, NAME, item.name);
+            putIfSet(map, IMAGE_URL, item.imageURL);
+            putIfSet(map, QUANTITY, item.quantity);
+            putIfSet(map, PRICE, item.price);
+            list.add(map);
+        }
+        return list;
+    }
+
+    private static List<CustomerHomeActivity.CartItem> cartItemsFromWire(Object node) {
+        List<CustomerHomeActivity.CartItem> items = new ArrayList<>();
+        for (Object child : children(node)) {
+            Map<String, Object> map = asMap(child);
+            if (map.isEmpty()) continue;
+            items.add(new CustomerHomeActivity.CartItem(
+                    string(map, MENU_ID, "menuID"),
+                    string(map, NAME, "name"),
+                    number(map, PRICE, "price"),
+                    (int) whole(map, QUANTITY, "quantity"),
+                    string(map, IMAGE_URL, "imageURL")));
+        }
+        return items;
+    }
+
+    // ================================ HELPERS ================================
+
+    // Raw value of DataSnapshot.getValue() as a map (empty when the node is missing)
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> asMap(Object value) {
+        if (value instanceof Map) return (Map<String, Object>) value;
+        return new HashMap<>();
+    }
+
+    // Firebase returns array-like nodes as a List (with null holes) or, when sparse, as a Map
+    private static Iterable<?> children(Object node) {
+        if (node instanceof List) return (List<?>) node;
+        if (node instanceof Map) return ((Map<?, ?>) node).values();
+        return new ArrayList<>();
+    }
+
+    private static Map<String, Object> header() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(VERSION_KEY, VERSION);
+        return map;
+    }
+
+    private static void putOrderFields(Map<String, Object> map, String branchID, String customerID,
+                                       String customerName, double lat, double lng,
+                                       String deliverymanID, String status, String paymentStatus,
+                                       double totalPrice, long timestamp, long deliveredTimestamp) {
+        putIfSet(map, BRANCH_ID, branchID);
+        putIfSet(map, CUSTOMER_ID, customerID);
+        putIfSet(map, CUSTOMER_NAME, customerName);
+        putIfSet(map, CUSTOMER_LAT, lat);
+        putIfSet(map, CUSTOMER_LNG, lng);
+        putIfSet(map, DELIVERYMAN_ID, deliverymanID);
+        putIfSet(map, STATUS, status);
+        putIfSet(map, PAYMENT_STATUS, paymentStatus);
+        putIfSet(map, TOTAL_PRICE, totalPrice);
+        putIfSet(map, TIMESTAMP, timestamp);
+        putIfSet(map, DELIVERED_TIMESTAMP, deliveredTimestamp);
+    }
+
+    private static void putIfSet(Map<String, Object> map, String key, String value) {
+        if (value != null && !value.isEmpty()) map.put(key, value);
+    }
+
+    // A double has no "unset" value of its own: 0 is a real coordinate or price, so only NaN is left out
+    private static void putIfSet(Map<String, Object> map, String key, double value) {
+        if (!Double.isNaN(value)) map.put(key, value);
+    }
+
+    private static void putIfSet(Map<String, Object> map, String key, long value) {
+        if (value != 0) map.put(key, value);
+    }
+
+    // Short key first, then the pre-v2 verbose name
+    private static Object value(Map<String, Object> map, String shortKey, String verboseKey) {
+        Object value = shortKey != null ? map.get(shortKey) : null;
+        return value != null ? value : map.get(verboseKey);
+    }
+
+    private static String string(Map<String, Object> map, String shortKey, String verboseKey) {
+        Object value = value(map, shortKey, verboseKey);
+        return value != null ? value.toString() : null;
+    }
+
+    private static double number(Map<String, Object> map, String shortKey, String verboseKey) {
+        Object value = value(map, shortKey, verboseKey);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    private static long whole(Map<String, Object> map, String shortKey, String verboseKey) {
+        Object value = value(map, shortKey, verboseKey);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
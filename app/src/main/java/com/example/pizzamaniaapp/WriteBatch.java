@@ -0,0 +1,126 @@
+package com.example.pizzamaniaapp;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DatabaseReference;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Collects every path an admin operation touches (records, linked users, cascades) and commits
+// them with one updateChildren() call. The Realtime Database applies a multi-path update
+// atomically, so an edit can no longer half-apply (employee saved, user not) and a cascade costs
+// one write round trip however many records it touches.
+//
+// updateChildren() rejects an update in which one path is inside another, so set()/delete()
+// refuse overlapping paths up front with IllegalArgumentException. Values may be plain types,
+// maps or model objects (Firebase converts them as setValue() would); null deletes.
+//
+// commit() logs the operation's round trips: the reads spent gathering it (countReads) plus the
+// single write.
+public final class WriteBatch {
+
+    private static final String TAG = "WriteBatch";
+
+    private final String operation;
+    private final TreeMap<String, Object> updates = new TreeMap<>(); // sorted, so overlaps are neighbours
+    private int reads;
+
+    public WriteBatch(String operation) {
+        this.operation = operation;
+    }
+
+    public WriteBatch set(String path, Object value) {
+        String key = normalize(path);
+        checkOverlap(key);
+        updates.put(key, value);
+        return this;
+    }
+
+    // Sets several fields under one record, e.g. users/{id}/name, users/{id}/email
+    public WriteBatch setFields(String basePath, Map<String, ?> fields) {
+        String base = normalize(basePath);
+        for (Map.Entry<String, ?> field : fields.entrySet()) set(base + "/" + field.getKey(), field.getValue());
+        return this;
+    }
+
+    public WriteBatch delete(String path) {
+        return set(path, null);
+    }
+
+    // Adds updates built elsewhere (e.g. OrderSummary.mirroredUpdate)
+    public WriteBatch setAll(Map<String, ?> paths) {
+        for (Map.Entry<String, ?> entry : paths.entrySet()) set(entry.getKey(), entry.getValue());
+        return this;
+    }
+
+    // Records read round trips spent deciding what to write (shows up in the commit log)
+    public WriteBatch countReads(int count) {
+        reads += count;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return updates.isEmpty();
+    }
+
+    public int size() {
+        return updates.size();
+    }
+
+    public boolean contains(String path) {
+        return updates.containsKey(normalize(path));
+    }
+
+    public Map<String, Object> updates() {
+        return Collections.unmodifiableMap(updates);
+    }
+
+    // Reads + the one write
+    public int roundTrips() {
+        return reads + 1;
+    }
+
+    public Task<Void> commit(DatabaseReference root) {
+        logCommit();
+        return root.updateChildren(new TreeMap<>(updates));
+    }
+
+    // As above, for callers that need the DatabaseError (and its code) when the write fails
+    public void commit(DatabaseReference root, DatabaseReference.CompletionListener listener) {
+        logCommit();
+        root.updateChildren(new TreeMap<>(updates), listener);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void logCommit() {
+        Log.d(TAG, operation + ": " + updates.size() + " paths, " + roundTrips() + " round trip(s) ("
+                + reads + " read + 1 write)");
+    }
+
+    private static String normalize(String path) {
+        String trimmed = path;
+        while (trimmed.startsWith("/")) trimmed = trimmed.substring(1);
+        while (trimmed.endsWith("/")) trimmed = trimmed.substring(0, trimmed.length() - 1);
+        if (trimmed.isEmpty()) throw new IllegalArgumentException("Empty path");
+        return trimmed;
+    }
+
+    // No existing path may be an ancestor or descendant of the new one (same path just overwrites)
+    private void checkOverlap(String key) {
+        for (int slash = key.indexOf('/'); slash > 0; slash = key.indexOf('/', slash + 1)) {
+            String ancestor = key.substring(0, slash);
+            if (updates.containsKey(ancestor)) throw overlap(ancestor, key);
+        }
+        String prefix = key + "/";
+        String next = updates.ceilingKey(prefix);
+        if (next != null && next.startsWith(prefix)) throw overlap(key, next);
+    }
+
+    private IllegalArgumentException overlap(String outer, String inner) {
+        return new IllegalArgumentException(operation + ": " + inner + " is inside " + outer + " in the same batch");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks combined catalog filters, query parsing and paging, also on a 20-branch, 5,000-menu
+ * catalog. AdminCatalogBenchmark tracks how long re-querying it takes.
+ */
+public class AdminCatalogTest {
+
+    private static final AdminCatalog CATALOG = AdminCatalog.build(BranchMenuIndex.build(Arrays.asList(
+            menu("m001", "Cheese Pizza", "Pizza", 1450, "b001", "b002"),
+            menu("m002", "Chicken BBQ Pizza", "Pizza", 2400, "b001"),
+            menu("m003", "Garlic Bread", "Sides", 650, "b002"),
+            menu("m004", "Coca-Cola", "Drinks", 300, "b001", "b002"),
+            menu("m005", "Cheesy Garlic Bread", "Sides", 900, "b001"))));
+
+    static final Map<String, String> BRANCHES = new HashMap<>();
+    static {
+        BRANCHES.put("Colombo", "b001");
+        BRANCHES.put("Galle", "b002");
+    }
+
+    @Test
+    public void emptyQuery_returnsPrecomputedCatalog() {
+        assertSame(CATALOG.all(), CATALOG.query(AdminCatalogQuery.parse("  ", BRANCHES)));
+        assertEquals(Arrays.asList("b001", "b002"), CATALOG.all().branchIDs());
+        assertEquals(4, CATALOG.all().countFor("b001"));
+    }
+
+    @Test
+    public void filtersCombine() {
+        AdminCatalog.Result result = query("cat:sides price:<800");
+        assertEquals(Arrays.asList("b002"), result.branchIDs());
+        assertEquals(Arrays.asList("m003"), ids(result.page("b002", 0, 10)));
+
+        result = query("chee price:1000-3000");
+        assertEquals(Arrays.asList("b001", "b002"), result.branchIDs());
+        assertEquals(Arrays.asList("m001"), ids(result.page("b001", 0, 10)));
+        assertEquals(1, result.total());
+    }
+
+    @Test
+    public void textMatches_areRankedWithinEachBranch() {
+        AdminCatalog.Result result = query("garlic");
+        assertEquals(Arrays.asList("m005"), ids(result.page("b001", 0, 10)));
+        assertEquals(Arrays.asList("m003"), ids(result.page("b002", 0, 10)));
+        assertEquals(2, result.total());
+    }
+
+    @Test
+    public void items_listEachMatchOnce_inCatalogOrder() {
+        // m004 is in both branches but is selected once
+        assertEquals(Arrays.asList("m003", "m004", "m005"), ids(query("price:<1000").items()));
+        assertEquals(5, CATALOG.all().items().size());
+    }
+
+    @Test
+    public void branchFilter_acceptsIdOrName() {
+        assertEquals(Arrays.asList("b002"), query("branch:b002").branchIDs());
+        assertEquals(Arrays.asList("b002"), query("branch:galle").branchIDs());
+        assertTrue(query("branch:kandy").isEmpty());
+        assertEquals(2, query("branch:galle price:>500").countFor("b002"));
+    }
+
+    @Test
+    public void parse_keepsUnknownFiltersAsText() {
+        AdminCatalogQuery q = AdminCatalogQuery.parse("bbq price:cheap Cat:Pizza", BRANCHES);
+        assertEquals("bbq price:cheap", q.text);
+        assertEquals("pizza", q.category);
+        assertFalse(q.hasPriceRange());
+        assertEquals(Arrays.asList("m002"), ids(CATALOG.query(AdminCatalogQuery.parse("bbq cat:pizza", BRANCHES)).page("b001", 0, 5)));
+    }
+
+    @Test
+    public void page_slicesOneBranch() {
+        AdminCatalog.Result all = CATALOG.all();
+        assertEquals(Arrays.asList("m001", "m002"), ids(all.page("b001", 0, 2)));
+        assertEquals(Arrays.asList("m004", "m005"), ids(all.page("b001", 2, 2)));
+        assertTrue(all.page("b001", 4, 2).isEmpty());
+        assertTrue(all.page("b999", 0, 2).isEmpty());
+    }
+
+    @Test
+    public void twentyBranchesFiveThousandMenus_filtersHold() {
+        AdminCatalog catalog = largeCatalog();
+
+        for (String q : LARGE_QUERIES) assertFalse(q, catalog.query(AdminCatalogQuery.parse(q, BRANCHES)).isEmpty());
+        for (AdminHomeActivity.MenuItem item : catalog.query(AdminCatalogQuery.parse("spicy cat:pizza price:<2500", BRANCHES)).items()) {
+            assertTrue(item.name, item.name.contains("spicy") && "Pizza".equals(item.category) && item.price <= 2500); // bounds are inclusive
+        }
+        AdminCatalog.Result branch = catalog.query(AdminCatalogQuery.parse("branch:b007 garlic", BRANCHES));
+        assertEquals(Arrays.asList("b007"), branch.branchIDs());
+        for (AdminHomeActivity.MenuItem item : branch.items()) assertTrue(item.branches.contains("b007"));
+    }
+
+    // ---------------------------------------------------------------------
+
+    static final String[] LARGE_QUERIES = {"cat:pizza", "price:1000-2000", "chee", "spicy cat:pizza price:<2500",
+            "branch:b007 garlic", "pepperoni price:>3000", "cat:des", "veggie chicken"};
+
+    // 5,000 menus, each offered at 4 of 20 branches
+    static AdminCatalog largeCatalog() {
+        String[] categories = {"Pizza", "Sides", "Drinks", "Desserts", "Pasta"};
+        String[] words = {"cheese", "chicken", "spicy", "garlic", "veggie", "pepperoni", "tandoori", "devilled"};
+        List<AdminHomeActivity.MenuItem> items = new ArrayList<>();
+        for (int m = 0; m < 5_000; m++) {
+            String[] branches = new String[4];
+            for (int b = 0; b < 4; b++) branches[b] = String.format("b%03d", 1 + (m + b * 5) % 20);
+            items.add(menu(String.format("m%04d", m), words[m % words.length] + " " + words[(m / 8) % words.length],
+                    categories[m % categories.length], 500 + (m * 37) % 4000, branches));
+        }
+        return AdminCatalog.build(BranchMenuIndex.build(items));
+    }
+
+    private static AdminCatalog.Result query(String input) {
+        return CATALOG.query(AdminCatalogQuery.parse(input, BRANCHES));
+    }
+
+    private static AdminHomeActivity.MenuItem menu(String id, String name, String category, double price, String... branches) {
+        AdminHomeActivity.MenuItem item = new AdminHomeActivity.MenuItem();
+        item.menuID = id;
+        item.name = name;
+        item.category = category;
+        item.price = price;
+        item.branches = new ArrayList<>(Arrays.asList(branches));
+        item.availableAt = BranchSet.of(item.branches);
+        return item;
+    }
+
+    private static List<String> ids(List<AdminHomeActivity.MenuItem> items) {
+        List<String> ids = new ArrayList<>();
+        for (AdminHomeActivity.MenuItem item : items) ids.add(item.menuID);
+        return ids;
+    }
+}
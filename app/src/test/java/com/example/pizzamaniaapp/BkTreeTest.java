@@ -0,0 +1,74 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the BK-tree against a brute-force scan of the same vocabulary.
+ */
+public class BkTreeTest {
+
+    @Test
+    public void distance_isLevenshtein() {
+        assertEquals(0, BkTree.distance("pizza", "pizza"));
+        assertEquals(1, BkTree.distance("peperoni", "pepperoni"));
+        assertEquals(2, BkTree.distance("margarita", "margherita"));
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(4, BkTree.distance("", "cake"));
+    }
+
+    @Test
+    public void within_returnsClosestFirst() {
+        BkTree tree = BkTree.build(Arrays.asList("pepperoni", "pepper", "peppers", "margherita", "pepperoni"));
+
+        long[] found = tree.within("peperoni", 2, 10);
+        assertEquals(1, found.length);
+        assertEquals("pepperoni", tree.word((int) found[0]));
+        assertEquals(1, found[0] >>> 32);
+
+        found = tree.within("peper", 2, 10);
+        assertEquals(Arrays.asList("pepper", "peppers"), words(tree, found));
+        assertEquals(1, tree.within("peper", 2, 1).length);
+        assertEquals(0, tree.within("", 2, 10).length);
+    }
+
+    @Test
+    public void within_matchesBruteForce() {
+        Random random = new Random(42);
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) vocabulary.add(randomWord(random));
+        BkTree tree = BkTree.build(vocabulary);
+
+        for (int q = 0; q < 200; q++) {
+            String query = randomWord(random);
+            long[] found = tree.within(query, 2, Integer.MAX_VALUE);
+
+            int expected = 0;
+            for (String word : new java.util.LinkedHashSet<>(vocabulary)) {
+                if (BkTree.distance(query, word) <= 2) expected++;
+            }
+            assertEquals(query, expected, found.length);
+            for (int i = 1; i < found.length; i++) assertTrue(found[i - 1] < found[i]);
+        }
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static String randomWord(Random random) {
+        char[] chars = new char[3 + random.nextInt(6)];
+        for (int i = 0; i < chars.length; i++) chars[i] = (char) ('a' + random.nextInt(6)); // small alphabet, many near hits
+        return new String(chars);
+    }
+
+    private static List<String> words(BkTree tree, long[] found) {
+        List<String> words = new ArrayList<>();
+        for (long f : found) words.add(tree.word((int) f));
+        return words;
+    }
+}
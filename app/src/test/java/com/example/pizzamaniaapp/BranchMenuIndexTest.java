@@ -0,0 +1,75 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the branch grouping BranchAdapter binds from, up to a 50-branch x 300-menu catalog.
+ */
+public class BranchMenuIndexTest {
+
+    @Test
+    public void groupsMenusByBranch_fromTheAvailabilityBits() {
+        List<AdminHomeActivity.MenuItem> items = new ArrayList<>();
+        items.add(menu("m001", "b002", "b001"));
+        items.add(menu("m002", "b001"));
+        items.add(menu("m003"));                      // no branches
+        items.add(menu("m004", "b003", "b003"));      // duplicate branch entry
+
+        BranchMenuIndex index = BranchMenuIndex.build(items);
+
+        assertEquals(Arrays.asList("b001", "b002", "b003"), index.branchIDs()); // branch order within an item
+        assertEquals(2, index.menusFor("b001").size());
+        assertEquals("m002", index.menusFor("b001").get(1).menuID);
+        assertEquals(1, index.menusFor("b003").size());
+        assertTrue(index.menusFor("b999").isEmpty());
+        assertEquals(4, index.allItems().size());
+    }
+
+    @Test
+    public void staleList_losesToTheBits() {
+        AdminHomeActivity.MenuItem item = menu("m001", "b001");
+        item.branches = new ArrayList<>(Arrays.asList("b001", "b002", "Colombo")); // b002 never written to "ab"
+
+        BranchMenuIndex index = BranchMenuIndex.build(Arrays.asList(item));
+
+        assertEquals(Arrays.asList("b001", "Colombo"), index.branchIDs()); // legacy names have no bit and are kept
+        assertTrue(index.menusFor("b002").isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void index_isImmutable() {
+        BranchMenuIndex index = BranchMenuIndex.build(Arrays.asList(menu("m001", "b001")));
+        index.menusFor("b001").add(menu("m002", "b001"));
+    }
+
+    @Test
+    public void build_fiftyBranchesByThreeHundredMenus() {
+        BranchMenuIndex index = BranchMenuIndex.build(everyMenuEverywhere(50, 300));
+
+        assertEquals(50, index.branchCount());
+        assertEquals(300, index.menusFor("b050").size());
+    }
+
+    static List<AdminHomeActivity.MenuItem> everyMenuEverywhere(int branchCount, int menuCount) {
+        String[] branches = new String[branchCount];
+        for (int b = 0; b < branchCount; b++) branches[b] = String.format("b%03d", b + 1);
+        List<AdminHomeActivity.MenuItem> items = new ArrayList<>();
+        for (int m = 0; m < menuCount; m++) items.add(menu(String.format("m%03d", m), branches));
+        return items;
+    }
+
+    private static AdminHomeActivity.MenuItem menu(String id, String... branches) {
+        AdminHomeActivity.MenuItem item = new AdminHomeActivity.MenuItem();
+        item.menuID = id;
+        item.name = "Pizza " + id;
+        item.branches = new ArrayList<>(Arrays.asList(branches));
+        item.availableAt = BranchSet.of(item.branches);
+        return item;
+    }
+}
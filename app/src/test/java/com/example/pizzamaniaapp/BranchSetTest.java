@@ -0,0 +1,81 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks branch ordinals, the bitset operations and the word-list wire format.
+ */
+public class BranchSetTest {
+
+    @Test
+    public void ordinal_isDenseAndTolerant() {
+        assertEquals(0, BranchSet.ordinal("b001"));
+        assertEquals(0, BranchSet.ordinal(" B001 "));
+        assertEquals(41, BranchSet.ordinal("b042"));
+        assertEquals(-1, BranchSet.ordinal("Colombo"));
+        assertEquals(-1, BranchSet.ordinal("b000"));
+        assertEquals(-1, BranchSet.ordinal(null));
+        assertEquals("b042", BranchSet.branchID(41));
+    }
+
+    @Test
+    public void of_setsOneBitPerBranch() {
+        BranchSet set = BranchSet.of(Arrays.asList("b003", "b001", "Old Branch Name", "b040"));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains("b001"));
+        assertTrue(set.contains(BranchSet.ordinal("b040")));
+        assertFalse(set.contains("b002"));
+        assertEquals(Arrays.asList("b001", "b003", "b040"), set.branchIDs());
+    }
+
+    @Test
+    public void readableList_followsTheBits_andKeepsLegacyNames() {
+        BranchSet set = BranchSet.of(Arrays.asList("b003", "b001"));
+
+        assertEquals(Arrays.asList("b001", "b003", "Old Branch Name"),
+                set.readableList(Arrays.asList("b002", "Old Branch Name", "b003")));
+        assertEquals(Arrays.asList("b001", "b003"), set.readableList(null));
+    }
+
+    @Test
+    public void withAndWithout_returnNewSets() {
+        BranchSet set = BranchSet.of(Arrays.asList("b001"));
+        BranchSet more = set.with(BranchSet.ordinal("b070"));
+
+        assertFalse(set.contains("b070"));
+        assertTrue(more.contains("b070"));
+        assertEquals(set, more.without(BranchSet.ordinal("b070")));
+        assertEquals(BranchSet.of(Arrays.asList("b070")), more.minus(set));
+        assertEquals(set, more.intersect(set));
+    }
+
+    @Test
+    public void wire_roundTrip_keepsHighBitPositive() {
+        BranchSet set = BranchSet.of(Arrays.asList("b032", "b033", "b100"));
+        List<Long> wire = set.toWire();
+
+        for (Long word : wire) assertTrue(word >= 0);
+        assertEquals(set, BranchSet.fromWire(new ArrayList<>(wire)));
+    }
+
+    @Test
+    public void wire_readsSparseWordMap() {
+        // what Firebase hands back after a transaction wrote only word 1
+        Map<String, Object> sparse = new HashMap<>();
+        sparse.put("1", BranchSet.wordMask(BranchSet.ordinal("b035")));
+
+        BranchSet set = BranchSet.fromWire(sparse);
+        assertEquals(Arrays.asList("b035"), set.branchIDs());
+        assertEquals(1, BranchSet.wordIndex(BranchSet.ordinal("b035")));
+        assertTrue(BranchSet.fromWire(null).isEmpty());
+    }
+}
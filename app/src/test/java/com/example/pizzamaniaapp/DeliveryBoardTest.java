@@ -0,0 +1,95 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks how the rider home screen's lanes follow child events: which orders each lane keeps,
+ * how an accepted order moves between lanes, and the tick shown while a completion is queued.
+ */
+public class DeliveryBoardTest {
+
+    private static final DeliveryBoard.Lane PENDING = DeliveryBoard.Lane.PENDING;
+    private static final DeliveryBoard.Lane ACCEPTED = DeliveryBoard.Lane.ACCEPTED;
+
+    @Test
+    public void lanes_keepOnlyTheRidersBranchAndOrders() {
+        DeliveryBoard board = new DeliveryBoard("b001", "d001");
+
+        assertEquals(DeliveryBoard.Change.ADDED, board.put(PENDING, "o002", wire("b001", "Delivery Pending", null)));
+        assertEquals(DeliveryBoard.Change.ADDED, board.put(PENDING, "o001", wire("b001", "Delivery Pending", "")));
+        assertEquals(DeliveryBoard.Change.NONE, board.put(PENDING, "o003", wire("b002", "Delivery Pending", null)));
+        assertEquals(DeliveryBoard.Change.ADDED, board.put(ACCEPTED, "o004", wire("b001", "Delivering", "d001")));
+        assertEquals(DeliveryBoard.Change.NONE, board.put(ACCEPTED, "o005", wire("b001", "Delivering", "d002")));
+
+        assertEquals("o001,o002", ids(board.pending())); // order-ID order
+        assertEquals("o004", ids(board.accepted()));
+        assertEquals("Customer: Nimal", board.row(PENDING, "o002").customerText);
+    }
+
+    @Test
+    public void accept_movesTheOrderBetweenLanes() {
+        DeliveryBoard board = new DeliveryBoard("b001", "d001");
+        board.put(PENDING, "o001", wire("b001", "Delivery Pending", null));
+
+        // The order leaves the pending query and enters the delivering one
+        assertEquals(DeliveryBoard.Change.REMOVED, board.remove(PENDING, "o001"));
+        assertEquals(DeliveryBoard.Change.ADDED, board.put(ACCEPTED, "o001", wire("b001", "Delivering", "d001")));
+        assertTrue(board.pending().isEmpty());
+        assertEquals(DeliveryBoard.Change.UPDATED, board.put(ACCEPTED, "o001", wire("b001", "Delivering", "d001")));
+
+        // Taken by someone else while still pending: drops out of the pending lane
+        board.put(PENDING, "o002", wire("b001", "Delivery Pending", null));
+        assertEquals(DeliveryBoard.Change.REMOVED, board.put(PENDING, "o002", wire("b001", "Delivery Pending", "d002")));
+        assertEquals(DeliveryBoard.Change.NONE, board.remove(PENDING, "o002"));
+    }
+
+    @Test
+    public void completing_ticksTheRowWhileItsWriteIsQueued() {
+        DeliveryBoard board = new DeliveryBoard("b001", "d001");
+        board.put(ACCEPTED, "o001", wire("b001", "Delivering", "d001"));
+        assertFalse(board.row(ACCEPTED, "o001").completed);
+
+        assertEquals(DeliveryBoard.Change.UPDATED, board.setCompleting(Collections.singleton("o001")));
+        assertTrue(board.row(ACCEPTED, "o001").completed);
+        assertTrue(board.row(ACCEPTED, "o001").acceptedByCurrent); // still shows the checkbox
+        assertEquals(DeliveryBoard.Change.NONE, board.setCompleting(Collections.singleton("o001")));
+
+        // Child events keep the tick; undo clears it
+        board.put(ACCEPTED, "o001", wire("b001", "Delivering", "d001"));
+        assertTrue(board.row(ACCEPTED, "o001").completed);
+        assertEquals(DeliveryBoard.Change.UPDATED, board.setCompleting(Collections.<String>emptySet()));
+        assertFalse(board.row(ACCEPTED, "o001").completed);
+
+        // Once the write goes out the order leaves the "Delivering" query like any other
+        board.setCompleting(Collections.singleton("o001"));
+        assertEquals(DeliveryBoard.Change.REMOVED, board.remove(ACCEPTED, "o001"));
+        assertTrue(board.accepted().isEmpty());
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static Map<String, Object> wire(String branchID, String status, String riderID) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(WireFormat.BRANCH_ID, branchID);
+        map.put(WireFormat.STATUS, status);
+        map.put(WireFormat.CUSTOMER_NAME, "Nimal");
+        if (riderID != null) map.put(WireFormat.DELIVERYMAN_ID, riderID);
+        return map;
+    }
+
+    private static String ids(List<DeliveryRow> rows) {
+        StringBuilder sb = new StringBuilder();
+        for (DeliveryRow row : rows) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(row.item.orderID);
+        }
+        return sb.toString();
+    }
+}
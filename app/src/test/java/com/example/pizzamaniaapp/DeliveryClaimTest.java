@@ -0,0 +1,117 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the compare-and-set rule behind accepting a delivery: what a claim writes, and many
+ * riders racing for one order against a row that, like the revision rule in the database, only
+ * takes an update made from its latest value.
+ */
+public class DeliveryClaimTest {
+
+    @Test
+    public void decide_onlyClaimsPendingUnassignedOrders() {
+        assertEquals(DeliveryClaim.Outcome.CLAIMED, DeliveryClaim.decide(summary("Delivery Pending", null), "d001"));
+        assertEquals(DeliveryClaim.Outcome.CLAIMED, DeliveryClaim.decide(summary("Delivery Pending", ""), "d001"));
+        assertEquals(DeliveryClaim.Outcome.TAKEN, DeliveryClaim.decide(summary("Delivering", "d002"), "d001"));
+        assertEquals(DeliveryClaim.Outcome.NOT_PENDING, DeliveryClaim.decide(summary("Preparing", null), "d001"));
+        assertEquals(DeliveryClaim.Outcome.MISSING, DeliveryClaim.decide(null, "d001"));
+
+        // Retried tap after the claim already went through
+        assertEquals(DeliveryClaim.Outcome.CLAIMED, DeliveryClaim.decide(summary("Delivering", "d001"), "d001"));
+        assertEquals(DeliveryClaim.Outcome.TAKEN, DeliveryClaim.decide(summary("Completed", "d001"), "d001"));
+    }
+
+    @Test
+    public void claimUpdate_writesSummaryAndOrderTogether() {
+        Map<String, Object> update = DeliveryClaim.claimUpdate("o001", summary("Delivery Pending", null), "d001");
+        for (String node : new String[]{"orders/o001/", "orderSummaries/o001/"}) {
+            assertEquals("Delivering", update.get(node + WireFormat.STATUS));
+            assertEquals("d001", update.get(node + WireFormat.DELIVERYMAN_ID));
+        }
+        assertEquals("b001|Delivering", update.get(SUMMARY + WireFormat.BRANCH_STATUS));
+        assertEquals("d001|Delivering", update.get(SUMMARY + WireFormat.RIDER_STATUS));
+        assertEquals(1L, update.get(SUMMARY + WireFormat.REVISION)); // a row without a revision is at 0
+
+        Map<String, Object> moved = summary("Delivery Pending", null);
+        moved.put(WireFormat.REVISION, 7L);
+        assertEquals(8L, DeliveryClaim.claimUpdate("o001", moved, "d001").get(SUMMARY + WireFormat.REVISION));
+
+        assertNull(DeliveryClaim.claimUpdate("o001", summary("Delivering", "d001"), "d001")); // retried tap: nothing to write
+        assertNull(DeliveryClaim.claimUpdate("o001", summary("Delivering", "d002"), "d001"));
+        assertNull(DeliveryClaim.claimUpdate("o001", null, "d001"));
+    }
+
+    @Test
+    public void twentyRidersRacing_exactlyOneWins() {
+        Map<String, Object> row = summary("Delivery Pending", null);
+        Map<String, Map<String, Object>> reads = new LinkedHashMap<>(); // every rider reads before anyone writes
+        for (int i = 1; i <= 20; i++) reads.put(IdBlock.format('d', i), new HashMap<>(row));
+
+        Map<DeliveryClaim.Outcome, Integer> outcomes = new HashMap<>();
+        for (Map.Entry<String, Map<String, Object>> rider : reads.entrySet()) {
+            DeliveryClaim.Outcome outcome = claim(row, rider.getValue(), rider.getKey());
+            outcomes.merge(outcome, 1, Integer::sum);
+        }
+
+        assertEquals(Integer.valueOf(1), outcomes.get(DeliveryClaim.Outcome.CLAIMED));
+        assertEquals(Integer.valueOf(19), outcomes.get(DeliveryClaim.Outcome.TAKEN));
+        assertEquals("d001", row.get(WireFormat.DELIVERYMAN_ID));
+        assertEquals(1L, row.get(WireFormat.REVISION)); // one write landed
+    }
+
+    @Test
+    public void rowChangedSinceTheRead_refusesTheWholeClaim() {
+        Map<String, Object> row = summary("Delivery Pending", null);
+        Map<String, Object> read = new HashMap<>(row);
+        row.put(WireFormat.STATUS, "Cancelled"); // the kitchen's change lands first
+        row.put(WireFormat.REVISION, 1L);
+
+        assertFalse(guardedWrite(row, DeliveryClaim.claimUpdate("o001", read, "d001")));
+        assertEquals(DeliveryClaim.Outcome.NOT_PENDING, claim(row, read, "d001"));
+        assertNull(row.get(WireFormat.DELIVERYMAN_ID));
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static final String SUMMARY = "orderSummaries/o001/";
+
+    // DeliveryClaim.claim() against a row held in memory: starts from `read` and reads again
+    // whenever the guarded write is refused
+    private static DeliveryClaim.Outcome claim(Map<String, Object> row, Map<String, Object> read, String riderID) {
+        Map<String, Object> seen = read;
+        for (int round = 1; round <= DeliveryClaim.MAX_ROUNDS; round++) {
+            Map<String, Object> update = DeliveryClaim.claimUpdate("o001", seen, riderID);
+            if (update == null) return DeliveryClaim.decide(seen, riderID);
+            if (guardedWrite(row, update)) return DeliveryClaim.Outcome.CLAIMED;
+            seen = new HashMap<>(row);
+        }
+        throw new AssertionError(riderID + " still refused after " + DeliveryClaim.MAX_ROUNDS + " rounds");
+    }
+
+    // What the rules do with a multi-path update: all of it lands only if it moves the row's
+    // revision on from the stored one (DB/database.rules.json). Only the summary paths are kept.
+    private static boolean guardedWrite(Map<String, Object> row, Map<String, Object> update) {
+        Object stored = row.get(WireFormat.REVISION);
+        long next = (stored == null ? 0 : ((Number) stored).longValue()) + 1;
+        if (!Long.valueOf(next).equals(update.get(SUMMARY + WireFormat.REVISION))) return false;
+        for (Map.Entry<String, Object> path : update.entrySet()) {
+            if (path.getKey().startsWith(SUMMARY)) row.put(path.getKey().substring(SUMMARY.length()), path.getValue());
+        }
+        return true;
+    }
+
+    private static Map<String, Object> summary(String status, String riderID) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(WireFormat.BRANCH_ID, "b001");
+        map.put(WireFormat.STATUS, status);
+        if (riderID != null) map.put(WireFormat.DELIVERYMAN_ID, riderID);
+        return map;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.pizzamaniaapp;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs each adapter's item callback through DiffUtil and checks the exact updates
+ * a data change dispatches: one changed order rebinds one row, and so on.
+ */
+public class DiffCallbacksTest {
+
+    // ================================ ORDERS ================================
+
+    @Test
+    public void orderRows_statusChangeRebindsOnlyThatRow() {
+        List<OrderRow> before = Arrays.asList(row("o001", "Preparing"), row("o002", "Preparing"), row("o003", "Preparing"));
+        List<OrderRow> after = Arrays.asList(row("o001", "Preparing"), row("o002", "Delivery Pending"), row("o003", "Preparing"));
+
+        assertEquals(Arrays.asList("changed 1+1"), changes(before, after, DiffCallbacks.ORDER_ROW));
+    }
+
+    @Test
+    public void orderRows_rebuiltButIdentical_dispatchNothing() {
+        List<OrderRow> before = Arrays.asList(row("o001", "Preparing"), row("o002", "Completed"));
+        List<OrderRow> after = Arrays.asList(row("o001", "Preparing"), row("o002", "Completed"));
+
+        assertTrue(changes(before, after, DiffCallbacks.ORDER_ROW).isEmpty());
+    }
+
+    @Test
+    public void orderRows_loadedItemLinesRebindThatRow() {
+        OrderRow row = row("o002", "Preparing");
+        List<OrderRow> before = Arrays.asList(row("o001", "Preparing"), row);
+        List<OrderRow> after = Arrays.asList(row("o001", "Preparing"), row.withItems(new ArrayList<>()));
+
+        assertEquals(Arrays.asList("changed 1+1"), changes(before, after, DiffCallbacks.ORDER_ROW));
+    }
+
+    @Test
+    public void deliveryRows_acceptMovesOrderOutOfPending() {
+        List<DeliveryRow> before = Arrays.asList(delivery("o001", "", "Delivery Pending"),
+                delivery("o002", "", "Delivery Pending"), delivery("o003", "", "Delivery Pending"));
+        List<DeliveryRow> after = Arrays.asList(delivery("o001", "", "Delivery Pending"),
+                delivery("o003", "", "Delivery Pending"));
+
+        assertEquals(Arrays.asList("removed 1+1"), changes(before, after, DiffCallbacks.DELIVERY_ROW));
+    }
+
+    @Test
+    public void deliveryRows_completingRebindsCheckbox() {
+        List<DeliveryRow> before = Arrays.asList(delivery("o001", "d001", "Delivering"));
+        List<DeliveryRow> after = Arrays.asList(delivery("o001", "d001", "Completed"));
+
+        assertEquals(Arrays.asList("changed 0+1"), changes(before, after, DiffCallbacks.DELIVERY_ROW));
+    }
+
+    @Test
+    public void orderSummaries_newOrderIsOneInsert() {
+        List<OrderSummary> before = Arrays.asList(summary("o001", "Completed", 1500), summary("o002", "Completed", 2900));
+        List<OrderSummary> after = Arrays.asList(summary("o001", "Completed", 1500), summary("o002", "Completed", 2900),
+                summary("o003", "Completed", 800));
+
+        assertEquals(Arrays.asList("inserted 2+1"), changes(before, after, DiffCallbacks.ORDER_SUMMARY));
+    }
+
+    @Test
+    public void orderSummaries_unrenderedFieldIsNotAChange() {
+        OrderSummary old = summary("o001", "Delivery Pending", 1500);
+        OrderSummary moved = summary("o001", "Delivery Pending", 1500);
+        moved.setCustomerLat(7.0); // no list screen shows coordinates
+
+        assertTrue(changes(Arrays.asList(old), Arrays.asList(moved), DiffCallbacks.ORDER_SUMMARY).isEmpty());
+    }
+
+    // ================================ CART ================================
+
+    @Test
+    public void cartItems_removeAndQuantityChange() {
+        List<CustomerHomeActivity.CartItem> before = Arrays.asList(cart("m001", 1), cart("m002", 2), cart("m003", 1));
+
+        assertEquals(Arrays.asList("removed 0+1"),
+                changes(before, Arrays.asList(cart("m002", 2), cart("m003", 1)), DiffCallbacks.CART_ITEM));
+        assertEquals(Arrays.asList("changed 2+1"),
+                changes(before, Arrays.asList(cart("m001", 1), cart("m002", 2), cart("m003", 4)), DiffCallbacks.CART_ITEM));
+    }
+
+    // ================================ MENU ================================
+
+    @Test
+    public void menuItems_priceChangeRebindsOneCard() {
+        List<CustomerHomeActivity.MenuItem> before = Arrays.asList(menu("m001", 1450), menu("m002", 1800));
+        List<CustomerHomeActivity.MenuItem> after = Arrays.asList(menu("m001", 1450), menu("m002", 1950));
+
+        assertEquals(Arrays.asList("changed 1+1"), changes(before, after, DiffCallbacks.MENU_ITEM));
+    }
+
+    @Test
+    public void adminMenuItems_soldOutToggleRebindsOneCard() {
+        AdminHomeActivity.MenuItem soldOut = adminMenu("m002");
+        soldOut.soldOutAt = BranchSet.of(Arrays.asList("b001"));
+
+        List<AdminHomeActivity.MenuItem> before = Arrays.asList(adminMenu("m001"), adminMenu("m002"), adminMenu("m003"));
+        List<AdminHomeActivity.MenuItem> after = Arrays.asList(adminMenu("m001"), soldOut, adminMenu("m003"));
+
+        assertEquals(Arrays.asList("changed 1+1"), changes(before, after, DiffCallbacks.ADMIN_MENU_ITEM));
+    }
+
+    // ---------------------------------------------------------------------
+
+    // Same wiring AsyncListDiffer uses, recorded as "op position+count"
+    private static <T> List<String> changes(List<T> before, List<T> after, DiffUtil.ItemCallback<T> callback) {
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override public int getOldListSize() { return before.size(); }
+            @Override public int getNewListSize() { return after.size(); }
+            @Override public boolean areItemsTheSame(int o, int n) { return callback.areItemsTheSame(before.get(o), after.get(n)); }
+            @Override public boolean areContentsTheSame(int o, int n) { return callback.areContentsTheSame(before.get(o), after.get(n)); }
+        });
+
+        List<String> ops = new ArrayList<>();
+        result.dispatchUpdatesTo(new ListUpdateCallback() {
+            @Override public void onInserted(int position, int count) { ops.add("inserted " + position + "+" + count); }
+            @Override public void onRemoved(int position, int count) { ops.add("removed " + position + "+" + count); }
+            @Override public void onMoved(int from, int to) { ops.add("moved " + from + "->" + to); }
+            @Override public void onChanged(int position, int count, Object payload) { ops.add("changed " + position + "+" + count); }
+        });
+        return ops;
+    }
+
+    private static OrderSummary summary(String id, String status, double total) {
+        OrderSummary order = new OrderSummary();
+        order.setOrderID(id);
+        order.setBranchID("b001");
+        order.setCustomerName("Customer " + id);
+        order.setStatus(status);
+        order.setPaymentStatus("Pending");
+        order.setTotalPrice(total);
+        order.setItemCount(2);
+        return order;
+    }
+
+    private static OrderRow row(String id, String status) {
+        return OrderRow.from(summary(id, status, 2900));
+    }
+
+    private static DeliveryRow delivery(String id, String deliverymanID, String status) {
+        DeliverymanHomeActivity.DeliveryItem item = new DeliverymanHomeActivity.DeliveryItem();
+        item.orderID = id;
+        item.customerName = "Customer " + id;
+        item.assignedDeliverymanID = deliverymanID;
+        item.status = status;
+        item.customerLat = 6.9271;
+        item.customerLng = 79.8612;
+        return new DeliveryRow(item);
+    }
+
+    private static CustomerHomeActivity.CartItem cart(String menuID, int quantity) {
+        return new CustomerHomeActivity.CartItem(menuID, "Pizza " + menuID, 1450.0, quantity, null);
+    }
+
+    private static CustomerHomeActivity.MenuItem menu(String id, double price) {
+        CustomerHomeActivity.MenuItem item = new CustomerHomeActivity.MenuItem();
+        item.menuID = id;
+        item.name = "Pizza " + id;
+        item.price = price;
+        return item;
+    }
+
+    private static AdminHomeActivity.MenuItem adminMenu(String id) {
+        AdminHomeActivity.MenuItem item = new AdminHomeActivity.MenuItem();
+        item.menuID = id;
+        item.name = "Pizza " + id;
+        item.price = 1450;
+        return item;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks when an employee phone may take its branch's dispatch lease.
+ */
+public class DispatchLeaseTest {
+
+    @Test
+    public void freeOrExpiredLease_canBeTaken() {
+        assertTrue(DispatchLease.canTake(null, "phoneA", 1000L));
+        assertTrue(DispatchLease.canTake(new HashMap<>(), "phoneA", 1000L));
+        assertTrue(DispatchLease.canTake(lease("phoneB", 999L), "phoneA", 1000L));
+    }
+
+    @Test
+    public void liveLease_onlyByItsHolder() {
+        assertFalse(DispatchLease.canTake(lease("phoneB", 5000L), "phoneA", 1000L));
+        assertTrue(DispatchLease.canTake(lease("phoneA", 5000L), "phoneA", 1000L)); // renewing
+    }
+
+    @Test
+    public void leaseWithoutATime_hasRunOut() {
+        Map<String, Object> broken = new HashMap<>();
+        broken.put(DispatchLease.HOLDER, "phoneB");
+        assertTrue(DispatchLease.canTake(broken, "phoneA", 1000L));
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static Map<String, Object> lease(String holder, long until) {
+        Map<String, Object> lease = new HashMap<>();
+        lease.put(DispatchLease.HOLDER, holder);
+        lease.put(DispatchLease.UNTIL, until);
+        return lease;
+    }
+}
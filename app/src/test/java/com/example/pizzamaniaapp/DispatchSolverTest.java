@@ -0,0 +1,163 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the dispatch assignment: optimal against brute force on small cases, oldest orders first
+ * when riders run short, and one order per rider up to 200 orders x 50 riders.
+ */
+public class DispatchSolverTest {
+
+    static final double BRANCH_LAT = 6.9271, BRANCH_LNG = 79.8612; // Colombo
+
+    @Test
+    public void solve_matchesBruteForce() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int rows = 1 + random.nextInt(5), cols = 1 + random.nextInt(5);
+            double[][] cost = new double[rows][cols];
+            for (double[] row : cost) for (int j = 0; j < cols; j++) row[j] = random.nextInt(1000);
+
+            int[] match = DispatchSolver.solve(cost);
+            assertEquals(bruteForce(cost, 0, new boolean[cols]), total(cost, match), 1e-6);
+
+            int matched = 0;
+            Set<Integer> columns = new HashSet<>();
+            for (int j : match) {
+                if (j < 0) continue;
+                matched++;
+                assertTrue("column used twice", columns.add(j));
+            }
+            assertEquals(Math.min(rows, cols), matched);
+        }
+    }
+
+    @Test
+    public void assign_sendsTheNearestRider() {
+        List<DispatchSolver.Job> jobs = Arrays.asList(job("o001", 1, 0.01), job("o002", 2, 0.02));
+        List<DispatchSolver.Rider> riders = Arrays.asList(
+                rider("d001", 0.30),   // far out
+                rider("d002", 0.0),    // waiting at the branch
+                rider("d003", 0.01));  // just round the corner
+
+        List<DispatchSolver.Assignment> assignments = DispatchSolver.assign(jobs, riders);
+        assertEquals(2, assignments.size());
+        Set<String> used = new HashSet<>();
+        for (DispatchSolver.Assignment assignment : assignments) used.add(assignment.riderID);
+        assertEquals(new HashSet<>(Arrays.asList("d002", "d003")), used);
+        assertEquals("o001", assignments.get(0).orderID);
+    }
+
+    @Test
+    public void assign_servesOldestOrdersFirst_whenRidersRunShort() {
+        List<DispatchSolver.Job> jobs = Arrays.asList(
+                job("o003", 300, 0.001),  // nearest, but newest
+                job("o001", 100, 0.05),
+                job("o002", 200, 0.04));
+        List<DispatchSolver.Assignment> assignments = DispatchSolver.assign(jobs, Arrays.asList(rider("d001", 0), rider("d002", 0)));
+
+        assertEquals(2, assignments.size());
+        assertEquals("o001", assignments.get(0).orderID);
+        assertEquals("o002", assignments.get(1).orderID);
+        assertTrue(DispatchSolver.assign(jobs, new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void assign_200orders_50riders_givesEveryRiderOneOrder() {
+        Random random = new Random(7);
+        List<DispatchSolver.Job> jobs = randomJobs(random, 200);
+        List<DispatchSolver.Rider> riders = randomRiders(random, 50);
+
+        List<DispatchSolver.Assignment> assignments = DispatchSolver.assign(jobs, riders);
+        assertEquals(50, assignments.size());
+        Set<String> orders = new HashSet<>(), riderIDs = new HashSet<>();
+        for (DispatchSolver.Assignment assignment : assignments) {
+            assertTrue(orders.add(assignment.orderID));
+            assertTrue(riderIDs.add(assignment.riderID));
+        }
+
+        // Full 200 x 50 matrix (every order considered): each rider still gets exactly one row
+        int[] match = DispatchSolver.solve(costMatrix(jobs, riders));
+        int matched = 0;
+        Set<Integer> columns = new HashSet<>();
+        for (int column : match) {
+            if (column < 0) continue;
+            matched++;
+            assertTrue(columns.add(column));
+        }
+        assertEquals(50, matched);
+    }
+
+    // ---------------------------------------------------------------------
+
+    // Orders scattered a few km around the branch, placed one after another
+    static List<DispatchSolver.Job> randomJobs(Random random, int count) {
+        List<DispatchSolver.Job> jobs = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            jobs.add(new DispatchSolver.Job(IdBlock.format('o', i), i, BRANCH_LAT, BRANCH_LNG,
+                    BRANCH_LAT + random.nextGaussian() * 0.05, BRANCH_LNG + random.nextGaussian() * 0.05));
+        }
+        return jobs;
+    }
+
+    static List<DispatchSolver.Rider> randomRiders(Random random, int count) {
+        List<DispatchSolver.Rider> riders = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            riders.add(new DispatchSolver.Rider(IdBlock.format('d', i),
+                    BRANCH_LAT + random.nextGaussian() * 0.05, BRANCH_LNG + random.nextGaussian() * 0.05));
+        }
+        return riders;
+    }
+
+    // Rider -> drop distance for every pair
+    static double[][] costMatrix(List<DispatchSolver.Job> jobs, List<DispatchSolver.Rider> riders) {
+        double[][] cost = new double[jobs.size()][riders.size()];
+        for (int i = 0; i < jobs.size(); i++) {
+            for (int j = 0; j < riders.size(); j++) {
+                DispatchSolver.Job job = jobs.get(i);
+                cost[i][j] = DispatchSolver.meters(riders.get(j).lat, riders.get(j).lng, job.dropLat, job.dropLng);
+            }
+        }
+        return cost;
+    }
+
+    private static DispatchSolver.Job job(String orderID, long placedAt, double northOfBranch) {
+        return new DispatchSolver.Job(orderID, placedAt, BRANCH_LAT, BRANCH_LNG, BRANCH_LAT + northOfBranch, BRANCH_LNG);
+    }
+
+    private static DispatchSolver.Rider rider(String riderID, double southOfBranch) {
+        return new DispatchSolver.Rider(riderID, BRANCH_LAT - southOfBranch, BRANCH_LNG);
+    }
+
+    private static double total(double[][] cost, int[] match) {
+        double sum = 0;
+        for (int i = 0; i < match.length; i++) if (match[i] >= 0) sum += cost[i][match[i]];
+        return sum;
+    }
+
+    // Cheapest way to give min(rows, cols) rows distinct columns
+    private static double bruteForce(double[][] cost, int row, boolean[] used) {
+        int rows = cost.length, cols = cost[0].length;
+        if (row == rows) return 0;
+        int freeColumns = 0;
+        for (boolean u : used) if (!u) freeColumns++;
+        double best = Double.POSITIVE_INFINITY;
+        if (rows - row > freeColumns) best = bruteForce(cost, row + 1, used); // this row may sit out
+        for (int j = 0; j < cols; j++) {
+            if (used[j]) continue;
+            used[j] = true;
+            best = Math.min(best, cost[row][j] + bruteForce(cost, row + 1, used));
+            used[j] = false;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the kitchen queue, prep-time learning and rider-based estimates, and that each event only
+ * invalidates the orders it can affect.
+ */
+public class EtaEstimatorTest {
+
+    static final double BRANCH_LAT = 6.9271, BRANCH_LNG = 79.8612;
+    static final long T0 = 1_700_000_000_000L;
+    static final long MIN = 60_000;
+
+    @Test
+    public void kitchen_cooksInRoundsOfSlots_inPlacementOrder() {
+        EtaEstimator eta = new EtaEstimator();
+        List<OrderSummary> branch = new ArrayList<>();
+        for (int i = 0; i < 7; i++) branch.add(order("o" + i, "Preparing", T0 + i * 1000L, 1000));
+        eta.sync("b1", branch);
+        eta.branchLocated("b1", BRANCH_LAT, BRANCH_LNG);
+
+        long now = T0 + 10_000;
+        EtaEstimator.Estimate first = eta.estimate("o0", now), fourth = eta.estimate("o3", now), last = eta.estimate("o6", now);
+        assertEquals(0, first.ahead);
+        assertEquals(3, fourth.ahead);
+        assertEquals(T0 + EtaEstimator.DEFAULT_PREP_MS, first.readyAt);
+        assertEquals(T0 + 3000 + 2 * EtaEstimator.DEFAULT_PREP_MS, fourth.readyAt); // second round
+        assertEquals(T0 + 6000 + 3 * EtaEstimator.DEFAULT_PREP_MS, last.readyAt);
+        // 1 km away at 6 m/s with the road factor, after the handoff
+        assertEquals(first.readyAt + EtaEstimator.HANDOFF_MS + 216_667, first.arriveAt, 1000);
+    }
+
+    @Test
+    public void sync_onlyInvalidatesWhatAChangeAffects() {
+        EtaEstimator eta = new EtaEstimator();
+        List<OrderSummary> branch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) branch.add(order("o" + i, "Preparing", T0 + i * 1000L, 1000));
+        assertEquals(5, eta.sync("b1", branch).size());
+
+        // Same snapshot again: nothing to do
+        assertTrue(eta.sync("b1", branch).isEmpty());
+        EtaEstimator.Estimate cached = eta.estimate("o1", T0);
+        assertSame(cached, eta.estimate("o1", T0 + 1000));
+
+        // A new order joins the end of the queue: only it
+        branch.add(order("o5", "confirm order", T0 + 9000, 1000));
+        assertEquals(set("o5"), eta.sync("b1", branch));
+        assertSame(cached, eta.estimate("o1", T0 + 1000));
+
+        // o2 leaves the kitchen: it and everyone behind it
+        branch.set(2, order("o2", "Delivery Pending", T0 + 2000, 1000));
+        assertEquals(set("o2", "o3", "o4", "o5"), eta.sync("b1", branch));
+        assertSame(cached, eta.estimate("o1", T0 + 1000));
+        assertEquals(3, eta.estimate("o4", T0 + 1000).ahead); // o0, o1, o3
+
+        // Finished orders stop being tracked
+        branch.set(2, order("o2", "Completed", T0 + 2000, 1000));
+        assertEquals(set("o2"), eta.sync("b1", branch));
+        assertNull(eta.estimate("o2", T0));
+    }
+
+    @Test
+    public void riderMoved_onlyTouchesTheirOrders_andBringsTheArrivalCloser() {
+        EtaEstimator eta = new EtaEstimator();
+        OrderSummary mine = order("o1", "Delivering", T0, 3000);
+        mine.setAssignedDeliverymanID("d1");
+        OrderSummary theirs = order("o2", "Delivering", T0, 3000);
+        theirs.setAssignedDeliverymanID("d2");
+        eta.sync("b1", Arrays.asList(mine, theirs));
+        eta.branchLocated("b1", BRANCH_LAT, BRANCH_LNG);
+
+        long now = T0 + 20 * MIN;
+        long fromBranch = eta.estimate("o1", now).arriveAt;
+        EtaEstimator.Estimate other = eta.estimate("o2", now);
+
+        assertEquals(set("o1"), eta.riderMoved("d1", BRANCH_LAT + 2000 / 111_320.0, BRANCH_LNG, now)); // 1 km to go
+        assertSame(other, eta.estimate("o2", now));
+        long halfway = eta.estimate("o1", now).arriveAt;
+        assertTrue(halfway < fromBranch);
+        assertEquals(now + 216_667, halfway, 1000);
+
+        // A stale position is ignored
+        eta.riderMoved("d2", BRANCH_LAT + 2900 / 111_320.0, BRANCH_LNG, now - 30 * MIN);
+        assertEquals(other.arriveAt, eta.estimate("o2", now).arriveAt);
+    }
+
+    @Test
+    public void history_learnsTheBranchPrepTime() {
+        EtaEstimator eta = new EtaEstimator();
+        List<OrderSummary> branch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            OrderSummary done = order("h" + i, "Completed", T0 - (i + 2) * 60 * MIN, 1000);
+            done.setReadyTimestamp(done.getTimestamp() + (8 + i % 5) * MIN); // 8-12 min
+            branch.add(done);
+        }
+        OrderSummary now = order("o1", "Preparing", T0, 1000);
+        eta.sync("b1", Collections.singletonList(now));
+        long before = eta.estimate("o1", T0).readyAt;
+
+        branch.add(now);
+        assertTrue(eta.sync("b1", branch).contains("o1")); // the typical prep time moved
+        EtaEstimator.Estimate learnt = eta.estimate("o1", T0);
+        assertEquals(T0 + EtaEstimator.DEFAULT_PREP_MS, before);
+        assertEquals(T0 + 10 * MIN, learnt.readyAt);
+        assertTrue(learnt.arriveLate > learnt.arriveAt);
+        assertEquals("Ready in ~10 min · arrives in 28-30 min", learnt.describe(T0));
+    }
+
+    @Test
+    public void busyBranch_changesOnlyReachInFlightOrders() {
+        EtaEstimator eta = new EtaEstimator();
+        List<OrderSummary> branch = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            OrderSummary done = order("h" + i, "Completed", T0 - 86_400_000L + i * 1000L, 1500);
+            done.setReadyTimestamp(done.getTimestamp() + (10 + i % 7) * MIN);
+            branch.add(done);
+        }
+        for (int i = 0; i < 60; i++) branch.add(order("o" + i, i % 2 == 0 ? "Preparing" : "confirm order", T0 + i * 1000L, 1500));
+        eta.sync("b1", branch);
+        eta.branchLocated("b1", BRANCH_LAT, BRANCH_LNG);
+
+        for (int round = 0; round < 200; round++) {
+            branch.set(2000 + round % 60, order("o" + round % 60, round % 2 == 0 ? "confirm order" : "Preparing", T0 + (round % 60) * 1000L, 1500));
+            Set<String> changed = eta.sync("b1", branch);
+            for (String id : changed) {
+                assertTrue(id, id.startsWith("o")); // the finished history is never re-estimated
+                assertNotNull(eta.estimate(id, T0 + round));
+            }
+        }
+    }
+
+    @Test
+    public void prepHistory_keepsTheLatestOnly_andDoesNotTakeEvictedOrdersBack() {
+        EtaEstimator eta = new EtaEstimator();
+        List<OrderSummary> branch = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            OrderSummary done = order("h" + i, "Completed", T0 - 86_400_000L + i * 1000L, 1500);
+            done.setReadyTimestamp(done.getTimestamp() + 10 * MIN);
+            branch.add(done);
+        }
+        Collections.shuffle(branch, new Random(3)); // snapshot order is not ready order
+        branch.add(order("o1", "Preparing", T0, 1500));
+        eta.sync("b1", branch);
+        assertEquals(EtaEstimator.HISTORY_SIZE, eta.prepSamples("b1"));
+
+        // The same snapshot again: the 1800 orders that gave way are still in it, none comes back
+        assertTrue(eta.sync("b1", branch).isEmpty());
+        assertEquals(EtaEstimator.HISTORY_SIZE, eta.prepSamples("b1"));
+
+        // A newly finished order pushes the oldest out and moves the queue's estimate
+        OrderSummary fresh = order("h2000", "Completed", T0, 1500);
+        fresh.setReadyTimestamp(T0 + 30 * MIN);
+        branch.add(fresh);
+        assertEquals(set("o1"), eta.sync("b1", branch));
+        assertEquals(EtaEstimator.HISTORY_SIZE, eta.prepSamples("b1"));
+    }
+
+    @Test
+    public void publishedEstimate_roundTripsAndOnlyChangesByTheMinute() {
+        EtaEstimator eta = new EtaEstimator();
+        eta.sync("b1", Collections.singletonList(order("o1", "Preparing", T0, 1000)));
+        eta.branchLocated("b1", BRANCH_LAT, BRANCH_LNG);
+        EtaEstimator.Estimate estimate = eta.estimate("o1", T0 + 1000);
+
+        Map<String, Object> wire = WireFormat.etaToWire(estimate);
+        assertFalse(wire.containsKey(WireFormat.CUSTOMER_ID)); // nothing about the customer or the branch
+        assertFalse(wire.containsKey(WireFormat.BRANCH_ID));
+        EtaEstimator.Estimate read = WireFormat.etaFromWire("o1", wire);
+        assertEquals(estimate.stage, read.stage);
+        assertEquals(estimate.readyAt, read.readyAt);
+        assertEquals(estimate.arriveAt, read.arriveAt);
+        assertEquals(estimate.arriveLate, read.arriveLate);
+        assertEquals(estimate.describe(T0 + 1000), read.describe(T0 + 1000));
+        assertNull(WireFormat.etaFromWire("o1", new HashMap<>())); // removed
+
+        assertFalse(read.differsFrom(estimate));
+        assertTrue(estimate.differsFrom(null));
+        wire.put(WireFormat.ARRIVE_AT, estimate.arriveAt + 30_000);
+        assertFalse(WireFormat.etaFromWire("o1", wire).differsFrom(estimate)); // half a minute: not worth a write
+        wire.put(WireFormat.ARRIVE_AT, estimate.arriveAt + MIN);
+        assertTrue(WireFormat.etaFromWire("o1", wire).differsFrom(estimate));
+    }
+
+    // ---------------------------------------------------------------------
+
+    static OrderSummary order(String id, String status, long placedAt, double metresNorth) {
+        OrderSummary order = new OrderSummary();
+        order.setOrderID(id);
+        order.setBranchID("b1");
+        order.setStatus(status);
+        order.setTimestamp(placedAt);
+        order.setCustomerLat(BRANCH_LAT + metresNorth / 111_320.0);
+        order.setCustomerLng(BRANCH_LNG);
+        return order;
+    }
+
+    private static Set<String> set(String... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays a rider's shift through the sampler the way the fused provider would deliver it (one fix
+ * per requested interval) and checks the write budget, the sampling back-off when stopped, that
+ * noisy fixes never reach the database, and the low rate of a free rider with nothing on board.
+ */
+public class LocationSamplerTest {
+
+    private static final double START_LAT = 6.9271, START_LNG = 79.8612;
+    private static final double M_PER_DEG_LAT = 111_320;
+
+    @Test
+    public void replay_staysWithinTheWriteBudget() {
+        List<Truth> shift = shift(new Random(1));
+        Replay replay = replay(shift, new Random(2));
+
+        long minutes = shift.get(shift.size() - 1).time / 60_000;
+        assertTrue("writes " + replay.writes.size(), replay.writes.size() <= minutes * 60_000 / LocationSampler.WRITE_GAP_MS);
+        for (int i = 1; i < replay.writes.size(); i++) {
+            long gap = replay.writes.get(i).latest.time - replay.writes.get(i - 1).latest.time;
+            assertTrue("gap " + gap, gap >= LocationSampler.WRITE_GAP_MS);
+        }
+        // Against one write per raw fix at 1 Hz, which is what publishing every fix would cost
+        assertTrue("writes " + replay.writes.size(), replay.writes.size() * 20 < shift.size());
+        // Fewer fixes asked for than a fixed 5 s interval would take
+        assertTrue("fixes " + replay.fixes, replay.fixes < shift.size() / 5 * 0.7);
+    }
+
+    @Test
+    public void replay_backsOffWhileStopped() {
+        List<Truth> shift = shift(new Random(1));
+        Replay replay = replay(shift, new Random(2));
+
+        // 14-18 min and 33-45 min are stops: after STOP_AFTER_MS at most one write a minute
+        int stoppedWrites = 0;
+        for (LocationSampler.Batch write : replay.writes) {
+            long t = write.latest.time;
+            if (t > 34 * 60_000 && t <= 45 * 60_000) stoppedWrites++;
+        }
+        assertTrue("stopped writes " + stoppedWrites, stoppedWrites <= 11);
+        assertTrue(replay.sawStoppedInterval);
+        assertTrue(replay.sawFastInterval);
+    }
+
+    @Test
+    public void replay_neverPublishesNoise() {
+        List<Truth> shift = shift(new Random(1));
+        Replay replay = replay(shift, new Random(2));
+
+        for (LocationSampler.Batch write : replay.writes) {
+            assertTrue(truthAt(shift, write.latest.time).distanceTo(write.latest) < 60);
+            for (LocationSampler.Fix fix : write.trail) {
+                assertTrue(truthAt(shift, fix.time).distanceTo(fix) < 60);
+            }
+        }
+        assertTrue("outliers offered " + replay.outliers, replay.outliers > 10);
+    }
+
+    @Test
+    public void trail_isOrderedAndFlushGivesTheRest() {
+        LocationSampler sampler = new LocationSampler();
+        List<LocationSampler.Fix> kept = new ArrayList<>();
+        long lastTime = -1;
+        for (int s = 0; s < 300; s += 5) {
+            LocationSampler.Batch batch = sampler.offer(new LocationSampler.Fix(START_LAT + s * 10 / M_PER_DEG_LAT, START_LNG, 5, s * 1000L));
+            if (batch != null) kept.addAll(batch.trail);
+        }
+        LocationSampler.Batch rest = sampler.flush();
+        assertNotNull(rest);
+        kept.addAll(rest.trail);
+        assertNull(sampler.flush());
+
+        for (LocationSampler.Fix fix : kept) {
+            assertTrue(fix.time > lastTime);
+            lastTime = fix.time;
+        }
+        assertEquals(295_000, rest.latest.time);
+        assertEquals(60, kept.size()); // 50 m apart, every one kept
+    }
+
+    @Test
+    public void offer_dropsInaccurateOutOfOrderAndImpossibleFixes() {
+        LocationSampler sampler = new LocationSampler();
+        LocationSampler.Batch first = sampler.offer(new LocationSampler.Fix(START_LAT, START_LNG, 5, 0));
+        assertNotNull(first); // the first position goes out straight away
+        assertEquals(1, first.trail.size());
+
+        assertNull(sampler.offer(new LocationSampler.Fix(START_LAT + 0.05, START_LNG, 5, 1000)));  // 5.5 km in a second
+        assertNull(sampler.offer(new LocationSampler.Fix(START_LAT + 0.001, START_LNG, 200, 2000))); // 200 m accuracy
+        assertNull(sampler.offer(new LocationSampler.Fix(START_LAT + 0.001, START_LNG, 5, 0)));     // older than the last
+        assertNull(sampler.flush()); // none of them was kept
+    }
+
+    @Test
+    public void offer_holdsAJumpUntilTheNextFixAgrees() {
+        LocationSampler sampler = new LocationSampler();
+        List<Long> published = new ArrayList<>();
+        offer(sampler, published, 0, 0);
+        // 330 m in 30 s is plausible speed, but a jump: held back
+        offer(sampler, published, 330, 30_000);
+        assertFalse(published.contains(30_000L));
+        // back where the rider was: the jump was noise and is dropped
+        offer(sampler, published, 5, 60_000);
+        // the rider really left: the next fix carries on from the jump, so both are kept
+        offer(sampler, published, 335, 90_000);
+        offer(sampler, published, 660, 120_000);
+        LocationSampler.Batch rest = sampler.flush();
+        if (rest != null) for (LocationSampler.Fix fix : rest.trail) published.add(fix.time);
+
+        assertFalse(published.contains(30_000L));
+        assertTrue(published.contains(90_000L));
+        assertTrue(published.contains(120_000L));
+    }
+
+    @Test
+    public void idle_writesRarely_keepsNoTrail_andWakesUpForAnOrder() {
+        LocationSampler sampler = new LocationSampler();
+        sampler.idle(true);
+        assertEquals(LocationSampler.IDLE_INTERVAL_MS, sampler.intervalMs());
+
+        // A free rider riding back to the branch for 20 min, one coarse fix a minute
+        List<LocationSampler.Batch> writes = new ArrayList<>();
+        for (int minute = 0; minute <= 20; minute++) {
+            LocationSampler.Batch batch = sampler.offer(new LocationSampler.Fix(
+                    START_LAT + minute * 300 / M_PER_DEG_LAT, START_LNG, 120, minute * 60_000L));
+            if (batch != null) writes.add(batch);
+        }
+        assertEquals(11, writes.size()); // the first fix, then one every IDLE_WRITE_GAP_MS
+        for (LocationSampler.Batch write : writes) assertTrue(write.trail.isEmpty());
+
+        // An order comes on board: full rate again, and the next fix is written straight away
+        sampler.idle(false);
+        assertTrue(sampler.intervalMs() < LocationSampler.IDLE_INTERVAL_MS);
+        LocationSampler.Batch first = sampler.offer(new LocationSampler.Fix(START_LAT + 6_350 / M_PER_DEG_LAT, START_LNG, 5, 1_220_000L));
+        assertNotNull(first);
+        assertEquals(1, first.trail.size());
+    }
+
+    // ---------------------------------------------------------------------
+
+    // Where the rider really was, once a second
+    private static final class Truth {
+        final long time;
+        final double lat, lng;
+
+        Truth(long time, double lat, double lng) {
+            this.time = time;
+            this.lat = lat;
+            this.lng = lng;
+        }
+
+        double distanceTo(LocationSampler.Fix fix) {
+            return DispatchSolver.meters(lat, lng, fix.lat, fix.lng);
+        }
+    }
+
+    private static final class Replay {
+        final List<LocationSampler.Batch> writes = new ArrayList<>();
+        int fixes, outliers;
+        boolean sawStoppedInterval, sawFastInterval;
+    }
+
+    // A 50-minute shift: 14 min fast, 4 min at a door, 15 min through town, 12 min waiting, 5 min fast
+    private static List<Truth> shift(Random random) {
+        double[][] legs = { // seconds, metres per second
+                {14 * 60, 11}, {4 * 60, 0}, {15 * 60, 4}, {12 * 60, 0}, {5 * 60, 12}};
+        List<Truth> truth = new ArrayList<>();
+        double lat = START_LAT, lng = START_LNG, heading = 0;
+        long t = 0;
+        for (double[] leg : legs) {
+            for (int s = 0; s < leg[0]; s++, t += 1000) {
+                if (leg[1] > 0) {
+                    heading += (random.nextDouble() - 0.5) * 0.1;
+                    lat += Math.cos(heading) * leg[1] / M_PER_DEG_LAT;
+                    lng += Math.sin(heading) * leg[1] / (M_PER_DEG_LAT * Math.cos(Math.toRadians(lat)));
+                }
+                truth.add(new Truth(t, lat, lng));
+            }
+        }
+        return truth;
+    }
+
+    // Delivers one noisy fix per requested interval, as the provider would; 1 in 15 is an outlier,
+    // never two in a row
+    private static Replay replay(List<Truth> shift, Random random) {
+        Replay replay = new Replay();
+        LocationSampler sampler = new LocationSampler();
+        long t = 0;
+        boolean previousOutlier = false;
+        while (t < shift.size() * 1000L) {
+            Truth truth = shift.get((int) (t / 1000));
+            LocationSampler.Fix fix;
+            previousOutlier = !previousOutlier && random.nextInt(15) == 0;
+            if (previousOutlier) {
+                replay.outliers++;
+                fix = random.nextBoolean()
+                        ? new LocationSampler.Fix(truth.lat + 0.004, truth.lng, 8, t)     // multipath jump ~450 m
+                        : new LocationSampler.Fix(truth.lat + 0.002, truth.lng, 150, t);  // cell-tower fix
+            } else {
+                fix = new LocationSampler.Fix(truth.lat + random.nextGaussian() * 5 / M_PER_DEG_LAT,
+                        truth.lng + random.nextGaussian() * 5 / M_PER_DEG_LAT, 8, t);
+            }
+            replay.fixes++;
+            LocationSampler.Batch batch = sampler.offer(fix);
+            if (batch != null) replay.writes.add(batch);
+            long interval = sampler.intervalMs();
+            replay.sawStoppedInterval |= interval == LocationSampler.STOPPED_INTERVAL_MS;
+            replay.sawFastInterval |= interval == LocationSampler.FAST_INTERVAL_MS;
+            t += interval;
+        }
+        return replay;
+    }
+
+    // Offers a fix `north` metres north of the start and records the times of the fixes written
+    private static void offer(LocationSampler sampler, List<Long> published, double north, long time) {
+        LocationSampler.Batch batch = sampler.offer(new LocationSampler.Fix(START_LAT + north / M_PER_DEG_LAT, START_LNG, 5, time));
+        if (batch != null) for (LocationSampler.Fix fix : batch.trail) published.add(fix.time);
+    }
+
+    private static Truth truthAt(List<Truth> shift, long time) {
+        return shift.get((int) (time / 1000));
+    }
+}
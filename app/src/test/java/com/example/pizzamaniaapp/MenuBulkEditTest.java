@@ -0,0 +1,199 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks bulk menu edits (price rules, branch availability, the paths each change writes and
+ * how plans are chunked) and the catalog CSV format.
+ */
+public class MenuBulkEditTest {
+
+    private static final Set<String> BRANCHES = new HashSet<>(Arrays.asList("b001", "b002", "b033"));
+
+    @Test
+    public void priceRules_parseAndRoundToCents() {
+        assertEquals(1650.0, MenuBulkEdit.PriceRule.parse("+10%").apply(1500), 0);
+        assertEquals(949.05, MenuBulkEdit.PriceRule.parse("-5 %").apply(999), 0);
+        assertEquals(1600.0, MenuBulkEdit.PriceRule.parse("+100").apply(1500), 0);
+        assertEquals(1450.0, MenuBulkEdit.PriceRule.parse("-50").apply(1500), 0);
+        assertEquals(1200.0, MenuBulkEdit.PriceRule.parse("=1200").apply(1500), 0);
+        assertEquals(1200.0, MenuBulkEdit.PriceRule.parse("1200").apply(1500), 0);
+        assertEquals("-5%", MenuBulkEdit.PriceRule.parse("-5%").toString());
+
+        for (String bad : new String[]{"", "abc", "10%", "-100%", "=0", "+x"}) {
+            try {
+                MenuBulkEdit.PriceRule.parse(bad);
+                fail("Expected " + bad + " to be rejected");
+            } catch (IllegalArgumentException expected) {
+                assertNotNull(expected.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void pricePlan_writesOnlyChangedPrices() {
+        List<AdminHomeActivity.MenuItem> items = Arrays.asList(
+                menu("m001", "Cheese Pizza", 1450, "b001"),
+                menu("m002", "Coca-Cola", 1200, "b001"),
+                menu("m003", "Water", 40, "b002"));
+
+        MenuBulkEdit.Plan plan = MenuBulkEdit.price(items, MenuBulkEdit.PriceRule.parse("=1200"));
+        assertEquals(2, plan.size()); // m002 already costs 1200
+        assertEquals("m001 Cheese Pizza: price 1450 → 1200", plan.changes().get(0).toString());
+        assertEquals(singleton("menu/m001/price", 1200.0), plan.changes().get(0).paths());
+
+        plan = MenuBulkEdit.price(items, MenuBulkEdit.PriceRule.parse("-50"));
+        assertEquals(2, plan.size());
+        assertEquals(Arrays.asList("m003 Water: would cost -10"), plan.skipped());
+        assertTrue(plan.preview(1).contains("…and 1 more"));
+    }
+
+    @Test
+    public void branchPlans_moveListAndBitsetsTogether() {
+        AdminHomeActivity.MenuItem both = menu("m001", "Cheese Pizza", 1450, "b001", "b002");
+        both.soldOutAt = BranchSet.of(Arrays.asList("b002"));
+        AdminHomeActivity.MenuItem only = menu("m002", "Garlic Bread", 650, "b002");
+        AdminHomeActivity.MenuItem elsewhere = menu("m003", "Coca-Cola", 300, "b001");
+        List<AdminHomeActivity.MenuItem> items = Arrays.asList(both, only, elsewhere);
+
+        MenuBulkEdit.Plan removed = MenuBulkEdit.removeFromBranch(items, "b002", "Galle");
+        assertEquals(1, removed.size());
+        Map<String, Object> paths = removed.changes().get(0).paths();
+        assertEquals(Arrays.asList("b001"), paths.get("menu/m001/branches"));
+        assertEquals(BranchSet.of(Arrays.asList("b001")).toWire(), paths.get("menu/m001/ab"));
+        assertEquals(0L, paths.get("menu/m001/so/0")); // its sold-out bit goes too
+        assertEquals(1, removed.skipped().size()); // m002 would be left with no branch
+
+        MenuBulkEdit.Plan added = MenuBulkEdit.addToBranch(items, "b002", "Galle");
+        assertEquals(1, added.size());
+        assertEquals(Arrays.asList("b001", "b002"), added.changes().get(0).paths().get("menu/m003/branches"));
+        assertEquals(2, added.changes().get(0).paths().size());
+    }
+
+    @Test
+    public void soldOutPlan_touchesOneWordOfOfferedItems() {
+        AdminHomeActivity.MenuItem far = menu("m001", "Cheese Pizza", 1450, "b001", "b033");
+        far.soldOutAt = BranchSet.of(Arrays.asList("b001"));
+        AdminHomeActivity.MenuItem notThere = menu("m002", "Garlic Bread", 650, "b001");
+
+        MenuBulkEdit.Plan plan = MenuBulkEdit.soldOut(Arrays.asList(far, notThere), "b033", "Kandy", true);
+        assertEquals(1, plan.size());
+        assertEquals(singleton("menu/m001/so/1", 1L), plan.changes().get(0).paths()); // b033 is bit 0 of word 1
+
+        assertTrue(MenuBulkEdit.soldOut(Arrays.asList(far), "b001", "Colombo", true).isEmpty()); // already sold out
+        assertEquals(singleton("menu/m001/so/0", 0L),
+                MenuBulkEdit.soldOut(Arrays.asList(far), "b001", "Colombo", false).changes().get(0).paths());
+    }
+
+    @Test
+    public void chunks_neverSplitAnItem() {
+        List<AdminHomeActivity.MenuItem> items = new ArrayList<>();
+        for (int i = 1; i <= 250; i++) items.add(menu(IdBlock.format('m', i), "Menu " + i, 100, "b001"));
+
+        MenuBulkEdit.Plan plan = MenuBulkEdit.addToBranch(items, "b002", "Galle"); // 2 paths per item
+        List<List<MenuBulkEdit.Change>> chunks = plan.chunks(MenuBulkEdit.CHUNK_PATHS);
+        assertEquals(2, chunks.size());
+        assertEquals(150, chunks.get(0).size());
+        assertEquals(100, chunks.get(1).size());
+
+        assertEquals("m150", chunks.get(0).get(149).item.menuID);
+        assertEquals("m151", chunks.get(1).get(0).item.menuID);
+        assertEquals(2, chunks.get(0).get(149).fields().size()); // branches + ab, written together
+    }
+
+    @Test
+    public void rebase_reappliesTheEditToTheCurrentRecord() {
+        AdminHomeActivity.MenuItem loaded = menu("m001", "Cheese Pizza", 1450, "b001", "b002");
+        MenuBulkEdit.Plan plan = MenuBulkEdit.removeFromBranch(Arrays.asList(loaded), "b002", "Galle");
+
+        // Another admin added b033 after the catalog was loaded: it stays
+        AdminHomeActivity.MenuItem current = menu("m001", "Cheese Pizza", 1450, "b001", "b002", "b033");
+        MenuBulkEdit.Change rebased = plan.rebase(current);
+        assertEquals(Arrays.asList("b001", "b033"), rebased.fields().get("branches"));
+        assertEquals(BranchSet.of(Arrays.asList("b001", "b033")).toWire(), rebased.fields().get("ab"));
+
+        // Someone already removed it: nothing to write
+        assertNull(plan.rebase(menu("m001", "Cheese Pizza", 1450, "b001")));
+        assertNull(plan.rebase(null));
+
+        MenuBulkEdit.Plan raise = MenuBulkEdit.price(Arrays.asList(loaded), MenuBulkEdit.PriceRule.parse("+10%"));
+        assertEquals(1, raise.skipped().size() + raise.size()); // rebasing never adds to the plan
+    }
+
+    @Test
+    public void priceRebase_writesThePreviewedPrice_once() {
+        AdminHomeActivity.MenuItem loaded = menu("m001", "Cheese Pizza", 1450, "b001");
+        MenuBulkEdit.Plan raise = MenuBulkEdit.price(Arrays.asList(loaded), MenuBulkEdit.PriceRule.parse("+10%"));
+
+        assertEquals(1595.0, raise.rebase(menu("m001", "Cheese Pizza", 1450, "b001")).fields().get("price"));
+        // Written by an earlier, partly failed apply: applying again leaves it alone
+        assertNull(raise.rebase(menu("m001", "Cheese Pizza", 1595, "b001")));
+        // Repriced by someone else since the preview: not raised on top of their price
+        assertNull(raise.rebase(menu("m001", "Cheese Pizza", 1500, "b001")));
+        assertEquals(1, raise.size());
+    }
+
+    @Test
+    public void menuCsv_roundTrips_andReportsBadRows() throws IOException {
+        AdminHomeActivity.MenuItem item = menu("m007", "Pizza, \"Large\"", 1499.5, "b001", "b002");
+        item.description = "Two lines\nof text";
+        item.soldOutAt = BranchSet.of(Arrays.asList("b002"));
+
+        StringWriter out = new StringWriter();
+        MenuCsv.Writer writer = new MenuCsv.Writer(out);
+        writer.write(MenuCsv.Record.of(item));
+        writer.close();
+        assertTrue(out.toString(), out.toString().contains(",1499.50,,b001;b002,b002\r\n"));
+
+        MenuCsv.Record back = new MenuCsv.Reader(new StringReader(out.toString()), BRANCHES).next();
+        AdminHomeActivity.MenuItem restored = back.toMenuItem();
+        assertEquals(item.name, restored.name);
+        assertEquals(item.description, restored.description);
+        assertEquals(item.price, restored.price, 0);
+        assertEquals(item.availableAt, restored.availableAt);
+        assertEquals(item.soldOutAt, restored.soldOutAt);
+
+        MenuCsv.Reader reader = new MenuCsv.Reader(new StringReader("menuID,name,category,price,branches,soldOut\n"
+                + "m001,A,Pizza,100,b001,\n"       // fine
+                + "m002,B,Pizza,0,b001,\n"         // price
+                + "m003,C,Pizza,100,b009,\n"       // unknown branch
+                + "m004,D,Pizza,100,b001,b002\n"   // sold out where not offered
+                + "x005,E,Pizza,100,b001,\n"       // bad id
+                + "m001,F,Pizza,100,b001,\n"),     // duplicate
+                BRANCHES);
+        assertEquals("A", reader.next().name);
+        assertNull(reader.next());
+        assertEquals(6, reader.rows());
+        assertEquals(5, reader.errorCount());
+        assertTrue(reader.errors().get(0), reader.errors().get(0).startsWith("Line 3: price"));
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static AdminHomeActivity.MenuItem menu(String id, String name, double price, String... branches) {
+        AdminHomeActivity.MenuItem item = new AdminHomeActivity.MenuItem();
+        item.menuID = id;
+        item.name = name;
+        item.category = "Pizza";
+        item.price = price;
+        item.branches = new ArrayList<>(Arrays.asList(branches));
+        item.availableAt = BranchSet.of(item.branches);
+        return item;
+    }
+
+    private static Map<String, Object> singleton(String path, Object value) {
+        return java.util.Collections.singletonMap(path, value);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks matching and ranking of the menu search index (including typo correction), also over
+ * large catalogs. MenuSearchIndexBenchmark tracks the per-query latency.
+ */
+public class MenuSearchIndexTest {
+
+    private static final MenuSearchIndex INDEX = MenuSearchIndex.build(Arrays.asList(
+            menu("m001", "Cheese Pizza", "Pizza", "Mozzarella on a hand-tossed base"),
+            menu("m002", "Chicken BBQ Pizza", "Pizza", "Smoky chicken, onions"),
+            menu("m003", "Garlic Bread", "Sides", "Served with cheese dip"),
+            menu("m004", "Coca-Cola", "Drinks", null),
+            menu("m005", "Chocolate Lava Cake", "Desserts", "Warm chocolate centre"),
+            menu("m006", "Pepperoni Pizza", "Pizza", "Double pepperoni"),
+            menu("m007", "Margherita", "Pizza", "Tomato, basil, mozzarella")));
+
+    @Test
+    public void prefixMatches_asYouType() {
+        assertEquals(Arrays.asList("m002"), ids(INDEX.search("chi")));
+        assertEquals(Arrays.asList("m005"), ids(INDEX.search("choc")));
+        assertTrue(INDEX.search("xyz").isEmpty());
+    }
+
+    @Test
+    public void nameMatchRanksAboveDescriptionMatch() {
+        // "Cheese Pizza" has it in the name, "Garlic Bread" only in the description
+        assertEquals(Arrays.asList("m001", "m003"), ids(INDEX.search("chee")));
+    }
+
+    @Test
+    public void everyWordMustMatch_andPunctuationIsIgnored() {
+        assertEquals(Arrays.asList("m002"), ids(INDEX.search("pizza BBQ")));
+        assertEquals(Arrays.asList("m004"), ids(INDEX.search("coca cola")));
+        assertEquals(Arrays.asList("m004"), ids(INDEX.search("  Coca-Co ")));
+    }
+
+    @Test
+    public void categoryMatches_andEmptyQueryReturnsAll() {
+        assertEquals(Arrays.asList("m005"), ids(INDEX.search("dessert")));
+        assertEquals(7, INDEX.search("").size());
+    }
+
+    @Test
+    public void misspelledWords_matchClosestMenus() {
+        assertEquals(Arrays.asList("m006"), ids(INDEX.search("peperoni")));
+        assertEquals(Arrays.asList("m007"), ids(INDEX.search("margarita")));
+        assertEquals(Arrays.asList("m002"), ids(INDEX.search("chiken pizza")));
+        assertEquals(Arrays.asList("m003"), ids(INDEX.search("garlik")));
+    }
+
+    @Test
+    public void typoBudget_growsWithWordLength() {
+        assertTrue(INDEX.search("bbw").isEmpty()); // three letters: no typo allowed
+        assertTrue(INDEX.search("pipparoini").isEmpty()); // three edits away
+        assertTrue(INDEX.search("zzzzzz").isEmpty());
+    }
+
+    @Test
+    public void exactMatchesRankAboveCorrections() {
+        MenuSearchIndex index = MenuSearchIndex.build(Arrays.asList(
+                menu("m001", "Beef Pizza", "Pizza", null),
+                menu("m002", "Beer Battered Fries", "Sides", null)));
+        // "beer" matches m002 exactly; "beef" is only one edit away and is not tried
+        assertEquals(Arrays.asList("m002"), ids(index.search("beer")));
+        assertEquals(Arrays.asList("m001"), ids(index.search("beef")));
+    }
+
+    @Test
+    public void suggestions_areDistinctNamesAndCategories() {
+        List<String> suggestions = INDEX.suggestions();
+        assertEquals(1, countOf(suggestions, "Pizza"));
+        assertTrue(suggestions.contains("Garlic Bread"));
+        assertEquals(7 + 4, suggestions.size()); // 7 names + Pizza, Sides, Drinks, Desserts
+    }
+
+    @Test
+    public void fiveThousandItems_prefixQueriesOnlyReturnMatches() {
+        MenuSearchIndex index = MenuSearchIndex.build(largeMenu());
+
+        for (String q : AS_YOU_TYPE) assertFalse(q, index.search(q).isEmpty());
+        for (CustomerHomeActivity.MenuItem item : index.search("cheese sp")) {
+            String text = item.name + " " + item.description;
+            assertTrue(text, text.contains("cheese") && text.contains("spicy"));
+        }
+        for (CustomerHomeActivity.MenuItem item : index.search("tand")) {
+            assertTrue(item.name, (item.name + " " + item.description).contains("tandoori"));
+        }
+    }
+
+    // Every branch's menu in one index (what the admin catalog sees), searched with typical misspellings
+    @Test
+    public void multiBranchCatalog_misspellingsFindTheDish() {
+        MenuSearchIndex index = MenuSearchIndex.build(multiBranchMenu());
+
+        for (String q : MISSPELLED) assertFalse(q, index.search(q).isEmpty());
+        assertTrue(index.search("peperoni").get(0).name.contains("Pepperoni"));
+        assertTrue(index.search("hawaian").get(0).name.contains("Hawaiian"));
+        assertTrue(index.search("paner tika").get(0).name.contains("Paneer Tikka"));
+        assertTrue(index.search("mushrom truffle").get(0).name.contains("Mushroom Truffle"));
+    }
+
+    // ---------------------------------------------------------------------
+
+    static final String[] AS_YOU_TYPE = {"c", "ch", "che", "chee", "chees", "cheese", "cheese s", "cheese sp", "p", "pep", "tand", "herb"};
+    static final String[] MISSPELLED = {"peperoni", "margarita", "hawaian", "tandori", "chiken", "mushrom truffle", "jalepenos",
+            "paner tika", "stufed crust", "seefood", "chese", "sausge", "capsicum", "larg pepperoni"};
+
+    // 5,000 generated items over ten common words
+    static List<CustomerHomeActivity.MenuItem> largeMenu() {
+        String[] words = {"cheese", "chicken", "spicy", "garlic", "veggie", "pepperoni", "tandoori", "devilled", "sausage", "cream"};
+        String[] categories = {"Pizza", "Sides", "Drinks", "Desserts", "Pasta"};
+        List<CustomerHomeActivity.MenuItem> menus = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            menus.add(menu(String.format("m%04d", i),
+                    words[i % words.length] + " " + words[(i / 10) % words.length] + " " + i,
+                    categories[i % categories.length],
+                    "Freshly made with " + words[(i / 3) % words.length] + " and herbs"));
+        }
+        return menus;
+    }
+
+    // 25 branches x 72 = 1,800 items
+    static List<CustomerHomeActivity.MenuItem> multiBranchMenu() {
+        String[] dishes = {"Margherita", "Pepperoni", "Hawaiian", "Tandoori Chicken", "Devilled Chicken", "BBQ Chicken",
+                "Seafood Supreme", "Cheese Lovers", "Veggie Supreme", "Spicy Sausage", "Mushroom Truffle", "Paneer Tikka",
+                "Garlic Prawns", "Four Cheese", "Meat Feast", "Chilli Beef", "Buffalo Chicken", "Black Chicken"};
+        String[] crusts = {"Pan", "Thin Crust", "Stuffed Crust", "Sausage Crust"};
+        String[] sizes = {"Personal", "Medium", "Large"};
+        String[] toppings = {"mozzarella", "cheddar", "jalapenos", "olives", "onions", "capsicum", "pineapple", "basil"};
+        List<CustomerHomeActivity.MenuItem> menus = new ArrayList<>();
+        for (int branch = 1; branch <= 25; branch++) {
+            for (int d = 0; d < dishes.length; d++) {
+                for (int c = 0; c < crusts.length; c++) {
+                    String size = sizes[(branch + d + c) % sizes.length];
+                    menus.add(menu(String.format("b%03d-m%03d-%d", branch, d, c),
+                            size + " " + dishes[d] + " " + crusts[c], "Pizza",
+                            "Topped with " + toppings[(d + c) % toppings.length] + " and " + toppings[(d + branch) % toppings.length]));
+                }
+            }
+        }
+        return menus;
+    }
+
+    private static CustomerHomeActivity.MenuItem menu(String id, String name, String category, String description) {
+        CustomerHomeActivity.MenuItem item = new CustomerHomeActivity.MenuItem();
+        item.menuID = id;
+        item.name = name;
+        item.category = category;
+        item.description = description;
+        return item;
+    }
+
+    private static List<String> ids(List<CustomerHomeActivity.MenuItem> items) {
+        List<String> ids = new ArrayList<>();
+        for (CustomerHomeActivity.MenuItem item : items) ids.add(item.menuID);
+        return ids;
+    }
+
+    private static int countOf(List<String> list, String value) {
+        int count = 0;
+        for (String s : list) if (s.equals(value)) count++;
+        return count;
+    }
+}
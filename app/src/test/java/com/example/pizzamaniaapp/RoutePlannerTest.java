@@ -0,0 +1,89 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the batch route heuristic against exhaustive search and the batching rule.
+ * RoutePlannerBenchmark times it on the batch sizes riders actually carry.
+ */
+public class RoutePlannerTest {
+
+    static final double START_LAT = 6.9271, START_LNG = 79.8612;
+
+    @Test
+    public void plan_visitsEveryStopOnce_andUntanglesCrossings() {
+        // Nearest neighbour zig-zags across the street; 2-opt straightens it out
+        List<RoutePlanner.Stop> stops = Arrays.asList(
+                stop("o1", 0.010, 0.000), stop("o2", 0.011, 0.004),
+                stop("o3", 0.020, 0.000), stop("o4", 0.021, 0.004));
+        List<RoutePlanner.Stop> route = RoutePlanner.plan(START_LAT, START_LNG, stops);
+
+        assertEquals(4, route.size());
+        assertEquals(4, new HashSet<>(route).size());
+        assertEquals(bestLength(stops), RoutePlanner.length(START_LAT, START_LNG, route), 1.0);
+        assertTrue(RoutePlanner.plan(START_LAT, START_LNG, new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void plan_staysCloseToOptimal_onRandomBatches() {
+        Random random = new Random(3);
+        double worst = 1;
+        for (int round = 0; round < 300; round++) {
+            List<RoutePlanner.Stop> stops = randomStops(random, 2 + random.nextInt(6));
+            double planned = RoutePlanner.length(START_LAT, START_LNG, RoutePlanner.plan(START_LAT, START_LNG, stops));
+            double best = bestLength(stops);
+            assertTrue(planned >= best - 1e-6);
+            worst = Math.max(worst, planned / best);
+        }
+        assertTrue("worst ratio " + worst, worst < 1.15);
+    }
+
+    @Test
+    public void canJoin_limitsBatchSizeAndSpread() {
+        List<RoutePlanner.Stop> batch = new ArrayList<>();
+        assertTrue(RoutePlanner.canJoin(batch, stop("o1", 0.01, 0)));
+        batch.add(stop("o1", 0.01, 0));
+        assertTrue(RoutePlanner.canJoin(batch, stop("o2", 0.02, 0)));    // ~1.1 km away
+        assertFalse(RoutePlanner.canJoin(batch, stop("o9", 0.10, 0)));   // ~10 km away
+        for (int i = 2; i <= RoutePlanner.MAX_BATCH; i++) batch.add(stop("o" + i, 0.01, 0));
+        assertFalse(RoutePlanner.canJoin(batch, stop("o5", 0.01, 0)));   // full
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static RoutePlanner.Stop stop(String id, double north, double east) {
+        return new RoutePlanner.Stop(id, id, START_LAT + north, START_LNG + east);
+    }
+
+    static List<RoutePlanner.Stop> randomStops(Random random, int count) {
+        List<RoutePlanner.Stop> stops = new ArrayList<>();
+        for (int i = 0; i < count; i++) stops.add(stop("o" + i, random.nextGaussian() * 0.02, random.nextGaussian() * 0.02));
+        return stops;
+    }
+
+    // Shortest open route by trying every order
+    private static double bestLength(List<RoutePlanner.Stop> stops) {
+        return best(new ArrayList<>(), new ArrayList<>(stops));
+    }
+
+    private static double best(List<RoutePlanner.Stop> route, List<RoutePlanner.Stop> left) {
+        if (left.isEmpty()) return RoutePlanner.length(START_LAT, START_LNG, route);
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < left.size(); i++) {
+            RoutePlanner.Stop next = left.remove(i);
+            route.add(next);
+            best = Math.min(best, best(route, left));
+            route.remove(route.size() - 1);
+            left.add(i, next);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.pizzamaniaapp;
+
+import android.graphics.Color;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the precomputed OrderRow / DeliveryRow models and that reading them
+ * (what onBindViewHolder does per row) does not allocate.
+ */
+public class RowModelsTest {
+
+    @Test
+    public void orderRow_formatsOnce() {
+        OrderRow row = OrderRow.from(summary("o004", "Preparing", "Pending"));
+
+        assertEquals("Payment: Pending", row.paymentText);
+        assertEquals(Color.RED, row.paymentColor);
+        assertEquals(2, row.statusIndex);
+        assertEquals("Preparing", OrderRow.STATUSES[row.statusIndex]);
+        assertTrue(row.collapsedText.contains("(tap to show items)"));
+        assertTrue(row.collapsedText.endsWith("Total: Rs. 2900.0"));
+        assertSame(row.collapsedText, row.itemsText(false));
+        assertSame(row.loadingText, row.itemsText(true)); // items not loaded yet
+    }
+
+    @Test
+    public void orderRow_withItems_keepsEverythingElse() {
+        OrderRow row = OrderRow.from(summary("o005", "Delivering", "Paid"));
+        List<Item> items = new ArrayList<>();
+        Item item = new Item();
+        item.setName("Cheese Pizza");
+        item.setQuantity(2);
+        items.add(item);
+
+        OrderRow expanded = row.withItems(items);
+        assertTrue(expanded.itemsText(true).contains("- Cheese Pizza x2"));
+        assertSame(row.collapsedText, expanded.itemsText(false));
+        assertEquals(Color.GREEN, expanded.paymentColor);
+        assertEquals(4, expanded.statusIndex);
+    }
+
+    @Test
+    public void orderRow_withEta_addsALineAndKeepsTheItems() {
+        OrderRow row = OrderRow.from(summary("o007", "Preparing", "Pending"));
+        Item item = new Item();
+        item.setName("Veggie Pizza");
+        item.setQuantity(1);
+        OrderRow expanded = row.withItems(new ArrayList<>(Arrays.asList(item)));
+
+        OrderRow timed = expanded.withEta("Ready in ~9 min · arrives in 20-24 min");
+        assertTrue(timed.itemsText(false).contains("Status: Preparing\nReady in ~9 min · arrives in 20-24 min\nTotal"));
+        assertTrue(timed.itemsText(true).contains("- Veggie Pizza x1"));
+        assertTrue(timed.itemsText(true).contains("arrives in 20-24 min"));
+        assertSame(timed, timed.withEta("Ready in ~9 min · arrives in 20-24 min")); // nothing to rebind
+        assertFalse(timed.withEta(null).itemsText(false).contains("arrives"));
+    }
+
+    @Test
+    public void orderRow_unknownStatus_selectsThePlaceholder() {
+        assertEquals(OrderRow.NO_STATUS, OrderRow.from(summary("o006", "Order Pending", null)).statusIndex);
+        assertEquals(OrderRow.NO_STATUS, OrderRow.from(summary("o006", null, null)).statusIndex);
+        assertEquals(OrderRow.NO_STATUS, OrderRow.statusIndex("Choose status")); // the placeholder is no status
+        assertEquals("Payment: N/A", OrderRow.from(summary("o006", null, null)).paymentText);
+    }
+
+    @Test
+    public void deliveryRow_flags() {
+        DeliverymanHomeActivity.DeliveryItem item = new DeliverymanHomeActivity.DeliveryItem();
+        item.customerName = "Kamal";
+        item.assignedDeliverymanID = "d001";
+        item.status = "Delivering";
+
+        DeliveryRow row = new DeliveryRow(item);
+        assertEquals("Customer: Kamal", row.customerText);
+        assertTrue(row.acceptedByCurrent);
+        assertFalse(row.completed);
+    }
+
+    // Stands in for a per-bind allocation count on real views (no Robolectric here): the views are
+    // framework code, but everything the adapters read from their rows during bind must be allocation-free.
+    @Test
+    public void readingRows_doesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) return;
+
+        List<OrderRow> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) rows.add(OrderRow.from(summary("o" + i, i % 7 == 0 ? "Order Pending" : "Preparing", "Pending")));
+
+        long sink = bindAll(rows, 1_000); // warm up so the JIT settles
+        long tid = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(tid);
+        sink += bindAll(rows, 10_000);
+        long allocated = threads.getThreadAllocatedBytes(tid) - before;
+
+        assertTrue(sink != 0);
+        // a single allocation per bind would already be ~16 MB here; allow for measurement noise
+        assertTrue("bind path allocated " + allocated + " bytes", allocated < 64 * 1024);
+    }
+
+    // ---------------------------------------------------------------------
+
+    // What OrderAdapter.onBindViewHolder reads from each row
+    private static long bindAll(List<OrderRow> rows, int passes) {
+        long sink = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            for (int i = 0; i < rows.size(); i++) {
+                OrderRow row = rows.get(i);
+                sink += row.customerName.length();
+                sink += row.itemsText((i & 1) == 0).length();
+                sink += row.paymentText.length();
+                sink += row.paymentColor + row.statusIndex;
+                if (row.statusIndex != OrderRow.NO_STATUS) sink++; // Update enabled
+            }
+        }
+        return sink;
+    }
+
+    private static OrderSummary summary(String id, String status, String paymentStatus) {
+        OrderSummary summary = new OrderSummary();
+        summary.setOrderID(id);
+        summary.setBranchID("b001");
+        summary.setCustomerName("Customer " + id);
+        summary.setStatus(status);
+        summary.setPaymentStatus(paymentStatus);
+        summary.setItemCount(3);
+        summary.setTotalPrice(2900.0);
+        return summary;
+    }
+}
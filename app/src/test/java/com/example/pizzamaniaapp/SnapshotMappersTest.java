@@ -0,0 +1,178 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks what the hand-written mappers read from a snapshot's raw map. The field-by-field
+ * comparison with DataSnapshot.getValue(Class) needs a real snapshot, so it runs on a device
+ * (SnapshotMappersInstrumentedTest); SnapshotMappersBenchmark times the two.
+ */
+public class SnapshotMappersTest {
+
+    @Test
+    public void menuItem_copiesEveryField() {
+        Map<String, Object> raw = menuMap(7);
+        CustomerHomeActivity.MenuItem item = SnapshotMappers.menuItem(raw);
+        assertEquals("m007", item.menuID);
+        assertEquals("Pizza 7", item.name);
+        assertEquals("Drinks", item.category);
+        assertEquals("Hand-tossed crust with mozzarella", item.description);
+        assertEquals("https://img/m7.jpg", item.imageURL);
+        assertEquals(1457.5, item.price, 0);
+        assertEquals(Arrays.asList("b001", "b003"), item.branches);
+
+        AdminHomeActivity.MenuItem admin = SnapshotMappers.adminMenuItem(raw);
+        assertEquals("m007", admin.menuID);
+        assertEquals(1457.5, admin.price, 0);
+        assertEquals(Arrays.asList("b001", "b003"), admin.branches);
+    }
+
+    @Test
+    public void menuItem_derivesBranchBitsFromLegacyList() {
+        Map<String, Object> raw = menuMap(7);
+        CustomerHomeActivity.MenuItem item = SnapshotMappers.menuItem(raw);
+        assertEquals(BranchSet.of(Arrays.asList("b001", "b003")), item.availableAt);
+        assertTrue(item.isAvailableAt(BranchSet.ordinal("b003")));
+        assertFalse(item.isAvailableAt(BranchSet.ordinal("b002")));
+
+        // sold-out bits hide the item at that branch only
+        raw.put(SnapshotMappers.MENU_SOLD_OUT_BITS, BranchSet.of(Arrays.asList("b003")).toWire());
+        item = SnapshotMappers.menuItem(raw);
+        assertTrue(item.availableAt.contains("b003"));
+        assertFalse(item.isAvailableAt(BranchSet.ordinal("b003")));
+        assertTrue(item.isAvailableAt(BranchSet.ordinal("b001")));
+    }
+
+    @Test
+    public void menuItem_storedBranchBits_winOverTheList() {
+        Map<String, Object> raw = menuMap(7); // listed at b001 and b003
+        raw.put(SnapshotMappers.MENU_BRANCH_BITS, BranchSet.of(Arrays.asList("b002")).toWire());
+        assertEquals(BranchSet.of(Arrays.asList("b002")), SnapshotMappers.adminMenuItem(raw).availableAt);
+        assertEquals(BranchSet.of(Arrays.asList("b002")), SnapshotMappers.menuItem(raw).availableAt);
+
+        raw.remove(SnapshotMappers.MENU_BRANCH_BITS); // written before the bits existed: the list is all there is
+        assertEquals(BranchSet.of(Arrays.asList("b001", "b003")), SnapshotMappers.menuItem(raw).availableAt);
+    }
+
+    @Test
+    public void branch_copiesEveryField() {
+        Map<String, Object> raw = branchMap();
+        CustomerHomeActivity.Branch branch = SnapshotMappers.branch(raw);
+        assertEquals("b002", branch.branchID);
+        assertEquals("Colombo", branch.name);
+        assertEquals(6.9271, branch.latitude, 0);
+        assertEquals(79.8612, branch.longitude, 0);
+        assertEquals(112345678L, branch.contact);
+
+        AdminBranchEmployeeManagementActivity.Branch staffBranch = SnapshotMappers.staffBranch(raw);
+        assertEquals("b002", staffBranch.branchID);
+        assertEquals("Colombo", staffBranch.name);
+        assertEquals(112345678L, staffBranch.contact);
+        assertEquals(79.8612, staffBranch.longitude, 0);
+    }
+
+    @Test
+    public void staff_copiesEveryField() {
+        Map<String, Object> raw = staffMap();
+        raw.put("employeeID", "e004");
+        AdminBranchEmployeeManagementActivity.Employee employee = SnapshotMappers.employee(raw);
+        assertEquals("e004", employee.employeeID);
+        assertEquals("b001", employee.branchID);
+        assertEquals("Nimal Perera", employee.name);
+        assertEquals("nimal@pizzamania.lk", employee.email);
+        assertEquals("12 Main Street, Galle", employee.address);
+        assertEquals("u021", employee.userID);
+        assertEquals("secret", employee.password);
+        assertEquals(771234567L, employee.contact);
+
+        raw.remove("employeeID");
+        raw.put("delID", "d002");
+        raw.put("status", "Available");
+        AdminDeliverymanManagement.Deliveryman rider = SnapshotMappers.deliveryman(raw);
+        assertEquals("d002", rider.delID);
+        assertEquals("Available", rider.status);
+        assertEquals("u021", rider.userID);
+        assertEquals(771234567L, rider.contact);
+    }
+
+    @Test
+    public void orderSummary_readsTheVerboseLayout() {
+        OrderSummary mapped = WireFormat.summaryFromWire("o003", summaryMap(3));
+        assertEquals("o003", mapped.getOrderID());
+        assertEquals("b001", mapped.getBranchID());
+        assertEquals("Customer 3", mapped.getCustomerName());
+        assertEquals("Preparing", mapped.getStatus());
+        assertEquals("Pending", mapped.getPaymentStatus());
+        assertEquals(2903.0, mapped.getTotalPrice(), 0);
+        assertEquals(1760000000003L, mapped.getTimestamp());
+        assertEquals(4, mapped.getItemCount());
+    }
+
+    @Test
+    public void missingNode_mapsToNull() {
+        assertNull(SnapshotMappers.menuItem(null));
+        assertNull(SnapshotMappers.branch(null));
+        assertNull(SnapshotMappers.employee(null));
+    }
+
+    // ---------------------------------------------------------------------
+
+    static Map<String, Object> menuMap(int n) {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("menuID", String.format("m%03d", n));
+        raw.put("name", "Pizza " + n);
+        raw.put("category", n % 2 == 0 ? "Pizza" : "Drinks");
+        raw.put("description", "Hand-tossed crust with mozzarella");
+        raw.put("imageURL", "https://img/m" + n + ".jpg");
+        raw.put("price", 1450.5 + n);
+        raw.put("branches", new ArrayList<>(Arrays.asList("b001", "b003")));
+        return raw;
+    }
+
+    // Verbose layout, since that is the only one the reflective mapper understands
+    static Map<String, Object> summaryMap(int n) {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("branchID", "b00" + (1 + n % 3));
+        raw.put("customerID", "u" + n);
+        raw.put("customerName", "Customer " + n);
+        raw.put("customerLat", 6.9 + n * 0.0001);
+        raw.put("customerLng", 79.8 + n * 0.0001);
+        raw.put("assignedDeliverymanID", "");
+        raw.put("status", "Preparing");
+        raw.put("paymentStatus", "Pending");
+        raw.put("totalPrice", 2900.0 + n);
+        raw.put("timestamp", 1760000000000L + n);
+        raw.put("deliveredTimestamp", 0L);
+        raw.put("itemCount", 1L + n % 4);
+        return raw;
+    }
+
+    static Map<String, Object> branchMap() {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("branchID", "b002");
+        raw.put("name", "Colombo");
+        raw.put("latitude", 6.9271);
+        raw.put("longitude", 79.8612);
+        raw.put("contact", 112345678L);
+        return raw;
+    }
+
+    static Map<String, Object> staffMap() {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("branchID", "b001");
+        raw.put("name", "Nimal Perera");
+        raw.put("email", "nimal@pizzamania.lk");
+        raw.put("address", "12 Main Street, Galle");
+        raw.put("userID", "u021");
+        raw.put("password", "secret");
+        raw.put("contact", 771234567L);
+        return raw;
+    }
+}
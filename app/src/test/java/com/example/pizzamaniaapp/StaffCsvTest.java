@@ -0,0 +1,214 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the bulk staff CSV format (quoting, validation, export/import round trip), the ID block
+ * helpers behind the reserved ranges, and that a large file streams through without being
+ * held in memory.
+ */
+public class StaffCsvTest {
+
+    static final Set<String> BRANCHES = new HashSet<>(Arrays.asList("b001", "b002"));
+    private static final String HEADER = "id,userID,branchID,name,email,password,contact,address,status\n";
+
+    @Test
+    public void parsesQuotedFields_andAnyColumnOrder() throws IOException {
+        StaffCsv.Reader reader = reader("Name,branchID,email,contact,address,password,extra\n"
+                + "\"Silva, Nimal\",b001,nimal@x.lk,0771234567,\"12 \"\"Lake\"\" Rd\nKandy\",pw,ignored\r\n"
+                + "\n"
+                + "Kamal,b002,kamal@x.lk,077 555 1234,Galle,pw,\n");
+
+        StaffCsv.Record first = reader.next();
+        assertEquals("Silva, Nimal", first.name);
+        assertEquals("12 \"Lake\" Rd\nKandy", first.address);
+        assertEquals(771234567L, first.contact);
+        assertTrue(first.needsIds());
+        assertEquals(2, first.line);
+
+        StaffCsv.Record second = reader.next();
+        assertEquals("Kamal", second.name);
+        assertEquals(775551234L, second.contact);
+        assertEquals(5, second.line); // the quoted line break and the blank line both count
+
+        assertNull(reader.next());
+        assertEquals(2, reader.rows());
+        assertEquals(0, reader.errorCount());
+    }
+
+    @Test
+    public void badRows_areReportedWithTheirLine_andSkipped() throws IOException {
+        StaffCsv.Reader reader = reader(HEADER
+                + ",,b009,A,a@x.lk,pw,1,Addr,\n"      // unknown branch
+                + ",,b001,B,not-an-email,pw,1,Addr,\n" // bad email
+                + ",,b001,C,c@x.lk,pw,12ab,Addr,\n"    // bad contact
+                + ",,b001,D,d@x.lk,,1,Addr,\n"         // new staff without password
+                + "e001,,b001,E,e@x.lk,,1,Addr,\n"     // id without userID
+                + "x001,u001,b001,F,f@x.lk,,1,Addr,\n" // wrong prefix
+                + "e002,u002,b001,G,g@x.lk,,1,Addr,\n" // fine (existing, password kept)
+                + "e002,u003,b001,H,h@x.lk,,1,Addr,\n" // duplicate id
+                + ",,b001,,i@x.lk,pw,1,Addr,\n");      // missing name
+
+        StaffCsv.Record only = reader.next();
+        assertEquals("G", only.name);
+        assertFalse(only.needsIds());
+        assertNull(reader.next());
+
+        assertEquals(9, reader.rows());
+        assertEquals(8, reader.errorCount());
+        assertTrue(reader.errors().get(0), reader.errors().get(0).startsWith("Line 2: unknown branch"));
+        assertTrue(reader.errors().get(7), reader.errors().get(7).startsWith("Line 10:"));
+    }
+
+    @Test
+    public void missingRequiredColumn_failsUpFront() {
+        try {
+            reader("name,email,contact,address\nA,a@x.lk,1,Addr\n");
+            fail("Expected a missing column error");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("branchID"));
+        }
+    }
+
+    @Test
+    public void export_roundTripsThroughImport_withoutPasswords() throws IOException {
+        StaffCsv.Record original = new StaffCsv.Record();
+        original.id = "e042";
+        original.userID = "u317";
+        original.branchID = "b002";
+        original.name = "Perera, \"Ruwan\"";
+        original.email = "ruwan@x.lk";
+        original.password = "secret";
+        original.contact = 771112222L;
+        original.address = "1 Main St\nColombo";
+        original.status = "";
+
+        StringWriter out = new StringWriter();
+        StaffCsv.Writer writer = new StaffCsv.Writer(out);
+        writer.write(original);
+        writer.close();
+        assertFalse(out.toString().contains("secret"));
+
+        StaffCsv.Record back = reader(out.toString()).next();
+        assertEquals(original.id, back.id);
+        assertEquals(original.userID, back.userID);
+        assertEquals(original.name, back.name);
+        assertEquals(original.address, back.address);
+        assertEquals(original.contact, back.contact);
+        assertEquals("", back.password); // blank: the import keeps the stored one
+    }
+
+    @Test
+    public void explicitIds_areTrackedSoTheCountersCanPassThem() throws IOException {
+        StaffCsv.Reader reader = reader(HEADER
+                + "e900,u040,b001,A,a@x.lk,,1,Addr,\n"
+                + ",,b001,B,b@x.lk,pw,1,Addr,\n"
+                + "e012,u700,b002,C,c@x.lk,,1,Addr,\n"
+                + "e013,u700,b002,D,d@x.lk,,1,Addr,\n"); // duplicate userID, not counted
+        while (reader.next() != null) {}
+
+        assertEquals(900, reader.highestId());
+        assertEquals(700, reader.highestUserId());
+        assertEquals(1, reader.errorCount());
+        assertTrue(reader.errors().get(0), reader.errors().get(0).startsWith("Line 5: duplicate userID"));
+
+        StaffCsv.Reader fresh = reader(HEADER + ",,b001,B,b@x.lk,pw,1,Addr,\n");
+        while (fresh.next() != null) {}
+        assertEquals(0, fresh.highestId()); // nothing to move past
+    }
+
+    @Test
+    public void explicitIds_mayOnlyUpdateStaffOfTheSameKind() throws IOException {
+        StaffCsv.Record row = reader(HEADER + "e004,u021,b001,A,a@x.lk,,1,Addr,\n").next();
+
+        assertNull(StaffCsv.conflict(row, "Employee", null, null)); // new at a hand-picked ID
+        assertNull(StaffCsv.conflict(row, "Employee", stored("userID", "u021"), stored("role", "Employee")));
+        assertNull(StaffCsv.conflict(row, "Employee", stored("userID", "u021"), null)); // login restored
+
+        assertTrue(StaffCsv.conflict(row, "Employee", null, stored("role", "Admin")).contains("has role Admin"));
+        assertNotNull(StaffCsv.conflict(row, "Employee", stored("userID", "u021"), stored("role", "Deliveryman")));
+        assertNotNull(StaffCsv.conflict(row, "Employee", null, stored("role", "Employee"))); // someone else's login
+        assertNotNull(StaffCsv.conflict(row, "Employee", stored("userID", "u099"), stored("role", "Employee")));
+    }
+
+    @Test
+    public void idBlocks_keepTheAppsIdFormat() {
+        IdBlock block = new IdBlock('e', 998, 3);
+        assertEquals("e998", block.id(0));
+        assertEquals("e1000", block.id(2));
+        assertEquals(1001, block.end());
+        assertEquals("u007", IdBlock.format('u', 7));
+
+        assertEquals(42, IdBlock.number("e042", 'e'));
+        assertEquals(-1, IdBlock.number("d042", 'e'));
+        assertEquals(-1, IdBlock.number("e04x", 'e'));
+        assertEquals(1000, IdBlock.nextNumber(Arrays.asList("e001", "e999", "junk", "u5000"), 'e'));
+        assertEquals(1, IdBlock.nextNumber(Arrays.<String>asList(), 'e'));
+    }
+
+    @Test
+    public void largeFile_streamsRowByRow() throws IOException {
+        final int rows = 50_000;
+        StaffCsv.Reader reader = new StaffCsv.Reader(generatedFile(rows), 'e', BRANCHES);
+        int count = 0, newStaff = 0;
+        StaffCsv.Record record;
+        while ((record = reader.next()) != null) {
+            count++;
+            if (record.needsIds()) newStaff++;
+        }
+
+        assertEquals(rows, count);
+        assertEquals(rows, newStaff);
+        assertEquals(0, reader.errorCount());
+    }
+
+    // ---------------------------------------------------------------------
+
+    // A staff file of new rows, generated on the fly so the only full copy of it is never built
+    static Reader generatedFile(int rows) {
+        return new Reader() {
+            private int row = -1;
+            private String current = HEADER;
+            private int pos;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                if (pos == current.length()) {
+                    if (++row >= rows) return -1;
+                    current = ",,b00" + (1 + row % 2) + ",Staff " + row + ",s" + row + "@x.lk,pw," + (770000000L + row)
+                            + ",\"No. " + row + ", Road\",\n";
+                    pos = 0;
+                }
+                int n = Math.min(length, current.length() - pos);
+                current.getChars(pos, pos + n, buffer, offset);
+                pos += n;
+                return n;
+            }
+
+            @Override
+            public void close() {}
+        };
+    }
+
+    private static Map<String, Object> stored(String key, Object value) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(key, value);
+        return map;
+    }
+
+    private static StaffCsv.Reader reader(String csv) throws IOException {
+        return new StaffCsv.Reader(new StringReader(csv), 'e', BRANCHES);
+    }
+}
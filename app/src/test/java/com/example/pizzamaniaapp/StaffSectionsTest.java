@@ -0,0 +1,100 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the branch/staff grouping the admin staff screens bind from, including 100 branches
+ * x 20 staff (what used to be 101 reads) in a single pass.
+ */
+public class StaffSectionsTest {
+
+    @Test
+    public void headersFollowedByTheirStaff_inBranchOrder() {
+        List<AdminBranchEmployeeManagementActivity.Branch> branches = Arrays.asList(branch("b001"), branch("b002"), branch("b003"));
+        List<AdminBranchEmployeeManagementActivity.Employee> staff = Arrays.asList(
+                employee("e001", "b002"), employee("e002", "b001"), employee("e003", "b002"),
+                employee("e004", "b999"), null); // unknown branch and null entry are dropped
+
+        StaffSections<AdminBranchEmployeeManagementActivity.Branch, AdminBranchEmployeeManagementActivity.Employee> sections =
+                StaffSections.group(branches, b -> b.branchID, staff, e -> e.branchID);
+
+        assertEquals(Arrays.asList("b001", "e002", "b002", "e001", "e003", "b003"), labels(sections));
+        assertEquals(3, sections.branchCount());
+        assertTrue(sections.rows().get(0).isHeader());
+        assertFalse(sections.rows().get(1).isHeader());
+        assertEquals("b002", sections.rows().get(3).branch.branchID); // staff rows know their branch
+    }
+
+    @Test
+    public void emptySections_haveNoRows() {
+        assertTrue(StaffSections.empty().rows().isEmpty());
+        assertEquals(Arrays.asList("b001"), labels(StaffSections.group(Arrays.asList(branch("b001")), b -> b.branchID,
+                new ArrayList<AdminBranchEmployeeManagementActivity.Employee>(), e -> e.branchID)));
+    }
+
+    @Test
+    public void byBranchNumber_sortsNumerically_andMalformedIdsLast() {
+        List<AdminBranchEmployeeManagementActivity.Branch> branches = new ArrayList<>(Arrays.asList(
+                branch("b010"), branch(""), branch("b002"), branch("Colombo"), branch(null), branch("b1")));
+
+        branches.sort(StaffSections.byBranchNumber(b -> b.branchID));
+
+        List<String> ids = new ArrayList<>();
+        for (AdminBranchEmployeeManagementActivity.Branch branch : branches) ids.add(branch.branchID);
+        assertEquals(Arrays.asList("b1", "b002", "b010", "", "Colombo", null), ids);
+    }
+
+    @Test
+    public void group_hundredBranchesByTwentyStaff() {
+        List<AdminBranchEmployeeManagementActivity.Branch> branches = branches(100);
+        List<AdminBranchEmployeeManagementActivity.Employee> staff = staff(2_000, 100);
+
+        StaffSections<AdminBranchEmployeeManagementActivity.Branch, AdminBranchEmployeeManagementActivity.Employee> sections =
+                StaffSections.group(branches, b -> b.branchID, staff, e -> e.branchID);
+
+        assertEquals(100 + 2_000, sections.rows().size());
+        assertEquals("b100", sections.rows().get(sections.rows().size() - 21).branch.branchID);
+    }
+
+    // ---------------------------------------------------------------------
+
+    static List<AdminBranchEmployeeManagementActivity.Branch> branches(int count) {
+        List<AdminBranchEmployeeManagementActivity.Branch> branches = new ArrayList<>();
+        for (int b = 1; b <= count; b++) branches.add(branch(String.format("b%03d", b)));
+        return branches;
+    }
+
+    // Spread round-robin over the first branchCount branches
+    static List<AdminBranchEmployeeManagementActivity.Employee> staff(int count, int branchCount) {
+        List<AdminBranchEmployeeManagementActivity.Employee> staff = new ArrayList<>();
+        for (int e = 0; e < count; e++) staff.add(employee(String.format("e%04d", e), String.format("b%03d", 1 + e % branchCount)));
+        return staff;
+    }
+
+    private static AdminBranchEmployeeManagementActivity.Branch branch(String id) {
+        return new AdminBranchEmployeeManagementActivity.Branch(id, "Branch " + id, 0, 0, 0);
+    }
+
+    private static AdminBranchEmployeeManagementActivity.Employee employee(String id, String branchID) {
+        AdminBranchEmployeeManagementActivity.Employee employee = new AdminBranchEmployeeManagementActivity.Employee();
+        employee.employeeID = id;
+        employee.branchID = branchID;
+        employee.name = "Employee " + id;
+        return employee;
+    }
+
+    private static List<String> labels(StaffSections<AdminBranchEmployeeManagementActivity.Branch,
+            AdminBranchEmployeeManagementActivity.Employee> sections) {
+        List<String> labels = new ArrayList<>();
+        for (StaffSections.Row<AdminBranchEmployeeManagementActivity.Branch, AdminBranchEmployeeManagementActivity.Employee> row : sections.rows()) {
+            labels.add(row.isHeader() ? row.branch.branchID : row.staff.employeeID);
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.pizzamaniaapp;
+
+import com.google.firebase.database.DatabaseError;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks what each staff status change sets on the summary row and writes with it, when a row
+ * that moved on rejects it, how a replay is recognised, and the outbox retry timing.
+ */
+public class StatusTransitionsTest {
+
+    @Test
+    public void completeDelivery_cashOrder_marksPaidAndRecordsThePaymentAfterwards() {
+        StatusTransitions.Transition transition = StatusTransitions.completeDelivery(order("Pending"), 1700000000000L);
+        Map<String, Object> row = row("Delivering", "d004", "Pending");
+        Map<String, Object> changes = transition.changes(row);
+
+        assertEquals("Completed", changes.get(WireFormat.STATUS));
+        assertEquals(1700000000000L, changes.get(WireFormat.DELIVERED_TIMESTAMP));
+        assertEquals("Paid", changes.get(WireFormat.PAYMENT_STATUS));
+        assertTrue(transition.pays(row));
+
+        Map<String, Object> paths = transition.followUp(true);
+        assertEquals(2450.0, paths.get("payments/o001/amount"));
+        assertEquals("Cash", paths.get("payments/o001/paymentMethod"));
+        assertEquals(1700000000000L, paths.get("payments/o001/timestamp"));
+        for (Object value : changes.values()) assertFalse(value instanceof Map); // plain values only
+        for (Object value : paths.values()) assertFalse(value instanceof Map);
+    }
+
+    @Test
+    public void cashPayment_isOnlyRecordedByTheTransitionThatMarksItPaid() {
+        StatusTransitions.Transition transition = StatusTransitions.completeDelivery(order("Pending"), 1L);
+        Map<String, Object> row = row("Delivering", "d004", "Paid"); // paid meanwhile (or a replay)
+
+        assertFalse(transition.pays(row));
+        assertFalse(transition.changes(row).containsKey(WireFormat.PAYMENT_STATUS));
+        assertFalse(transition.followUp(false).containsKey("payments/o001/amount"));
+    }
+
+    @Test
+    public void completeDelivery_paidOrder_leavesPaymentAlone() {
+        StatusTransitions.Transition transition = StatusTransitions.completeDelivery(order("Paid"), 1L);
+        Map<String, Object> row = row("Delivering", "d004", "Pending");
+        assertFalse(transition.pays(row));
+        assertEquals(4, transition.changes(row).size()); // status, delivered time and the two query keys
+        assertFalse(transition.followUp(true).containsKey("payments/o001/amount"));
+    }
+
+    @Test
+    public void completeDelivery_storesTheRiddenPathAfterwards() {
+        StatusTransitions.Transition transition = StatusTransitions.completeDelivery(order("Paid"), 1L, "_p~iF~ps|U_ulLnnqC");
+        assertEquals("_p~iF~ps|U_ulLnnqC", transition.followUp(false).get("orderTraces/o001"));
+        assertTrue(transition.followUp(false).containsKey("orderEtas/o001")); // the customer's estimate is removed
+        assertNull(transition.followUp(false).get("orderEtas/o001"));
+        assertFalse(transition.changes(row("Delivering", "d004", "Paid")).containsKey("orderTraces/o001"));
+    }
+
+    @Test
+    public void rowsThatMovedOn_rejectTheTransition() {
+        StatusTransitions.Transition complete = StatusTransitions.completeDelivery(order("Pending"), 1L);
+        assertNull(complete.changes(row("Cancelled", "d004", "Pending")));
+        assertNull(complete.changes(row("Delivering", "d009", "Pending"))); // reassigned to another rider
+        assertNull(complete.changes(null));                                  // order deleted
+        assertNull(complete.changes(new HashMap<>()));
+        assertNotNull(complete.changes(row("delivering", "d004", "Pending"))); // statuses ignore case
+
+        StatusTransitions.Transition ready = StatusTransitions.orderStatus(summary(null), "Delivery Pending", 1L);
+        assertNotNull(ready.changes(row("Preparing", null, "Pending")));
+        assertNull(ready.changes(row("Delivering", "d004", "Pending"))); // a rider has it already
+    }
+
+    @Test
+    public void statusChanges_moveTheSummaryQueryKeys() {
+        Map<String, Object> changes = StatusTransitions.completeDelivery(order("Paid"), 1L)
+                .changes(row("Delivering", "d004", "Paid"));
+        assertEquals("b001|Completed", changes.get(WireFormat.BRANCH_STATUS));
+        assertEquals("d004|Completed", changes.get(WireFormat.RIDER_STATUS));
+
+        changes = StatusTransitions.orderStatus(summary(null), "Delivery Pending", 1L).changes(row("Preparing", null, "Pending"));
+        assertEquals("b001|Delivery Pending", changes.get(WireFormat.BRANCH_STATUS));
+        assertTrue(changes.containsKey(WireFormat.RIDER_STATUS));
+        assertNull(changes.get(WireFormat.RIDER_STATUS)); // nobody carries it: no rider key
+    }
+
+    @Test
+    public void update_writesSummaryOrderAndRecordsInOneGo() {
+        Map<String, Object> update = StatusTransitions.completeDelivery(order("Pending"), 1L, "trace")
+                .update(row("Delivering", "d004", "Pending"));
+        for (String node : new String[]{"orderSummaries/o001/", "orders/o001/"}) {
+            assertEquals("Completed", update.get(node + WireFormat.STATUS));
+            assertEquals("Paid", update.get(node + WireFormat.PAYMENT_STATUS));
+            assertEquals(1L, update.get(node + WireFormat.DELIVERED_TIMESTAMP));
+        }
+        assertEquals("b001|Completed", update.get("orderSummaries/o001/" + WireFormat.BRANCH_STATUS));
+        assertFalse(update.containsKey("orders/o001/" + WireFormat.BRANCH_STATUS)); // query keys are summary-only
+        assertEquals(2450.0, update.get("payments/o001/amount"));
+        assertEquals("trace", update.get("orderTraces/o001"));
+        assertTrue(update.containsKey("orderEtas/o001"));
+        assertEquals(1L, update.get("orderSummaries/o001/" + WireFormat.REVISION));
+
+        assertNull(StatusTransitions.completeDelivery(order("Pending"), 1L).update(row("Cancelled", "d004", "Pending")));
+    }
+
+    @Test
+    public void replay_ofATransitionThatLanded_writesNothing() {
+        StatusTransitions.Transition transition = StatusTransitions.completeDelivery(order("Pending"), 1700000000000L);
+        Map<String, Object> row = row("Delivering", "d004", "Pending");
+        assertFalse(transition.applied(row));
+
+        for (Map.Entry<String, Object> path : transition.update(row).entrySet()) { // what the database now holds
+            if (path.getKey().startsWith("orderSummaries/o001/")) row.put(path.getKey().substring(20), path.getValue());
+        }
+        assertTrue(transition.applied(row));
+        assertNull(transition.update(row)); // were it sent again, it could not record the payment twice
+
+        row.put(WireFormat.DELIVERED_TIMESTAMP, 1.7e12); // numbers may come back as another type
+        assertTrue(transition.applied(row));
+        row.put(WireFormat.DELIVERYMAN_ID, "d009");
+        assertFalse(transition.applied(row));
+    }
+
+    @Test
+    public void orderStatus_onlyDeliveryPendingWaitsForUndo() {
+        Map<String, Object> changes = StatusTransitions.orderStatus(summary(null), "Preparing", 1L)
+                .changes(row("Preparing", null, "Pending"));
+        assertEquals(3, changes.size());
+        assertEquals("Preparing", changes.get(WireFormat.STATUS));
+
+        assertEquals(StatusTransitions.UNDO_WINDOW_MS, StatusTransitions.delayFor("Delivery Pending"));
+        assertEquals(0, StatusTransitions.delayFor("Preparing"));
+    }
+
+    @Test
+    public void orderStatus_deliveryPending_recordsWhenTheKitchenFinished() {
+        Map<String, Object> changes = StatusTransitions.orderStatus(summary(null), "Delivery Pending", 1700000000000L)
+                .changes(row("Preparing", null, "Pending"));
+        assertEquals(1700000000000L, changes.get(WireFormat.READY_TIMESTAMP));
+        assertFalse(StatusTransitions.orderStatus(summary(null), "Preparing", 1L)
+                .changes(row("Preparing", null, "Pending")).containsKey(WireFormat.READY_TIMESTAMP));
+    }
+
+    @Test
+    public void orderStatus_outOfFlight_removesThePublishedEstimate() {
+        Map<String, Object> update = StatusTransitions.orderStatus(summary(null), "Cancelled", 1L)
+                .update(row("Preparing", null, "Pending"));
+        assertTrue(update.containsKey("orderEtas/o002"));
+        assertNull(update.get("orderEtas/o002"));
+        assertFalse(StatusTransitions.orderStatus(summary(null), "Delivery Pending", 1L)
+                .update(row("Preparing", null, "Pending")).containsKey("orderEtas/o002")); // still on its way
+    }
+
+    @Test
+    public void backoff_doublesUpToTheCap() {
+        assertEquals(2000, StatusTransitions.backoff(1));
+        assertEquals(4000, StatusTransitions.backoff(2));
+        assertEquals(8000, StatusTransitions.backoff(3));
+        assertEquals(StatusTransitions.MAX_RETRY_MS, StatusTransitions.backoff(9));
+        assertEquals(StatusTransitions.MAX_RETRY_MS, StatusTransitions.backoff(1000));
+    }
+
+    @Test
+    public void permissionDenied_orTooManyAttempts_areNotRetried() {
+        assertTrue(StatusTransitions.shouldRetry(1, DatabaseError.DISCONNECTED));
+        assertTrue(StatusTransitions.shouldRetry(StatusTransitions.MAX_ATTEMPTS - 1, DatabaseError.NETWORK_ERROR));
+        assertFalse(StatusTransitions.shouldRetry(StatusTransitions.MAX_ATTEMPTS, DatabaseError.NETWORK_ERROR));
+        assertFalse(StatusTransitions.shouldRetry(1, DatabaseError.PERMISSION_DENIED));
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static DeliverymanHomeActivity.DeliveryItem order(String paymentStatus) {
+        DeliverymanHomeActivity.DeliveryItem order = new DeliverymanHomeActivity.DeliveryItem();
+        order.orderID = "o001";
+        order.branchID = "b001";
+        order.assignedDeliverymanID = "d004";
+        order.customerID = "u001";
+        order.customerName = "Nimal";
+        order.totalPrice = 2450.0;
+        order.paymentStatus = paymentStatus;
+        return order;
+    }
+
+    private static Map<String, Object> row(String status, String riderID, String paymentStatus) {
+        Map<String, Object> row = new HashMap<>();
+        row.put(WireFormat.BRANCH_ID, "b001");
+        row.put(WireFormat.STATUS, status);
+        row.put(WireFormat.PAYMENT_STATUS, paymentStatus);
+        if (riderID != null) row.put(WireFormat.DELIVERYMAN_ID, riderID);
+        return row;
+    }
+
+    private static OrderSummary summary(String riderID) {
+        OrderSummary summary = new OrderSummary();
+        summary.setOrderID("o002");
+        summary.setBranchID("b001");
+        summary.setAssignedDeliverymanID(riderID);
+        summary.setStatus("Preparing");
+        return summary;
+    }
+}
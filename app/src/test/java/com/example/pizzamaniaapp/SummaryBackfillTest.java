@@ -0,0 +1,133 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks which summary rows the backfill rebuilds and that a rebuilt row keeps the values the
+ * existing summary already had.
+ */
+public class SummaryBackfillTest {
+
+    @Test
+    public void needsBackfill_onlyForMissingPartialOrOldRows() {
+        Map<String, Object> current = WireFormat.summaryToWire(OrderSummary.from(sampleOrder()));
+
+        assertTrue(SummaryBackfill.needsBackfill(null));
+        assertTrue(SummaryBackfill.needsBackfill(new HashMap<>()));
+        assertFalse(SummaryBackfill.needsBackfill(current));
+
+        Map<String, Object> mirroredOnly = new HashMap<>(); // a status update reached a legacy order
+        mirroredOnly.put(WireFormat.STATUS, "Preparing");
+        assertTrue(SummaryBackfill.needsBackfill(mirroredOnly));
+
+        Map<String, Object> verbose = new HashMap<>();
+        verbose.put("branchID", "b001");
+        verbose.put("status", "Preparing");
+        assertTrue(SummaryBackfill.needsBackfill(verbose));
+    }
+
+    @Test
+    public void staleOrMissingQueryKeys_needBackfill() {
+        Map<String, Object> current = WireFormat.summaryToWire(OrderSummary.from(sampleOrder()));
+        assertEquals("b001|Order Pending", current.get(WireFormat.BRANCH_STATUS));
+        assertFalse(current.containsKey(WireFormat.RIDER_STATUS)); // nobody carries it yet
+
+        Map<String, Object> versionOne = new HashMap<>(current); // written before the keys existed
+        versionOne.remove(WireFormat.BRANCH_STATUS);
+        assertTrue(SummaryBackfill.needsBackfill(versionOne));
+
+        Map<String, Object> moved = new HashMap<>(current); // status changed without its key
+        moved.put(WireFormat.STATUS, "Delivering");
+        moved.put(WireFormat.DELIVERYMAN_ID, "d003");
+        assertTrue(SummaryBackfill.needsBackfill(moved));
+
+        Map<String, Object> row = SummaryBackfill.backfilled("o001", WireFormat.orderToWire(sampleOrder()), moved);
+        assertEquals("b001|Delivering", row.get(WireFormat.BRANCH_STATUS));
+        assertEquals("d003|Delivering", row.get(WireFormat.RIDER_STATUS));
+        assertFalse(SummaryBackfill.needsBackfill(row));
+    }
+
+    @Test
+    public void missingSummary_isBuiltFromTheOrder() {
+        CustomerHomeActivity.Order order = sampleOrder();
+        Map<String, Object> row = SummaryBackfill.backfilled("o001", WireFormat.orderToWire(order), null);
+
+        assertFalse(SummaryBackfill.needsBackfill(row));
+        assertFalse(row.containsKey(WireFormat.ITEMS));
+        OrderSummary summary = WireFormat.summaryFromWire("o001", row);
+        assertEquals("b001", summary.getBranchID());
+        assertEquals("u010", summary.getCustomerID());
+        assertEquals("Order Pending", summary.getStatus());
+        assertEquals(2, summary.getItemCount()); // item lines, not pizzas
+        assertEquals(order.totalPrice, summary.getTotalPrice(), 0);
+    }
+
+    @Test
+    public void existingFields_winOverTheOrder() {
+        Map<String, Object> partial = new HashMap<>();
+        partial.put(WireFormat.STATUS, "Delivering");
+        partial.put(WireFormat.DELIVERYMAN_ID, "d003");
+
+        OrderSummary summary = WireFormat.summaryFromWire("o001",
+                SummaryBackfill.backfilled("o001", WireFormat.orderToWire(sampleOrder()), partial));
+        assertEquals("Delivering", summary.getStatus());
+        assertEquals("d003", summary.getAssignedDeliverymanID());
+        assertEquals("b001", summary.getBranchID());
+    }
+
+    @Test
+    public void verboseSummary_isRewrittenInShortKeys() {
+        Map<String, Object> verbose = new HashMap<>();
+        verbose.put("orderID", "o001");
+        verbose.put("branchID", "b002");
+        verbose.put("status", "Preparing");
+        verbose.put("itemCount", 5);
+        verbose.put(WireFormat.STATUS, "Ready"); // a v2 update on the legacy row
+
+        Map<String, Object> row = SummaryBackfill.backfilled("o001", WireFormat.orderToWire(sampleOrder()), verbose);
+        assertEquals("b002", row.get(WireFormat.BRANCH_ID));
+        assertEquals("Ready", row.get(WireFormat.STATUS));
+        assertFalse(row.containsKey("branchID"));
+        assertFalse(row.containsKey("status"));
+        assertFalse(row.containsKey("orderID"));
+        assertEquals(5, WireFormat.summaryFromWire("o001", row).getItemCount());
+    }
+
+    @Test
+    public void chatbotNodes_areNotOrders() {
+        assertTrue(SummaryBackfill.isOrder(WireFormat.orderToWire(sampleOrder())));
+
+        Map<String, Object> verbose = new HashMap<>();
+        verbose.put("branchID", "b001");
+        verbose.put("customerID", "u010");
+        assertTrue(SummaryBackfill.isOrder(verbose));
+
+        // "orders/{userID}/{pushId}" as the chatbot writes it
+        Map<String, Object> chat = new HashMap<>();
+        chat.put("name", "Margherita");
+        chat.put("payment", "Cash on Delivery");
+        chat.put("status", "Pending");
+        Map<String, Object> userNode = new HashMap<>();
+        userNode.put("-Nx1aBcD", chat);
+        assertFalse(SummaryBackfill.isOrder(userNode));
+        assertFalse(SummaryBackfill.isOrder(chat));
+        assertFalse(SummaryBackfill.isOrder(null));
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static CustomerHomeActivity.Order sampleOrder() {
+        List<CustomerHomeActivity.CartItem> items = new ArrayList<>();
+        items.add(new CustomerHomeActivity.CartItem("m001", "Margherita", 1200.0, 3, ""));
+        items.add(new CustomerHomeActivity.CartItem("m002", "Veggie", 1400.0, 1, ""));
+        return new CustomerHomeActivity.Order("o001", "b001", "u010", "Customer", 6.9271, 79.8612, "",
+                "Order Pending", 5000.0, 1760000000000L, 0, "Pending", items);
+    }
+}
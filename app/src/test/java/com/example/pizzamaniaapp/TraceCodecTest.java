@@ -0,0 +1,149 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compresses sample 1 Hz rider traces and checks the size against the plain {la, ln, t} records
+ * and how far the decoded route strays from the recorded fixes.
+ */
+public class TraceCodecTest {
+
+    private static final double START_LAT = 6.9271, START_LNG = 79.8612;
+    private static final double M_PER_DEG = 111_320;
+
+    @Test
+    public void compress_shrinksSampleTraces_withinTolerance() {
+        Random random = new Random(5);
+        List<List<TraceCodec.Point>> samples = Arrays.asList(
+                trace(random, new double[][]{{600, 12, 0}}),                                          // main road
+                trace(random, new double[][]{{90, 6, 0}, {60, 6, 90}, {120, 5, 0}, {45, 4, -90},
+                        {200, 6, 0}, {30, 0, 0}, {80, 4, 90}}),                                       // town blocks
+                trace(random, new double[][]{{300, 9, 0}, {240, 0, 0}, {300, 7, 45}, {400, 0, 0}}),  // stop and go
+                winding(random, 900));                                                               // coast road
+
+        for (List<TraceCodec.Point> raw : samples) {
+            String encoded = TraceCodec.compress(raw);
+            List<TraceCodec.Point> decoded = TraceCodec.decode(encoded);
+
+            int plain = plainSize(raw);
+            double ratio = plain / (double) encoded.length();
+            double deviation = maxDeviation(raw, decoded);
+            assertTrue("ratio " + ratio, ratio > 20);
+            assertTrue("deviation " + deviation, deviation <= TraceCodec.TOLERANCE_M + 1.5); // + 1e-5° rounding
+            assertEquals(raw.get(0).time / 1000 * 1000, decoded.get(0).time);
+            assertEquals(raw.get(raw.size() - 1).time / 1000 * 1000, decoded.get(decoded.size() - 1).time);
+        }
+    }
+
+    @Test
+    public void encode_roundTripsEveryPoint() {
+        List<TraceCodec.Point> raw = trace(new Random(9), new double[][]{{120, 8, 30}, {60, 3, -60}});
+        List<TraceCodec.Point> decoded = TraceCodec.decode(TraceCodec.encode(raw));
+
+        assertEquals(raw.size(), decoded.size());
+        for (int i = 0; i < raw.size(); i++) {
+            assertEquals(raw.get(i).lat, decoded.get(i).lat, 0.6e-5);
+            assertEquals(raw.get(i).lng, decoded.get(i).lng, 0.6e-5);
+            assertEquals(raw.get(i).time / 1000 * 1000, decoded.get(i).time);
+        }
+        // Negative coordinates and far jumps survive too
+        List<TraceCodec.Point> odd = Arrays.asList(new TraceCodec.Point(-33.8688, 151.2093, 0),
+                new TraceCodec.Point(51.5074, -0.1278, 3_600_000));
+        assertEquals(-0.1278, TraceCodec.decode(TraceCodec.encode(odd)).get(1).lng, 1e-9);
+    }
+
+    @Test
+    public void simplify_keepsCornersAndEnds() {
+        List<TraceCodec.Point> raw = new ArrayList<>();
+        for (int i = 0; i <= 100; i++) raw.add(point(i * 5, 0, i));          // 500 m north
+        for (int i = 1; i <= 100; i++) raw.add(point(500, i * 5, 100 + i));  // then 500 m east
+        List<TraceCodec.Point> kept = TraceCodec.simplify(raw, TraceCodec.TOLERANCE_M);
+
+        assertEquals(3, kept.size());
+        assertSame(raw.get(100), kept.get(1));
+        assertTrue(TraceCodec.simplify(raw.subList(0, 2), 8).size() == 2);
+        assertTrue(TraceCodec.decode("").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_rejectsTruncatedText() {
+        String encoded = TraceCodec.encode(Arrays.asList(point(0, 0, 0), point(100, 100, 10)));
+        TraceCodec.decode(encoded.substring(0, encoded.length() - 1));
+    }
+
+    @Test
+    public void simplify_handlesLongTraces() {
+        List<TraceCodec.Point> raw = winding(new Random(1), 8 * 3600); // an 8-hour shift at 1 Hz
+        String encoded = TraceCodec.compress(raw);
+        List<TraceCodec.Point> decoded = TraceCodec.decode(encoded);
+
+        assertTrue(encoded.length() * 20 < plainSize(raw));
+        assertEquals(raw.get(0).time / 1000 * 1000, decoded.get(0).time);
+        assertEquals(raw.get(raw.size() - 1).time / 1000 * 1000, decoded.get(decoded.size() - 1).time);
+    }
+
+    // ---------------------------------------------------------------------
+
+    // 1 Hz fixes with ~3 m GPS noise; each leg is {seconds, metres per second, turn in degrees}
+    private static List<TraceCodec.Point> trace(Random random, double[][] legs) {
+        List<TraceCodec.Point> points = new ArrayList<>();
+        double north = 0, east = 0, heading = 0;
+        long t = 1_700_000_000_000L;
+        for (double[] leg : legs) {
+            heading += Math.toRadians(leg[2]);
+            for (int s = 0; s < leg[0]; s++, t += 1000) {
+                north += Math.cos(heading) * leg[1];
+                east += Math.sin(heading) * leg[1];
+                points.add(point(north + random.nextGaussian() * 3, east + random.nextGaussian() * 3, t));
+            }
+        }
+        return points;
+    }
+
+    // A road that bends all the time
+    static List<TraceCodec.Point> winding(Random random, int seconds) {
+        List<TraceCodec.Point> points = new ArrayList<>();
+        double north = 0, east = 0;
+        for (int s = 0; s < seconds; s++) {
+            double heading = Math.sin(s / 60.0) * 1.2;
+            north += Math.cos(heading) * 10;
+            east += Math.sin(heading) * 10;
+            points.add(point(north + random.nextGaussian() * 3, east + random.nextGaussian() * 3, 1_700_000_000_000L + s * 1000L));
+        }
+        return points;
+    }
+
+    private static TraceCodec.Point point(double northM, double eastM, long time) {
+        return new TraceCodec.Point(START_LAT + northM / M_PER_DEG,
+                START_LNG + eastM / (M_PER_DEG * Math.cos(Math.toRadians(START_LAT))), time);
+    }
+
+    // Size of the same fixes stored the plain way, {"la":..,"ln":..,"t":..} per fix
+    private static int plainSize(List<TraceCodec.Point> points) {
+        int size = 0;
+        for (TraceCodec.Point p : points) {
+            size += ("{\"la\":" + p.lat + ",\"ln\":" + p.lng + ",\"t\":" + p.time + "}").length();
+        }
+        return size;
+    }
+
+    // Furthest any recorded fix is from the decoded route
+    private static double maxDeviation(List<TraceCodec.Point> raw, List<TraceCodec.Point> route) {
+        double worst = 0;
+        for (TraceCodec.Point p : raw) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 1; i < route.size(); i++) {
+                best = Math.min(best, TraceCodec.distanceToSegment(p, route.get(i - 1), route.get(i)));
+            }
+            worst = Math.max(worst, best);
+        }
+        return worst;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the compact (v2) order/cart layout: round trips, reading pre-v2 records,
+ * and the upload size compared to the verbose layout Firebase produced from the POJOs.
+ */
+public class WireFormatTest {
+
+    @Test
+    public void order_roundTrip() {
+        CustomerHomeActivity.Order order = sampleOrder(1, 3);
+        CustomerHomeActivity.Order read = WireFormat.orderFromWire(order.orderID, WireFormat.orderToWire(order));
+
+        assertEquals(order.orderID, read.orderID);
+        assertEquals(order.branchID, read.branchID);
+        assertEquals(order.customerName, read.customerName);
+        assertEquals(order.customerLat, read.customerLat, 0);
+        assertEquals(order.status, read.status);
+        assertEquals(order.paymentStatus, read.paymentStatus);
+        assertEquals(order.totalPrice, read.totalPrice, 0);
+        assertEquals(order.timestamp, read.timestamp);
+        assertEquals(order.items.size(), read.items.size());
+        assertEquals(order.items.get(2).name, read.items.get(2).name);
+        assertEquals(order.items.get(2).quantity, read.items.get(2).quantity);
+    }
+
+    @Test
+    public void cart_roundTrip() {
+        CustomerHomeActivity.Cart cart = new CustomerHomeActivity.Cart("c_u001", "b001", "u001");
+        cart.items.add(new CustomerHomeActivity.CartItem("m001", "Cheese Pizza", 1450.0, 2, "https://img/m001.png"));
+        cart.totalItems = 2;
+        cart.totalPrice = 2900.0;
+
+        CustomerHomeActivity.Cart read = WireFormat.cartFromWire("c_u001", WireFormat.cartToWire(cart));
+
+        assertEquals("c_u001", read.cartID);
+        assertEquals("b001", read.getBranchID());
+        assertEquals(2, read.totalItems);
+        assertEquals(2900.0, read.totalPrice, 0);
+        assertEquals("m001", read.items.get(0).menuID);
+    }
+
+    @Test
+    public void zeroCoordinatesAndPrices_areWritten() {
+        CustomerHomeActivity.Order order = sampleOrder(2, 1);
+        order.customerLat = 0;   // on the equator
+        order.customerLng = 0;   // and the prime meridian
+        order.items.get(0).price = 0; // a free item
+        Map<String, Object> wire = WireFormat.orderToWire(order);
+
+        assertEquals(0.0, wire.get(WireFormat.CUSTOMER_LAT));
+        assertEquals(0.0, wire.get(WireFormat.CUSTOMER_LNG));
+        assertFalse(wire.containsKey(WireFormat.DELIVERED_TIMESTAMP)); // zero timestamps still mean "not yet"
+        CustomerHomeActivity.Order read = WireFormat.orderFromWire(order.orderID, wire);
+        assertEquals(0, read.customerLat, 0);
+        assertEquals(0, read.items.get(0).price, 0);
+    }
+
+    @Test
+    public void legacyVerboseOrder_isReadDuringMigration() {
+        Map<String, Object> legacy = verbose(sampleOrder(7, 2));
+
+        OrderSummary summary = WireFormat.summaryFromWire("o007", legacy);
+        assertEquals("b002", summary.getBranchID());
+        assertEquals("Order Pending", summary.getStatus());
+        assertEquals("Pending", summary.getPaymentStatus());
+
+        // an update written by v2 code to a legacy record wins over the old field
+        legacy.put(WireFormat.orderKey("status"), "Preparing");
+        assertEquals("Preparing", WireFormat.summaryFromWire("o007", legacy).getStatus());
+
+        List<Item> items = WireFormat.itemsFromWire(legacy.get("items"), null);
+        assertEquals(2, items.size());
+        assertEquals("Pending", items.get(0).getPaymentStatus());
+    }
+
+    @Test
+    public void itemLines_takeOrderLevelFieldsFromParent() {
+        CustomerHomeActivity.Order order = sampleOrder(3, 2);
+        Map<String, Object> wire = WireFormat.orderToWire(order);
+
+        List<Item> items = WireFormat.itemsFromWire(wire.get(WireFormat.ITEMS), order);
+        assertEquals(order.status, items.get(1).getStatus());
+        assertEquals(order.paymentStatus, items.get(1).getPaymentStatus());
+        assertEquals(order.items.get(1).price * order.items.get(1).quantity, items.get(1).getTotalPrice(), 0);
+    }
+
+    @Test
+    public void compactOrders_areSmallerThanVerbose() {
+        long verboseBytes = 0, compactBytes = 0;
+        for (int i = 1; i <= 50; i++) {
+            CustomerHomeActivity.Order order = sampleOrder(i, 1 + i % 5);
+            verboseBytes += json(verbose(order)).getBytes(StandardCharsets.UTF_8).length;
+            compactBytes += json(WireFormat.orderToWire(order)).getBytes(StandardCharsets.UTF_8).length;
+        }
+        assertTrue("compact layout should save at least 30%", compactBytes * 10 < verboseBytes * 7);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static CustomerHomeActivity.Order sampleOrder(int n, int lines) {
+        List<CustomerHomeActivity.CartItem> items = new ArrayList<>();
+        double total = 0;
+        for (int i = 0; i < lines; i++) {
+            CustomerHomeActivity.CartItem item = new CustomerHomeActivity.CartItem(
+                    String.format("m%03d", i + 1), "Pizza " + (i + 1), 1200.0 + i * 150, 1 + i % 3,
+                    "https://firebasestorage.googleapis.com/v0/b/pizzamania/o/menu%2Fm" + (i + 1) + ".jpg");
+            total += item.price * item.quantity;
+            items.add(item);
+        }
+        return new CustomerHomeActivity.Order(String.format("o%03d", n), "b00" + (1 + n % 3), "u0" + (10 + n),
+                "Customer " + n, 6.9271 + n * 0.001, 79.8612 + n * 0.001, "", "Order Pending",
+                total, 1760000000000L + n * 60000L, 0, "Pending", items);
+    }
+
+    // What Firebase wrote for the POJO before v2: every public field by its Java name,
+    // plus the per-line copies of the order-level fields that Item used to carry
+    private static Map<String, Object> verbose(CustomerHomeActivity.Order order) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("orderID", order.orderID);
+        map.put("branchID", order.branchID);
+        map.put("customerID", order.customerID);
+        map.put("customerName", order.customerName);
+        map.put("assignedDeliverymanID", order.assignedDeliverymanID);
+        map.put("status", order.status);
+        map.put("paymentStatus", order.paymentStatus);
+        map.put("customerLat", order.customerLat);
+        map.put("customerLng", order.customerLng);
+        map.put("totalPrice", order.totalPrice);
+        map.put("timestamp", order.timestamp);
+        map.put("deliveredTimestamp", order.deliveredTimestamp);
+        List<Object> items = new ArrayList<>();
+        for (CustomerHomeActivity.CartItem item : order.items) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("orderID", order.orderID);
+            line.put("status", order.status);
+            line.put("paymentStatus", order.paymentStatus);
+            line.put("timestamp", order.timestamp);
+            line.put("menuID", item.menuID);
+            line.put("name", item.name);
+            line.put("imageURL", item.imageURL);
+            line.put("quantity", item.quantity);
+            line.put("price", item.price);
+            line.put("totalPrice", item.price * item.quantity);
+            items.add(line);
+        }
+        map.put("items", items);
+        return map;
+    }
+
+    // Minimal JSON writer, enough to measure upload size
+    private static String json(Object value) {
+        StringBuilder sb = new StringBuilder();
+        writeJson(sb, value);
+        return sb.toString();
+    }
+
+    private static void writeJson(StringBuilder sb, Object value) {
+        if (value instanceof Map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                sb.append('"').append(e.getKey()).append("\":");
+                writeJson(sb, e.getValue());
+            }
+            sb.append('}');
+        } else if (value instanceof List) {
+            sb.append('[');
+            boolean first = true;
+            for (Object o : (List<?>) value) {
+                if (!first) sb.append(',');
+                first = false;
+                writeJson(sb, o);
+            }
+            sb.append(']');
+        } else if (value instanceof String) {
+            sb.append('"').append(value).append('"');
+        } else {
+            sb.append(value);
+        }
+    }
+}
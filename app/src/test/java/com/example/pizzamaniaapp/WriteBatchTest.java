@@ -0,0 +1,129 @@
+package com.example.pizzamaniaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the multi-path write batch (overlap rules, round-trip accounting) and the admin
+ * cascades built on it, in particular that deleting a branch reaches every node that names it.
+ */
+public class WriteBatchTest {
+
+    @Test
+    public void collectsPaths_andCountsOneWritePlusReads() {
+        WriteBatch batch = new WriteBatch("edit")
+                .set("/employees/e001/", "x")
+                .setFields("users/u001", fields("name", "Ann", "phone", 77L))
+                .delete("orders/o1")
+                .countReads(2);
+
+        assertEquals(4, batch.size());
+        assertTrue(batch.contains("employees/e001"));
+        assertTrue(batch.contains("users/u001/name"));
+        assertNull(batch.updates().get("orders/o1")); // null deletes
+        assertEquals(3, batch.roundTrips());
+        assertEquals(1, new WriteBatch("empty").roundTrips());
+    }
+
+    @Test
+    public void samePath_overwrites() {
+        WriteBatch batch = new WriteBatch("t").set("a/b", 1).set("a/b", 2);
+        assertEquals(1, batch.size());
+        assertEquals(2, batch.updates().get("a/b"));
+    }
+
+    @Test
+    public void overlappingPaths_areRejected() {
+        assertOverlap(new WriteBatch("t").set("users/u1", "x"), "users/u1/name");    // descendant after ancestor
+        assertOverlap(new WriteBatch("t").set("users/u1/name", "x"), "users/u1");    // ancestor after descendant
+        assertOverlap(new WriteBatch("t").set("menu/m1/ab/0", 1), "menu/m1");
+        // Siblings and mere string prefixes are fine
+        new WriteBatch("t").set("users/u1", "x").set("users/u10", "y").set("users/u1x/name", "z");
+    }
+
+    @Test
+    public void staffHelpers_touchRecordAndUser() {
+        WriteBatch save = AdminWrites.saveStaff("add", "employees", "e001", "emp", "u001", "user");
+        assertEquals(Arrays.asList("employees/e001", "users/u001"), new ArrayList<>(save.updates().keySet()));
+
+        WriteBatch delete = AdminWrites.deleteStaff("del", "deliverymen", "d001", "u009");
+        assertTrue(delete.contains("deliverymen/d001"));
+        assertTrue(delete.contains("users/u009"));
+        assertEquals(1, AdminWrites.deleteStaff("del", "deliverymen", "d001", null).size());
+    }
+
+    @Test
+    public void deleteBranch_cascadesToStaffUsersAndMenu() {
+        Map<String, Object> employees = new HashMap<>();
+        employees.put("e001", fields("branchID", "b002", "userID", "u001"));
+        employees.put("e002", fields("branchID", "b002", "userID", "u002"));
+        Map<String, Object> deliverymen = new HashMap<>();
+        deliverymen.put("d001", fields("branchID", "b002", "userID", "u010"));
+        deliverymen.put("d002", fields("branchID", "b003", "userID", "u011")); // not this branch
+
+        Map<String, Object> menu = new HashMap<>();
+        menu.put("m1", menuItem(Arrays.asList("b001", "b002"), BranchSet.of(Arrays.asList("b002")))); // listed + sold out here
+        menu.put("m2", menuItem(Arrays.asList("b001"), BranchSet.EMPTY));               // untouched
+        menu.put("m3", menuItem(Arrays.asList("b002"), BranchSet.EMPTY));               // only this branch
+
+        WriteBatch batch = AdminWrites.deleteBranch("b002", employees, deliverymen, menu);
+        Map<String, Object> updates = batch.updates();
+
+        assertTrue(updates.containsKey("branches/b002"));
+        for (String path : new String[]{"employees/e001", "employees/e002", "users/u001", "users/u002",
+                "deliverymen/d001", "users/u010"}) {
+            assertTrue(path, updates.containsKey(path));
+            assertNull(updates.get(path));
+        }
+        assertFalse(updates.containsKey("deliverymen/d002"));
+        assertFalse(updates.containsKey("users/u011"));
+
+        assertEquals(Arrays.asList("b001"), updates.get("menu/m1/branches"));
+        assertEquals(BranchSet.of(Arrays.asList("b001")).toWire(), updates.get("menu/m1/" + SnapshotMappers.MENU_BRANCH_BITS));
+        assertNull(updates.get("menu/m1/" + SnapshotMappers.MENU_SOLD_OUT_BITS));
+        assertTrue(updates.containsKey("menu/m1/" + SnapshotMappers.MENU_SOLD_OUT_BITS));
+        assertFalse(updates.containsKey("menu/m2/branches"));
+        assertEquals(new ArrayList<String>(), updates.get("menu/m3/branches"));
+
+        assertEquals(4, batch.roundTrips()); // 3 reads + 1 write, however many nodes change
+    }
+
+    @Test
+    public void deleteBranch_withNothingElse_isJustTheBranch() {
+        WriteBatch batch = AdminWrites.deleteBranch("b001", null, null, null);
+        assertEquals(1, batch.size());
+        assertTrue(batch.contains("branches/b001"));
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static void assertOverlap(WriteBatch batch, String path) {
+        try {
+            batch.set(path, "y");
+            fail("Expected overlap for " + path);
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+    }
+
+    private static Map<String, Object> fields(Object... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) map.put((String) keyValues[i], keyValues[i + 1]);
+        return map;
+    }
+
+    private static Map<String, Object> menuItem(List<String> branches, BranchSet soldOut) {
+        Map<String, Object> map = fields("name", "Pizza", "price", 1200.0, "branches", branches);
+        map.put(SnapshotMappers.MENU_BRANCH_BITS, BranchSet.of(branches).toWire());
+        if (!soldOut.isEmpty()) map.put(SnapshotMappers.MENU_SOLD_OUT_BITS, soldOut.toWire());
+        return map;
+    }
+}